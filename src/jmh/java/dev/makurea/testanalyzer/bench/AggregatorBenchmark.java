@@ -0,0 +1,112 @@
+package dev.makurea.testanalyzer.bench;
+
+import dev.makurea.testanalyzer.core.TestResult;
+import dev.makurea.testanalyzer.core.TestRunAggregator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Пропускная способность `TestRunAggregator.addResult` при 1, 8 и 64 потоках.
+ *
+ * Каждая итерация — пакет из {@link #BATCH_SIZE} добавлений в каждом потоке в свежий агрегатор,
+ * чтобы объем накопленных результатов (и нагрузка на GC) не рос от итерации к итерации.
+ * Результат — время пакета; `getAllResults` замеряет слияние буферов потоков: среднее время снимка
+ * {@link #BATCH_SIZE} результатов, разложенных по буферам 1 или 64 потоков ({@link Filled}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, batchSize = AggregatorBenchmark.BATCH_SIZE)
+@Measurement(iterations = 20, batchSize = AggregatorBenchmark.BATCH_SIZE)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class AggregatorBenchmark {
+
+  static final int BATCH_SIZE = 100_000;
+
+  private static final TestResult RESULT = TestResult.builder()
+      .testName("taggedTest()")
+      .testId("[engine:junit-jupiter]/[class:bench.SampleTest]/[method:taggedTest()]")
+      .className("bench.SampleTest")
+      .phase("TestMethod")
+      .durationNanos(1_000_000L)
+      .build();
+
+  private volatile TestRunAggregator aggregator;
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    aggregator = new TestRunAggregator();
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void addResult1Thread() {
+    aggregator.addResult(RESULT);
+  }
+
+  @Benchmark
+  @Threads(8)
+  public void addResult8Threads() {
+    aggregator.addResult(RESULT);
+  }
+
+  @Benchmark
+  @Threads(64)
+  public void addResult64Threads() {
+    aggregator.addResult(RESULT);
+  }
+
+  @Benchmark
+  @Threads(1)
+  @BenchmarkMode(Mode.AverageTime)
+  @Warmup(iterations = 3, time = 1, batchSize = 1)
+  @Measurement(iterations = 5, time = 1, batchSize = 1)
+  public List<TestResult> getAllResults(Filled filled) {
+    return filled.aggregator.getAllResults();
+  }
+
+  /**
+   * Агрегатор, заполненный {@link #BATCH_SIZE} результатами из `writers` потоков; не меняется во время замера.
+   */
+  @State(Scope.Benchmark)
+  public static class Filled {
+
+    @Param({"1", "64"})
+    int writers;
+
+    TestRunAggregator aggregator;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException {
+      aggregator = new TestRunAggregator();
+      List<Thread> threads = new ArrayList<>(writers);
+      for (int i = 0; i < writers; i++) {
+        int count = BATCH_SIZE / writers + (i < BATCH_SIZE % writers ? 1 : 0);
+        Thread thread = new Thread(() -> {
+          for (int j = 0; j < count; j++) {
+            aggregator.addResult(RESULT);
+          }
+        });
+        threads.add(thread);
+        thread.start();
+      }
+      for (Thread thread : threads) {
+        thread.join();
+      }
+    }
+  }
+}
@@ -0,0 +1,94 @@
+package dev.makurea.testanalyzer.bench;
+
+import dev.makurea.testanalyzer.core.TestResult;
+import dev.makurea.testanalyzer.metrics.MetricCollector;
+import dev.makurea.testanalyzer.metrics.MetricCollectorPipeline;
+import dev.makurea.testanalyzer.metrics.RetryCollector;
+import dev.makurea.testanalyzer.metrics.StatusCollector;
+import dev.makurea.testanalyzer.metrics.TagsCollector;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Стоимость цепочки `MetricCollector` и построения `TestResult` через Builder для одной фазы теста.
+ *
+ * `pipeline` — та же цепочка через {@link MetricCollectorPipeline} с учетом стоимости каждого сборщика.
+ * Параметр `failed` переключает сценарий упавшего теста, при котором `RetryCollector`
+ * обновляет реестр повторных попыток.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollectorChainBenchmark {
+
+  private final List<MetricCollector> collectors = Arrays.asList(
+      new StatusCollector(), new RetryCollector(), new TagsCollector());
+  private final MetricCollectorPipeline pipeline = new MetricCollectorPipeline(collectors, Collections.emptySet());
+
+  @Param({"false", "true"})
+  public boolean failed;
+
+  private StubExtensionContext context;
+  private Throwable failure;
+
+  @Setup
+  public void setUp() {
+    context = new StubExtensionContext("[engine:junit-jupiter]/[class:bench.SampleTest]/[method:taggedTest()]");
+    failure = failed ? new AssertionError("bench") : null;
+  }
+
+  @Benchmark
+  public TestResult builderOnly() {
+    return TestResult.builder()
+        .testName(context.getDisplayName())
+        .testId(context.getUniqueId())
+        .className(StubExtensionContext.SampleTest.class.getName())
+        .phase("TestMethod")
+        .durationNanos(1_000_000L)
+        .build();
+  }
+
+  @Benchmark
+  public TestResult collectorChain() {
+    context.reset(failure);
+    TestResult.Builder builder = TestResult.builder()
+        .testName(context.getDisplayName())
+        .testId(context.getUniqueId())
+        .className(StubExtensionContext.SampleTest.class.getName())
+        .phase("TestMethod")
+        .durationNanos(1_000_000L);
+    for (MetricCollector collector : collectors) {
+      collector.collect(context, builder);
+    }
+    return builder.build();
+  }
+
+  @Benchmark
+  public TestResult pipeline() {
+    context.reset(failure);
+    TestResult.Builder builder = TestResult.builder()
+        .testName(context.getDisplayName())
+        .testId(context.getUniqueId())
+        .className(StubExtensionContext.SampleTest.class.getName())
+        .phase("TestMethod")
+        .durationNanos(1_000_000L);
+    pipeline.collect(context, builder);
+    return builder.build();
+  }
+}
@@ -0,0 +1,86 @@
+package dev.makurea.testanalyzer.bench;
+
+import dev.makurea.testanalyzer.core.TestAnalyzerSession;
+import dev.makurea.testanalyzer.core.TestTimerExtension;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.extension.InvocationInterceptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Накладные расходы обратных вызовов `TestTimerExtension` на одно выполнение теста.
+ *
+ * Каждый обратный вызов замеряется отдельно, а `fullCycle` — вся последовательность
+ * beforeEach → перехват `@BeforeEach` → beforeTestExecution → перехват тестового метода → afterTestExecution →
+ * перехват `@AfterEach` → afterEach, как ее вызывает JUnit для теста с одним методом каждой фазы.
+ * Вывод строк в консоль и история прогонов отключены, чтобы замерять только само расширение;
+ * накопленные результаты очищаются после каждой итерации.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Dtestanalyzer.log.verbosity=off", "-Dtestanalyzer.history.enabled=false"})
+public class ExtensionCallbackBenchmark {
+
+  private static final InvocationInterceptor.Invocation<Void> NO_OP = () -> null;
+
+  private final TestTimerExtension extension = new TestTimerExtension();
+  private StubExtensionContext context;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = new StubExtensionContext("[engine:junit-jupiter]/[class:bench.SampleTest]/[method:taggedTest()]"
+        + "/[thread:" + Thread.currentThread().getId() + "]");
+  }
+
+  @TearDown(Level.Iteration)
+  public void clearResults() {
+    TestAnalyzerSession.aggregator().clearResults();
+  }
+
+  @Benchmark
+  public void beforeEach() {
+    extension.beforeEach(context);
+  }
+
+  @Benchmark
+  public void beforeTestExecution() {
+    extension.beforeTestExecution(context);
+  }
+
+  @Benchmark
+  public void afterTestExecution() {
+    context.reset(null);
+    extension.afterTestExecution(context);
+  }
+
+  @Benchmark
+  public void afterEach() {
+    context.reset(null);
+    extension.afterEach(context);
+  }
+
+  @Benchmark
+  public void fullCycle() throws Throwable {
+    context.reset(null);
+    extension.beforeEach(context);
+    extension.interceptBeforeEachMethod(NO_OP, null, context);
+    extension.beforeTestExecution(context);
+    extension.interceptTestMethod(NO_OP, null, context);
+    extension.afterTestExecution(context);
+    extension.interceptAfterEachMethod(NO_OP, null, context);
+    extension.afterEach(context);
+  }
+}
@@ -0,0 +1,87 @@
+package dev.makurea.testanalyzer.bench;
+
+import dev.makurea.testanalyzer.core.TestResult;
+import dev.makurea.testanalyzer.report.BinaryResultWriter;
+import dev.makurea.testanalyzer.report.ReportFormat;
+import dev.makurea.testanalyzer.report.ReportGenerator;
+import dev.makurea.testanalyzer.report.ReportLayout;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Время создания отчёта по 10 тыс., 100 тыс. и 1 млн результатов.
+ *
+ * `generateJson` и `generateNdjson` замеряют полный путь `ReportGenerator` (файл данных и HTML);
+ * файлы пишутся в `build/test-analyzer-reports` относительно рабочего каталога задачи `jmh`.
+ * `binary` замеряет запись бинарного колоночного формата.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dtestanalyzer.history.enabled=false"})
+public class ReportSerializationBenchmark {
+
+  @Param({"10000", "100000", "1000000"})
+  public int results;
+
+  private List<TestResult> data;
+  private ReportGenerator jsonGenerator;
+  private ReportGenerator ndjsonGenerator;
+  private File binaryFile;
+
+  @Setup
+  public void setUp() throws IOException {
+    data = new ArrayList<>(results);
+    List<String> tags = Arrays.asList("fast", "bench");
+    for (int i = 0; i < results; i++) {
+      String className = "bench.SampleTest" + (i % 100);
+      String testName = "test" + i + "()";
+      data.add(TestResult.builder()
+          .testName(testName)
+          .testId("[engine:junit-jupiter]/[class:" + className + "]/[method:" + testName + "]")
+          .className(className)
+          .phase(i % 2 == 0 ? "TestMethod" : "BeforeEach")
+          .durationNanos(1_000L * (i % 5_000))
+          .status(i % 50 == 0 ? "FAILED" : "PASSED")
+          .tags(tags)
+          .allocatedBytes(4096L * (i % 10))
+          .build());
+    }
+    jsonGenerator = new ReportGenerator(ReportFormat.JSON, false, ReportLayout.SINGLE, 5000);
+    ndjsonGenerator = new ReportGenerator(ReportFormat.NDJSON, false, ReportLayout.SINGLE, 5000);
+    binaryFile = File.createTempFile("test-analyzer-bench", ".bin");
+    binaryFile.deleteOnExit();
+  }
+
+  @Benchmark
+  public void generateJson() {
+    jsonGenerator.generateReport(data);
+  }
+
+  @Benchmark
+  public void generateNdjson() {
+    ndjsonGenerator.generateReport(data);
+  }
+
+  @Benchmark
+  public void binary() throws IOException {
+    new BinaryResultWriter().write(binaryFile, data);
+  }
+}
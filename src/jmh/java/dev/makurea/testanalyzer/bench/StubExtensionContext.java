@@ -0,0 +1,192 @@
+package dev.makurea.testanalyzer.bench;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.ExecutableInvoker;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.TestInstances;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+/*
+ * Минимальная реализация `ExtensionContext` для бенчмарков: контекст одного выполнения
+ * тестового метода {@link SampleTest#taggedTest()} без запуска JUnit.
+ *
+ * Хранилище (`Store`) общее для всех пространств имен и очищается {@link #reset()},
+ * что соответствует новому контексту для каждого выполнения теста в JUnit.
+ */
+final class StubExtensionContext implements ExtensionContext {
+
+  private static final Method TEST_METHOD = resolveTestMethod();
+
+  private final String uniqueId;
+  private final MapStore store = new MapStore();
+  private Throwable executionException;
+
+  StubExtensionContext(String uniqueId) {
+    this.uniqueId = uniqueId;
+  }
+
+  /**
+   * Подготавливает контекст к следующему выполнению теста.
+   *
+   * @param failure Исключение выполнения или null, если тест прошел успешно.
+   */
+  void reset(Throwable failure) {
+    store.values.clear();
+    executionException = failure;
+  }
+
+  @Override
+  public Optional<ExtensionContext> getParent() {
+    return Optional.empty();
+  }
+
+  @Override
+  public ExtensionContext getRoot() {
+    return this;
+  }
+
+  @Override
+  public String getUniqueId() {
+    return uniqueId;
+  }
+
+  @Override
+  public String getDisplayName() {
+    return "taggedTest()";
+  }
+
+  @Override
+  public Set<String> getTags() {
+    return Collections.emptySet();
+  }
+
+  @Override
+  public Optional<AnnotatedElement> getElement() {
+    return Optional.of(TEST_METHOD);
+  }
+
+  @Override
+  public Optional<Class<?>> getTestClass() {
+    return Optional.of(SampleTest.class);
+  }
+
+  @Override
+  public Optional<TestInstance.Lifecycle> getTestInstanceLifecycle() {
+    return Optional.of(TestInstance.Lifecycle.PER_METHOD);
+  }
+
+  @Override
+  public Optional<Object> getTestInstance() {
+    return Optional.empty();
+  }
+
+  @Override
+  public Optional<TestInstances> getTestInstances() {
+    return Optional.empty();
+  }
+
+  @Override
+  public Optional<Method> getTestMethod() {
+    return Optional.of(TEST_METHOD);
+  }
+
+  @Override
+  public Optional<Throwable> getExecutionException() {
+    return Optional.ofNullable(executionException);
+  }
+
+  @Override
+  public Optional<String> getConfigurationParameter(String key) {
+    return Optional.empty();
+  }
+
+  @Override
+  public <T> Optional<T> getConfigurationParameter(String key, Function<String, T> transformer) {
+    return Optional.empty();
+  }
+
+  @Override
+  public void publishReportEntry(Map<String, String> map) {
+  }
+
+  @Override
+  public Store getStore(Namespace namespace) {
+    return store;
+  }
+
+  @Override
+  public ExecutionMode getExecutionMode() {
+    return ExecutionMode.CONCURRENT;
+  }
+
+  @Override
+  public ExecutableInvoker getExecutableInvoker() {
+    throw new UnsupportedOperationException();
+  }
+
+  private static Method resolveTestMethod() {
+    try {
+      return SampleTest.class.getDeclaredMethod("taggedTest");
+    } catch (NoSuchMethodException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Тестовый класс, метаданные которого читают сборщики метрик.
+   */
+  static class SampleTest {
+    @Tag("fast")
+    @Tag("bench")
+    void taggedTest() {
+    }
+  }
+
+  private static final class MapStore implements Store {
+    final Map<Object, Object> values = new HashMap<>();
+
+    @Override
+    public Object get(Object key) {
+      return values.get(key);
+    }
+
+    @Override
+    public <V> V get(Object key, Class<V> requiredType) {
+      return requiredType.cast(values.get(key));
+    }
+
+    @Override
+    public <K, V> Object getOrComputeIfAbsent(K key, Function<K, V> defaultCreator) {
+      return values.computeIfAbsent(key, k -> defaultCreator.apply(key));
+    }
+
+    @Override
+    public <K, V> V getOrComputeIfAbsent(K key, Function<K, V> defaultCreator, Class<V> requiredType) {
+      return requiredType.cast(getOrComputeIfAbsent(key, defaultCreator));
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+      values.put(key, value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+      return values.remove(key);
+    }
+
+    @Override
+    public <V> V remove(Object key, Class<V> requiredType) {
+      return requiredType.cast(values.remove(key));
+    }
+  }
+}
@@ -0,0 +1,128 @@
+package dev.makurea.testanalyzer.core;
+
+import java.util.Locale;
+
+/*
+ * Класс `TestAnalyzerConfig` предоставляет единый доступ к настройкам библиотеки.
+ * Все настройки задаются системными свойствами JVM с префиксом `testanalyzer.`,
+ * например `-Dtestanalyzer.report.mode=streaming`. В Gradle их можно передать
+ * в тестовую JVM через `test { systemProperty 'testanalyzer.report.mode', 'streaming' }`.
+ *
+ * Некорректные значения не прерывают тестовый прогон: вместо них используется значение по умолчанию.
+ */
+public final class TestAnalyzerConfig {
+
+  private static final String PREFIX = "testanalyzer.";
+
+  private TestAnalyzerConfig() {}
+
+  /**
+   * Возвращает строковое значение настройки.
+   *
+   * @param key          Ключ настройки без префикса `testanalyzer.`.
+   * @param defaultValue Значение по умолчанию.
+   * @return Значение настройки или значение по умолчанию, если настройка не задана или пуста.
+   */
+  public static String getString(String key, String defaultValue) {
+    String value = System.getProperty(PREFIX + key);
+    return value == null || value.trim().isEmpty() ? defaultValue : value.trim();
+  }
+
+  /**
+   * Возвращает логическое значение настройки.
+   *
+   * @param key          Ключ настройки без префикса `testanalyzer.`.
+   * @param defaultValue Значение по умолчанию.
+   * @return Значение настройки или значение по умолчанию.
+   */
+  public static boolean getBoolean(String key, boolean defaultValue) {
+    String value = getString(key, null);
+    return value == null ? defaultValue : Boolean.parseBoolean(value);
+  }
+
+  /**
+   * Возвращает целочисленное значение настройки.
+   *
+   * @param key          Ключ настройки без префикса `testanalyzer.`.
+   * @param defaultValue Значение по умолчанию.
+   * @return Значение настройки или значение по умолчанию, если значение не является числом.
+   */
+  public static int getInt(String key, int defaultValue) {
+    String value = getString(key, null);
+    if (value == null) {
+      return defaultValue;
+    }
+    try {
+      return Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      System.err.println("[TestAnalyzer] Некорректное значение " + PREFIX + key + ": " + value);
+      return defaultValue;
+    }
+  }
+
+  /**
+   * Возвращает значение настройки типа long.
+   *
+   * @param key          Ключ настройки без префикса `testanalyzer.`.
+   * @param defaultValue Значение по умолчанию.
+   * @return Значение настройки или значение по умолчанию, если значение не является числом.
+   */
+  public static long getLong(String key, long defaultValue) {
+    String value = getString(key, null);
+    if (value == null) {
+      return defaultValue;
+    }
+    try {
+      return Long.parseLong(value);
+    } catch (NumberFormatException e) {
+      System.err.println("[TestAnalyzer] Некорректное значение " + PREFIX + key + ": " + value);
+      return defaultValue;
+    }
+  }
+
+  /**
+   * Возвращает дробное значение настройки.
+   *
+   * @param key          Ключ настройки без префикса `testanalyzer.`.
+   * @param defaultValue Значение по умолчанию.
+   * @return Значение настройки или значение по умолчанию, если значение не является числом.
+   */
+  public static double getDouble(String key, double defaultValue) {
+    String value = getString(key, null);
+    if (value == null) {
+      return defaultValue;
+    }
+    try {
+      return Double.parseDouble(value);
+    } catch (NumberFormatException e) {
+      System.err.println("[TestAnalyzer] Некорректное значение " + PREFIX + key + ": " + value);
+      return defaultValue;
+    }
+  }
+
+  /**
+   * Возвращает значение настройки в виде константы перечисления.
+   * Регистр, дефисы и подчеркивания не учитываются: `ndjson`, `NDJSON` и `nd-json` равнозначны для константы `NDJSON`,
+   * а `shortest-first` соответствует `SHORTEST_FIRST`.
+   *
+   * @param key          Ключ настройки без префикса `testanalyzer.`.
+   * @param type         Класс перечисления.
+   * @param defaultValue Значение по умолчанию.
+   * @param <E>          Тип перечисления.
+   * @return Значение настройки или значение по умолчанию, если такой константы нет.
+   */
+  public static <E extends Enum<E>> E getEnum(String key, Class<E> type, E defaultValue) {
+    String value = getString(key, null);
+    if (value == null) {
+      return defaultValue;
+    }
+    String normalized = value.toUpperCase(Locale.ROOT).replace("-", "").replace("_", "");
+    for (E constant : type.getEnumConstants()) {
+      if (constant.name().replace("_", "").equals(normalized)) {
+        return constant;
+      }
+    }
+    System.err.println("[TestAnalyzer] Некорректное значение " + PREFIX + key + ": " + value);
+    return defaultValue;
+  }
+}
@@ -0,0 +1,475 @@
+package dev.makurea.testanalyzer.core;
+
+import dev.makurea.testanalyzer.history.HistoryRecorder;
+import dev.makurea.testanalyzer.history.Regression;
+import dev.makurea.testanalyzer.leak.LeakDetector;
+import dev.makurea.testanalyzer.leak.LeakReport;
+import dev.makurea.testanalyzer.live.LiveMetrics;
+import dev.makurea.testanalyzer.live.LiveMetricsExporter;
+import dev.makurea.testanalyzer.log.LogSink;
+import dev.makurea.testanalyzer.metrics.CollectorCost;
+import dev.makurea.testanalyzer.metrics.MetricCollectorPipeline;
+import dev.makurea.testanalyzer.order.OrderIndex;
+import dev.makurea.testanalyzer.profiler.SamplingProfiler;
+import dev.makurea.testanalyzer.report.ForkFiles;
+import dev.makurea.testanalyzer.report.ReportGenerator;
+import dev.makurea.testanalyzer.report.ReportMode;
+import dev.makurea.testanalyzer.report.StreamingReportWriter;
+import dev.makurea.testanalyzer.schedule.ScheduleRecorder;
+import dev.makurea.testanalyzer.stats.StatsAggregator;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * Класс `TestAnalyzerSession` хранит состояние, общее для всего тестового прогона в JVM:
+ * агрегатор результатов, потоковый писатель и генератор отчёта.
+ *
+ * Экземпляры `TestTimerExtension` создаются JUnit отдельно для каждого тестового класса,
+ * поэтому все они передают результаты сюда. Когда на classpath присутствует JUnit Platform Launcher,
+ * начало и конец прогона сообщает {@link TestAnalyzerSessionListener}, и отчёт создается ровно один раз —
+ * при закрытии сессии. Без сессии (например, при запуске старыми средами) отчёт, как и раньше,
+ * обновляется после каждого тестового класса, но содержит результаты всех уже выполненных классов.
+ *
+ * В режиме `testanalyzer.report.mode=streaming` результаты дописываются в файл по мере поступления
+ * (инкрементальный режим для очень больших прогонов) и не накапливаются в памяти.
+ * Независимо от режима по мере поступления результатов ведется статистика длительностей ({@link StatsAggregator}),
+ * а в режиме `testanalyzer.report.mode=summary` в отчёт попадает только она, без самих результатов.
+ * Так же, без хранения результатов, собирается временная шкала выполнения классов по потокам ({@link ScheduleRecorder}).
+ *
+ * Процесс параллельного прогона (`testanalyzer.report.forkId`) при запуске присоединяется к прогону ({@link ForkFiles}):
+ * первый процесс нового прогона удаляет файлы процессов прошлого.
+ *
+ * На границах тестовых классов снимаются уровни ресурсов JVM для поиска утечек ({@link LeakDetector}).
+ *
+ * Ход прогона можно наблюдать до создания отчёта через экспорт счетчиков в формате Prometheus ({@link LiveMetricsExporter}).
+ *
+ * По завершении прогона длительности тестов сохраняются в историю ({@link HistoryRecorder}),
+ * по которой ищутся регрессии относительно предыдущих прогонов. Процессы параллельного прогона
+ * (`testanalyzer.report.forkId`) историю не ведут: ее пополняет утилита слияния их файлов.
+ */
+public final class TestAnalyzerSession {
+
+  // Режим записи данных отчёта: накопление в памяти или потоковая запись
+  private static final ReportMode REPORT_MODE =
+      TestAnalyzerConfig.getEnum("report.mode", ReportMode.class, ReportMode.BATCH);
+  // Емкость очереди потоковой записи
+  private static final int STREAMING_QUEUE_CAPACITY = TestAnalyzerConfig.getInt("report.queueCapacity", 8192);
+
+  // Создавать ли отчёт после классов вне сессии в фоновом потоке
+  private static final boolean REPORT_ASYNC = TestAnalyzerConfig.getBoolean("report.async", true);
+
+  // Отметка System.nanoTime(), от которой отсчитываются моменты начала и окончания фаз
+  private static final long START_NANOS = System.nanoTime();
+
+  // Агрегатор для сбора всех результатов тестов за один прогон
+  private static final TestRunAggregator AGGREGATOR = new TestRunAggregator();
+  // Генератор для создания HTML-отчета
+  private static final ReportGenerator REPORT_GENERATOR = new ReportGenerator();
+  // Блокировка для операций записи отчёта целиком
+  private static final Object REPORT_LOCK = new Object();
+  // Цепочка сборщиков метрик, общая для всех тестовых классов, с учетом стоимости каждого сборщика
+  private static final MetricCollectorPipeline COLLECTORS = MetricCollectorPipeline.fromConfig();
+  // Приемник строк о фазах тестов для вывода в консоль
+  private static final LogSink LOG = LogSink.fromConfig();
+  // Выборочный профилировщик медленных тестов; null, если отключен (по умолчанию)
+  private static final SamplingProfiler PROFILER =
+      SamplingProfiler.isEnabled()
+          ? new SamplingProfiler(new File(ReportGenerator.OUTPUT_DIR), REPORT_GENERATOR.getForkId()) : null;
+  // Потоковая статистика длительностей; null, если отключена (в режиме summary включена всегда)
+  private static final StatsAggregator STATS =
+      StatsAggregator.isEnabled() || REPORT_MODE == ReportMode.SUMMARY ? new StatsAggregator() : null;
+  // Временная шкала выполнения классов по потокам; null, если анализ отключен
+  private static final ScheduleRecorder SCHEDULE = ScheduleRecorder.isEnabled() ? new ScheduleRecorder() : null;
+  // Поиск утечек потоков, дескрипторов и памяти по классам; null, если отключен
+  private static final LeakDetector LEAKS = LeakDetector.isEnabled() ? new LeakDetector() : null;
+  // Экспорт счетчиков выполняющегося прогона; null, если отключен (по умолчанию)
+  private static final LiveMetricsExporter LIVE = LiveMetricsExporter.isEnabled() ? LiveMetricsExporter.start() : null;
+  // История длительностей по прогонам; null, если отключена или это один из процессов параллельного прогона
+  private static final HistoryRecorder HISTORY = HistoryRecorder.isEnabled() && REPORT_GENERATOR.getForkId() == null
+      ? new HistoryRecorder(new File(ReportGenerator.OUTPUT_DIR)) : null;
+
+  // Признак того, что прогон управляется сессией JUnit Platform Launcher
+  private static volatile boolean sessionActive;
+  // Потоковый писатель текущего прогона; создается при первом результате
+  private static volatile StreamingReportWriter streamingWriter;
+  // Признак того, что открыть потоковую запись не удалось и повторять попытки не нужно
+  private static volatile boolean streamingUnavailable;
+  // Публиковались ли результаты в текущей сессии; без них стоимость сборщиков не записывается и не печатается
+  private static volatile boolean resultsPublished;
+
+  static {
+    if (REPORT_GENERATOR.getForkId() != null) {
+      // Первый процесс прогона пополняет индекс порядка тестов файлами прошлого прогона до их удаления;
+      // остальные процессы читают уже пополненный индекс и не учитывают недописанные файлы текущего прогона
+      ForkFiles.joinRun(new File(ReportGenerator.OUTPUT_DIR), OrderIndex::shared);
+    }
+    // Хуки завершения JVM выполняются параллельно и в неопределенном порядке, поэтому хук один
+    Runtime.getRuntime().addShutdownHook(new Thread(TestAnalyzerSession::shutdown, "test-analyzer-shutdown"));
+  }
+
+  private TestAnalyzerSession() {}
+
+  /**
+   * Переводит отметку `System.nanoTime()` в момент прогона: наносекунды от инициализации сессии в этой JVM.
+   *
+   * @param nanoTime Отметка `System.nanoTime()`.
+   * @return Наносекунды от начала прогона.
+   */
+  public static long elapsedNanos(long nanoTime) {
+    return nanoTime - START_NANOS;
+  }
+
+  /**
+   * Отмечает начало сессии запуска тестов. Вызывается {@link TestAnalyzerSessionListener}.
+   */
+  public static void open() {
+    sessionActive = true;
+  }
+
+  /**
+   * Завершает сессию запуска тестов: однократно создает итоговый отчёт по всем собранным результатам
+   * и подготавливает состояние к следующей сессии. Вызывается {@link TestAnalyzerSessionListener}.
+   */
+  public static void close() {
+    LOG.flush(); // Строки о тестах выводим до сообщений об отчёте
+    if (PROFILER != null) {
+      PROFILER.flush(); // Файлы профилей, на которые ссылается отчёт, должны быть записаны
+    }
+    synchronized (REPORT_LOCK) {
+      if (HISTORY != null) {
+        finishHistory(); // Регрессии записываются до страницы, чтобы попасть во встроенный отчёт
+      }
+      writeReport(true);
+      printCollectorCosts();
+      resultsPublished = false;
+      sessionActive = false;
+    }
+  }
+
+  /**
+   * Проверяет, управляется ли текущий прогон сессией JUnit Platform Launcher.
+   *
+   * @return true, если отчёт будет создан при закрытии сессии.
+   */
+  public static boolean isSessionActive() {
+    return sessionActive;
+  }
+
+  /**
+   * Передает результат фазы теста в хранилище, соответствующее режиму отчёта.
+   * Метод может вызываться одновременно из любого количества потоков.
+   *
+   * @param result Результат фазы теста.
+   */
+  public static void publish(TestResult result) {
+    if (!resultsPublished) {
+      resultsPublished = true; // Запись только при первом результате, чтобы не нагружать общий флаг
+    }
+    if (LIVE != null) {
+      LIVE.metrics().record(result);
+    }
+    if (HISTORY != null) {
+      HISTORY.record(result);
+    }
+    if (SCHEDULE != null) {
+      SCHEDULE.record(result);
+    }
+    if (STATS != null) {
+      STATS.record(result);
+      if (REPORT_MODE == ReportMode.SUMMARY) {
+        return; // Сами результаты в этом режиме не хранятся
+      }
+    }
+    if (REPORT_MODE == ReportMode.STREAMING && !streamingUnavailable) {
+      StreamingReportWriter writer = streamingWriter();
+      if (writer != null) {
+        writer.append(result);
+        return;
+      }
+    }
+    AGGREGATOR.addResult(result);
+  }
+
+  /**
+   * Возвращает цепочку сборщиков метрик прогона.
+   *
+   * @return {@link MetricCollectorPipeline} прогона.
+   */
+  public static MetricCollectorPipeline collectors() {
+    return COLLECTORS;
+  }
+
+  /**
+   * Возвращает выборочный профилировщик прогона.
+   *
+   * @return {@link SamplingProfiler} или null, если профилирование отключено.
+   */
+  public static SamplingProfiler profiler() {
+    return PROFILER;
+  }
+
+  /**
+   * Возвращает счетчики выполняющегося прогона.
+   *
+   * @return {@link LiveMetrics} или null, если экспорт счетчиков отключен.
+   */
+  public static LiveMetrics liveMetrics() {
+    return LIVE != null ? LIVE.metrics() : null;
+  }
+
+  /**
+   * Возвращает детектор утечек ресурсов прогона.
+   *
+   * @return {@link LeakDetector} или null, если поиск утечек отключен.
+   */
+  public static LeakDetector leaks() {
+    return LEAKS;
+  }
+
+  /**
+   * Возвращает приемник строк о фазах тестов, выбранный настройкой `testanalyzer.log.verbosity`.
+   *
+   * @return {@link LogSink} прогона.
+   */
+  public static LogSink log() {
+    return LOG;
+  }
+
+  /**
+   * Возвращает агрегатор результатов текущего прогона.
+   *
+   * @return {@link TestRunAggregator} прогона.
+   */
+  public static TestRunAggregator aggregator() {
+    return AGGREGATOR;
+  }
+
+  /**
+   * Сообщает о завершении тестового класса. Если сессия не активна, обновляет отчёт
+   * по всем результатам, собранным к этому моменту. Отчёт создается в фоновом потоке,
+   * чтобы не задерживать следующий класс (если не задано `testanalyzer.report.async=false`).
+   */
+  static void classFinished() {
+    if (sessionActive) {
+      return; // Отчёт будет создан один раз при закрытии сессии
+    }
+    if (REPORT_ASYNC) {
+      BackgroundReport.request();
+      return;
+    }
+    synchronized (REPORT_LOCK) {
+      writeReport(false);
+    }
+  }
+
+  /**
+   * Записывает отчёт. Вызывается под {@link #REPORT_LOCK}.
+   *
+   * @param finalReport true, если это итоговый отчёт сессии и после него состояние нужно сбросить.
+   */
+  private static void writeReport(boolean finalReport) {
+    List<CollectorCost> costs = collectorCosts();
+    if (!costs.isEmpty()) {
+      REPORT_GENERATOR.writeCollectorCosts(costs);
+    }
+    boolean summaryWritten = false;
+    if (STATS != null && !STATS.isEmpty()) {
+      REPORT_GENERATOR.writeSummary(STATS.summary());
+      summaryWritten = true;
+      if (finalReport) {
+        STATS.reset();
+      }
+    }
+    if (SCHEDULE != null && !SCHEDULE.isEmpty()) {
+      REPORT_GENERATOR.writeSchedule(SCHEDULE.analyze());
+      if (finalReport) {
+        SCHEDULE.reset();
+      }
+    }
+    if (LEAKS != null && !LEAKS.isEmpty()) {
+      LeakReport leaks = LEAKS.analyze();
+      REPORT_GENERATOR.writeLeaks(leaks);
+      if (finalReport) {
+        LeakDetector.printSuspects(leaks);
+        LEAKS.reset();
+      }
+    }
+    // Страница создается после всех файлов данных, чтобы встроенный отчёт содержал их все
+    if (REPORT_MODE == ReportMode.SUMMARY) {
+      if (summaryWritten) {
+        REPORT_GENERATOR.generateSummaryReport();
+      }
+      return;
+    }
+    StreamingReportWriter writer = streamingWriter;
+    if (writer != null) {
+      // Данные уже в файле, HTML создан при открытии писателя; без сессии писатель закроет хук завершения JVM
+      if (finalReport) {
+        closeQuietly(writer);
+        streamingWriter = null;
+      }
+      return;
+    }
+    List<TestResult> results = AGGREGATOR.getAllResults();
+    if (results.isEmpty()) {
+      return; // Например, сессия, в которой выполнялось только обнаружение тестов
+    }
+    REPORT_GENERATOR.generateReport(results);
+    if (finalReport) {
+      AGGREGATOR.clearResults();
+    }
+  }
+
+  /**
+   * Возвращает потоковый писатель прогона, открывая его при первом обращении.
+   * Если открыть файл не удалось, возвращается null и результаты накапливаются в памяти,
+   * как в пакетном режиме.
+   *
+   * @return Потоковый писатель или null.
+   */
+  private static StreamingReportWriter streamingWriter() {
+    StreamingReportWriter writer = streamingWriter;
+    if (writer == null) {
+      synchronized (REPORT_LOCK) {
+        writer = streamingWriter;
+        if (writer == null) {
+          try {
+            writer = REPORT_GENERATOR.openStreamingWriter(STREAMING_QUEUE_CAPACITY);
+          } catch (IOException e) {
+            System.err.println("[TestAnalyzer] Не удалось открыть потоковую запись отчёта, используется пакетный режим");
+            e.printStackTrace();
+            streamingUnavailable = true;
+            return null;
+          }
+          streamingWriter = writer;
+        }
+      }
+    }
+    return writer;
+  }
+
+  /**
+   * Завершение JVM: дожидается фонового отчёта, сохраняет историю (без сессии прогон завершается вместе
+   * с JVM; при активной сессии история уже сохранена в close()), дописывает потоковый отчёт, если сессия
+   * не была закрыта, и только затем останавливает профилировщик, экспорт метрик (он работает до конца,
+   * чтобы итоговые значения можно было успеть снять) и консольный вывод. Ошибка одного шага
+   * не отменяет следующие.
+   */
+  private static void shutdown() {
+    runShutdownStep("фоновый отчёт", BackgroundReport::join);
+    if (HISTORY != null) {
+      runShutdownStep("история", TestAnalyzerSession::finishHistory);
+    }
+    runShutdownStep("потоковый отчёт", () -> {
+      StreamingReportWriter writer = streamingWriter;
+      if (writer != null) {
+        closeQuietly(writer);
+      }
+    });
+    if (PROFILER != null) {
+      runShutdownStep("профилировщик", PROFILER::close);
+    }
+    if (LIVE != null) {
+      runShutdownStep("экспорт метрик", LIVE::close);
+    }
+    // Последним, чтобы строки предыдущих шагов тоже были выведены
+    runShutdownStep("консольный вывод", LOG::close);
+  }
+
+  private static void runShutdownStep(String name, Runnable step) {
+    try {
+      step.run();
+    } catch (RuntimeException e) {
+      System.err.println("[TestAnalyzer] Ошибка при завершении (" + name + "): " + e);
+    }
+  }
+
+  /**
+   * Сохраняет прогон в историю и записывает найденные регрессии рядом с отчётом.
+   */
+  private static void finishHistory() {
+    List<Regression> regressions = HISTORY.finish();
+    if (regressions != null) {
+      REPORT_GENERATOR.writeRegressions(regressions);
+    }
+  }
+
+  /**
+   * Стоимость сборщиков, если в сессии публиковались результаты и хотя бы один сборщик вызывался.
+   * Иначе (сессия только обнаружения тестов, проект без {@link TestTimerExtension}) — пустой список.
+   */
+  private static List<CollectorCost> collectorCosts() {
+    if (!resultsPublished) {
+      return Collections.emptyList();
+    }
+    List<CollectorCost> costs = COLLECTORS.costs();
+    for (CollectorCost cost : costs) {
+      if (cost.getInvocations() > 0) {
+        return costs;
+      }
+    }
+    return Collections.emptyList();
+  }
+
+  private static void printCollectorCosts() {
+    List<CollectorCost> costs = collectorCosts();
+    if (costs.isEmpty()) {
+      return;
+    }
+    StringBuilder line = new StringBuilder("[TestAnalyzer] Стоимость сборщиков метрик:");
+    for (CollectorCost cost : costs) {
+      line.append(String.format(" %s %.3f ms (%d выз.);", cost.getName(), cost.getTotalMs(), cost.getInvocations()));
+    }
+    System.out.println(line);
+  }
+
+  private static void closeQuietly(StreamingReportWriter writer) {
+    try {
+      writer.close();
+    } catch (IOException e) {
+      System.err.println("[TestAnalyzer] Ошибка при завершении потоковой записи отчёта");
+    }
+  }
+
+  /**
+   * Фоновый поток, создающий отчёт после тестовых классов вне сессии. Запросы, поступившие, пока отчёт
+   * ожидает очереди, объединяются: отчёт все равно строится по всем результатам на момент начала.
+   * Перед завершением JVM ожидается окончание последнего отчёта.
+   */
+  private static final class BackgroundReport {
+    private static final AtomicBoolean PENDING = new AtomicBoolean();
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "test-analyzer-report");
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    static void request() {
+      if (PENDING.compareAndSet(false, true)) {
+        EXECUTOR.execute(() -> {
+          PENDING.set(false);
+          synchronized (REPORT_LOCK) {
+            writeReport(false);
+          }
+        });
+      }
+    }
+
+    private static void join() {
+      EXECUTOR.shutdown();
+      try {
+        if (!EXECUTOR.awaitTermination(60, TimeUnit.SECONDS)) {
+          System.err.println("[TestAnalyzer] Создание отчёта не завершилось за 60 с");
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
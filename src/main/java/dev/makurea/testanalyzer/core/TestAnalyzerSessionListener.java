@@ -0,0 +1,24 @@
+package dev.makurea.testanalyzer.core;
+
+import org.junit.platform.launcher.LauncherSession;
+import org.junit.platform.launcher.LauncherSessionListener;
+
+/*
+ * Слушатель `TestAnalyzerSessionListener` связывает {@link TestAnalyzerSession} с жизненным циклом
+ * сессии JUnit Platform Launcher. Он регистрируется автоматически через
+ * `META-INF/services/org.junit.platform.launcher.LauncherSessionListener`,
+ * поэтому отчёт по всему прогону создается один раз — при закрытии сессии,
+ * а не после каждого тестового класса.
+ */
+public class TestAnalyzerSessionListener implements LauncherSessionListener {
+
+  @Override
+  public void launcherSessionOpened(LauncherSession session) {
+    TestAnalyzerSession.open();
+  }
+
+  @Override
+  public void launcherSessionClosed(LauncherSession session) {
+    TestAnalyzerSession.close();
+  }
+}
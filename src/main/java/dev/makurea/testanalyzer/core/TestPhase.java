@@ -0,0 +1,32 @@
+package dev.makurea.testanalyzer.core;
+
+/*
+ * Класс `TestPhase` — имена фаз жизненного цикла теста, которые записываются в {@link TestResult#getPhase()}.
+ *
+ * Фазы одного теста: создание экземпляра тестового класса (Constructor), методы `@BeforeEach`,
+ * сам тестовый метод (TestMethod) и методы `@AfterEach`. Фазы класса относятся ко всему тестовому классу
+ * и записываются с идентификатором класса: методы `@BeforeAll`, методы `@AfterAll` и создание экземпляра
+ * при жизненном цикле `PER_CLASS` (ClassConstructor).
+ */
+public final class TestPhase {
+
+  public static final String CONSTRUCTOR = "Constructor";
+  public static final String BEFORE_EACH = "BeforeEach";
+  public static final String TEST_METHOD = "TestMethod";
+  public static final String AFTER_EACH = "AfterEach";
+  public static final String CLASS_CONSTRUCTOR = "ClassConstructor";
+  public static final String BEFORE_ALL = "BeforeAll";
+  public static final String AFTER_ALL = "AfterAll";
+
+  private TestPhase() {}
+
+  /**
+   * Проверяет, относится ли фаза ко всему тестовому классу, а не к отдельному тесту.
+   *
+   * @param phase Имя фазы.
+   * @return true для фаз BeforeAll, AfterAll и ClassConstructor.
+   */
+  public static boolean isClassPhase(String phase) {
+    return BEFORE_ALL.equals(phase) || AFTER_ALL.equals(phase) || CLASS_CONSTRUCTOR.equals(phase);
+  }
+}
@@ -1,16 +1,25 @@
 package dev.makurea.testanalyzer.core;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
 /*
  *
  * Immutable-класс `TestResult` предназначен для хранения всех собранных метрик
  * и атрибутов, связанных с выполнением одного этапа (фазы) теста.
- * Он инкапсулирует такие данные, как имя теста, фаза выполнения (например, BeforeEach, TestMethod),
- * длительность, статус, количество повторных попыток, связанные теги,
- * а также потребление памяти до и после выполнения.
+ * Он инкапсулирует такие данные, как имя теста, его класс и уникальный идентификатор, фаза выполнения (например, BeforeEach, TestMethod),
+ * длительность (с наносекундной точностью), статус, количество повторных попыток, связанные теги,
+ * а также потребление памяти: выделенные потоком байты, сборки мусора во время фазы
+ * и (для совместимости) общий объем занятой памяти до и после выполнения, процессорное время потока теста,
+ * его блокировки и ожидания, а также количество живых потоков JVM до и после фазы.
+ * Для анализа параллельного выполнения хранятся отметки начала и конца фазы и имя выполнявшего ее потока.
+ * Произвольные метрики подключаемых сборщиков ({@link dev.makurea.testanalyzer.metrics.MetricCollector})
+ * хранятся в отдельной карте «ключ — значение».
  *
  * Этот класс использует паттерн "Строитель" (Builder) для удобного и безопасного создания своих экземпляров.
  * Это позволяет создавать объекты `TestResult` с большим количеством параметров,
@@ -20,14 +29,33 @@ import java.util.Objects;
  */
 public class TestResult {
   private final String testName;
+  private final String testId;
+  private final String className;
   private final String phase;
   private final long durationMs;
+  private final long durationNanos;
   private final String status;
   private final int retryCount;
   private final List<String> tags;
   private final boolean isNegative;
   private final long memoryBefore;
   private final long memoryAfter;
+  private final long allocatedBytes;
+  private final long gcCount;
+  private final long gcTimeMs;
+  private final long cpuTimeNanos;
+  private final long userTimeNanos;
+  private final long blockedCount;
+  private final long blockedTimeMs;
+  private final long waitedCount;
+  private final long waitedTimeMs;
+  private final long liveThreadsBefore;
+  private final long liveThreadsAfter;
+  private final String profileFile;
+  private final long startNanos;
+  private final long endNanos;
+  private final String threadName;
+  private final Map<String, Object> metrics;
 
   /**
    * Приватный конструктор для создания `TestResult` через Builder.
@@ -39,14 +67,34 @@ public class TestResult {
   private TestResult(Builder builder) {
     this.testName = Objects.requireNonNull(builder.testName, "Test name cannot be null");
     this.phase = Objects.requireNonNull(builder.phase, "Phase cannot be null");
+    this.testId = builder.testId;
+    this.className = builder.className;
     this.durationMs = builder.durationMs;
+    this.durationNanos = builder.durationNanos;
     this.status = builder.status;
     this.retryCount = builder.retryCount;
-    // Создаем неизменяемый список тегов, если он не null, иначе пустой список.
-    this.tags = builder.tags != null ? Collections.unmodifiableList(builder.tags) : Collections.emptyList();
+    // Неизменяемый список тегов; уже неизменяемый список (например, из кэша метаданных) используется без копирования
+    this.tags = builder.tags != null ? List.copyOf(builder.tags) : Collections.emptyList();
     this.isNegative = builder.isNegative;
     this.memoryBefore = builder.memoryBefore;
     this.memoryAfter = builder.memoryAfter;
+    this.allocatedBytes = builder.allocatedBytes;
+    this.gcCount = builder.gcCount;
+    this.gcTimeMs = builder.gcTimeMs;
+    this.cpuTimeNanos = builder.cpuTimeNanos;
+    this.userTimeNanos = builder.userTimeNanos;
+    this.blockedCount = builder.blockedCount;
+    this.blockedTimeMs = builder.blockedTimeMs;
+    this.waitedCount = builder.waitedCount;
+    this.waitedTimeMs = builder.waitedTimeMs;
+    this.liveThreadsBefore = builder.liveThreadsBefore;
+    this.liveThreadsAfter = builder.liveThreadsAfter;
+    this.profileFile = builder.profileFile;
+    this.startNanos = builder.startNanos;
+    this.endNanos = builder.endNanos;
+    this.threadName = builder.threadName;
+    this.metrics = builder.metrics != null
+        ? Collections.unmodifiableMap(new LinkedHashMap<>(builder.metrics)) : Collections.emptyMap();
   }
 
   /**
@@ -67,6 +115,26 @@ public class TestResult {
     return testName;
   }
 
+  /**
+   * Возвращает уникальный идентификатор теста в JUnit Platform (`ExtensionContext.getUniqueId()`).
+   * В отличие от имени теста, он различает одноименные тесты разных классов,
+   * перегруженные методы и отдельные вызовы параметризованных тестов.
+   *
+   * @return Уникальный идентификатор теста или null, если он неизвестен.
+   */
+  public String getTestId() {
+    return testId;
+  }
+
+  /**
+   * Возвращает полное имя тестового класса.
+   *
+   * @return Имя класса или null, если оно неизвестно.
+   */
+  public String getClassName() {
+    return className;
+  }
+
   /**
    * Возвращает фазу выполнения теста (например, "BeforeEach" или "TestMethod").
    *
@@ -85,6 +153,16 @@ public class TestResult {
     return durationMs;
   }
 
+  /**
+   * Возвращает длительность выполнения фазы теста в наносекундах.
+   * Позволяет различать тесты, выполняющиеся быстрее одной миллисекунды.
+   *
+   * @return Длительность в нс.
+   */
+  public long getDurationNanos() {
+    return durationNanos;
+  }
+
   /**
    * Возвращает статус выполнения фазы теста (например, "PASSED", "FAILED", "SKIPPED", "UNKNOWN").
    *
@@ -140,20 +218,193 @@ public class TestResult {
     return memoryAfter;
   }
 
+  /**
+   * Возвращает количество байт, выделенных потоком теста во время данной фазы.
+   * В отличие от разницы {@link #getMemoryAfter()} и {@link #getMemoryBefore()},
+   * значение не зависит от сборок мусора и параллельно выполняющихся тестов.
+   *
+   * @return Количество байт или -1, если JVM не поддерживает учет выделенной памяти по потокам.
+   */
+  public long getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+  /**
+   * Возвращает количество сборок мусора, произошедших во время данной фазы теста.
+   * Счетчик общий для JVM: при параллельном выполнении в него попадают сборки, вызванные другими тестами.
+   *
+   * @return Количество сборок мусора.
+   */
+  public long getGcCount() {
+    return gcCount;
+  }
+
+  /**
+   * Возвращает суммарное время сборок мусора, произошедших во время данной фазы теста.
+   *
+   * @return Время в мс.
+   */
+  public long getGcTimeMs() {
+    return gcTimeMs;
+  }
+
+  /**
+   * Возвращает процессорное время потока теста во время фазы.
+   *
+   * @return Время в наносекундах или -1, если учет процессорного времени не поддерживается.
+   */
+  public long getCpuTimeNanos() {
+    return cpuTimeNanos;
+  }
+
+  /**
+   * Возвращает процессорное время потока теста в пользовательском режиме во время фазы.
+   *
+   * @return Время в наносекундах или -1, если учет процессорного времени не поддерживается.
+   */
+  public long getUserTimeNanos() {
+    return userTimeNanos;
+  }
+
+  /**
+   * Возвращает количество блокировок потока теста на входе в монитор (synchronized) во время фазы.
+   *
+   * @return Количество блокировок.
+   */
+  public long getBlockedCount() {
+    return blockedCount;
+  }
+
+  /**
+   * Возвращает суммарное время блокировок потока теста на мониторах во время фазы.
+   *
+   * @return Время в мс или -1, если мониторинг конкуренции потоков отключен.
+   */
+  public long getBlockedTimeMs() {
+    return blockedTimeMs;
+  }
+
+  /**
+   * Возвращает количество ожиданий потока теста (wait, join, park, sleep и т. п.) во время фазы.
+   *
+   * @return Количество ожиданий.
+   */
+  public long getWaitedCount() {
+    return waitedCount;
+  }
+
+  /**
+   * Возвращает суммарное время ожиданий потока теста во время фазы.
+   *
+   * @return Время в мс или -1, если мониторинг конкуренции потоков отключен.
+   */
+  public long getWaitedTimeMs() {
+    return waitedTimeMs;
+  }
+
+  /**
+   * Возвращает количество живых потоков JVM перед фазой.
+   *
+   * @return Количество потоков.
+   */
+  public long getLiveThreadsBefore() {
+    return liveThreadsBefore;
+  }
+
+  /**
+   * Возвращает количество живых потоков JVM после фазы; рост по сравнению с {@link #getLiveThreadsBefore()} указывает на утечку потоков.
+   *
+   * @return Количество потоков.
+   */
+  public long getLiveThreadsAfter() {
+    return liveThreadsAfter;
+  }
+
+  /**
+   * Возвращает путь к профилю (collapsed stacks) фазы теста относительно каталога отчёта.
+   * Профиль создается выборочным профилировщиком только для тестов длиннее порога.
+   *
+   * @return Путь к файлу профиля или null, если профиль не снимался.
+   */
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public String getProfileFile() {
+    return profileFile;
+  }
+
+  /**
+   * Возвращает момент начала фазы: наносекунды от начала прогона в этой JVM.
+   * Для фаз из нескольких методов (например, нескольких `@BeforeEach`) — начало первого метода.
+   *
+   * @return Момент начала или -1, если он не измерялся.
+   */
+  public long getStartNanos() {
+    return startNanos;
+  }
+
+  /**
+   * Возвращает момент окончания фазы: наносекунды от начала прогона в этой JVM.
+   * Для фаз из нескольких методов — окончание последнего метода.
+   *
+   * @return Момент окончания или -1, если он не измерялся.
+   */
+  public long getEndNanos() {
+    return endNanos;
+  }
+
+  /**
+   * Возвращает имя потока, выполнявшего фазу.
+   *
+   * @return Имя потока или null, если оно не записывалось.
+   */
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public String getThreadName() {
+    return threadName;
+  }
+
+  /**
+   * Возвращает дополнительные метрики фазы теста, добавленные сборщиками метрик
+   * (например, количество запросов к БД). В JSON поле не записывается, если метрик нет.
+   *
+   * @return Неизменяемая карта метрик в порядке добавления.
+   */
+  @JsonInclude(JsonInclude.Include.NON_EMPTY)
+  public Map<String, Object> getMetrics() {
+    return metrics;
+  }
+
   /**
    * Builder-класс для создания экземпляров `TestResult`.
    * Позволяет последовательно устанавливать параметры и создавать объект `TestResult`.
    */
   public static class Builder {
     private String testName;
+    private String testId;
+    private String className;
     private String phase;
     private long durationMs;
+    private long durationNanos;
     private String status = "UNKNOWN"; // Значение по умолчанию
     private int retryCount = 0; // Значение по умолчанию
     private List<String> tags;
     private boolean isNegative = false; // Значение по умолчанию
     private long memoryBefore = 0; // Значение по умолчанию
     private long memoryAfter = 0; // Значение по умолчанию
+    private long allocatedBytes = -1; // Значение по умолчанию: учет не выполнялся
+    private long gcCount = 0; // Значение по умолчанию
+    private long gcTimeMs = 0; // Значение по умолчанию
+    private long cpuTimeNanos = -1; // Значение по умолчанию: учет не выполнялся
+    private long userTimeNanos = -1; // Значение по умолчанию: учет не выполнялся
+    private long blockedCount = 0; // Значение по умолчанию
+    private long blockedTimeMs = -1; // Значение по умолчанию: учет не выполнялся
+    private long waitedCount = 0; // Значение по умолчанию
+    private long waitedTimeMs = -1; // Значение по умолчанию: учет не выполнялся
+    private long liveThreadsBefore = 0; // Значение по умолчанию
+    private long liveThreadsAfter = 0; // Значение по умолчанию
+    private String profileFile; // Значение по умолчанию: профиль не снимался
+    private long startNanos = -1; // Значение по умолчанию: не измерялось
+    private long endNanos = -1; // Значение по умолчанию: не измерялось
+    private String threadName; // Значение по умолчанию: поток не записывался
+    private Map<String, Object> metrics; // Создается при добавлении первой метрики
 
     /**
      * Приватный конструктор для Builder.
@@ -172,6 +423,28 @@ public class TestResult {
       return this;
     }
 
+    /**
+     * Устанавливает уникальный идентификатор теста в JUnit Platform.
+     *
+     * @param testId Уникальный идентификатор теста.
+     * @return Текущий экземпляр Builder.
+     */
+    public Builder testId(String testId) {
+      this.testId = testId;
+      return this;
+    }
+
+    /**
+     * Устанавливает полное имя тестового класса.
+     *
+     * @param className Имя класса.
+     * @return Текущий экземпляр Builder.
+     */
+    public Builder className(String className) {
+      this.className = className;
+      return this;
+    }
+
     /**
      * Устанавливает фазу выполнения теста (например, "BeforeEach" или "TestMethod").
      *
@@ -185,12 +458,27 @@ public class TestResult {
 
     /**
      * Устанавливает длительность выполнения фазы теста в миллисекундах.
+     * Длительность в наносекундах вычисляется из переданного значения.
      *
      * @param durationMs Длительность в мс.
      * @return Текущий экземпляр Builder.
      */
     public Builder durationMs(long durationMs) {
       this.durationMs = durationMs;
+      this.durationNanos = TimeUnit.MILLISECONDS.toNanos(durationMs);
+      return this;
+    }
+
+    /**
+     * Устанавливает длительность выполнения фазы теста в наносекундах.
+     * Длительность в миллисекундах вычисляется из переданного значения (с округлением вниз).
+     *
+     * @param durationNanos Длительность в нс.
+     * @return Текущий экземпляр Builder.
+     */
+    public Builder durationNanos(long durationNanos) {
+      this.durationNanos = durationNanos;
+      this.durationMs = TimeUnit.NANOSECONDS.toMillis(durationNanos);
       return this;
     }
 
@@ -260,6 +548,188 @@ public class TestResult {
       return this;
     }
 
+    /**
+     * Устанавливает количество байт, выделенных потоком теста во время данной фазы.
+     *
+     * @param allocatedBytes Количество байт или -1, если учет не поддерживается.
+     * @return Текущий экземпляр Builder.
+     */
+    public Builder allocatedBytes(long allocatedBytes) {
+      this.allocatedBytes = allocatedBytes;
+      return this;
+    }
+
+    /**
+     * Устанавливает количество сборок мусора во время данной фазы теста.
+     *
+     * @param gcCount Количество сборок мусора.
+     * @return Текущий экземпляр Builder.
+     */
+    public Builder gcCount(long gcCount) {
+      this.gcCount = gcCount;
+      return this;
+    }
+
+    /**
+     * Устанавливает суммарное время сборок мусора во время данной фазы теста.
+     *
+     * @param gcTimeMs Время в мс.
+     * @return Текущий экземпляр Builder.
+     */
+    public Builder gcTimeMs(long gcTimeMs) {
+      this.gcTimeMs = gcTimeMs;
+      return this;
+    }
+
+    /**
+     * Устанавливает процессорное время потока теста во время фазы.
+     *
+     * @param cpuTimeNanos Время в наносекундах или -1, если учет не поддерживается.
+     * @return Текущий экземпляр Builder.
+     */
+    public Builder cpuTimeNanos(long cpuTimeNanos) {
+      this.cpuTimeNanos = cpuTimeNanos;
+      return this;
+    }
+
+    /**
+     * Устанавливает процессорное время потока теста в пользовательском режиме во время фазы.
+     *
+     * @param userTimeNanos Время в наносекундах или -1, если учет не поддерживается.
+     * @return Текущий экземпляр Builder.
+     */
+    public Builder userTimeNanos(long userTimeNanos) {
+      this.userTimeNanos = userTimeNanos;
+      return this;
+    }
+
+    /**
+     * Устанавливает количество блокировок потока теста на входе в монитор (synchronized) во время фазы.
+     *
+     * @param blockedCount Количество блокировок.
+     * @return Текущий экземпляр Builder.
+     */
+    public Builder blockedCount(long blockedCount) {
+      this.blockedCount = blockedCount;
+      return this;
+    }
+
+    /**
+     * Устанавливает суммарное время блокировок потока теста на мониторах во время фазы.
+     *
+     * @param blockedTimeMs Время в мс или -1, если мониторинг конкуренции отключен.
+     * @return Текущий экземпляр Builder.
+     */
+    public Builder blockedTimeMs(long blockedTimeMs) {
+      this.blockedTimeMs = blockedTimeMs;
+      return this;
+    }
+
+    /**
+     * Устанавливает количество ожиданий потока теста (wait, join, park, sleep и т. п.) во время фазы.
+     *
+     * @param waitedCount Количество ожиданий.
+     * @return Текущий экземпляр Builder.
+     */
+    public Builder waitedCount(long waitedCount) {
+      this.waitedCount = waitedCount;
+      return this;
+    }
+
+    /**
+     * Устанавливает суммарное время ожиданий потока теста во время фазы.
+     *
+     * @param waitedTimeMs Время в мс или -1, если мониторинг конкуренции отключен.
+     * @return Текущий экземпляр Builder.
+     */
+    public Builder waitedTimeMs(long waitedTimeMs) {
+      this.waitedTimeMs = waitedTimeMs;
+      return this;
+    }
+
+    /**
+     * Устанавливает количество живых потоков JVM перед фазой.
+     *
+     * @param liveThreadsBefore Количество потоков.
+     * @return Текущий экземпляр Builder.
+     */
+    public Builder liveThreadsBefore(long liveThreadsBefore) {
+      this.liveThreadsBefore = liveThreadsBefore;
+      return this;
+    }
+
+    /**
+     * Устанавливает количество живых потоков JVM после фазы; рост по сравнению с {@link #getLiveThreadsBefore()} указывает на утечку потоков.
+     *
+     * @param liveThreadsAfter Количество потоков.
+     * @return Текущий экземпляр Builder.
+     */
+    public Builder liveThreadsAfter(long liveThreadsAfter) {
+      this.liveThreadsAfter = liveThreadsAfter;
+      return this;
+    }
+
+    /**
+     * Устанавливает путь к профилю фазы теста относительно каталога отчёта.
+     *
+     * @param profileFile Путь к файлу профиля или null.
+     * @return Текущий экземпляр Builder.
+     */
+    public Builder profileFile(String profileFile) {
+      this.profileFile = profileFile;
+      return this;
+    }
+
+    /**
+     * Устанавливает моменты начала и окончания фазы (наносекунды от начала прогона в этой JVM).
+     *
+     * @param startNanos Момент начала.
+     * @param endNanos   Момент окончания.
+     * @return Текущий экземпляр Builder.
+     */
+    public Builder interval(long startNanos, long endNanos) {
+      this.startNanos = startNanos;
+      this.endNanos = endNanos;
+      return this;
+    }
+
+    /**
+     * Устанавливает имя потока, выполнявшего фазу.
+     *
+     * @param threadName Имя потока.
+     * @return Текущий экземпляр Builder.
+     */
+    public Builder threadName(String threadName) {
+      this.threadName = threadName;
+      return this;
+    }
+
+    /**
+     * Добавляет дополнительную метрику. Повторное добавление с тем же ключом заменяет значение.
+     *
+     * @param key   Название метрики, например "db.queries".
+     * @param value Значение метрики (число, строка или логическое значение).
+     * @return Текущий экземпляр Builder.
+     */
+    public Builder metric(String key, Object value) {
+      if (metrics == null) {
+        metrics = new LinkedHashMap<>();
+      }
+      metrics.put(Objects.requireNonNull(key, "Metric key cannot be null"), value);
+      return this;
+    }
+
+    /**
+     * Добавляет несколько дополнительных метрик.
+     *
+     * @param metrics Карта метрик.
+     * @return Текущий экземпляр Builder.
+     */
+    public Builder metrics(Map<String, ?> metrics) {
+      metrics.forEach(this::metric);
+      return this;
+    }
+
     /**
      * Строит и возвращает новый экземпляр `TestResult` с заданными параметрами.
      * Выполняет валидацию обязательных полей.
@@ -3,6 +3,7 @@ package dev.makurea.testanalyzer.core;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  *
@@ -11,41 +12,58 @@ import java.util.List;
  * Он действует как централизованное хранилище для метрик каждого тестового метода
  * и связанных с ним фаз (например, BeforeEach, TestMethod).
  *
- * Этот агрегатор обеспечивает добавление новых результатов и предоставление
- * неизменяемого списка всех собранных результатов, что гарантирует целостность данных.
+ * Агрегатор безопасен для параллельного выполнения тестов
+ * (`junit.jupiter.execution.parallel.enabled=true`): каждый рабочий поток пишет
+ * в собственный буфер, поэтому потоки не конкурируют между собой при добавлении результатов.
+ * Буферы объединяются только при вызове `getAllResults()`.
  * Также предусмотрена возможность очистки всех собранных результатов.
  */
 public class TestRunAggregator {
-  private final List<TestResult> results;
+  // Все когда-либо созданные буферы потоков. Меняется редко (один раз на поток), читается при слиянии.
+  private final List<ThreadBuffer> buffers;
+  // Буфер текущего потока. Блокировка буфера захватывается только его владельцем
+  // и, изредка, потоком, выполняющим слияние или очистку, поэтому она практически всегда неконкурентная.
+  private final ThreadLocal<ThreadBuffer> localBuffer;
 
   /**
    * Конструктор для создания нового экземпляра `TestRunAggregator`.
-   * Инициализирует внутренний список для хранения результатов тестов.
+   * Инициализирует реестр буферов рабочих потоков.
    */
   public TestRunAggregator() {
-    this.results = new ArrayList<>();
+    this.buffers = new CopyOnWriteArrayList<>();
+    this.localBuffer = ThreadLocal.withInitial(this::registerBuffer);
   }
 
   /**
    * Добавляет один результат выполнения теста в агрегатор.
    * Если переданный результат равен null, он игнорируется.
+   * Метод может вызываться одновременно из любого количества потоков.
    *
    * @param result Объект {@link TestResult}, содержащий метрики выполненной фазы теста.
    */
   public void addResult(TestResult result) {
     if (result != null) {
-      this.results.add(result);
+      localBuffer.get().add(result);
     }
   }
 
   /**
-   * Возвращает неизменяемый список всех собранных результатов тестов.
-   * Это предотвращает внешние модификации списка результатов, обеспечивая безопасность данных.
+   * Возвращает неизменяемый снимок всех собранных результатов тестов.
+   * Результаты одного потока идут в порядке их добавления; буферы разных потоков
+   * объединяются в порядке регистрации потоков.
    *
    * @return Неизменяемый {@link List} объектов {@link TestResult}.
    */
   public List<TestResult> getAllResults() {
-    return Collections.unmodifiableList(results);
+    int expectedSize = 0;
+    for (ThreadBuffer buffer : buffers) {
+      expectedSize += buffer.size();
+    }
+    List<TestResult> merged = new ArrayList<>(expectedSize);
+    for (ThreadBuffer buffer : buffers) {
+      buffer.copyTo(merged);
+    }
+    return Collections.unmodifiableList(merged);
   }
 
   /**
@@ -53,6 +71,42 @@ public class TestRunAggregator {
    * Этот метод полезен для подготовки агрегатора к новому тестовому прогону.
    */
   public void clearResults() {
-    this.results.clear();
+    for (ThreadBuffer buffer : buffers) {
+      buffer.clear();
+    }
+  }
+
+  /**
+   * Создает и регистрирует буфер для текущего потока.
+   *
+   * @return Новый {@link ThreadBuffer}.
+   */
+  private ThreadBuffer registerBuffer() {
+    ThreadBuffer buffer = new ThreadBuffer();
+    buffers.add(buffer);
+    return buffer;
+  }
+
+  /**
+   * Буфер результатов одного рабочего потока.
+   */
+  private static final class ThreadBuffer {
+    private final List<TestResult> results = new ArrayList<>();
+
+    synchronized void add(TestResult result) {
+      results.add(result);
+    }
+
+    synchronized int size() {
+      return results.size();
+    }
+
+    synchronized void copyTo(List<TestResult> target) {
+      target.addAll(results);
+    }
+
+    synchronized void clear() {
+      results.clear();
+    }
   }
-}
\ No newline at end of file
+}
@@ -1,98 +1,254 @@
 package dev.makurea.testanalyzer.core;
 
+import dev.makurea.testanalyzer.leak.LeakDetector;
+import dev.makurea.testanalyzer.live.LiveMetrics;
 import dev.makurea.testanalyzer.metrics.*;
-import dev.makurea.testanalyzer.report.ReportGenerator;
+import dev.makurea.testanalyzer.profiler.SamplingProfiler;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.extension.*;
 
-import java.util.Arrays;
-import java.util.List;
-
 /*
  * TestTimerExtension
  *
  * `TestTimerExtension` — это основное расширение JUnit 5,
  * которое измеряет и собирает метрики производительности для каждого тестового метода.
- * Оно реализует различные интерфейсы обратного вызова JUnit 5
- * для перехвата событий жизненного цикла теста, таких как начало и конец фаз `BeforeEach`
- * и `TestMethod`.
+ * Оно реализует интерфейсы обратного вызова JUnit 5 и {@link InvocationInterceptor}, который измеряет
+ * каждую фазу жизненного цикла по отдельности (см. {@link TestPhase}): конструктор тестового класса,
+ * методы `@BeforeAll`, `@BeforeEach`, сам тестовый метод, методы `@AfterEach` и `@AfterAll`.
+ * Длительность фазы — сумма длительностей ее методов; фазы без методов не записываются.
+ * Для каждой фазы также записываются моменты начала первого и окончания последнего метода и имя потока,
+ * по которым строится анализ параллельного выполнения ({@link dev.makurea.testanalyzer.schedule.ScheduleRecorder}).
  *
- * Это расширение фиксирует длительность выполнения, статус, теги,
+ * Это расширение фиксирует длительность выполнения (по `System.nanoTime()`), статус, теги,
  * количество повторных попыток и потребление памяти для каждого этапа теста.
- * Собранные данные агрегируются и, по завершении всех тестов,
- * используются для генерации интерактивного HTML-отчёта.
+ * Память тестового метода измеряется по байтам, выделенным его потоком, и по сборкам мусора
+ * во время выполнения (см. {@link MemoryMetrics}), а загрузка потока — по его процессорному времени,
+ * блокировкам, ожиданиям и количеству живых потоков (см. {@link ThreadMetrics}).
+ * Для тестов длиннее порога можно включить выборочное профилирование (см. {@link SamplingProfiler}).
+ * На границах классов снимаются уровни потоков, дескрипторов и старшего поколения кучи (см. {@link LeakDetector}).
+ * Собранные данные передаются в общую для всего прогона {@link TestAnalyzerSession}
+ * и по завершении всех тестов используются для генерации интерактивного HTML-отчёта.
+ *
+ * Отметки времени начала фаз хранятся в примитивном слоте рабочего потока ({@link ThreadTimingSlot}),
+ * а не в `ExtensionContext.Store`, чтобы собственные накладные расходы расширения оставались минимальными
+ * даже для наборов из десятков тысяч коротких тестов. По той же причине строки о фазах выводятся
+ * в консоль не напрямую, а через {@link dev.makurea.testanalyzer.log.LogSink} сессии.
  */
 
 public class TestTimerExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback,
-    BeforeEachCallback, AfterEachCallback, AfterAllCallback {
+    BeforeEachCallback, AfterEachCallback, BeforeAllCallback, AfterAllCallback, InvocationInterceptor {
 
-  // Пространство имен для хранения данных в ExtensionContext.Store
   private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(TestTimerExtension.class);
-  // Ключ для хранения необработанных данных о выполнении тестового метода
-  private static final String RAW_TEST_DATA_KEY = "raw-test-data";
-  // Ключ для хранения времени начала фазы BeforeEach
-  private static final String BEFORE_EACH_START_TIME_KEY = "before-each-start-time";
-
-  // Агрегатор для сбора всех результатов тестов за один прогон
-  private final TestRunAggregator aggregator = new TestRunAggregator();
-  // Генератор для создания HTML-отчета
-  private final ReportGenerator reportGenerator = new ReportGenerator();
-
-  // Список сборщиков метрик, которые будут собирать дополнительную информацию о тесте
-  List<MetricCollector> collectors = Arrays.asList(
-      new StatusCollector(), // Собирает статус выполнения теста
-      new RetryCollector(),  // Собирает информацию о повторных попытках
-      new TagsCollector()    // Собирает теги теста
-  );
-
-  /**
-   * Вызывается JUnit 5 непосредственно перед выполнением любого метода `@BeforeEach`.
-   * Фиксирует текущее системное время, чтобы измерить длительность фазы BeforeEach.
+  private static final ExtensionContext.Namespace LEAK_NAMESPACE =
+      ExtensionContext.Namespace.create(TestTimerExtension.class, LeakDetector.class);
+
+  /**
+   * Вызывается JUnit 5 один раз перед методами `@BeforeAll` тестового класса.
+   * Снимает уровни ресурсов JVM для поиска утечек, если он включен (см. {@link LeakDetector}).
+   *
+   * @param context Контекст выполнения JUnit (на уровне класса).
+   */
+  @Override
+  public void beforeAll(ExtensionContext context) {
+    LeakDetector leaks = TestAnalyzerSession.leaks();
+    if (leaks != null) {
+      context.getStore(LEAK_NAMESPACE).put(context.getUniqueId(), leaks.classStarted());
+    }
+  }
+
+  /**
+   * Перехватывает создание экземпляра тестового класса и измеряет длительность конструктора.
+   * При жизненном цикле `PER_METHOD` время относится к тесту, который выполняется следующим в этом потоке,
+   * а при `PER_CLASS` — ко всему классу (фаза ClassConstructor).
+   * Разрешение параметров конструктора выполняется до перехвата и в длительность не входит.
+   */
+  @Override
+  public <T> T interceptTestClassConstructor(Invocation<T> invocation,
+      ReflectiveInvocationContext<Constructor<T>> invocationContext, ExtensionContext extensionContext) throws Throwable {
+    long start = System.nanoTime();
+    T instance = invocation.proceed(); // При неудаче тест не выполняется, и время ему не приписывается
+    long end = System.nanoTime();
+    if (extensionContext.getTestInstanceLifecycle().orElse(TestInstance.Lifecycle.PER_METHOD) == TestInstance.Lifecycle.PER_CLASS) {
+      classPhases(extensionContext).add(TestPhase.CLASS_CONSTRUCTOR, start, end);
+    } else {
+      ThreadTimingSlot slot = ThreadTimingSlot.current();
+      if (slot.constructorCalls == 0) {
+        slot.constructorStart = start;
+      }
+      slot.constructorEnd = end;
+      slot.constructorNanos += end - start;
+      slot.constructorCalls++;
+    }
+    return instance;
+  }
+
+  /**
+   * Перехватывает вызов метода `@BeforeAll` и добавляет его длительность к фазе BeforeAll класса.
+   */
+  @Override
+  public void interceptBeforeAllMethod(Invocation<Void> invocation,
+      ReflectiveInvocationContext<Method> invocationContext, ExtensionContext extensionContext) throws Throwable {
+    long start = System.nanoTime();
+    try {
+      invocation.proceed();
+    } finally {
+      classPhases(extensionContext).add(TestPhase.BEFORE_ALL, start, System.nanoTime());
+    }
+  }
+
+  /**
+   * Перехватывает вызов метода `@BeforeEach` и добавляет его длительность к фазе BeforeEach теста.
+   */
+  @Override
+  public void interceptBeforeEachMethod(Invocation<Void> invocation,
+      ReflectiveInvocationContext<Method> invocationContext, ExtensionContext extensionContext) throws Throwable {
+    ThreadTimingSlot slot = ThreadTimingSlot.current();
+    long start = System.nanoTime();
+    try {
+      invocation.proceed();
+    } finally {
+      long end = System.nanoTime();
+      if (slot.beforeEachCalls == 0) {
+        slot.beforeEachStart = start;
+      }
+      slot.beforeEachEnd = end;
+      slot.beforeEachNanos += end - start;
+      slot.beforeEachCalls++;
+    }
+  }
+
+  /**
+   * Перехватывает вызов тестового метода и измеряет его длительность без обратных вызовов
+   * и перехватчиков, зарегистрированных раньше этого расширения.
+   */
+  @Override
+  public void interceptTestMethod(Invocation<Void> invocation,
+      ReflectiveInvocationContext<Method> invocationContext, ExtensionContext extensionContext) throws Throwable {
+    timeTestMethod(invocation);
+  }
+
+  /**
+   * Перехватывает вызов параметризованного или повторяемого тестового метода.
+   */
+  @Override
+  public void interceptTestTemplateMethod(Invocation<Void> invocation,
+      ReflectiveInvocationContext<Method> invocationContext, ExtensionContext extensionContext) throws Throwable {
+    timeTestMethod(invocation);
+  }
+
+  /**
+   * Перехватывает вызов метода `@TestFactory`; измеряется создание динамических тестов.
+   */
+  @Override
+  public <T> T interceptTestFactoryMethod(Invocation<T> invocation,
+      ReflectiveInvocationContext<Method> invocationContext, ExtensionContext extensionContext) throws Throwable {
+    return timeTestMethod(invocation);
+  }
+
+  /**
+   * Перехватывает вызов метода `@AfterEach` и добавляет его длительность к фазе AfterEach теста.
+   */
+  @Override
+  public void interceptAfterEachMethod(Invocation<Void> invocation,
+      ReflectiveInvocationContext<Method> invocationContext, ExtensionContext extensionContext) throws Throwable {
+    ThreadTimingSlot slot = ThreadTimingSlot.current();
+    long start = System.nanoTime();
+    try {
+      invocation.proceed();
+    } finally {
+      long end = System.nanoTime();
+      if (slot.afterEachCalls == 0) {
+        slot.afterEachStart = start;
+      }
+      slot.afterEachEnd = end;
+      slot.afterEachNanos += end - start;
+      slot.afterEachCalls++;
+    }
+  }
+
+  /**
+   * Перехватывает вызов метода `@AfterAll` и добавляет его длительность к фазе AfterAll класса.
+   */
+  @Override
+  public void interceptAfterAllMethod(Invocation<Void> invocation,
+      ReflectiveInvocationContext<Method> invocationContext, ExtensionContext extensionContext) throws Throwable {
+    long start = System.nanoTime();
+    try {
+      invocation.proceed();
+    } finally {
+      classPhases(extensionContext).add(TestPhase.AFTER_ALL, start, System.nanoTime());
+    }
+  }
+
+  /**
+   * Вызывается JUnit 5 перед методами `@BeforeEach`.
+   * Сбрасывает длительности фаз BeforeEach и AfterEach, накопленные в слоте текущего потока.
    *
    * @param context Контекст выполнения JUnit, предоставляющий доступ к информации о тесте.
    */
   @Override
   public void beforeEach(ExtensionContext context) {
-    context.getStore(NAMESPACE).put(BEFORE_EACH_START_TIME_KEY, System.currentTimeMillis());
+    ThreadTimingSlot slot = ThreadTimingSlot.current();
+    slot.beforeEachNanos = 0;
+    slot.beforeEachCalls = 0;
+    slot.afterEachNanos = 0;
+    slot.afterEachCalls = 0;
   }
 
   /**
-   * Вызывается JUnit 5 сразу после выполнения любого метода `@AfterEach`.
-   * Рассчитывает длительность фазы BeforeEach и логирует её.
-   * Собирает метрики и добавляет результат фазы BeforeEach в агрегатор.
+   * Вызывается JUnit 5 сразу после выполнения всех методов `@AfterEach`.
+   * Публикует фазы Constructor, BeforeEach и AfterEach теста, если соответствующие методы вызывались:
+   * длительность каждой фазы — сумма длительностей ее методов, измеренных перехватчиками.
    *
    * @param context Контекст выполнения JUnit, предоставляющий доступ к информации о тесте.
    */
   @Override
   public void afterEach(ExtensionContext context) {
-    long start = context.getStore(NAMESPACE).remove(BEFORE_EACH_START_TIME_KEY, long.class);
-    long duration = System.currentTimeMillis() - start;
-
-    System.out.printf("[TestAnalyzer] %s BeforeEach executed in %d ms%n", context.getDisplayName(), duration);
-
-    TestResult.Builder builder = TestResult.builder()
-        .testName(context.getDisplayName())
-        .phase("BeforeEach") // Указываем фазу "BeforeEach"
-        .durationMs(duration);
-
-    collectMetrics(context, builder); // Собираем дополнительные метрики
-    aggregator.addResult(builder.build()); // Добавляем построенный результат в агрегатор
+    ThreadTimingSlot slot = ThreadTimingSlot.current();
+    if (slot.constructorCalls > 0) {
+      publishFixturePhase(context, TestPhase.CONSTRUCTOR, slot.constructorNanos, slot.constructorStart, slot.constructorEnd);
+    }
+    if (slot.beforeEachCalls > 0) {
+      publishFixturePhase(context, TestPhase.BEFORE_EACH, slot.beforeEachNanos, slot.beforeEachStart, slot.beforeEachEnd);
+    }
+    if (slot.afterEachCalls > 0) {
+      publishFixturePhase(context, TestPhase.AFTER_EACH, slot.afterEachNanos, slot.afterEachStart, slot.afterEachEnd);
+    }
+    // Следующий тест в этом потоке получит только время своего конструктора
+    slot.constructorNanos = 0;
+    slot.constructorCalls = 0;
   }
 
   /**
    * Вызывается JUnit 5 непосредственно перед выполнением самого тестового метода (`@Test`).
-   * Фиксирует время начала выполнения тестового метода и объем используемой памяти
-   * до его старта. Эти данные сохраняются в хранилище контекста.
+   * Фиксирует время начала выполнения тестового метода, счетчик выделенной потоком памяти,
+   * счетчики сборок мусора, показатели потока и объем используемой памяти до его старта.
+   * Эти данные сохраняются в слоте текущего потока.
    *
    * @param context Контекст выполнения JUnit, предоставляющий доступ к информации о тесте.
    */
   @Override
   public void beforeTestExecution(ExtensionContext context) {
-    long startTime = System.currentTimeMillis();
+    ThreadTimingSlot slot = ThreadTimingSlot.current();
     // Рассчитываем используемую память: общая память - свободная память
-    long memoryBefore = Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
-
-    RawTestExecutionData rawData = new RawTestExecutionData(context, startTime, memoryBefore);
-    context.getStore(NAMESPACE).put(RAW_TEST_DATA_KEY, rawData);
+    slot.memoryBefore = Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+    slot.gcCountBefore = MemoryMetrics.gcCount();
+    slot.gcTimeMsBefore = MemoryMetrics.gcTimeMs();
+    slot.allocatedBytesBefore = MemoryMetrics.threadAllocatedBytes();
+    ThreadMetrics.capture(slot.threadsBefore);
+    slot.testMethodNanos = -1;
+    LiveMetrics live = TestAnalyzerSession.liveMetrics();
+    if (live != null) {
+      live.testStarted(); // Тест считается выполняющимся до публикации его результата
+    }
+    SamplingProfiler profiler = TestAnalyzerSession.profiler();
+    if (profiler != null) {
+      profiler.testStarted(context.getDisplayName(), context.getRequiredTestClass().getName());
+    }
+    // Время фиксируем последним, чтобы замер памяти не попадал в длительность теста
+    slot.testStartNanos = System.nanoTime();
   }
 
   /**
@@ -104,50 +260,186 @@ public class TestTimerExtension implements BeforeTestExecutionCallback, AfterTes
    */
   @Override
   public void afterTestExecution(ExtensionContext context) {
-    // Извлекаем необработанные данные, сохраненные перед выполнением теста
-    RawTestExecutionData rawData = context.getStore(NAMESPACE).remove(RAW_TEST_DATA_KEY, RawTestExecutionData.class);
-
-    long endTime = System.currentTimeMillis();
+    long endNanos = System.nanoTime();
+    // Извлекаем данные, сохраненные в слоте потока перед выполнением теста
+    ThreadTimingSlot slot = ThreadTimingSlot.current();
+    // Длительность выполнения метода: по перехватчику, а если вызов не перехватывался — между обратными вызовами
+    long duration = slot.testMethodNanos >= 0 ? slot.testMethodNanos : endNanos - slot.testStartNanos;
+    long startNanos = slot.testMethodNanos >= 0 ? slot.testMethodStart : slot.testStartNanos;
+    ThreadMetrics.capture(slot.threadsAfter);
+    SamplingProfiler profiler = TestAnalyzerSession.profiler();
+    String profileFile = profiler != null ? profiler.testFinished() : null;
+    long allocatedBytesAfter = MemoryMetrics.threadAllocatedBytes();
     // Рассчитываем используемую память после выполнения
     long memoryAfter = Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
-    long duration = endTime - rawData.getStartTime(); // Длительность выполнения метода
+    long allocatedBytes = allocatedBytesAfter >= 0 ? allocatedBytesAfter - slot.allocatedBytesBefore : -1;
 
-    System.out.printf("[TestAnalyzer] %s Test method executed in %d ms%n", context.getDisplayName(), duration);
+    TestAnalyzerSession.log().phaseFinished(context.getDisplayName(), TestPhase.TEST_METHOD, duration);
 
     TestResult.Builder builder = TestResult.builder()
         .testName(context.getDisplayName())
-        .phase("TestMethod") // Указываем фазу "TestMethod"
-        .durationMs(duration)
-        .memoryBefore(rawData.getMemoryBefore()) // Память до
-        .memoryAfter(memoryAfter); // Память после
+        .testId(context.getUniqueId())
+        .className(context.getRequiredTestClass().getName())
+        .phase(TestPhase.TEST_METHOD) // Указываем фазу "TestMethod"
+        .durationNanos(duration)
+        .memoryBefore(slot.memoryBefore) // Память до
+        .memoryAfter(memoryAfter) // Память после
+        .allocatedBytes(allocatedBytes) // Выделено потоком теста
+        .gcCount(MemoryMetrics.gcCount() - slot.gcCountBefore) // Сборки мусора во время теста
+        .gcTimeMs(MemoryMetrics.gcTimeMs() - slot.gcTimeMsBefore)
+        .interval(TestAnalyzerSession.elapsedNanos(startNanos), TestAnalyzerSession.elapsedNanos(startNanos + duration))
+        .threadName(Thread.currentThread().getName());
+    ThreadMetrics.applyDelta(slot.threadsBefore, slot.threadsAfter, builder); // Процессорное время и конкуренция
+    builder.profileFile(profileFile); // Профиль медленного теста, если он снимался
 
     collectMetrics(context, builder); // Собираем дополнительные метрики
-    aggregator.addResult(builder.build()); // Добавляем построенный результат в агрегатор
+    TestAnalyzerSession.publish(builder.build()); // Передаем построенный результат в сессию прогона
   }
 
   /**
-   * Вызывается JUnit 5 один раз после выполнения всех тестов в текущем тестовом классе.
-   * Запускает генерацию HTML-отчета на основе всех собранных результатов
-   * и очищает агрегатор для следующего возможного запуска.
+   * Вызывается JUnit 5 один раз после выполнения всех тестов и методов `@AfterAll` в текущем тестовом классе.
+   * Публикует фазы класса (ClassConstructor, BeforeAll, AfterAll), если соответствующие методы вызывались,
+   * и передает изменение ресурсов JVM за время класса в {@link LeakDetector}.
+   * Если прогон не управляется сессией JUnit Platform Launcher, обновляет HTML-отчёт
+   * по всем результатам, собранным к этому моменту; иначе отчёт будет создан один раз при закрытии сессии.
    *
    * @param context Контекст выполнения JUnit (на уровне класса).
    */
   @Override
   public void afterAll(ExtensionContext context) {
-    reportGenerator.generateReport(aggregator.getAllResults()); // Генерируем отчет
-    aggregator.clearResults(); // Очищаем агрегатор
+    ClassPhases phases = context.getStore(NAMESPACE).remove(context.getUniqueId(), ClassPhases.class);
+    if (phases != null) {
+      phases.publish(context);
+    }
+    LeakDetector leaks = TestAnalyzerSession.leaks();
+    LeakDetector.Window window = context.getStore(LEAK_NAMESPACE).remove(context.getUniqueId(), LeakDetector.Window.class);
+    if (leaks != null && window != null) {
+      leaks.classFinished(context.getRequiredTestClass().getName(), window);
+    }
+    TestAnalyzerSession.classFinished();
   }
 
   /**
-   * Вспомогательный метод для сбора дополнительных метрик с помощью зарегистрированных `MetricCollector`'ов.
-   * Каждый сборщик добавляет свою специфическую информацию в Builder.
+   * Вспомогательный метод для сбора дополнительных метрик с помощью зарегистрированных `MetricCollector`'ов
+   * (см. {@link MetricCollectorPipeline}). Каждый сборщик добавляет свою специфическую информацию в Builder.
    *
    * @param context Контекст выполнения JUnit.
    * @param builder Builder {@link TestResult}, в который будут добавлены метрики.
    */
   private void collectMetrics(ExtensionContext context, TestResult.Builder builder) {
-    for (MetricCollector collector : collectors) {
-      collector.collect(context, builder);
+    TestAnalyzerSession.collectors().collect(context, builder);
+  }
+
+  /**
+   * Публикует фазу подготовки или очистки теста со сбором дополнительных метрик.
+   */
+  private void publishFixturePhase(ExtensionContext context, String phase, long durationNanos, long start, long end) {
+    TestAnalyzerSession.log().phaseFinished(context.getDisplayName(), phase, durationNanos);
+
+    TestResult.Builder builder = TestResult.builder()
+        .testName(context.getDisplayName())
+        .testId(context.getUniqueId())
+        .className(context.getRequiredTestClass().getName())
+        .phase(phase)
+        .durationNanos(durationNanos)
+        .interval(TestAnalyzerSession.elapsedNanos(start), TestAnalyzerSession.elapsedNanos(end))
+        .threadName(Thread.currentThread().getName());
+
+    collectMetrics(context, builder); // Собираем дополнительные метрики
+    TestAnalyzerSession.publish(builder.build()); // Передаем построенный результат в сессию прогона
+  }
+
+  /**
+   * Вызывает тестовый метод и сохраняет длительность вызова в слоте текущего потока.
+   */
+  private static <T> T timeTestMethod(Invocation<T> invocation) throws Throwable {
+    ThreadTimingSlot slot = ThreadTimingSlot.current();
+    long start = System.nanoTime();
+    try {
+      return invocation.proceed();
+    } finally {
+      slot.testMethodNanos = System.nanoTime() - start;
+      slot.testMethodStart = start;
+    }
+  }
+
+  /**
+   * Возвращает накопитель длительностей фаз класса. Ключ — идентификатор класса, поэтому вложенные
+   * (`@Nested`) классы, которые видят хранилище внешнего класса, получают собственный накопитель.
+   */
+  private static ClassPhases classPhases(ExtensionContext context) {
+    return context.getStore(NAMESPACE)
+        .getOrComputeIfAbsent(context.getUniqueId(), key -> new ClassPhases(), ClassPhases.class);
+  }
+
+  /**
+   * Длительности фаз одного тестового класса. Методы `@BeforeAll` и `@AfterAll` вызываются
+   * последовательно, но из потоков, которые выбирает JUnit, поэтому доступ синхронизирован.
+   */
+  private static final class ClassPhases {
+    private final PhaseSpan constructor = new PhaseSpan();
+    private final PhaseSpan beforeAll = new PhaseSpan();
+    private final PhaseSpan afterAll = new PhaseSpan();
+
+    synchronized void add(String phase, long start, long end) {
+      switch (phase) {
+        case TestPhase.CLASS_CONSTRUCTOR:
+          constructor.add(start, end);
+          break;
+        case TestPhase.BEFORE_ALL:
+          beforeAll.add(start, end);
+          break;
+        default:
+          afterAll.add(start, end);
+      }
+    }
+
+    synchronized void publish(ExtensionContext context) {
+      publishClassPhase(context, TestPhase.CLASS_CONSTRUCTOR, constructor);
+      publishClassPhase(context, TestPhase.BEFORE_ALL, beforeAll);
+      publishClassPhase(context, TestPhase.AFTER_ALL, afterAll);
+    }
+
+    /**
+     * Публикует фазу класса. Сборщики метрик рассчитаны на контекст тестового метода,
+     * поэтому для фаз класса заполняется только статус.
+     */
+    private static void publishClassPhase(ExtensionContext context, String phase, PhaseSpan span) {
+      if (span.nanos < 0) {
+        return; // Методов этой фазы в классе нет
+      }
+      TestAnalyzerSession.log().phaseFinished(context.getDisplayName(), phase, span.nanos);
+      TestAnalyzerSession.publish(TestResult.builder()
+          .testName(context.getDisplayName())
+          .testId(context.getUniqueId())
+          .className(context.getRequiredTestClass().getName())
+          .phase(phase)
+          .durationNanos(span.nanos)
+          .interval(TestAnalyzerSession.elapsedNanos(span.start), TestAnalyzerSession.elapsedNanos(span.end))
+          .threadName(span.threadName)
+          .status(context.getExecutionException().isPresent() ? "FAILED" : "PASSED")
+          .build());
+    }
+  }
+
+  /**
+   * Суммарная длительность методов одной фазы класса, начало первого и окончание последнего метода
+   * и поток, выполнявший первый метод.
+   */
+  private static final class PhaseSpan {
+    private long nanos = -1;
+    private long start;
+    private long end;
+    private String threadName;
+
+    void add(long start, long end) {
+      if (nanos < 0) {
+        nanos = 0;
+        this.start = start;
+        this.threadName = Thread.currentThread().getName();
+      }
+      nanos += end - start;
+      this.end = end;
     }
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,54 @@
+package dev.makurea.testanalyzer.core;
+
+import dev.makurea.testanalyzer.metrics.ThreadMetrics;
+
+/*
+ * Класс `ThreadTimingSlot` — переиспользуемый изменяемый слот, закрепленный за рабочим потоком JUnit.
+ * Он хранит длительности фаз, отметки времени `System.nanoTime()`, показатели памяти и снимки показателей потока
+ * в примитивных полях, поэтому расширению не нужно упаковывать `long` в `ExtensionContext.Store`
+ * и создавать отдельный объект с исходными данными для каждого теста.
+ *
+ * JUnit выполняет все обратные вызовы одного тестового метода (от создания экземпляра класса до `afterEach`)
+ * в одном и том же потоке, а поток одновременно выполняет не более одного теста,
+ * поэтому одного слота на поток достаточно.
+ */
+final class ThreadTimingSlot {
+  private static final ThreadLocal<ThreadTimingSlot> SLOTS = ThreadLocal.withInitial(ThreadTimingSlot::new);
+
+  // Суммарные длительности и количество методов фаз текущего теста; сбрасываются после публикации
+  long constructorNanos;
+  int constructorCalls;
+  long beforeEachNanos;
+  int beforeEachCalls;
+  long afterEachNanos;
+  int afterEachCalls;
+  // Отметки System.nanoTime() начала первого и окончания последнего метода фаз текущего теста
+  long constructorStart;
+  long constructorEnd;
+  long beforeEachStart;
+  long beforeEachEnd;
+  long afterEachStart;
+  long afterEachEnd;
+  long testStartNanos;
+  // Длительность вызова тестового метода, измеренная перехватчиком, и его начало; -1, если вызов не перехватывался
+  long testMethodNanos;
+  long testMethodStart;
+  long memoryBefore;
+  long allocatedBytesBefore;
+  long gcCountBefore;
+  long gcTimeMsBefore;
+  // Снимки показателей потока до и после тестового метода; переиспользуются между тестами
+  final ThreadMetrics.Snapshot threadsBefore = new ThreadMetrics.Snapshot();
+  final ThreadMetrics.Snapshot threadsAfter = new ThreadMetrics.Snapshot();
+
+  private ThreadTimingSlot() {}
+
+  /**
+   * Возвращает слот текущего потока.
+   *
+   * @return Слот {@link ThreadTimingSlot}, закрепленный за текущим потоком.
+   */
+  static ThreadTimingSlot current() {
+    return SLOTS.get();
+  }
+}
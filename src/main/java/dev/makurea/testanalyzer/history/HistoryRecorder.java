@@ -0,0 +1,156 @@
+package dev.makurea.testanalyzer.history;
+
+import dev.makurea.testanalyzer.core.TestAnalyzerConfig;
+import dev.makurea.testanalyzer.core.TestPhase;
+import dev.makurea.testanalyzer.core.TestResult;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Класс `HistoryRecorder` собирает длительности фазы TestMethod текущего прогона и по его завершении
+ * сохраняет их в {@link HistoryStore}, сжимает историю при необходимости и возвращает найденные
+ * {@link RegressionDetector} регрессии; генератор отчёта записывает их в `test-analyzer-regressions.json`,
+ * который показывает HTML-отчёт.
+ *
+ * Для каждого теста в памяти хранится только одна сумма длительностей, поэтому запись истории
+ * не зависит от режима отчёта и работает и в потоковом режиме.
+ *
+ * Один прогон — одна запись истории, поэтому процессы параллельного прогона (`testanalyzer.report.forkId`)
+ * историю не ведут: ее пополняет {@link dev.makurea.testanalyzer.report.ForkResultMerger} по объединенным
+ * результатам. Иначе процессы получали бы одинаковые идентификаторы прогона, одновременно сжимали бы
+ * историю и каждый считался бы отдельным прогоном.
+ *
+ * Настройки:
+ *   testanalyzer.history.enabled              — вести историю (по умолчанию true);
+ *   testanalyzer.history.maxRuns              — сколько последних прогонов хранить (30);
+ *   testanalyzer.history.compactAfter         — после скольких сегментов прогонов выполнять сжатие (10);
+ *   testanalyzer.history.regressionThreshold  — допустимый рост медианы и p95, доля (0.2);
+ *   testanalyzer.history.minDeltaMs           — минимальный рост в мс, считающийся регрессией (5);
+ *   testanalyzer.history.recentRuns           — сколько последних прогонов сравнивать с базовыми (3);
+ *   testanalyzer.history.minBaselineRuns      — минимум базовых прогонов для оценки теста (5).
+ */
+public class HistoryRecorder {
+
+  public static final String HISTORY_DIR = "history";
+  public static final String REGRESSIONS_FILENAME = "test-analyzer-regressions.json";
+
+  private final HistoryStore store;
+  private final RegressionDetector detector;
+  private final int maxRuns;
+  private final Map<String, RunSample> currentRun = new ConcurrentHashMap<>();
+
+  public HistoryRecorder(File reportDir) {
+    this.maxRuns = TestAnalyzerConfig.getInt("history.maxRuns", 30);
+    this.store = new HistoryStore(new File(reportDir, HISTORY_DIR), maxRuns,
+        TestAnalyzerConfig.getInt("history.compactAfter", 10));
+    this.detector = new RegressionDetector(
+        TestAnalyzerConfig.getDouble("history.regressionThreshold", 0.2),
+        TestAnalyzerConfig.getLong("history.minDeltaMs", 5) * 1_000_000L,
+        TestAnalyzerConfig.getInt("history.recentRuns", 3),
+        TestAnalyzerConfig.getInt("history.minBaselineRuns", 5));
+  }
+
+  /**
+   * Проверяет, включена ли история прогонов.
+   *
+   * @return true, если история включена настройкой `testanalyzer.history.enabled`.
+   */
+  public static boolean isEnabled() {
+    return TestAnalyzerConfig.getBoolean("history.enabled", true);
+  }
+
+  /**
+   * Учитывает результат фазы теста. Результаты фаз, отличных от TestMethod, игнорируются.
+   * Метод может вызываться одновременно из любого количества потоков.
+   *
+   * @param result Результат фазы теста.
+   */
+  public void record(TestResult result) {
+    if (!TestPhase.TEST_METHOD.equals(result.getPhase())) {
+      return;
+    }
+    String key = keyOf(result);
+    currentRun.computeIfAbsent(key, k -> new RunSample(result)).durationNanos.add(result.getDurationNanos());
+  }
+
+  /**
+   * Сохраняет текущий прогон в историю и ищет регрессии.
+   * После вызова накопленные данные текущего прогона сбрасываются.
+   *
+   * @return Найденные регрессии или null, если в прогоне не было тестов или историю не удалось обновить.
+   */
+  public synchronized List<Regression> finish() {
+    if (currentRun.isEmpty()) {
+      return null;
+    }
+    List<RunSample> samples = new ArrayList<>(currentRun.values());
+    currentRun.clear();
+    try {
+      Map<String, TestHistory> histories = store.load();
+      long run = System.currentTimeMillis();
+      for (TestHistory history : histories.values()) {
+        run = Math.max(run, history.lastRun() + 1); // Идентификаторы прогонов строго возрастают
+      }
+
+      List<TestHistory> runRecords = new ArrayList<>(samples.size());
+      for (RunSample sample : samples) {
+        long duration = sample.durationNanos.sum();
+        TestHistory record = new TestHistory(sample.key, sample.testName, sample.className);
+        record.addSample(run, duration, 1);
+        runRecords.add(record);
+        histories.computeIfAbsent(sample.key, key -> new TestHistory(key, sample.testName, sample.className))
+            .addSample(run, duration, maxRuns);
+      }
+      store.appendRun(run, runRecords);
+      store.compactIfNeeded(histories);
+
+      List<Regression> regressions = detector.detect(histories.values(), keysOf(samples));
+      if (!regressions.isEmpty()) {
+        System.out.println("[TestAnalyzer] Обнаружено регрессий длительности: " + regressions.size());
+      }
+      return regressions;
+    } catch (IOException | RuntimeException e) {
+      System.err.println("[TestAnalyzer] Ошибка при обновлении истории прогонов");
+      e.printStackTrace();
+      return null;
+    }
+  }
+
+  private static Set<String> keysOf(List<RunSample> samples) {
+    Set<String> keys = new HashSet<>();
+    for (RunSample sample : samples) {
+      keys.add(sample.key);
+    }
+    return keys;
+  }
+
+  /**
+   * Возвращает ключ теста в истории: уникальный идентификатор JUnit, а при его отсутствии — класс и имя теста.
+   */
+  static String keyOf(TestResult result) {
+    return result.getTestId() != null ? result.getTestId() : result.getClassName() + "#" + result.getTestName();
+  }
+
+  /**
+   * Суммарная длительность одного теста в текущем прогоне.
+   */
+  private static final class RunSample {
+    final String key;
+    final String testName;
+    final String className;
+    final LongAdder durationNanos = new LongAdder();
+
+    RunSample(TestResult result) {
+      this.key = keyOf(result);
+      this.testName = result.getTestName();
+      this.className = result.getClassName();
+    }
+  }
+}
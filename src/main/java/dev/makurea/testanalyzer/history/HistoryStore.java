@@ -0,0 +1,183 @@
+package dev.makurea.testanalyzer.history;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import dev.makurea.testanalyzer.report.AtomicFiles;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/*
+ * Класс `HistoryStore` — локальное файловое хранилище истории длительностей тестов.
+ *
+ * Каждый прогон дописывает в каталог истории собственный сегмент `run-<id>.ndjson` (существующие файлы
+ * не изменяются). Когда сегментов прогонов становится больше `compactAfter`, они вместе с предыдущим
+ * сжатым сегментом сливаются в один `compacted-<id>.ndjson`, где для каждого теста хранится
+ * не более `maxRuns` последних образцов, а тесты, не выполнявшиеся в последних `maxRuns` прогонах, удаляются.
+ * Идентификатор прогона — время его завершения в миллисекундах, поэтому имена файлов сортируются по времени.
+ *
+ * Новые файлы записываются атомарно ({@link AtomicFiles}), чтобы прерванный прогон
+ * не оставил поврежденный сегмент.
+ */
+public class HistoryStore {
+
+  private static final String RUN_PREFIX = "run-";
+  private static final String COMPACTED_PREFIX = "compacted-";
+  private static final String SUFFIX = ".ndjson";
+
+  private final File dir;
+  private final int maxRuns;
+  private final int compactAfter;
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  public HistoryStore(File dir, int maxRuns, int compactAfter) {
+    this.dir = dir;
+    this.maxRuns = Math.max(1, maxRuns);
+    this.compactAfter = Math.max(1, compactAfter);
+  }
+
+  /**
+   * Загружает историю всех тестов из сжатого сегмента и сегментов прогонов.
+   *
+   * @return История по ключу теста.
+   * @throws IOException если сегмент не удалось прочитать.
+   */
+  public Map<String, TestHistory> load() throws IOException {
+    Map<String, TestHistory> histories = new HashMap<>();
+    File compacted = latestCompacted();
+    long compactedUpTo = compacted == null ? Long.MIN_VALUE : segmentId(compacted, COMPACTED_PREFIX);
+    if (compacted != null) {
+      readSegment(compacted, histories);
+    }
+    for (File segment : runSegments()) {
+      // Сегменты, уже вошедшие в сжатый (если прошлое сжатие прервалось до их удаления), пропускаем
+      if (segmentId(segment, RUN_PREFIX) > compactedUpTo) {
+        readSegment(segment, histories);
+      }
+    }
+    return histories;
+  }
+
+  /**
+   * Записывает сегмент одного прогона.
+   *
+   * @param run     Идентификатор прогона.
+   * @param records Записи прогона: по одному образцу на тест.
+   * @throws IOException если сегмент не удалось записать.
+   */
+  public void appendRun(long run, Collection<TestHistory> records) throws IOException {
+    if (!dir.exists() && !dir.mkdirs()) {
+      throw new IOException("Cannot create directory " + dir.getAbsolutePath());
+    }
+    writeSegment(new File(dir, segmentName(RUN_PREFIX, run)), records);
+  }
+
+  /**
+   * Сжимает историю, если накопилось больше `compactAfter` сегментов прогонов.
+   *
+   * @param histories Полная история, загруженная через {@link #load()} и дополненная текущим прогоном.
+   * @return true, если сжатие выполнено.
+   * @throws IOException если сжатый сегмент не удалось записать.
+   */
+  public boolean compactIfNeeded(Map<String, TestHistory> histories) throws IOException {
+    List<File> runSegments = runSegments();
+    if (runSegments.size() <= compactAfter) {
+      return false;
+    }
+    long latestRun = segmentId(runSegments.get(runSegments.size() - 1), RUN_PREFIX);
+    long retentionCutoff = retentionCutoff(histories.values());
+
+    List<TestHistory> retained = new ArrayList<>();
+    for (TestHistory history : histories.values()) {
+      if (history.lastRun() >= retentionCutoff) {
+        retained.add(history);
+      }
+    }
+    File previous = latestCompacted();
+    writeSegment(new File(dir, segmentName(COMPACTED_PREFIX, latestRun)), retained);
+
+    if (previous != null) {
+      Files.deleteIfExists(previous.toPath());
+    }
+    for (File segment : runSegments) {
+      Files.deleteIfExists(segment.toPath());
+    }
+    return true;
+  }
+
+  /**
+   * Возвращает идентификатор самого старого из `maxRuns` последних прогонов.
+   */
+  private long retentionCutoff(Collection<TestHistory> histories) {
+    TreeSet<Long> latestRuns = new TreeSet<>();
+    for (TestHistory history : histories) {
+      for (long run : history.getRuns()) {
+        latestRuns.add(run);
+        if (latestRuns.size() > maxRuns) {
+          latestRuns.pollFirst();
+        }
+      }
+    }
+    return latestRuns.isEmpty() ? Long.MIN_VALUE : latestRuns.first();
+  }
+
+  private void readSegment(File segment, Map<String, TestHistory> histories) throws IOException {
+    try (MappingIterator<TestHistory> records = mapper.readerFor(TestHistory.class).readValues(segment)) {
+      while (records.hasNext()) {
+        TestHistory record = records.next();
+        TestHistory history = histories.computeIfAbsent(record.getKey(),
+            key -> new TestHistory(key, record.getTestName(), record.getClassName()));
+        long[] runs = record.getRuns();
+        long[] durations = record.getDurationsNanos();
+        for (int i = 0; i < runs.length && i < durations.length; i++) {
+          history.addSample(runs[i], durations[i], maxRuns);
+        }
+      }
+    }
+  }
+
+  private void writeSegment(File target, Collection<TestHistory> records) throws IOException {
+    AtomicFiles.write(target, temp -> {
+      try (SequenceWriter writer = mapper.writer().withRootValueSeparator("\n").writeValues(temp)) {
+        writer.writeAll(records);
+      }
+    });
+  }
+
+  private List<File> runSegments() {
+    File[] files = dir.listFiles((d, name) -> name.startsWith(RUN_PREFIX) && name.endsWith(SUFFIX));
+    List<File> segments = files == null ? new ArrayList<>() : new ArrayList<>(Arrays.asList(files));
+    segments.sort((a, b) -> a.getName().compareTo(b.getName()));
+    return segments;
+  }
+
+  private File latestCompacted() {
+    File[] files = dir.listFiles((d, name) -> name.startsWith(COMPACTED_PREFIX) && name.endsWith(SUFFIX));
+    File latest = null;
+    if (files != null) {
+      for (File file : files) {
+        if (latest == null || file.getName().compareTo(latest.getName()) > 0) {
+          latest = file;
+        }
+      }
+    }
+    return latest;
+  }
+
+  private static String segmentName(String prefix, long id) {
+    return String.format("%s%013d%s", prefix, id, SUFFIX);
+  }
+
+  private static long segmentId(File segment, String prefix) {
+    String name = segment.getName();
+    return Long.parseLong(name.substring(prefix.length(), name.length() - SUFFIX.length()));
+  }
+}
@@ -0,0 +1,78 @@
+package dev.makurea.testanalyzer.history;
+
+/*
+ * Класс `Regression` описывает тест, длительность которого выросла по сравнению с базовыми прогонами.
+ * Длительности указаны в миллисекундах, изменения — в процентах относительно базовых значений.
+ */
+public class Regression {
+  private final String key;
+  private final String testName;
+  private final String className;
+  private final double baselineMedianMs;
+  private final double recentMedianMs;
+  private final double baselineP95Ms;
+  private final double recentP95Ms;
+  private final int baselineRuns;
+  private final int recentRuns;
+
+  public Regression(TestHistory history, long baselineMedian, long recentMedian, long baselineP95, long recentP95,
+      int baselineRuns, int recentRuns) {
+    this.key = history.getKey();
+    this.testName = history.getTestName();
+    this.className = history.getClassName();
+    this.baselineMedianMs = baselineMedian / 1e6;
+    this.recentMedianMs = recentMedian / 1e6;
+    this.baselineP95Ms = baselineP95 / 1e6;
+    this.recentP95Ms = recentP95 / 1e6;
+    this.baselineRuns = baselineRuns;
+    this.recentRuns = recentRuns;
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  public String getTestName() {
+    return testName;
+  }
+
+  public String getClassName() {
+    return className;
+  }
+
+  public double getBaselineMedianMs() {
+    return baselineMedianMs;
+  }
+
+  public double getRecentMedianMs() {
+    return recentMedianMs;
+  }
+
+  public double getBaselineP95Ms() {
+    return baselineP95Ms;
+  }
+
+  public double getRecentP95Ms() {
+    return recentP95Ms;
+  }
+
+  public double getMedianChangePercent() {
+    return changePercent(baselineMedianMs, recentMedianMs);
+  }
+
+  public double getP95ChangePercent() {
+    return changePercent(baselineP95Ms, recentP95Ms);
+  }
+
+  public int getBaselineRuns() {
+    return baselineRuns;
+  }
+
+  public int getRecentRuns() {
+    return recentRuns;
+  }
+
+  private static double changePercent(double baseline, double recent) {
+    return baseline <= 0 ? 0 : (recent - baseline) / baseline * 100.0;
+  }
+}
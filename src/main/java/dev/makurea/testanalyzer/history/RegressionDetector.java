@@ -0,0 +1,66 @@
+package dev.makurea.testanalyzer.history;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/*
+ * Класс `RegressionDetector` ищет тесты, которые стали выполняться медленнее.
+ *
+ * Для каждого теста последние `recentRuns` образцов сравниваются с более ранними (базовыми) образцами.
+ * Тест считается регрессировавшим, если медиана или 95-й перцентиль недавних образцов превышает
+ * базовое значение больше чем на `threshold` (доля, 0.2 = 20%) и при этом не меньше чем на `minDeltaNanos`,
+ * чтобы шум коротких тестов не давал ложных срабатываний. Тесты с менее чем `minBaselineRuns`
+ * базовыми образцами не оцениваются.
+ */
+public class RegressionDetector {
+
+  private final double threshold;
+  private final long minDeltaNanos;
+  private final int recentRuns;
+  private final int minBaselineRuns;
+
+  public RegressionDetector(double threshold, long minDeltaNanos, int recentRuns, int minBaselineRuns) {
+    this.threshold = threshold;
+    this.minDeltaNanos = minDeltaNanos;
+    this.recentRuns = Math.max(1, recentRuns);
+    this.minBaselineRuns = Math.max(1, minBaselineRuns);
+  }
+
+  /**
+   * Находит регрессии среди тестов, выполнявшихся в текущем прогоне.
+   *
+   * @param histories   История тестов, включающая текущий прогон.
+   * @param currentKeys Ключи тестов текущего прогона.
+   * @return Регрессии, отсортированные по убыванию роста медианы.
+   */
+  public List<Regression> detect(Collection<TestHistory> histories, Set<String> currentKeys) {
+    List<Regression> regressions = new ArrayList<>();
+    for (TestHistory history : histories) {
+      if (!currentKeys.contains(history.getKey())) {
+        continue;
+      }
+      int samples = history.getRuns().length;
+      int recentFrom = Math.max(0, samples - recentRuns);
+      if (recentFrom < minBaselineRuns) {
+        continue;
+      }
+      long baselineMedian = history.percentile(0, recentFrom, 50);
+      long recentMedian = history.percentile(recentFrom, samples, 50);
+      long baselineP95 = history.percentile(0, recentFrom, 95);
+      long recentP95 = history.percentile(recentFrom, samples, 95);
+      if (regressed(baselineMedian, recentMedian) || regressed(baselineP95, recentP95)) {
+        regressions.add(new Regression(history, baselineMedian, recentMedian, baselineP95, recentP95,
+            recentFrom, samples - recentFrom));
+      }
+    }
+    regressions.sort(Comparator.comparingDouble(Regression::getMedianChangePercent).reversed());
+    return regressions;
+  }
+
+  private boolean regressed(long baseline, long recent) {
+    return recent - baseline >= minDeltaNanos && recent > baseline * (1.0 + threshold);
+  }
+}
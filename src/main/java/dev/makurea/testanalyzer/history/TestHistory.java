@@ -0,0 +1,122 @@
+package dev.makurea.testanalyzer.history;
+
+import java.util.Arrays;
+
+/*
+ * Класс `TestHistory` хранит историю длительностей фазы TestMethod одного теста по прогонам.
+ * Образцы упорядочены по идентификатору прогона (времени его завершения) по возрастанию;
+ * количество хранимых образцов ограничено параметром удержания истории.
+ *
+ * Экземпляр также является строкой сегмента истории: поля сериализуются Jackson
+ * в одну строку NDJSON. Сегмент одного прогона содержит по одному образцу на тест,
+ * сжатый сегмент — все удерживаемые образцы.
+ */
+public class TestHistory {
+  private String key;
+  private String testName;
+  private String className;
+  private long[] runs = new long[0];
+  private long[] durationsNanos = new long[0];
+
+  public TestHistory() {
+    // Для Jackson
+  }
+
+  public TestHistory(String key, String testName, String className) {
+    this.key = key;
+    this.testName = testName;
+    this.className = className;
+  }
+
+  /**
+   * Добавляет образец и оставляет не более `maxRuns` последних образцов.
+   * Образцы одного прогона (например, повторы параметризованного теста с тем же ключом) складываются.
+   *
+   * @param run            Идентификатор прогона.
+   * @param durationNanos  Длительность в наносекундах.
+   * @param maxRuns        Максимальное количество хранимых прогонов.
+   */
+  public void addSample(long run, long durationNanos, int maxRuns) {
+    int position = Arrays.binarySearch(runs, run);
+    if (position >= 0) {
+      durationsNanos[position] += durationNanos;
+      return;
+    }
+    int insertAt = -position - 1;
+    long[] newRuns = new long[runs.length + 1];
+    long[] newDurations = new long[runs.length + 1];
+    System.arraycopy(runs, 0, newRuns, 0, insertAt);
+    System.arraycopy(durationsNanos, 0, newDurations, 0, insertAt);
+    newRuns[insertAt] = run;
+    newDurations[insertAt] = durationNanos;
+    System.arraycopy(runs, insertAt, newRuns, insertAt + 1, runs.length - insertAt);
+    System.arraycopy(durationsNanos, insertAt, newDurations, insertAt + 1, runs.length - insertAt);
+    int drop = Math.max(0, newRuns.length - maxRuns);
+    runs = Arrays.copyOfRange(newRuns, drop, newRuns.length);
+    durationsNanos = Arrays.copyOfRange(newDurations, drop, newDurations.length);
+  }
+
+  /**
+   * Возвращает идентификатор последнего прогона, в котором выполнялся тест.
+   *
+   * @return Идентификатор прогона или 0, если образцов нет.
+   */
+  public long lastRun() {
+    return runs.length == 0 ? 0 : runs[runs.length - 1];
+  }
+
+  /**
+   * Вычисляет перцентиль длительностей по диапазону образцов (методом ближайшего ранга).
+   *
+   * @param from       Индекс первого образца (включительно).
+   * @param to         Индекс последнего образца (не включительно).
+   * @param percentile Перцентиль от 0 до 100.
+   * @return Значение перцентиля в наносекундах.
+   */
+  public long percentile(int from, int to, double percentile) {
+    long[] sorted = Arrays.copyOfRange(durationsNanos, from, to);
+    Arrays.sort(sorted);
+    int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+    return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  public String getTestName() {
+    return testName;
+  }
+
+  public String getClassName() {
+    return className;
+  }
+
+  public long[] getRuns() {
+    return runs;
+  }
+
+  public long[] getDurationsNanos() {
+    return durationsNanos;
+  }
+
+  public void setKey(String key) {
+    this.key = key;
+  }
+
+  public void setTestName(String testName) {
+    this.testName = testName;
+  }
+
+  public void setClassName(String className) {
+    this.className = className;
+  }
+
+  public void setRuns(long[] runs) {
+    this.runs = runs;
+  }
+
+  public void setDurationsNanos(long[] durationsNanos) {
+    this.durationsNanos = durationsNanos;
+  }
+}
@@ -0,0 +1,96 @@
+package dev.makurea.testanalyzer.leak;
+
+import java.util.List;
+
+/*
+ * Класс `ClassLeak` — изменение ресурсов JVM за время выполнения одного тестового класса:
+ * живые потоки, открытые файловые дескрипторы и занятость старшего поколения после сборки мусора,
+ * а также потоки, созданные во время класса и живые до сих пор.
+ *
+ * Если одновременно выполнялись другие классы (`overlappingClasses` больше 0), изменения
+ * могли быть вызваны ими, и отнесение к классу приблизительное.
+ */
+public class ClassLeak {
+  private final String className;
+  private final long startNanos;
+  private final long endNanos;
+  private final int threadsDelta;
+  private final long fileDescriptorsDelta;
+  private final long oldGenDeltaBytes;
+  private final List<String> leakedThreads;
+  private final int overlappingClasses;
+  private final boolean suspect;
+
+  ClassLeak(String className, long startNanos, long endNanos, int threadsDelta, long fileDescriptorsDelta,
+      long oldGenDeltaBytes, List<String> leakedThreads, int overlappingClasses, boolean suspect) {
+    this.className = className;
+    this.startNanos = startNanos;
+    this.endNanos = endNanos;
+    this.threadsDelta = threadsDelta;
+    this.fileDescriptorsDelta = fileDescriptorsDelta;
+    this.oldGenDeltaBytes = oldGenDeltaBytes;
+    this.leakedThreads = leakedThreads;
+    this.overlappingClasses = overlappingClasses;
+    this.suspect = suspect;
+  }
+
+  public String getClassName() {
+    return className;
+  }
+
+  /**
+   * @return Начало класса от начала прогона в мс.
+   */
+  public double getStartMs() {
+    return startNanos / 1e6;
+  }
+
+  /**
+   * @return Окончание класса от начала прогона в мс.
+   */
+  public double getEndMs() {
+    return endNanos / 1e6;
+  }
+
+  /**
+   * @return Изменение количества живых потоков JVM за время класса.
+   */
+  public int getThreadsDelta() {
+    return threadsDelta;
+  }
+
+  /**
+   * @return Изменение количества открытых файловых дескрипторов; 0, если ОС его не сообщает.
+   */
+  public long getFileDescriptorsDelta() {
+    return fileDescriptorsDelta;
+  }
+
+  /**
+   * @return Изменение занятости старшего поколения после сборки мусора в байтах.
+   */
+  public long getOldGenDeltaBytes() {
+    return oldGenDeltaBytes;
+  }
+
+  /**
+   * @return Имена потоков, созданных во время класса и живых на момент отчёта.
+   */
+  public List<String> getLeakedThreads() {
+    return leakedThreads;
+  }
+
+  /**
+   * @return Сколько других классов выполнялось одновременно с этим.
+   */
+  public int getOverlappingClasses() {
+    return overlappingClasses;
+  }
+
+  /**
+   * @return true, если изменения превышают пороги `testanalyzer.leak.*`.
+   */
+  public boolean isSuspect() {
+    return suspect;
+  }
+}
@@ -0,0 +1,333 @@
+package dev.makurea.testanalyzer.leak;
+
+import dev.makurea.testanalyzer.core.TestAnalyzerConfig;
+import dev.makurea.testanalyzer.core.TestAnalyzerSession;
+import dev.makurea.testanalyzer.metrics.ResourceMetrics;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/*
+ * Класс `LeakDetector` ищет тестовые классы, после которых в JVM остаются ресурсы: живые потоки,
+ * открытые файловые дескрипторы и удерживаемая память старшего поколения ({@link ResourceMetrics}).
+ * Постепенная деградация длинного прогона обычно вызвана именно такими утечками, а пара значений
+ * «память до/после» теста для их поиска слишком зашумлена.
+ *
+ * Замеры снимаются только на границах классов: перед `@BeforeAll` и после `@AfterAll`
+ * ({@link dev.makurea.testanalyzer.core.TestTimerExtension}), поэтому стоимость не зависит от количества тестов.
+ * Изменение уровней за время класса относится к этому классу, а потоки, созданные во время класса
+ * и живые на момент отчёта, перечисляются по именам. Если классы выполнялись параллельно, отнесение
+ * приблизительное, и отчёт показывает, со сколькими классами пересекался каждый.
+ *
+ * Занятость старшего поколения после сборки обновляется только сборками мусора, поэтому без
+ * `testanalyzer.leak.forceGc` ее рост приходится на класс, во время которого прошла сборка;
+ * общий тренд за прогон при этом остается точным.
+ *
+ * Настройки:
+ *   testanalyzer.leak.enabled        — искать утечки ресурсов (true);
+ *   testanalyzer.leak.sampling       — частота замеров: `class` или `test` ({@link LeakSampling});
+ *   testanalyzer.leak.forceGc        — вызывать сборку мусора перед каждым замером (false);
+ *   testanalyzer.leak.minFds         — рост дескрипторов, при котором класс подозрителен (1);
+ *   testanalyzer.leak.minOldGenMb    — рост старшего поколения в МБ, при котором класс подозрителен (16);
+ *   testanalyzer.leak.ignoreThreads  — регулярное выражение имен потоков, которые утечкой не считаются
+ *                                      (пулы JUnit и ForkJoinPool, собственные потоки анализатора);
+ *   testanalyzer.leak.maxTrendPoints — сколько точек тренда попадает в отчёт (2000).
+ */
+public class LeakDetector {
+
+  private static final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+  private static final String DEFAULT_IGNORED_THREADS = "(ForkJoinPool-\\d+|ForkJoinPool\\.commonPool)-worker-\\d+"
+      + "|junit-jupiter-timeout-watcher|test-analyzer-.*|Attach Listener|process reaper";
+  private static final int SUSPECTS_PRINTED = 5;
+
+  private final boolean forceGc = TestAnalyzerConfig.getBoolean("leak.forceGc", false);
+  private final long minFds = Math.max(1, TestAnalyzerConfig.getLong("leak.minFds", 1));
+  private final long minOldGenBytes = Math.max(1, TestAnalyzerConfig.getLong("leak.minOldGenMb", 16)) * 1024 * 1024;
+  private final int maxTrendPoints = Math.max(2, TestAnalyzerConfig.getInt("leak.maxTrendPoints", 2000));
+  private final Pattern ignoredThreads =
+      Pattern.compile(TestAnalyzerConfig.getString("leak.ignoreThreads", DEFAULT_IGNORED_THREADS));
+  // Завершенные классы в порядке окончания; границы классов редки, поэтому достаточно блокировки
+  private final List<ClassRecord> finished = new ArrayList<>();
+  private Snapshot runStart = take();
+
+  /**
+   * Проверяет, включен ли поиск утечек ресурсов.
+   *
+   * @return true, если поиск включен настройкой `testanalyzer.leak.enabled`.
+   */
+  public static boolean isEnabled() {
+    return TestAnalyzerConfig.getBoolean("leak.enabled", true);
+  }
+
+  /**
+   * Возвращает частоту замеров ресурсов.
+   *
+   * @return Частота из настройки `testanalyzer.leak.sampling`.
+   */
+  public static LeakSampling sampling() {
+    return TestAnalyzerConfig.getEnum("leak.sampling", LeakSampling.class, LeakSampling.CLASS);
+  }
+
+  /**
+   * Снимает уровни ресурсов перед тестовым классом.
+   *
+   * @return Замер, который нужно передать в {@link #classFinished(String, Window)}.
+   */
+  public Window classStarted() {
+    return new Window(take());
+  }
+
+  /**
+   * Снимает уровни ресурсов после тестового класса и запоминает их изменение.
+   *
+   * @param className Полное имя тестового класса.
+   * @param window    Замер перед классом.
+   */
+  public void classFinished(String className, Window window) {
+    Snapshot end = take();
+    long[] created = new long[end.threadIds.length];
+    int count = 0;
+    for (long id : end.threadIds) {
+      if (Arrays.binarySearch(window.start.threadIds, id) < 0) {
+        created[count++] = id;
+      }
+    }
+    ClassRecord record = new ClassRecord(className, window.start, end, Arrays.copyOf(created, count));
+    synchronized (finished) {
+      finished.add(record);
+    }
+  }
+
+  /**
+   * Проверяет, завершился ли хотя бы один класс.
+   *
+   * @return true, если с момента создания или последнего сброса классов не было.
+   */
+  public boolean isEmpty() {
+    synchronized (finished) {
+      return finished.isEmpty();
+    }
+  }
+
+  /**
+   * Сопоставляет изменения ресурсов с классами и проверяет, какие созданные классами потоки еще живы.
+   *
+   * @return Отчёт {@link LeakReport}.
+   */
+  public LeakReport analyze() {
+    List<ClassRecord> records;
+    synchronized (finished) {
+      records = new ArrayList<>(finished);
+    }
+    Snapshot end = take();
+
+    long[] starts = new long[records.size()];
+    long[] ends = new long[records.size()];
+    for (int i = 0; i < records.size(); i++) {
+      starts[i] = records.get(i).start.elapsedNanos;
+      ends[i] = records.get(i).end.elapsedNanos;
+    }
+    Arrays.sort(starts);
+    Arrays.sort(ends);
+    // Вложенный класс всегда выполняется внутри внешнего; такие пересечения параллельностью не считаются
+    Map<String, Integer> classCounts = new HashMap<>();
+    Map<String, Integer> nestedCounts = new HashMap<>();
+    for (ClassRecord record : records) {
+      classCounts.merge(record.className, 1, Integer::sum);
+      for (String enclosing : enclosingClasses(record.className)) {
+        nestedCounts.merge(enclosing, 1, Integer::sum);
+      }
+    }
+
+    List<ClassLeak> classes = new ArrayList<>(records.size());
+    for (ClassRecord record : records) {
+      // Классы, начавшиеся до окончания этого, за вычетом закончившихся до его начала и его самого
+      int overlapping = upperBound(starts, record.end.elapsedNanos - 1) - upperBound(ends, record.start.elapsedNanos) - 1
+          - nestedCounts.getOrDefault(record.className, 0);
+      for (String enclosing : enclosingClasses(record.className)) {
+        overlapping -= classCounts.getOrDefault(enclosing, 0);
+      }
+      List<String> leaked = liveThreadNames(record.createdThreadIds);
+      long fds = record.start.fileDescriptors >= 0 && record.end.fileDescriptors >= 0
+          ? record.end.fileDescriptors - record.start.fileDescriptors : 0;
+      long oldGen = record.start.oldGenBytes >= 0 && record.end.oldGenBytes >= 0
+          ? record.end.oldGenBytes - record.start.oldGenBytes : 0;
+      boolean suspect = !leaked.isEmpty() || fds >= minFds || oldGen >= minOldGenBytes;
+      classes.add(new ClassLeak(record.className, record.start.elapsedNanos, record.end.elapsedNanos,
+          record.end.threads - record.start.threads, fds, oldGen, leaked, Math.max(0, overlapping), suspect));
+    }
+    // Сортировка устойчивая: не подозрительные классы остаются в порядке окончания
+    classes.sort((left, right) -> {
+      if (left.isSuspect() != right.isSuspect()) {
+        return left.isSuspect() ? -1 : 1;
+      }
+      if (!left.isSuspect()) {
+        return 0;
+      }
+      return Comparator.comparingInt((ClassLeak leak) -> leak.getLeakedThreads().size())
+          .thenComparingLong(ClassLeak::getFileDescriptorsDelta)
+          .thenComparingLong(ClassLeak::getOldGenDeltaBytes)
+          .reversed().compare(left, right);
+    });
+
+    List<ResourceTrendPoint> trend = new ArrayList<>();
+    int stride = (records.size() + maxTrendPoints - 1) / maxTrendPoints;
+    for (int i = 0; i < records.size(); i += Math.max(1, stride)) {
+      trend.add(records.get(i).end.toPoint(records.get(i).className));
+    }
+    return new LeakReport(runStart.toPoint(null), end.toPoint(null), classes, trend, forceGc);
+  }
+
+  /**
+   * Выводит в консоль подозрительные классы отчёта.
+   *
+   * @param report Отчёт {@link LeakReport}.
+   */
+  public static void printSuspects(LeakReport report) {
+    int printed = 0;
+    for (ClassLeak leak : report.getClasses()) {
+      if (!leak.isSuspect() || printed == SUSPECTS_PRINTED) {
+        break;
+      }
+      StringBuilder line = new StringBuilder("[TestAnalyzer] Возможная утечка ресурсов в ").append(leak.getClassName()).append(':');
+      if (!leak.getLeakedThreads().isEmpty()) {
+        line.append(" потоков осталось ").append(leak.getLeakedThreads().size())
+            .append(' ').append(leak.getLeakedThreads()).append(';');
+      }
+      if (leak.getFileDescriptorsDelta() != 0) {
+        line.append(" дескрипторов ").append(String.format(Locale.ROOT, "%+d", leak.getFileDescriptorsDelta())).append(';');
+      }
+      if (leak.getOldGenDeltaBytes() != 0) {
+        line.append(" старшее поколение ")
+            .append(String.format(Locale.ROOT, "%+.1f МБ", leak.getOldGenDeltaBytes() / (1024.0 * 1024.0))).append(';');
+      }
+      if (leak.getOverlappingClasses() > 0) {
+        line.append(" выполнялся параллельно с классами: ").append(leak.getOverlappingClasses());
+      }
+      if (line.charAt(line.length() - 1) == ';') {
+        line.setLength(line.length() - 1);
+      }
+      System.out.println(line);
+      printed++;
+    }
+    long more = report.getSuspectCount() - printed;
+    if (more > 0) {
+      System.out.println("[TestAnalyzer] Еще подозрительных классов: " + more + " (см. отчёт)");
+    }
+  }
+
+  /**
+   * Сбрасывает завершенные классы, например после итогового отчёта сессии; уровни в начале прогона снимаются заново.
+   */
+  public void reset() {
+    synchronized (finished) {
+      finished.clear();
+      runStart = take();
+    }
+  }
+
+  private List<String> liveThreadNames(long[] threadIds) {
+    if (threadIds.length == 0) {
+      return Collections.emptyList();
+    }
+    List<String> names = new ArrayList<>();
+    for (ThreadInfo info : THREAD_BEAN.getThreadInfo(threadIds, 0)) {
+      if (info != null && !ignoredThreads.matcher(info.getThreadName()).matches()) {
+        names.add(info.getThreadName());
+      }
+    }
+    return names;
+  }
+
+  /**
+   * Внешние классы вложенного класса (`Outer$Inner$Deep` -> `Outer`, `Outer$Inner`).
+   */
+  private static List<String> enclosingClasses(String className) {
+    List<String> enclosing = new ArrayList<>();
+    for (int i = className.indexOf('$'); i > 0; i = className.indexOf('$', i + 1)) {
+      enclosing.add(className.substring(0, i));
+    }
+    return enclosing;
+  }
+
+  /**
+   * Количество элементов упорядоченного массива, не превышающих значение.
+   */
+  private static int upperBound(long[] sorted, long value) {
+    int low = 0;
+    int high = sorted.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (sorted[middle] <= value) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private Snapshot take() {
+    if (forceGc) {
+      System.gc();
+    }
+    long[] threadIds = THREAD_BEAN.getAllThreadIds();
+    Arrays.sort(threadIds);
+    return new Snapshot(TestAnalyzerSession.elapsedNanos(System.nanoTime()), THREAD_BEAN.getThreadCount(), threadIds,
+        ResourceMetrics.openFileDescriptors(), ResourceMetrics.oldGenAfterGcBytes());
+  }
+
+  /**
+   * Замер ресурсов перед тестовым классом.
+   */
+  public static final class Window {
+    private final Snapshot start;
+
+    private Window(Snapshot start) {
+      this.start = start;
+    }
+  }
+
+  private static final class Snapshot {
+    final long elapsedNanos;
+    final int threads;
+    final long[] threadIds;
+    final long fileDescriptors;
+    final long oldGenBytes;
+
+    Snapshot(long elapsedNanos, int threads, long[] threadIds, long fileDescriptors, long oldGenBytes) {
+      this.elapsedNanos = elapsedNanos;
+      this.threads = threads;
+      this.threadIds = threadIds;
+      this.fileDescriptors = fileDescriptors;
+      this.oldGenBytes = oldGenBytes;
+    }
+
+    ResourceTrendPoint toPoint(String className) {
+      return new ResourceTrendPoint(elapsedNanos, className, threads, fileDescriptors, oldGenBytes);
+    }
+  }
+
+  private static final class ClassRecord {
+    final String className;
+    final Snapshot start;
+    final Snapshot end;
+    final long[] createdThreadIds;
+
+    ClassRecord(String className, Snapshot start, Snapshot end, long[] createdThreadIds) {
+      this.className = className;
+      this.start = start;
+      this.end = end;
+      this.createdThreadIds = createdThreadIds;
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package dev.makurea.testanalyzer.leak;
+
+import java.util.List;
+
+/*
+ * Класс `LeakReport` — результат поиска утечек ресурсов за прогон ({@link LeakDetector}):
+ * уровни ресурсов в начале и в конце прогона, изменения по тестовым классам
+ * (сначала подозрительные) и тренд уровней по окончании классов.
+ */
+public class LeakReport {
+  private final ResourceTrendPoint start;
+  private final ResourceTrendPoint end;
+  private final List<ClassLeak> classes;
+  private final List<ResourceTrendPoint> trend;
+  private final boolean forcedGc;
+
+  LeakReport(ResourceTrendPoint start, ResourceTrendPoint end, List<ClassLeak> classes,
+      List<ResourceTrendPoint> trend, boolean forcedGc) {
+    this.start = start;
+    this.end = end;
+    this.classes = classes;
+    this.trend = trend;
+    this.forcedGc = forcedGc;
+  }
+
+  /**
+   * @return Уровни ресурсов при создании детектора (начало прогона).
+   */
+  public ResourceTrendPoint getStart() {
+    return start;
+  }
+
+  /**
+   * @return Уровни ресурсов на момент отчёта.
+   */
+  public ResourceTrendPoint getEnd() {
+    return end;
+  }
+
+  /**
+   * @return Изменения по классам: сначала подозрительные, по убыванию оставленных потоков,
+   *     дескрипторов и памяти, затем остальные в порядке окончания.
+   */
+  public List<ClassLeak> getClasses() {
+    return classes;
+  }
+
+  /**
+   * @return Уровни ресурсов по окончании классов, не больше `testanalyzer.leak.maxTrendPoints` точек.
+   */
+  public List<ResourceTrendPoint> getTrend() {
+    return trend;
+  }
+
+  /**
+   * @return true, если перед замерами вызывалась сборка мусора (`testanalyzer.leak.forceGc`).
+   */
+  public boolean isForcedGc() {
+    return forcedGc;
+  }
+
+  /**
+   * @return Количество подозрительных классов.
+   */
+  public long getSuspectCount() {
+    return classes.stream().filter(ClassLeak::isSuspect).count();
+  }
+}
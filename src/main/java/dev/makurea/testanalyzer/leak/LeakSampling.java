@@ -0,0 +1,17 @@
+package dev.makurea.testanalyzer.leak;
+
+/*
+ * Частота замеров ресурсов для поиска утечек ({@link LeakDetector}).
+ * Задается настройкой `testanalyzer.leak.sampling` (по умолчанию `class`).
+ */
+public enum LeakSampling {
+  /**
+   * Только на границах тестовых классов: перед `@BeforeAll` и после `@AfterAll`.
+   */
+  CLASS,
+  /**
+   * Дополнительно после каждой фазы теста: уровни ресурсов записываются в метрики результата
+   * ({@link dev.makurea.testanalyzer.metrics.ResourceLevelCollector}).
+   */
+  TEST
+}
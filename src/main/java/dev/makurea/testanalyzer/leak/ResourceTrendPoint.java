@@ -0,0 +1,50 @@
+package dev.makurea.testanalyzer.leak;
+
+/*
+ * Класс `ResourceTrendPoint` — уровни ресурсов JVM по окончании тестового класса;
+ * последовательность точек показывает тренд ресурсов за прогон.
+ */
+public class ResourceTrendPoint {
+  private final long atNanos;
+  private final String className;
+  private final int threads;
+  private final long fileDescriptors;
+  private final long oldGenBytes;
+
+  ResourceTrendPoint(long atNanos, String className, int threads, long fileDescriptors, long oldGenBytes) {
+    this.atNanos = atNanos;
+    this.className = className;
+    this.threads = threads;
+    this.fileDescriptors = fileDescriptors;
+    this.oldGenBytes = oldGenBytes;
+  }
+
+  /**
+   * @return Момент замера от начала прогона в мс.
+   */
+  public double getAtMs() {
+    return atNanos / 1e6;
+  }
+
+  public String getClassName() {
+    return className;
+  }
+
+  public int getThreads() {
+    return threads;
+  }
+
+  /**
+   * @return Открытые файловые дескрипторы или -1, если ОС их не сообщает.
+   */
+  public long getFileDescriptors() {
+    return fileDescriptors;
+  }
+
+  /**
+   * @return Занятость старшего поколения после сборки мусора в байтах или -1.
+   */
+  public long getOldGenBytes() {
+    return oldGenBytes;
+  }
+}
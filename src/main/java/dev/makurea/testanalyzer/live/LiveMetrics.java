@@ -0,0 +1,157 @@
+package dev.makurea.testanalyzer.live;
+
+import dev.makurea.testanalyzer.core.TestPhase;
+import dev.makurea.testanalyzer.core.TestResult;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Класс `LiveMetrics` — счетчики выполняющегося прогона для {@link LiveMetricsExporter}:
+ * завершенные и упавшие тесты, тесты, выполняющиеся сейчас, пропускная способность
+ * и перцентили длительности последних тестов.
+ *
+ * Тестовые потоки только увеличивают `LongAdder` и записывают длительность в кольцевой буфер
+ * (`AtomicLongArray`) без блокировок. Все вычисления — сортировка окна длительностей и расчет
+ * пропускной способности — выполняются потоком экспорта при формировании ответа.
+ */
+public class LiveMetrics {
+
+  private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+  private final LongAdder started = new LongAdder();
+  private final LongAdder completed = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+  private final LongAdder phases = new LongAdder();
+  private final LongAdder durationSumNanos = new LongAdder();
+  // Длительности последних тестов; индекс записи — номер теста по модулю размера окна
+  private final AtomicLongArray recent;
+  private final AtomicLong recentWritten = new AtomicLong();
+  private final int recentMask;
+  private final long rateWindowNanos;
+  private final long startNanos = System.nanoTime();
+  // Отсчеты количества завершенных тестов для расчета пропускной способности; только поток экспорта
+  private final ArrayDeque<long[]> samples = new ArrayDeque<>();
+
+  /**
+   * @param window          Сколько последних тестов учитывается в перцентилях (округляется вверх до степени двойки).
+   * @param rateWindowNanos Окно расчета пропускной способности в наносекундах.
+   */
+  public LiveMetrics(int window, long rateWindowNanos) {
+    int size = Integer.highestOneBit(Math.max(2, window - 1)) << 1;
+    this.recent = new AtomicLongArray(size);
+    this.recentMask = size - 1;
+    this.rateWindowNanos = rateWindowNanos;
+  }
+
+  /**
+   * Отмечает начало тестового метода. Вызывается из тестового потока.
+   */
+  public void testStarted() {
+    started.increment();
+  }
+
+  /**
+   * Учитывает результат фазы теста. Вызывается из тестового потока.
+   *
+   * @param result Результат фазы теста.
+   */
+  public void record(TestResult result) {
+    phases.increment();
+    if (!TestPhase.TEST_METHOD.equals(result.getPhase())) {
+      return;
+    }
+    completed.increment();
+    if ("FAILED".equals(result.getStatus())) {
+      failed.increment();
+    }
+    durationSumNanos.add(result.getDurationNanos());
+    recent.set((int) (recentWritten.getAndIncrement() & recentMask), result.getDurationNanos());
+  }
+
+  /**
+   * Запоминает текущее количество завершенных тестов для расчета пропускной способности.
+   * Вызывается периодически потоком экспорта.
+   */
+  synchronized void sample() {
+    long now = System.nanoTime();
+    samples.addLast(new long[] {now, completed.sum()});
+    // Оставляем один отсчет старше окна, чтобы окно было заполнено целиком
+    while (samples.size() > 1) {
+      long[] oldest = samples.removeFirst();
+      if (now - samples.peekFirst()[0] < rateWindowNanos) {
+        samples.addFirst(oldest);
+        break;
+      }
+    }
+  }
+
+  /**
+   * Записывает счетчики в текстовом формате Prometheus (version 0.0.4).
+   *
+   * @param out Приемник текста.
+   */
+  synchronized void writePrometheus(StringBuilder out) {
+    long completedNow = completed.sum();
+    long startedNow = started.sum();
+    long now = System.nanoTime();
+
+    counter(out, "testanalyzer_tests_completed_total", "Completed test methods.", completedNow);
+    counter(out, "testanalyzer_tests_failed_total", "Failed test methods.", failed.sum());
+    counter(out, "testanalyzer_phases_total", "Recorded test phases of all kinds.", phases.sum());
+    gauge(out, "testanalyzer_tests_running", "Test methods running right now.", Math.max(0, startedNow - completedNow));
+    gauge(out, "testanalyzer_tests_per_second", "Completed test methods per second over the rate window.",
+        throughput(now, completedNow));
+    gauge(out, "testanalyzer_run_elapsed_seconds", "Seconds since the exporter started.", (now - startNanos) / 1e9);
+
+    long written = recentWritten.get();
+    int count = (int) Math.min(written, recent.length());
+    long[] window = new long[count];
+    for (int i = 0; i < count; i++) {
+      window[i] = recent.get(i);
+    }
+    Arrays.sort(window);
+    String name = "testanalyzer_test_duration_seconds";
+    out.append("# HELP ").append(name)
+        .append(" Test method duration; quantiles over the last ").append(recent.length()).append(" tests.\n");
+    out.append("# TYPE ").append(name).append(" summary\n");
+    for (double quantile : QUANTILES) {
+      double value = count == 0 ? Double.NaN : window[Math.min(count - 1, (int) Math.ceil(quantile * count) - 1)] / 1e9;
+      out.append(name).append("{quantile=\"").append(quantile).append("\"} ").append(format(value)).append('\n');
+    }
+    out.append(name).append("_sum ").append(format(durationSumNanos.sum() / 1e9)).append('\n');
+    out.append(name).append("_count ").append(completedNow).append('\n');
+  }
+
+  private double throughput(long now, long completedNow) {
+    long[] oldest = samples.peekFirst();
+    if (oldest == null || now - oldest[0] <= 0) {
+      double elapsed = (now - startNanos) / 1e9;
+      return elapsed > 0 ? completedNow / elapsed : 0;
+    }
+    return (completedNow - oldest[1]) / ((now - oldest[0]) / 1e9);
+  }
+
+  private static void counter(StringBuilder out, String name, String help, long value) {
+    out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+    out.append("# TYPE ").append(name).append(" counter\n");
+    out.append(name).append(' ').append(value).append('\n');
+  }
+
+  private static void gauge(StringBuilder out, String name, String help, double value) {
+    out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+    out.append("# TYPE ").append(name).append(" gauge\n");
+    out.append(name).append(' ').append(format(value)).append('\n');
+  }
+
+  private static String format(double value) {
+    if (Double.isNaN(value)) {
+      return "NaN";
+    }
+    return value == Math.rint(value) && Math.abs(value) < 1e15
+        ? Long.toString((long) value) : String.format(Locale.ROOT, "%.6f", value);
+  }
+}
@@ -0,0 +1,164 @@
+package dev.makurea.testanalyzer.live;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import dev.makurea.testanalyzer.core.TestAnalyzerConfig;
+import dev.makurea.testanalyzer.report.AtomicFiles;
+import dev.makurea.testanalyzer.report.ReportGenerator;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Класс `LiveMetricsExporter` отдает счетчики выполняющегося прогона ({@link LiveMetrics})
+ * в текстовом формате Prometheus, чтобы ход длинного прогона было видно до создания отчёта:
+ *   - по HTTP (`http://<host>:<port>/metrics`) встроенным сервером JDK (`com.sun.net.httpserver`),
+ *     если задан `testanalyzer.live.port`;
+ *   - в файл, который периодически заменяется атомарно, если задан `testanalyzer.live.file`
+ *     (например, для textfile collector node_exporter); если не задано ни то ни другое,
+ *     используется `build/test-analyzer-reports/test-analyzer-live.prom`.
+ * Запросы и запись файла обслуживает один фоновый поток-демон; тестовые потоки в этом не участвуют.
+ *
+ * Настройки:
+ *   testanalyzer.live.enabled       — включить экспорт (false);
+ *   testanalyzer.live.port          — порт HTTP-сервера (0 — сервер не запускается);
+ *   testanalyzer.live.host          — адрес HTTP-сервера (127.0.0.1);
+ *   testanalyzer.live.file          — файл для записи счетчиков;
+ *   testanalyzer.live.intervalMs    — период обновления файла и отсчетов пропускной способности (1000);
+ *   testanalyzer.live.window        — сколько последних тестов учитывается в перцентилях (1024);
+ *   testanalyzer.live.rateWindowSec — окно расчета пропускной способности в секундах (60).
+ */
+public final class LiveMetricsExporter {
+
+  private static final String DEFAULT_FILE_NAME = "test-analyzer-live.prom";
+
+  private final LiveMetrics metrics;
+  private final ScheduledExecutorService executor;
+  private final HttpServer server;
+  private final File file;
+
+  private LiveMetricsExporter(LiveMetrics metrics, HttpServer server, File file, long intervalMs) {
+    this.metrics = metrics;
+    this.server = server;
+    this.file = file;
+    this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "test-analyzer-live-metrics");
+      thread.setDaemon(true);
+      return thread;
+    });
+    executor.scheduleAtFixedRate(this::update, 0, intervalMs, TimeUnit.MILLISECONDS);
+    if (server != null) {
+      server.createContext("/metrics", this::handle);
+      server.setExecutor(executor);
+      // Поток-диспетчер сервера наследует признак демона от запускающего потока и не должен удерживать JVM
+      executor.execute(server::start);
+    }
+  }
+
+  /**
+   * Проверяет, включен ли экспорт счетчиков.
+   *
+   * @return true, если экспорт включен настройкой `testanalyzer.live.enabled`.
+   */
+  public static boolean isEnabled() {
+    return TestAnalyzerConfig.getBoolean("live.enabled", false);
+  }
+
+  /**
+   * Создает счетчики и запускает экспорт по настройкам `testanalyzer.live.*`.
+   * Если HTTP-сервер не удалось запустить (например, порт занят), счетчики пишутся только в файл.
+   *
+   * @return Запущенный экспорт.
+   */
+  public static LiveMetricsExporter start() {
+    LiveMetrics metrics = new LiveMetrics(TestAnalyzerConfig.getInt("live.window", 1024),
+        TimeUnit.SECONDS.toNanos(Math.max(1, TestAnalyzerConfig.getInt("live.rateWindowSec", 60))));
+    int port = TestAnalyzerConfig.getInt("live.port", 0);
+    String path = TestAnalyzerConfig.getString("live.file", "");
+    HttpServer server = null;
+    if (port > 0) {
+      String host = TestAnalyzerConfig.getString("live.host", "127.0.0.1");
+      try {
+        server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        System.out.println("[TestAnalyzer] Счетчики прогона доступны на http://" + host + ":" + port + "/metrics");
+      } catch (IOException e) {
+        System.err.println("[TestAnalyzer] Не удалось запустить HTTP-сервер счетчиков на порту " + port + ": " + e);
+      }
+    }
+    File file = null;
+    if (!path.isEmpty() || server == null) {
+      file = path.isEmpty() ? new File(ReportGenerator.OUTPUT_DIR, DEFAULT_FILE_NAME) : new File(path);
+    }
+    long intervalMs = Math.max(100, TestAnalyzerConfig.getLong("live.intervalMs", 1000));
+    return new LiveMetricsExporter(metrics, server, file, intervalMs);
+  }
+
+  /**
+   * Возвращает счетчики, которые пополняют тестовые потоки.
+   *
+   * @return {@link LiveMetrics} прогона.
+   */
+  public LiveMetrics metrics() {
+    return metrics;
+  }
+
+  /**
+   * Записывает итоговые значения в файл и останавливает HTTP-сервер и фоновый поток.
+   */
+  public void close() {
+    executor.shutdown();
+    try {
+      executor.awaitTermination(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (server != null) {
+      server.stop(0);
+    }
+    update();
+  }
+
+  private void update() {
+    metrics.sample();
+    if (file == null) {
+      return;
+    }
+    try {
+      File dir = file.getAbsoluteFile().getParentFile();
+      if (dir != null && !dir.exists()) {
+        dir.mkdirs();
+      }
+      byte[] body = render();
+      AtomicFiles.write(file, target -> Files.write(target.toPath(), body));
+    } catch (IOException e) {
+      System.err.println("[TestAnalyzer] Ошибка при записи счетчиков прогона: " + e);
+    }
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      if (!"GET".equals(exchange.getRequestMethod())) {
+        exchange.sendResponseHeaders(405, -1);
+        return;
+      }
+      byte[] body = render();
+      exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    }
+  }
+
+  private byte[] render() {
+    StringBuilder out = new StringBuilder(2048);
+    metrics.writePrometheus(out);
+    return out.toString().getBytes(StandardCharsets.UTF_8);
+  }
+}
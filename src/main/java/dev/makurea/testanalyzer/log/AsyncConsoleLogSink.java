@@ -0,0 +1,187 @@
+package dev.makurea.testanalyzer.log;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+ * Класс `AsyncConsoleLogSink` выводит строку о каждой фазе теста, не задерживая тестовые потоки
+ * на блокировке `PrintStream`.
+ *
+ * Тестовый поток только кладет событие в ограниченную очередь `ArrayBlockingQueue` (внутри это
+ * кольцевой массив под одной блокировкой).
+ * Фоновый поток забирает события пачками, форматирует их и записывает пачку в поток вывода
+ * одним вызовом. Если вывод отстает и буфер заполнен, тестовые потоки ненадолго блокируются,
+ * поэтому строки не теряются. {@link #flush()} дожидается вывода всех поставленных ранее строк,
+ * а строки, переданные после {@link #close()}, выводятся синхронно.
+ *
+ * Постановка в очередь выполняется под блокировкой чтения, а {@link #close()} помечает приемник
+ * закрытым под блокировкой записи. Поэтому маркер конца вывода попадает в очередь только после
+ * всех уже начатых вызовов, и строки, выданные во время завершения, не теряются.
+ */
+public class AsyncConsoleLogSink implements LogSink {
+
+  // Сколько событий фоновый поток забирает из буфера за один раз
+  private static final int DRAIN_BATCH_SIZE = 256;
+  // Маркер конца вывода; сравнивается по ссылке
+  private static final Entry END_OF_STREAM = new Entry(null, null, 0, null);
+
+  private final PrintStream out;
+  private final BlockingQueue<Entry> queue;
+  private final Thread writerThread;
+  private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+  private boolean closed;
+
+  /**
+   * Создает приемник и запускает фоновый поток вывода.
+   *
+   * @param out           Поток, в который выводятся строки.
+   * @param queueCapacity Емкость буфера событий, ожидающих вывода.
+   */
+  public AsyncConsoleLogSink(PrintStream out, int queueCapacity) {
+    this.out = out;
+    this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+    this.writerThread = new Thread(this::drainLoop, "test-analyzer-log");
+    this.writerThread.setDaemon(true);
+    this.writerThread.start();
+  }
+
+  @Override
+  public void phaseFinished(String testName, String phase, long durationNanos) {
+    Entry entry = new Entry(testName, phase, durationNanos, null);
+    boolean queued;
+    closeLock.readLock().lock();
+    try {
+      queued = !closed && enqueue(entry);
+    } finally {
+      closeLock.readLock().unlock();
+    }
+    if (!queued) {
+      out.println(entry.format());
+    }
+  }
+
+  @Override
+  public void flush() {
+    CountDownLatch flushed = new CountDownLatch(1);
+    closeLock.readLock().lock();
+    try {
+      if (closed || !enqueue(new Entry(null, null, 0, flushed))) {
+        return;
+      }
+    } finally {
+      closeLock.readLock().unlock();
+    }
+    try {
+      flushed.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Выводит все строки из буфера и останавливает фоновый поток. Повторные вызовы ничего не делают.
+   */
+  @Override
+  public void close() {
+    closeLock.writeLock().lock();
+    try {
+      if (closed) {
+        return;
+      }
+      closed = true;
+    } finally {
+      closeLock.writeLock().unlock();
+    }
+    boolean interrupted = false;
+    while (true) {
+      try {
+        queue.put(END_OF_STREAM);
+        writerThread.join();
+        break;
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private boolean enqueue(Entry entry) {
+    try {
+      queue.put(entry);
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  /**
+   * Основной цикл фонового потока: забирает события пачками и выводит каждую пачку одним вызовом.
+   */
+  private void drainLoop() {
+    List<Entry> batch = new ArrayList<>(DRAIN_BATCH_SIZE);
+    StringBuilder text = new StringBuilder();
+    String lineSeparator = System.lineSeparator();
+    boolean finished = false;
+    while (!finished) {
+      try {
+        batch.add(queue.take());
+      } catch (InterruptedException e) {
+        // Поток вывода завершается только по маркеру конца, чтобы не потерять строки
+        continue;
+      }
+      queue.drainTo(batch, DRAIN_BATCH_SIZE - 1);
+      List<CountDownLatch> flushRequests = null;
+      for (Entry entry : batch) {
+        if (entry == END_OF_STREAM) {
+          finished = true;
+        } else if (entry.flushed != null) {
+          if (flushRequests == null) {
+            flushRequests = new ArrayList<>();
+          }
+          flushRequests.add(entry.flushed);
+        } else {
+          text.append(entry.format()).append(lineSeparator);
+        }
+      }
+      batch.clear();
+      if (text.length() > 0) {
+        out.print(text);
+        out.flush();
+        text.setLength(0);
+      }
+      if (flushRequests != null) {
+        flushRequests.forEach(CountDownLatch::countDown);
+      }
+    }
+  }
+
+  /**
+   * Событие о завершенной фазе теста или запрос на сброс буфера (если задан `flushed`).
+   */
+  private static final class Entry {
+    final String testName;
+    final String phase;
+    final long durationNanos;
+    final CountDownLatch flushed;
+
+    Entry(String testName, String phase, long durationNanos, CountDownLatch flushed) {
+      this.testName = testName;
+      this.phase = phase;
+      this.durationNanos = durationNanos;
+      this.flushed = flushed;
+    }
+
+    String format() {
+      return LogSink.formatLine(testName, phase, durationNanos);
+    }
+  }
+}
@@ -0,0 +1,62 @@
+package dev.makurea.testanalyzer.log;
+
+import dev.makurea.testanalyzer.core.TestAnalyzerConfig;
+
+/*
+ * Интерфейс `LogSink` принимает сведения о завершенных фазах тестов для вывода в консоль.
+ *
+ * Реализации вызываются из тестовых потоков и должны быть потокобезопасны и дешевы:
+ * форматирование строк и запись в `System.out` выполняются вне тестового потока
+ * или откладываются до конца прогона.
+ */
+public interface LogSink {
+
+  /**
+   * Сообщает о завершении фазы теста.
+   *
+   * @param testName      Отображаемое имя теста.
+   * @param phase         Фаза теста (например, "TestMethod" или "BeforeEach").
+   * @param durationNanos Длительность фазы в наносекундах.
+   */
+  void phaseFinished(String testName, String phase, long durationNanos);
+
+  /**
+   * Выводит все накопленные строки и дожидается их записи. Вызывается в конце прогона.
+   */
+  void flush();
+
+  /**
+   * Выводит накопленные строки и освобождает ресурсы. Вызывается при завершении JVM.
+   */
+  void close();
+
+  /**
+   * Создает приемник по настройкам `testanalyzer.log.*`.
+   *
+   * @return Приемник, соответствующий настройке `testanalyzer.log.verbosity`.
+   */
+  static LogSink fromConfig() {
+    LogVerbosity verbosity = TestAnalyzerConfig.getEnum("log.verbosity", LogVerbosity.class, LogVerbosity.ALL);
+    switch (verbosity) {
+      case OFF:
+        return NoOpLogSink.INSTANCE;
+      case SLOWEST:
+        return new SlowestPhasesLogSink(System.out, TestAnalyzerConfig.getInt("log.slowest", 10));
+      default:
+        return new AsyncConsoleLogSink(System.out, TestAnalyzerConfig.getInt("log.queueCapacity", 8192));
+    }
+  }
+
+  /**
+   * Форматирует строку о завершенной фазе теста.
+   *
+   * @param testName      Отображаемое имя теста.
+   * @param phase         Фаза теста.
+   * @param durationNanos Длительность фазы в наносекундах.
+   * @return Строка без перевода строки в конце.
+   */
+  static String formatLine(String testName, String phase, long durationNanos) {
+    String label = "TestMethod".equals(phase) ? "Test method" : phase;
+    return String.format("[TestAnalyzer] %s %s executed in %.3f ms", testName, label, durationNanos / 1e6);
+  }
+}
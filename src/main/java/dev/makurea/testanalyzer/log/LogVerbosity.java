@@ -0,0 +1,20 @@
+package dev.makurea.testanalyzer.log;
+
+/*
+ * Подробность вывода строк о выполнении фаз тестов в консоль.
+ * Задается настройкой `testanalyzer.log.verbosity` (по умолчанию `all`).
+ */
+public enum LogVerbosity {
+  /**
+   * Строки о фазах тестов не выводятся.
+   */
+  OFF,
+  /**
+   * В конце прогона выводятся только самые медленные фазы (их количество задает `testanalyzer.log.slowest`).
+   */
+  SLOWEST,
+  /**
+   * Выводится строка о каждой фазе каждого теста.
+   */
+  ALL
+}
@@ -0,0 +1,23 @@
+package dev.makurea.testanalyzer.log;
+
+/*
+ * Приемник, который ничего не выводит (`testanalyzer.log.verbosity=off`).
+ */
+final class NoOpLogSink implements LogSink {
+
+  static final NoOpLogSink INSTANCE = new NoOpLogSink();
+
+  private NoOpLogSink() {}
+
+  @Override
+  public void phaseFinished(String testName, String phase, long durationNanos) {
+  }
+
+  @Override
+  public void flush() {
+  }
+
+  @Override
+  public void close() {
+  }
+}
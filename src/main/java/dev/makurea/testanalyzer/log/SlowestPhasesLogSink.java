@@ -0,0 +1,88 @@
+package dev.makurea.testanalyzer.log;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/*
+ * Класс `SlowestPhasesLogSink` вместо строки о каждой фазе выводит в конце прогона
+ * только `limit` самых медленных фаз тестов.
+ *
+ * Фазы хранятся в куче ограниченного размера с самой быстрой фазой в вершине. Пока куча заполнена,
+ * фазы не медленнее текущего минимума отбрасываются без блокировки, поэтому тестовые потоки
+ * почти никогда не конкурируют за монитор.
+ */
+public class SlowestPhasesLogSink implements LogSink {
+
+  private final PrintStream out;
+  private final int limit;
+  private final PriorityQueue<Phase> slowest;
+  // Длительность самой быстрой фазы в заполненной куче; -1, пока куча не заполнена
+  private volatile long threshold = -1;
+
+  /**
+   * @param out   Поток, в который выводятся строки.
+   * @param limit Сколько самых медленных фаз выводить.
+   */
+  public SlowestPhasesLogSink(PrintStream out, int limit) {
+    this.out = out;
+    this.limit = Math.max(1, limit);
+    this.slowest = new PriorityQueue<>(this.limit + 1, (a, b) -> Long.compare(a.durationNanos, b.durationNanos));
+  }
+
+  @Override
+  public void phaseFinished(String testName, String phase, long durationNanos) {
+    if (durationNanos <= threshold) {
+      return;
+    }
+    synchronized (this) {
+      slowest.add(new Phase(testName, phase, durationNanos));
+      if (slowest.size() > limit) {
+        slowest.poll();
+      }
+      if (slowest.size() == limit) {
+        threshold = slowest.peek().durationNanos;
+      }
+    }
+  }
+
+  /**
+   * Выводит самые медленные фазы, накопленные с предыдущего вызова, по убыванию длительности.
+   */
+  @Override
+  public void flush() {
+    List<Phase> phases;
+    synchronized (this) {
+      phases = new ArrayList<>(slowest);
+      slowest.clear();
+      threshold = -1;
+    }
+    if (phases.isEmpty()) {
+      return;
+    }
+    phases.sort((a, b) -> Long.compare(b.durationNanos, a.durationNanos));
+    StringBuilder text = new StringBuilder("[TestAnalyzer] Самые медленные фазы тестов (" + phases.size() + "):");
+    for (Phase phase : phases) {
+      text.append(System.lineSeparator()).append(LogSink.formatLine(phase.testName, phase.phase, phase.durationNanos));
+    }
+    out.println(text);
+  }
+
+  @Override
+  public void close() {
+    flush();
+  }
+
+  private static final class Phase {
+    final String testName;
+    final String phase;
+    final long durationNanos;
+
+    Phase(String testName, String phase, long durationNanos) {
+      this.testName = testName;
+      this.phase = phase;
+      this.durationNanos = durationNanos;
+    }
+  }
+}
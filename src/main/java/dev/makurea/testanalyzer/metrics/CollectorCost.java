@@ -0,0 +1,45 @@
+package dev.makurea.testanalyzer.metrics;
+
+/*
+ * Класс `CollectorCost` — собственная стоимость одного сборщика метрик за прогон:
+ * количество вызовов и суммарное время их выполнения.
+ */
+public class CollectorCost {
+  private final String name;
+  private final String className;
+  private final long invocations;
+  private final long totalNanos;
+
+  public CollectorCost(String name, String className, long invocations, long totalNanos) {
+    this.name = name;
+    this.className = className;
+    this.invocations = invocations;
+    this.totalNanos = totalNanos;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getClassName() {
+    return className;
+  }
+
+  public long getInvocations() {
+    return invocations;
+  }
+
+  /**
+   * @return Суммарное время вызовов в мс с дробной частью.
+   */
+  public double getTotalMs() {
+    return totalNanos / 1e6;
+  }
+
+  /**
+   * @return Среднее время одного вызова в наносекундах.
+   */
+  public long getAverageNanos() {
+    return invocations == 0 ? 0 : totalNanos / invocations;
+  }
+}
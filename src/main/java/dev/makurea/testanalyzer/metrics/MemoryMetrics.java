@@ -0,0 +1,96 @@
+package dev.makurea.testanalyzer.metrics;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+
+/*
+ * Класс `MemoryMetrics` снимает показатели памяти, пригодные для замера отдельного теста.
+ *
+ * В отличие от разницы `Runtime.totalMemory() - freeMemory()`, которая зависит от сборок мусора
+ * и от параллельно выполняющихся тестов, счетчик `com.sun.management.ThreadMXBean.getThreadAllocatedBytes`
+ * показывает, сколько байт выделил именно текущий поток, и только растет.
+ * Дополнительно снимаются суммарные количество и время сборок мусора по всем `GarbageCollectorMXBean`
+ * (эти счетчики общие для JVM).
+ *
+ * Если JVM не поддерживает учет выделенной памяти по потокам, методы возвращают -1,
+ * и отчёт использует прежнюю пару значений «память до/после».
+ */
+public final class MemoryMetrics {
+
+  private static final com.sun.management.ThreadMXBean THREAD_BEAN = resolveThreadBean();
+  private static final List<GarbageCollectorMXBean> GC_BEANS = ManagementFactory.getGarbageCollectorMXBeans();
+
+  private MemoryMetrics() {}
+
+  /**
+   * Проверяет, доступен ли учет выделенной памяти по потокам.
+   *
+   * @return true, если {@link #threadAllocatedBytes()} возвращает реальные значения.
+   */
+  public static boolean isAllocationTrackingSupported() {
+    return THREAD_BEAN != null;
+  }
+
+  /**
+   * Возвращает количество байт, выделенных текущим потоком с момента его запуска.
+   *
+   * @return Количество байт или -1, если учет не поддерживается.
+   */
+  public static long threadAllocatedBytes() {
+    if (THREAD_BEAN == null) {
+      return -1;
+    }
+    return THREAD_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  /**
+   * Возвращает суммарное количество сборок мусора всеми сборщиками с момента запуска JVM.
+   *
+   * @return Количество сборок.
+   */
+  public static long gcCount() {
+    long total = 0;
+    for (GarbageCollectorMXBean bean : GC_BEANS) {
+      total += Math.max(0, bean.getCollectionCount());
+    }
+    return total;
+  }
+
+  /**
+   * Возвращает суммарное время сборок мусора всеми сборщиками с момента запуска JVM.
+   *
+   * @return Время в миллисекундах.
+   */
+  public static long gcTimeMs() {
+    long total = 0;
+    for (GarbageCollectorMXBean bean : GC_BEANS) {
+      total += Math.max(0, bean.getCollectionTime());
+    }
+    return total;
+  }
+
+  /**
+   * Возвращает HotSpot-расширение `ThreadMXBean` с включенным учетом выделенной памяти
+   * или null, если оно недоступно.
+   */
+  private static com.sun.management.ThreadMXBean resolveThreadBean() {
+    try {
+      ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+      if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+        return null;
+      }
+      com.sun.management.ThreadMXBean hotspotBean = (com.sun.management.ThreadMXBean) bean;
+      if (!hotspotBean.isThreadAllocatedMemorySupported()) {
+        return null;
+      }
+      if (!hotspotBean.isThreadAllocatedMemoryEnabled()) {
+        hotspotBean.setThreadAllocatedMemoryEnabled(true);
+      }
+      return hotspotBean;
+    } catch (LinkageError | UnsupportedOperationException | SecurityException e) {
+      return null;
+    }
+  }
+}
@@ -3,7 +3,29 @@ package dev.makurea.testanalyzer.metrics;
 import dev.makurea.testanalyzer.core.TestResult;
 import org.junit.jupiter.api.extension.ExtensionContext;
 
+/*
+ * Интерфейс `MetricCollector` — сборщик метрик фазы теста. Вызывается из тестового потока
+ * для каждой опубликованной фазы теста ({@link dev.makurea.testanalyzer.core.TestPhase}): TestMethod,
+ * а затем Constructor, BeforeEach и AfterEach, если методы этих фаз вызывались, — и дополняет Builder
+ * результата. Фазы класса (ClassConstructor, BeforeAll, AfterAll) публикуются без сборщиков.
+ *
+ * Собственные сборщики подключаются без изменения библиотеки: через `ServiceLoader`
+ * (файл `META-INF/services/dev.makurea.testanalyzer.metrics.MetricCollector`) или настройкой
+ * `testanalyzer.collectors` со списком классов. Произвольные значения записываются
+ * в {@link TestResult.Builder#metric(String, Object)}. Реализация должна иметь открытый конструктор
+ * без параметров и быть потокобезопасной.
+ */
 public interface MetricCollector {
+
   void collect(ExtensionContext context, TestResult.Builder builder);
-}
 
+  /**
+   * Возвращает имя сборщика, по которому его можно отключить настройкой
+   * `testanalyzer.collectors.disabled` и по которому учитывается его стоимость.
+   *
+   * @return Имя сборщика; по умолчанию простое имя класса.
+   */
+  default String name() {
+    return getClass().getSimpleName();
+  }
+}
@@ -0,0 +1,182 @@
+package dev.makurea.testanalyzer.metrics;
+
+import dev.makurea.testanalyzer.core.TestAnalyzerConfig;
+import dev.makurea.testanalyzer.core.TestResult;
+import dev.makurea.testanalyzer.leak.LeakDetector;
+import dev.makurea.testanalyzer.leak.LeakSampling;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/*
+ * Класс `MetricCollectorPipeline` — цепочка сборщиков метрик, общая для всего прогона.
+ *
+ * Состав цепочки: встроенные сборщики (статус, повторные попытки, теги), затем найденные через
+ * `ServiceLoader`, затем перечисленные в настройке `testanalyzer.collectors` (полные имена классов
+ * через запятую). Сборщики, имя или класс которых указаны в `testanalyzer.collectors.disabled`,
+ * в цепочку не попадают.
+ *
+ * Время выполнения каждого сборщика суммируется в `LongAdder` (одна пара замеров `System.nanoTime()`
+ * на сборщик: конец одного замера — начало следующего), чтобы медленный сборщик был виден в отчёте
+ * ({@link #costs()}). Исключение в сборщике не прерывает тест: сообщение выводится один раз,
+ * а остальные сборщики продолжают работу.
+ */
+public class MetricCollectorPipeline {
+
+  private final Stage[] stages;
+
+  /**
+   * Создает цепочку из встроенных, найденных через `ServiceLoader` и заданных настройкой сборщиков.
+   *
+   * @return Цепочка сборщиков по настройкам `testanalyzer.collectors*`.
+   */
+  public static MetricCollectorPipeline fromConfig() {
+    List<MetricCollector> collectors = new ArrayList<>(Arrays.asList(
+        new StatusCollector(), // Собирает статус выполнения теста
+        new RetryCollector(),  // Собирает информацию о повторных попытках
+        new TagsCollector()    // Собирает теги теста
+    ));
+    if (LeakDetector.isEnabled() && LeakDetector.sampling() == LeakSampling.TEST) {
+      collectors.add(new ResourceLevelCollector()); // Уровни ресурсов после каждой фазы для поиска утечек
+    }
+    collectors.addAll(discover());
+    for (String className : listSetting("collectors")) {
+      MetricCollector collector = instantiate(className);
+      if (collector != null) {
+        collectors.add(collector);
+      }
+    }
+    return new MetricCollectorPipeline(collectors, listSetting("collectors.disabled"));
+  }
+
+  /**
+   * @param collectors Сборщики в порядке вызова; повторные экземпляры одного класса пропускаются.
+   * @param disabled   Имена или полные имена классов отключенных сборщиков.
+   */
+  public MetricCollectorPipeline(List<MetricCollector> collectors, Set<String> disabled) {
+    Set<Class<?>> seen = new HashSet<>();
+    List<Stage> enabled = new ArrayList<>();
+    for (MetricCollector collector : collectors) {
+      if (!seen.add(collector.getClass())) {
+        continue;
+      }
+      if (disabled.contains(collector.name()) || disabled.contains(collector.getClass().getName())) {
+        System.out.println("[TestAnalyzer] Сборщик метрик отключен: " + collector.name());
+        continue;
+      }
+      enabled.add(new Stage(collector));
+    }
+    this.stages = enabled.toArray(new Stage[0]);
+  }
+
+  /**
+   * Вызывает все сборщики цепочки для фазы теста и учитывает время каждого.
+   *
+   * @param context Контекст выполнения JUnit.
+   * @param builder Builder результата фазы.
+   */
+  public void collect(ExtensionContext context, TestResult.Builder builder) {
+    long start = System.nanoTime();
+    for (Stage stage : stages) {
+      try {
+        stage.collector.collect(context, builder);
+      } catch (RuntimeException e) {
+        stage.failed(e);
+      }
+      long end = System.nanoTime();
+      stage.invocations.increment();
+      stage.totalNanos.add(end - start);
+      start = end;
+    }
+  }
+
+  /**
+   * Возвращает накопленную стоимость каждого сборщика в порядке вызова.
+   *
+   * @return Стоимость сборщиков.
+   */
+  public List<CollectorCost> costs() {
+    List<CollectorCost> costs = new ArrayList<>(stages.length);
+    for (Stage stage : stages) {
+      costs.add(new CollectorCost(stage.collector.name(), stage.collector.getClass().getName(),
+          stage.invocations.sum(), stage.totalNanos.sum()));
+    }
+    return costs;
+  }
+
+  private static List<MetricCollector> discover() {
+    ClassLoader loader = Thread.currentThread().getContextClassLoader();
+    if (loader == null) {
+      loader = MetricCollector.class.getClassLoader();
+    }
+    List<MetricCollector> collectors = new ArrayList<>();
+    Iterator<MetricCollector> iterator = ServiceLoader.load(MetricCollector.class, loader).iterator();
+    while (true) {
+      try {
+        if (!iterator.hasNext()) {
+          break;
+        }
+        collectors.add(iterator.next());
+      } catch (ServiceConfigurationError e) {
+        System.err.println("[TestAnalyzer] Не удалось загрузить сборщик метрик: " + e.getMessage());
+      }
+    }
+    return collectors;
+  }
+
+  private static MetricCollector instantiate(String className) {
+    try {
+      ClassLoader loader = Thread.currentThread().getContextClassLoader();
+      Class<?> type = Class.forName(className, true, loader != null ? loader : MetricCollector.class.getClassLoader());
+      return (MetricCollector) type.getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException | ClassCastException | LinkageError e) {
+      System.err.println("[TestAnalyzer] Не удалось создать сборщик метрик " + className + ": " + e);
+      return null;
+    }
+  }
+
+  private static Set<String> listSetting(String key) {
+    String value = TestAnalyzerConfig.getString(key, null);
+    if (value == null) {
+      return Collections.emptySet();
+    }
+    Set<String> items = new LinkedHashSet<>();
+    for (String item : value.split(",")) {
+      if (!item.trim().isEmpty()) {
+        items.add(item.trim());
+      }
+    }
+    return items;
+  }
+
+  /**
+   * Сборщик цепочки и его счетчики стоимости.
+   */
+  private static final class Stage {
+    final MetricCollector collector;
+    final LongAdder invocations = new LongAdder();
+    final LongAdder totalNanos = new LongAdder();
+    final AtomicBoolean failureReported = new AtomicBoolean();
+
+    Stage(MetricCollector collector) {
+      this.collector = collector;
+    }
+
+    void failed(RuntimeException e) {
+      if (failureReported.compareAndSet(false, true)) {
+        System.err.println("[TestAnalyzer] Ошибка в сборщике метрик " + collector.name() + " (повторные не выводятся)");
+        e.printStackTrace();
+      }
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package dev.makurea.testanalyzer.metrics;
+
+import dev.makurea.testanalyzer.core.TestResult;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/*
+ * Сборщик `ResourceLevelCollector` записывает в результат каждой фазы теста уровни ресурсов JVM
+ * после нее ({@link ResourceMetrics}): `openFileDescriptors` и `oldGenAfterGcBytes`.
+ * Подключается настройкой `testanalyzer.leak.sampling=test`, когда рост ресурсов нужно проследить
+ * до отдельного теста, а не только до класса ({@link dev.makurea.testanalyzer.leak.LeakDetector}).
+ * Количество живых потоков до и после теста записывается всегда ({@link ThreadMetrics}).
+ */
+public class ResourceLevelCollector implements MetricCollector {
+
+  @Override
+  public void collect(ExtensionContext context, TestResult.Builder builder) {
+    long fds = ResourceMetrics.openFileDescriptors();
+    if (fds >= 0) {
+      builder.metric("openFileDescriptors", fds);
+    }
+    long oldGen = ResourceMetrics.oldGenAfterGcBytes();
+    if (oldGen >= 0) {
+      builder.metric("oldGenAfterGcBytes", oldGen);
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package dev.makurea.testanalyzer.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Класс `ResourceMetrics` снимает уровни ресурсов JVM, рост которых за прогон указывает на утечку:
+ * открытые файловые дескрипторы процесса (`com.sun.management.UnixOperatingSystemMXBean`)
+ * и занятость старшего поколения кучи после последней сборки мусора (`MemoryPoolMXBean.getCollectionUsage`).
+ *
+ * В отличие от `Runtime.totalMemory() - freeMemory()`, занятость после сборки не зависит от того,
+ * сколько мусора накопилось к моменту замера, и растет только за счет удерживаемых объектов.
+ * Для сборщиков без поколений (ZGC, Shenandoah) учитывается вся куча после сборки.
+ * Замеры не создают объектов, кроме `MemoryUsage`, и не вызывают сборку мусора.
+ * Недоступные значения равны -1.
+ */
+public final class ResourceMetrics {
+
+  private static final OperatingSystemMXBean OS_BEAN = ManagementFactory.getOperatingSystemMXBean();
+  private static final List<MemoryPoolMXBean> OLD_GEN_POOLS = resolveOldGenPools();
+
+  private ResourceMetrics() {}
+
+  /**
+   * Возвращает количество открытых файловых дескрипторов процесса.
+   *
+   * @return Количество дескрипторов или -1, если ОС или JVM его не сообщают.
+   */
+  public static long openFileDescriptors() {
+    if (OS_BEAN instanceof com.sun.management.UnixOperatingSystemMXBean) {
+      return ((com.sun.management.UnixOperatingSystemMXBean) OS_BEAN).getOpenFileDescriptorCount();
+    }
+    return -1;
+  }
+
+  /**
+   * Возвращает занятость старшего поколения кучи после последней сборки мусора.
+   * До первой сборки, затронувшей старшее поколение, значение равно 0.
+   *
+   * @return Количество байт или -1, если пулы памяти не сообщают занятость после сборки.
+   */
+  public static long oldGenAfterGcBytes() {
+    if (OLD_GEN_POOLS.isEmpty()) {
+      return -1;
+    }
+    long total = 0;
+    for (MemoryPoolMXBean pool : OLD_GEN_POOLS) {
+      MemoryUsage usage = pool.getCollectionUsage();
+      if (usage != null) {
+        total += usage.getUsed();
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Пулы старшего поколения (`G1 Old Gen`, `PS Old Gen`, `Tenured Gen`), а если их нет —
+   * все пулы кучи, которые сообщают занятость после сборки.
+   */
+  private static List<MemoryPoolMXBean> resolveOldGenPools() {
+    List<MemoryPoolMXBean> oldGen = new ArrayList<>();
+    List<MemoryPoolMXBean> heap = new ArrayList<>();
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() != MemoryType.HEAP || !pool.isCollectionUsageThresholdSupported() && pool.getCollectionUsage() == null) {
+        continue;
+      }
+      heap.add(pool);
+      String name = pool.getName();
+      if (name.contains("Old") || name.contains("Tenured")) {
+        oldGen.add(pool);
+      }
+    }
+    return oldGen.isEmpty() ? heap : oldGen;
+  }
+}
@@ -1,21 +1,95 @@
 package dev.makurea.testanalyzer.metrics;
 
-import java.util.HashMap;
+import dev.makurea.testanalyzer.core.TestAnalyzerConfig;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
 
-public class RetryAnalyzerRegistry {
+/*
+ * Класс `RetryAnalyzerRegistry` считает неудачные выполнения тестов, чтобы определить номер повторной попытки.
+ *
+ * Ключ — уникальный идентификатор JUnit (`ExtensionContext.getUniqueId()`), поэтому перегруженные методы
+ * и вызовы параметризованных тестов учитываются раздельно. Реестр может использоваться одновременно
+ * из любого количества потоков: счетчики хранятся в `ConcurrentHashMap` как `LongAdder`.
+ *
+ * В реестре остаются только тесты, которые упали и еще не прошли успешно. Их количество ограничено
+ * настройкой `testanalyzer.retry.maxTrackedTests` (по умолчанию 10000); при превышении первыми
+ * удаляются самые давно добавленные тесты.
+ */
+public final class RetryAnalyzerRegistry {
 
-  private static final Map<String, Integer> retriesMap = new HashMap<>();
+  private static final int MAX_TRACKED_TESTS = Math.max(1, TestAnalyzerConfig.getInt("retry.maxTrackedTests", 10_000));
 
-  public static void registerRetry(String methodName) {
-    retriesMap.put(methodName, retriesMap.getOrDefault(methodName, 0) + 1);
+  private static final Map<String, LongAdder> retriesMap = new ConcurrentHashMap<>();
+  // Порядок добавления тестов в реестр для вытеснения самых старых
+  private static final Queue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+
+  private RetryAnalyzerRegistry() {}
+
+  /**
+   * Учитывает неудачное выполнение теста.
+   *
+   * @param testId Уникальный идентификатор теста JUnit.
+   */
+  public static void registerRetry(String testId) {
+    LongAdder retries = retriesMap.get(testId);
+    if (retries == null) {
+      LongAdder created = new LongAdder();
+      retries = retriesMap.putIfAbsent(testId, created);
+      if (retries == null) {
+        retries = created;
+        insertionOrder.offer(testId);
+        evictIfNeeded();
+      }
+    }
+    retries.increment();
+  }
+
+  /**
+   * Возвращает количество неудачных выполнений теста с момента его последнего успешного выполнения.
+   *
+   * @param testId Уникальный идентификатор теста JUnit.
+   * @return Количество неудачных выполнений.
+   */
+  public static int getRetries(String testId) {
+    LongAdder retries = retriesMap.get(testId);
+    return retries == null ? 0 : retries.intValue();
   }
 
-  public static int getRetries(String methodName) {
-    return retriesMap.getOrDefault(methodName, 0);
+  /**
+   * Удаляет счетчик теста, например после его успешного выполнения.
+   *
+   * @param testId Уникальный идентификатор теста JUnit.
+   */
+  public static void resetRetries(String testId) {
+    if (retriesMap.remove(testId) != null) {
+      insertionOrder.remove(testId);
+    }
+  }
+
+  /**
+   * Возвращает количество тестов, для которых хранятся счетчики.
+   *
+   * @return Количество отслеживаемых тестов.
+   */
+  public static int trackedTests() {
+    return retriesMap.size();
   }
 
   public static void reset() {
     retriesMap.clear();
+    insertionOrder.clear();
+  }
+
+  private static void evictIfNeeded() {
+    while (retriesMap.size() > MAX_TRACKED_TESTS) {
+      String eldest = insertionOrder.poll();
+      if (eldest == null) {
+        return;
+      }
+      retriesMap.remove(eldest);
+    }
   }
 }
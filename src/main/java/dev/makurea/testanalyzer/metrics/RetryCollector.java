@@ -3,25 +3,36 @@ package dev.makurea.testanalyzer.metrics;
 import dev.makurea.testanalyzer.core.TestResult;
 import org.junit.jupiter.api.extension.ExtensionContext;
 
+/*
+ * Класс `RetryCollector` определяет номер повторной попытки теста по {@link RetryAnalyzerRegistry}.
+ *
+ * Коллектор вызывается для каждой фазы одного выполнения теста (TestMethod, затем Constructor,
+ * BeforeEach и AfterEach), поэтому значение, прочитанное при первом вызове, запоминается в хранилище
+ * контекста выполнения: все фазы получают одинаковый номер попытки, а неудача учитывается в реестре
+ * ровно один раз.
+ */
 public class RetryCollector implements MetricCollector {
 
   private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(RetryCollector.class);
-  private static final String RETRY_COUNT_KEY_PREFIX = "retry-count-";
+  private static final String RETRY_COUNT_KEY = "retry-count";
 
   @Override
   public void collect(ExtensionContext context, TestResult.Builder builder) {
-    String uniqueMethodId = context.getRequiredTestMethod().getName() + "_" + context.getUniqueId();
     ExtensionContext.Store store = context.getStore(NAMESPACE);
+    Integer memo = store.get(RETRY_COUNT_KEY, Integer.class);
+    if (memo != null) {
+      builder.retryCount(memo);
+      return;
+    }
 
-    Integer currentRetryCount = store.get(RETRY_COUNT_KEY_PREFIX + uniqueMethodId, int.class);
-    int retryCount = (currentRetryCount != null) ? currentRetryCount : 0;
-
+    String testId = context.getUniqueId();
+    int retryCount = RetryAnalyzerRegistry.getRetries(testId);
     if (context.getExecutionException().isPresent()) {
-      store.put(RETRY_COUNT_KEY_PREFIX + uniqueMethodId, retryCount + 1);
+      RetryAnalyzerRegistry.registerRetry(testId);
     } else {
-      store.put(RETRY_COUNT_KEY_PREFIX + uniqueMethodId, 0);
+      RetryAnalyzerRegistry.resetRetries(testId);
     }
-
+    store.put(RETRY_COUNT_KEY, retryCount);
     builder.retryCount(retryCount);
   }
-}
\ No newline at end of file
+}
@@ -1,24 +1,18 @@
 package dev.makurea.testanalyzer.metrics;
 
 import dev.makurea.testanalyzer.core.TestResult;
-import java.util.Collections;
-import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.extension.ExtensionContext;
 
-import java.util.Arrays;
-import java.util.List;
-import java.util.stream.Collectors;
-
+/*
+ * Класс `TagsCollector` добавляет к результату теги теста: теги метода, тестового класса
+ * и объемлющих классов, включая составные аннотации. Теги вычисляются один раз на метод
+ * ({@link TestMetadataCache}), и все результаты метода разделяют один неизменяемый список.
+ */
 public class TagsCollector implements MetricCollector {
 
   @Override
   public void collect(ExtensionContext context, TestResult.Builder builder) {
-    List<String> tags = context.getElement()
-        .map(el -> Arrays.stream(el.getAnnotationsByType(Tag.class))
-            .map(Tag::value)
-            .collect(Collectors.toList()))
-        .orElse(Collections.emptyList());
-
-    builder.tags(tags);
+    builder.tags(TestMetadataCache.forMethod(context.getRequiredTestClass(), context.getTestMethod().orElse(null))
+        .getTags());
   }
 }
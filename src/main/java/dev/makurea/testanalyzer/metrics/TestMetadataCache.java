@@ -0,0 +1,130 @@
+package dev.makurea.testanalyzer.metrics;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.jupiter.api.Tag;
+import org.junit.platform.commons.support.AnnotationSupport;
+
+/*
+ * Класс `TestMetadataCache` хранит метаданные тестовых методов, которые не меняются между
+ * выполнениями: имя класса и полный набор тегов.
+ *
+ * Теги собираются один раз на пару «тестовый класс — метод» так же, как их видит JUnit:
+ * аннотации `@Tag` метода, тестового класса (включая унаследованные), объемлющих классов
+ * для `@Nested`, а также составные аннотации, мета-аннотированные `@Tag`.
+ * Результат — неизменяемый список, который разделяют все {@link dev.makurea.testanalyzer.core.TestResult}
+ * этого метода.
+ *
+ * Метаданные привязаны к классу через `ClassValue`, поэтому кэш не удерживает классы
+ * после выгрузки их загрузчика.
+ */
+public final class TestMetadataCache {
+
+  private static final ClassValue<ClassMetadata> CLASSES = new ClassValue<ClassMetadata>() {
+    @Override
+    protected ClassMetadata computeValue(Class<?> testClass) {
+      return new ClassMetadata(testClass);
+    }
+  };
+
+  private TestMetadataCache() {}
+
+  /**
+   * Возвращает метаданные тестового метода в контексте тестового класса.
+   *
+   * @param testClass  Тестовый класс (может быть наследником класса, объявившего метод).
+   * @param testMethod Тестовый метод или null для контекста класса.
+   * @return Метаданные метода.
+   */
+  public static MethodMetadata forMethod(Class<?> testClass, Method testMethod) {
+    ClassMetadata classMetadata = CLASSES.get(testClass);
+    if (testMethod == null) {
+      return classMetadata.classOnly;
+    }
+    return classMetadata.methods.computeIfAbsent(testMethod, method -> new MethodMetadata(
+        classMetadata.className, merge(tagsOf(method), classMetadata.classOnly.getTags())));
+  }
+
+  private static List<String> classTags(Class<?> testClass) {
+    Set<String> tags = new LinkedHashSet<>(tagsOf(testClass));
+    Class<?> current = testClass;
+    // Вложенные (@Nested) классы наследуют теги объемлющих классов
+    while (current.getEnclosingClass() != null && !Modifier.isStatic(current.getModifiers())) {
+      current = current.getEnclosingClass();
+      tags.addAll(tagsOf(current));
+    }
+    return List.copyOf(tags);
+  }
+
+  private static List<String> tagsOf(AnnotatedElement element) {
+    List<Tag> annotations = AnnotationSupport.findRepeatableAnnotations(element, Tag.class);
+    if (annotations.isEmpty()) {
+      return Collections.emptyList();
+    }
+    Set<String> tags = new LinkedHashSet<>();
+    for (Tag tag : annotations) {
+      tags.add(tag.value().trim());
+    }
+    return List.copyOf(tags);
+  }
+
+  private static List<String> merge(List<String> methodTags, List<String> classTags) {
+    if (methodTags.isEmpty()) {
+      return classTags;
+    }
+    if (classTags.isEmpty()) {
+      return methodTags;
+    }
+    Set<String> tags = new LinkedHashSet<>(methodTags);
+    tags.addAll(classTags);
+    return List.copyOf(tags);
+  }
+
+  /**
+   * Метаданные тестового класса и кэш метаданных его методов.
+   */
+  private static final class ClassMetadata {
+    final String className;
+    final MethodMetadata classOnly;
+    final Map<Method, MethodMetadata> methods = new ConcurrentHashMap<>();
+
+    ClassMetadata(Class<?> testClass) {
+      this.className = testClass.getName().intern();
+      this.classOnly = new MethodMetadata(className, classTags(testClass));
+    }
+  }
+
+  /**
+   * Неизменяемые метаданные тестового метода.
+   */
+  public static final class MethodMetadata {
+    private final String className;
+    private final List<String> tags;
+
+    MethodMetadata(String className, List<String> tags) {
+      this.className = className;
+      this.tags = tags;
+    }
+
+    /**
+     * @return Полное имя тестового класса (интернированная строка).
+     */
+    public String getClassName() {
+      return className;
+    }
+
+    /**
+     * @return Неизменяемый список тегов метода, тестового класса и объемлющих классов.
+     */
+    public List<String> getTags() {
+      return tags;
+    }
+  }
+}
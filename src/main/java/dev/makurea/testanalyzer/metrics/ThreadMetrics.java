@@ -0,0 +1,133 @@
+package dev.makurea.testanalyzer.metrics;
+
+import dev.makurea.testanalyzer.core.TestAnalyzerConfig;
+import dev.makurea.testanalyzer.core.TestResult;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+
+/*
+ * Класс `ThreadMetrics` снимает показатели потока теста через `ThreadMXBean`, позволяющие отличить
+ * тест, занятый вычислениями, от теста, ждущего блокировок или ввода-вывода:
+ * процессорное и пользовательское время потока, количество и время блокировок на мониторах
+ * и ожиданий, а также количество живых потоков JVM (его рост после теста указывает на утечку потоков).
+ *
+ * Время блокировок и ожиданий доступно только при включенном мониторинге конкуренции потоков.
+ * Мониторинг замедляет каждый захват монитора во всей JVM, поэтому включается только по настройке
+ * `testanalyzer.threads.contentionMonitoring=true` (если JVM его поддерживает). Без него, как и другие
+ * недоступные значения, время блокировок и ожиданий равно -1; количество блокировок и ожиданий
+ * измеряется всегда.
+ *
+ * Снимки записываются в переиспользуемые объекты {@link Snapshot}, закрепленные за рабочим потоком,
+ * поэтому на каждый тест создается только `ThreadInfo` самой JVM.
+ */
+public final class ThreadMetrics {
+
+  private static final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+  private static final boolean CPU_TIME_SUPPORTED = enableCpuTime();
+  private static final boolean CONTENTION_MONITORING = enableContentionMonitoring();
+
+  private ThreadMetrics() {}
+
+  /**
+   * Проверяет, доступен ли учет процессорного времени текущего потока.
+   *
+   * @return true, если время потока измеряется.
+   */
+  public static boolean isCpuTimeSupported() {
+    return CPU_TIME_SUPPORTED;
+  }
+
+  /**
+   * Проверяет, включен ли мониторинг конкуренции потоков (время блокировок и ожиданий).
+   *
+   * @return true, если время блокировок и ожиданий измеряется.
+   */
+  public static boolean isContentionMonitoringEnabled() {
+    return CONTENTION_MONITORING;
+  }
+
+  /**
+   * Заполняет снимок показателями текущего потока.
+   *
+   * @param snapshot Снимок, который будет перезаписан.
+   */
+  public static void capture(Snapshot snapshot) {
+    snapshot.liveThreads = THREAD_BEAN.getThreadCount();
+    ThreadInfo info = THREAD_BEAN.getThreadInfo(Thread.currentThread().getId());
+    if (info != null) {
+      snapshot.blockedCount = info.getBlockedCount();
+      snapshot.blockedTimeMs = CONTENTION_MONITORING ? info.getBlockedTime() : -1;
+      snapshot.waitedCount = info.getWaitedCount();
+      snapshot.waitedTimeMs = CONTENTION_MONITORING ? info.getWaitedTime() : -1;
+    }
+    if (CPU_TIME_SUPPORTED) {
+      // Время потока снимаем последним, чтобы сам запрос ThreadInfo в него не попадал
+      snapshot.userTimeNanos = THREAD_BEAN.getCurrentThreadUserTime();
+      snapshot.cpuTimeNanos = THREAD_BEAN.getCurrentThreadCpuTime();
+    }
+  }
+
+  /**
+   * Записывает в результат изменение показателей потока между двумя снимками.
+   *
+   * @param before  Снимок перед фазой.
+   * @param after   Снимок после фазы.
+   * @param builder Builder результата фазы.
+   */
+  public static void applyDelta(Snapshot before, Snapshot after, TestResult.Builder builder) {
+    builder
+        .cpuTimeNanos(CPU_TIME_SUPPORTED ? after.cpuTimeNanos - before.cpuTimeNanos : -1)
+        .userTimeNanos(CPU_TIME_SUPPORTED ? after.userTimeNanos - before.userTimeNanos : -1)
+        .blockedCount(after.blockedCount - before.blockedCount)
+        .blockedTimeMs(CONTENTION_MONITORING ? after.blockedTimeMs - before.blockedTimeMs : -1)
+        .waitedCount(after.waitedCount - before.waitedCount)
+        .waitedTimeMs(CONTENTION_MONITORING ? after.waitedTimeMs - before.waitedTimeMs : -1)
+        .liveThreadsBefore(before.liveThreads)
+        .liveThreadsAfter(after.liveThreads);
+  }
+
+  private static boolean enableCpuTime() {
+    try {
+      if (!THREAD_BEAN.isCurrentThreadCpuTimeSupported()) {
+        return false;
+      }
+      if (!THREAD_BEAN.isThreadCpuTimeEnabled()) {
+        THREAD_BEAN.setThreadCpuTimeEnabled(true);
+      }
+      return true;
+    } catch (UnsupportedOperationException | SecurityException e) {
+      return false;
+    }
+  }
+
+  private static boolean enableContentionMonitoring() {
+    if (!TestAnalyzerConfig.getBoolean("threads.contentionMonitoring", false)) {
+      return false;
+    }
+    try {
+      if (!THREAD_BEAN.isThreadContentionMonitoringSupported()) {
+        return false;
+      }
+      if (!THREAD_BEAN.isThreadContentionMonitoringEnabled()) {
+        THREAD_BEAN.setThreadContentionMonitoringEnabled(true);
+      }
+      return true;
+    } catch (UnsupportedOperationException | SecurityException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Изменяемый снимок показателей потока.
+   */
+  public static final class Snapshot {
+    long cpuTimeNanos;
+    long userTimeNanos;
+    long blockedCount;
+    long blockedTimeMs;
+    long waitedCount;
+    long waitedTimeMs;
+    long liveThreads;
+  }
+}
@@ -0,0 +1,31 @@
+package dev.makurea.testanalyzer.order;
+
+import dev.makurea.testanalyzer.core.TestAnalyzerConfig;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import org.junit.jupiter.api.ClassDescriptor;
+import org.junit.jupiter.api.ClassOrderer;
+import org.junit.jupiter.api.ClassOrdererContext;
+
+/*
+ * Класс `HistoryClassOrderer` упорядочивает тестовые классы по истории прошлых прогонов
+ * ({@link OrderIndex}) в режиме `testanalyzer.order.mode` ({@link OrderMode}).
+ * Подключается параметром JUnit Platform:
+ *
+ *   junit.jupiter.testclass.order.default = dev.makurea.testanalyzer.order.HistoryClassOrderer
+ *
+ * Запись класса учитывает все его фазы, включая `@BeforeAll`/`@AfterAll` и подготовку каждого теста.
+ */
+public class HistoryClassOrderer implements ClassOrderer {
+
+  @Override
+  public void orderClasses(ClassOrdererContext context) {
+    OrderIndex index = OrderIndex.shared();
+    Map<ClassDescriptor, OrderStats> stats = new IdentityHashMap<>();
+    for (ClassDescriptor descriptor : context.getClassDescriptors()) {
+      stats.put(descriptor, index.forClass(descriptor.getTestClass().getName()));
+    }
+    OrderMode mode = TestAnalyzerConfig.getEnum("order.mode", OrderMode.class, OrderMode.FAILED_FIRST);
+    context.getClassDescriptors().sort((left, right) -> mode.comparator().compare(stats.get(left), stats.get(right)));
+  }
+}
@@ -0,0 +1,53 @@
+package dev.makurea.testanalyzer.order;
+
+import dev.makurea.testanalyzer.core.TestAnalyzerConfig;
+import java.lang.reflect.Method;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.MethodDescriptor;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.MethodOrdererContext;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+/*
+ * Класс `HistoryMethodOrderer` упорядочивает тестовые методы класса по истории прошлых прогонов
+ * ({@link OrderIndex}) в режиме `testanalyzer.order.mode` ({@link OrderMode}).
+ * Подключается параметром JUnit Platform:
+ *
+ *   junit.jupiter.testmethod.order.default = dev.makurea.testanalyzer.order.HistoryMethodOrderer
+ *
+ * Запись метода учитывает его `@BeforeEach`/`@AfterEach` и все вызовы параметризованного теста.
+ * В отличие от стандартных `MethodOrderer`, режим выполнения методов класса не меняется на
+ * последовательный: при параллельном выполнении порядок задает очередность запуска методов.
+ */
+public class HistoryMethodOrderer implements MethodOrderer {
+
+  @Override
+  public void orderMethods(MethodOrdererContext context) {
+    OrderIndex index = OrderIndex.shared();
+    String className = context.getTestClass().getName();
+    Map<MethodDescriptor, OrderStats> stats = new IdentityHashMap<>();
+    for (MethodDescriptor descriptor : context.getMethodDescriptors()) {
+      stats.put(descriptor, index.forMethod(className, signature(descriptor.getMethod())));
+    }
+    OrderMode mode = TestAnalyzerConfig.getEnum("order.mode", OrderMode.class, OrderMode.FAILED_FIRST);
+    context.getMethodDescriptors().sort((left, right) -> mode.comparator().compare(stats.get(left), stats.get(right)));
+  }
+
+  @Override
+  public Optional<ExecutionMode> getDefaultExecutionMode() {
+    return Optional.empty();
+  }
+
+  /**
+   * Сигнатура метода в той же форме, что и в уникальном идентификаторе JUnit: типы параметров
+   * записываются через {@link Class#getName()} (`[Ljava.lang.String;`, а не `java.lang.String[]`).
+   */
+  static String signature(Method method) {
+    return Stream.of(method.getParameterTypes()).map(Class::getName)
+        .collect(Collectors.joining(", ", method.getName() + "(", ")"));
+  }
+}
@@ -0,0 +1,323 @@
+package dev.makurea.testanalyzer.order;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.makurea.testanalyzer.report.AtomicFiles;
+import dev.makurea.testanalyzer.report.ForkFiles;
+import dev.makurea.testanalyzer.report.ReportFormat;
+import dev.makurea.testanalyzer.report.ReportGenerator;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+ * Класс `OrderIndex` — компактный индекс истории для упорядочивания тестов ({@link HistoryClassOrderer},
+ * {@link HistoryMethodOrderer}): по одной записи {@link OrderStats} на тестовый класс и на тестовый метод.
+ *
+ * Индекс хранится в `build/test-analyzer-reports/test-analyzer-order-index.json` и загружается
+ * один раз на JVM при первом обращении. Файлы результатов прошлого прогона (`test-analyzer-results.json`,
+ * `.ndjson` или, если они новее, файлы процессов `test-analyzer-results-<forkId>.*` этого прогона,
+ * см. {@link ForkFiles}) читаются потоково только тогда,
+ * когда они изменились с момента последнего пополнения индекса (сравниваются время изменения и размер);
+ * после пополнения индекс записывается атомарно. Так при каждом запуске разбирается не больше одного отчёта,
+ * а все процессы параллельного прогона видят одинаковый индекс.
+ *
+ * Записи, которые не встречались в `MAX_IDLE_RUNS` последних пополнениях (удаленные тесты), отбрасываются.
+ */
+public final class OrderIndex {
+
+  /**
+   * Имя файла индекса в каталоге отчётов.
+   */
+  public static final String FILENAME = "test-analyzer-order-index.json";
+
+  private static final int MAX_IDLE_RUNS = 30;
+  private static final Pattern METHOD_SEGMENT = Pattern.compile("\\[(?:method|test-template|test-factory):([^\\]]*)\\]");
+  // Символы, экранированные JUnit в строковой форме уникального идентификатора (`[` -> `%5B`)
+  private static final Pattern ENCODED_CHAR = Pattern.compile("%([0-9A-Fa-f]{2})");
+
+  private final Map<String, OrderStats> classes = new HashMap<>();
+  private final Map<String, OrderStats> methods = new HashMap<>();
+  // Записи по имени метода без параметров — на случай изменившейся сигнатуры
+  private final Map<String, OrderStats> methodNames = new HashMap<>();
+
+  private OrderIndex(Snapshot snapshot) {
+    for (OrderStats stats : snapshot.getEntries()) {
+      if (stats.getMethod() == null) {
+        classes.put(stats.getClassName(), stats);
+      } else {
+        methods.put(stats.getClassName() + '#' + stats.getMethod(), stats);
+        methodNames.putIfAbsent(stats.getClassName() + '#' + methodName(stats.getMethod()), stats);
+      }
+    }
+  }
+
+  /**
+   * Возвращает индекс каталога отчётов по умолчанию, загружая и пополняя его при первом вызове.
+   *
+   * @return Общий для JVM индекс.
+   */
+  public static OrderIndex shared() {
+    return Holder.INDEX;
+  }
+
+  /**
+   * Возвращает запись тестового класса.
+   *
+   * @param className Полное имя класса.
+   * @return Запись или null, если класс не встречался в прошлых прогонах.
+   */
+  public OrderStats forClass(String className) {
+    return classes.get(className);
+  }
+
+  /**
+   * Возвращает запись тестового метода. Если метод с такой сигнатурой не встречался,
+   * используется запись метода с тем же именем.
+   *
+   * @param className Полное имя класса.
+   * @param signature Сигнатура метода в форме JUnit (`name(int, [Ljava.lang.String;)`).
+   * @return Запись или null, если метод не встречался в прошлых прогонах.
+   */
+  public OrderStats forMethod(String className, String signature) {
+    OrderStats stats = methods.get(className + '#' + signature);
+    return stats != null ? stats : methodNames.get(className + '#' + methodName(signature));
+  }
+
+  /**
+   * Возвращает сглаженные длительности всех тестовых классов индекса.
+   *
+   * @return Длительности в наносекундах по полным именам классов.
+   */
+  public Map<String, Long> classDurations() {
+    Map<String, Long> durations = new HashMap<>();
+    for (OrderStats stats : classes.values()) {
+      durations.put(stats.getClassName(), stats.getMeanNanos());
+    }
+    return durations;
+  }
+
+  /**
+   * Загружает индекс из каталога и пополняет его изменившимися файлами результатов.
+   * Ошибки чтения и записи не прерывают прогон: в худшем случае тесты выполняются в исходном порядке.
+   *
+   * Процесс, уже присоединившийся к параллельному прогону ({@link ForkFiles#joinRun}), индекс не пополняет:
+   * файлы процессов в каталоге принадлежат текущему прогону и еще не дописаны, а прошлый прогон учел
+   * первый процесс прогона до удаления его файлов.
+   *
+   * @param dir Каталог отчётов.
+   * @return Индекс.
+   */
+  public static OrderIndex load(File dir) {
+    ObjectMapper mapper = new ObjectMapper();
+    File file = new File(dir, FILENAME);
+    Snapshot snapshot = new Snapshot();
+    if (file.isFile()) {
+      try {
+        snapshot = mapper.readValue(file, Snapshot.class);
+      } catch (IOException e) {
+        System.err.println("[TestAnalyzer] Индекс порядка тестов поврежден и будет построен заново: " + e);
+      }
+    }
+
+    if (ForkFiles.joinedRun()) {
+      return new OrderIndex(snapshot);
+    }
+    List<File> sources = findSources(dir);
+    Map<String, String> stamps = new LinkedHashMap<>();
+    for (File source : sources) {
+      stamps.put(source.getName(), source.lastModified() + ":" + source.length());
+    }
+    if (!sources.isEmpty() && !stamps.equals(snapshot.getSources())) {
+      try {
+        fold(snapshot, sources, mapper);
+        snapshot.setSources(stamps);
+        Snapshot written = snapshot;
+        AtomicFiles.write(file, target -> mapper.writeValue(target, written));
+      } catch (IOException e) {
+        System.err.println("[TestAnalyzer] Не удалось обновить индекс порядка тестов: " + e);
+      }
+    }
+    return new OrderIndex(snapshot);
+  }
+
+  /**
+   * Читает готовый файл индекса, не пополняя его файлами результатов (например, общий артефакт CI).
+   *
+   * @param file Файл `test-analyzer-order-index.json`.
+   * @return Индекс.
+   * @throws IOException если файл не удалось прочитать.
+   */
+  public static OrderIndex read(File file) throws IOException {
+    return new OrderIndex(new ObjectMapper().readValue(file, Snapshot.class));
+  }
+
+  /**
+   * Файлы результатов прошлого прогона: файлы его процессов (до присоединения к новому прогону они
+   * еще считаются текущими для {@link ForkFiles}), если они новее общего файла, иначе общий файл.
+   */
+  private static List<File> findSources(File dir) {
+    List<File> sources = new ArrayList<>();
+    long latestShared = Long.MIN_VALUE;
+    for (ReportFormat format : ReportFormat.values()) {
+      File source = new File(dir, format.getFileName());
+      if (source.isFile()) {
+        sources.add(source);
+        latestShared = Math.max(latestShared, source.lastModified());
+      }
+    }
+    List<File> forks = ForkFiles.currentResultFiles(dir);
+    long latestFork = Long.MIN_VALUE;
+    for (File fork : forks) {
+      latestFork = Math.max(latestFork, fork.lastModified());
+    }
+    return !forks.isEmpty() && latestFork > latestShared ? forks : sources;
+  }
+
+  /**
+   * Сворачивает результаты одного прогона в суммы по классам и методам и учитывает их в индексе.
+   */
+  private static void fold(Snapshot snapshot, List<File> sources, ObjectMapper mapper) throws IOException {
+    Map<String, RunTotal> classTotals = new HashMap<>();
+    Map<String, RunTotal> methodTotals = new HashMap<>();
+    for (File source : sources) {
+      try (MappingIterator<JsonNode> iterator = mapper.readerFor(JsonNode.class).readValues(source)) {
+        while (iterator.hasNextValue()) {
+          JsonNode node = iterator.nextValue();
+          String className = node.path("className").asText(null);
+          if (className == null) {
+            continue;
+          }
+          JsonNode nanos = node.get("durationNanos");
+          long duration = nanos != null ? nanos.asLong() : node.path("durationMs").asLong() * 1_000_000;
+          boolean failed = "FAILED".equals(node.path("status").asText());
+          classTotals.computeIfAbsent(className, key -> new RunTotal()).add(duration, failed);
+          String method = methodSignature(node.path("testId").asText(""));
+          if (method != null) {
+            methodTotals.computeIfAbsent(className + '#' + method, key -> new RunTotal()).add(duration, failed);
+          }
+        }
+      }
+    }
+
+    int run = snapshot.getRun() + 1;
+    Map<String, OrderStats> entries = new HashMap<>();
+    for (OrderStats stats : snapshot.getEntries()) {
+      entries.put(stats.getMethod() == null ? stats.getClassName() : stats.getClassName() + '#' + stats.getMethod(), stats);
+    }
+    for (Map.Entry<String, RunTotal> entry : classTotals.entrySet()) {
+      entries.computeIfAbsent(entry.getKey(), key -> new OrderStats(key, null))
+          .fold(entry.getValue().nanos, entry.getValue().failed, run);
+    }
+    for (Map.Entry<String, RunTotal> entry : methodTotals.entrySet()) {
+      String key = entry.getKey();
+      int split = key.indexOf('#');
+      entries.computeIfAbsent(key, k -> new OrderStats(key.substring(0, split), key.substring(split + 1)))
+          .fold(entry.getValue().nanos, entry.getValue().failed, run);
+    }
+    List<OrderStats> kept = new ArrayList<>(entries.size());
+    for (OrderStats stats : entries.values()) {
+      if (run - stats.getLastSeen() < MAX_IDLE_RUNS) {
+        kept.add(stats);
+      }
+    }
+    snapshot.setRun(run);
+    snapshot.setEntries(kept);
+  }
+
+  /**
+   * Извлекает сигнатуру тестового метода из уникального идентификатора JUnit
+   * (`.../[method:name(int)]`, `.../[test-template:name(int)]/[test-template-invocation:#1]`).
+   *
+   * @param testId Уникальный идентификатор теста.
+   * @return Сигнатура метода или null для фаз уровня класса.
+   */
+  static String methodSignature(String testId) {
+    Matcher matcher = METHOD_SEGMENT.matcher(testId);
+    String signature = null;
+    while (matcher.find()) {
+      signature = matcher.group(1);
+    }
+    return signature != null ? decode(signature) : null;
+  }
+
+  /**
+   * Снимает экранирование JUnit (`%5BLjava.lang.String;` -> `[Ljava.lang.String;`), чтобы сигнатура
+   * совпадала с {@link HistoryMethodOrderer#signature}.
+   */
+  private static String decode(String value) {
+    if (value.indexOf('%') < 0) {
+      return value;
+    }
+    Matcher matcher = ENCODED_CHAR.matcher(value);
+    StringBuilder decoded = new StringBuilder(value.length());
+    while (matcher.find()) {
+      matcher.appendReplacement(decoded, Matcher.quoteReplacement(
+          String.valueOf((char) Integer.parseInt(matcher.group(1), 16))));
+    }
+    matcher.appendTail(decoded);
+    return decoded.toString();
+  }
+
+  private static String methodName(String signature) {
+    int bracket = signature.indexOf('(');
+    return bracket >= 0 ? signature.substring(0, bracket) : signature;
+  }
+
+  /**
+   * Суммарная длительность и признак падения класса или метода в одном прогоне.
+   */
+  private static final class RunTotal {
+    long nanos;
+    boolean failed;
+
+    void add(long durationNanos, boolean failedPhase) {
+      nanos += durationNanos;
+      failed |= failedPhase;
+    }
+  }
+
+  /**
+   * Содержимое файла индекса.
+   */
+  static final class Snapshot {
+    private int run;
+    private Map<String, String> sources = new LinkedHashMap<>();
+    private List<OrderStats> entries = new ArrayList<>();
+
+    public int getRun() {
+      return run;
+    }
+
+    public void setRun(int run) {
+      this.run = run;
+    }
+
+    public Map<String, String> getSources() {
+      return sources;
+    }
+
+    public void setSources(Map<String, String> sources) {
+      this.sources = sources;
+    }
+
+    public List<OrderStats> getEntries() {
+      return entries;
+    }
+
+    public void setEntries(List<OrderStats> entries) {
+      this.entries = entries;
+    }
+  }
+
+  private static final class Holder {
+    static final OrderIndex INDEX = load(new File(ReportGenerator.OUTPUT_DIR));
+  }
+}
@@ -0,0 +1,45 @@
+package dev.makurea.testanalyzer.order;
+
+import java.util.Comparator;
+
+/*
+ * Порядок выполнения тестов по истории прошлых прогонов ({@link OrderIndex}).
+ * Задается настройкой `testanalyzer.order.mode` (по умолчанию `failed-first`).
+ *
+ * Тесты без истории (новые или переименованные) во всех режимах выполняются первыми:
+ * о них ничего не известно, и они чаще всего оказываются причиной падения. Тесты с одинаковой
+ * оценкой сохраняют исходный порядок JUnit.
+ */
+public enum OrderMode {
+  /**
+   * Сначала тесты, которые недавно падали (по убыванию сглаженной доли падений), затем остальные
+   * от коротких к длинным — падение обнаруживается как можно раньше.
+   */
+  FAILED_FIRST(Comparator.comparingDouble(OrderStats::getFailureScore).reversed()
+      .thenComparingLong(OrderStats::getMeanNanos)),
+  /**
+   * От коротких к длинным: за первые минуты прогона выполняется больше всего тестов.
+   */
+  SHORTEST_FIRST(Comparator.comparingLong(OrderStats::getMeanNanos)),
+  /**
+   * От длинных к коротким (Longest Processing Time): при параллельном выполнении пул потоков JUnit
+   * берет следующий класс или метод, как только освобождается поток, поэтому длинные тесты не остаются
+   * на конец прогона, а короткие заполняют простои — это жадная упаковка по потокам.
+   */
+  LONGEST_FIRST(Comparator.comparingLong(OrderStats::getMeanNanos).reversed());
+
+  private final Comparator<OrderStats> comparator;
+
+  OrderMode(Comparator<OrderStats> comparator) {
+    this.comparator = Comparator.nullsFirst(comparator);
+  }
+
+  /**
+   * Возвращает сравнение записей истории для этого режима. Отсутствующая история (null) идет первой.
+   *
+   * @return Сравнение записей {@link OrderStats}.
+   */
+  public Comparator<OrderStats> comparator() {
+    return comparator;
+  }
+}
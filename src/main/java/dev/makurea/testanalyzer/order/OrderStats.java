@@ -0,0 +1,128 @@
+package dev.makurea.testanalyzer.order;
+
+/*
+ * Класс `OrderStats` — сжатая история одного тестового класса или метода для упорядочивания тестов:
+ * сглаженная длительность, сглаженная доля падений и номер последнего прогона, в котором он встречался.
+ * Экземпляр сериализуется Jackson как элемент индекса {@link OrderIndex}.
+ *
+ * Сглаживание экспоненциальное: новый прогон весит `ALPHA`, история — `1 - ALPHA`, поэтому
+ * недавние падения и изменения длительности сказываются на порядке сразу, а старые постепенно забываются.
+ */
+public class OrderStats {
+
+  static final double ALPHA = 0.5;
+
+  private String className;
+  private String method;
+  private long meanNanos;
+  private double failureScore;
+  private int runs;
+  private int lastSeen;
+
+  public OrderStats() {
+    // Для Jackson
+  }
+
+  OrderStats(String className, String method) {
+    this.className = className;
+    this.method = method;
+  }
+
+  /**
+   * Учитывает один прогон.
+   *
+   * @param durationNanos Суммарная длительность фаз класса или метода в прогоне.
+   * @param failed        Упала ли в прогоне хотя бы одна фаза.
+   * @param run           Номер прогона в индексе.
+   */
+  void fold(long durationNanos, boolean failed, int run) {
+    double failure = failed ? 1.0 : 0.0;
+    if (runs == 0) {
+      meanNanos = durationNanos;
+      failureScore = failure;
+    } else {
+      meanNanos = Math.round(ALPHA * durationNanos + (1 - ALPHA) * meanNanos);
+      failureScore = ALPHA * failure + (1 - ALPHA) * failureScore;
+    }
+    runs++;
+    lastSeen = run;
+  }
+
+  /**
+   * Возвращает имя тестового класса.
+   *
+   * @return Полное имя класса.
+   */
+  public String getClassName() {
+    return className;
+  }
+
+  public void setClassName(String className) {
+    this.className = className;
+  }
+
+  /**
+   * Возвращает сигнатуру метода в форме JUnit (`name(int, java.lang.String)`).
+   *
+   * @return Сигнатура метода или null для записи класса.
+   */
+  public String getMethod() {
+    return method;
+  }
+
+  public void setMethod(String method) {
+    this.method = method;
+  }
+
+  /**
+   * Возвращает сглаженную длительность в наносекундах.
+   *
+   * @return Длительность в наносекундах.
+   */
+  public long getMeanNanos() {
+    return meanNanos;
+  }
+
+  public void setMeanNanos(long meanNanos) {
+    this.meanNanos = meanNanos;
+  }
+
+  /**
+   * Возвращает сглаженную долю падений: 1 — падал во всех недавних прогонах, 0 — не падал.
+   *
+   * @return Доля падений от 0 до 1.
+   */
+  public double getFailureScore() {
+    return failureScore;
+  }
+
+  public void setFailureScore(double failureScore) {
+    this.failureScore = failureScore;
+  }
+
+  /**
+   * Возвращает количество учтенных прогонов.
+   *
+   * @return Количество прогонов.
+   */
+  public int getRuns() {
+    return runs;
+  }
+
+  public void setRuns(int runs) {
+    this.runs = runs;
+  }
+
+  /**
+   * Возвращает номер последнего прогона, в котором встречался класс или метод.
+   *
+   * @return Номер прогона в индексе.
+   */
+  public int getLastSeen() {
+    return lastSeen;
+  }
+
+  public void setLastSeen(int lastSeen) {
+    this.lastSeen = lastSeen;
+  }
+}
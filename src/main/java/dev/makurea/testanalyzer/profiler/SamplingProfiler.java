@@ -0,0 +1,293 @@
+package dev.makurea.testanalyzer.profiler;
+
+import dev.makurea.testanalyzer.core.TestAnalyzerConfig;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Класс `SamplingProfiler` — выборочный профилировщик медленных тестов.
+ *
+ * Тестовый поток только регистрирует себя в карте выполняющихся тестов при старте тестового метода
+ * и снимается с нее по завершении. Фоновый поток-демон раз в `intervalMs` просматривает карту и снимает
+ * стеки (одним вызовом `ThreadMXBean.getThreadInfo` для всех потоков) только тех тестов, которые
+ * выполняются дольше порога `thresholdMs`. Тесты короче порога не профилируются вовсе,
+ * а при выключенном профилировщике (по умолчанию) он не создается.
+ *
+ * Стеки одного теста сводятся в формат collapsed stacks (`кадр;кадр;... количество`), совместимый
+ * с flamegraph.pl и speedscope, и записываются фоновым потоком в каталог `profiles` рядом с отчётом.
+ * Имя файла — `<Класс.тест>-<хеш полного имени класса>[-<forkId>]-<номер>.collapsed`, поэтому одноименные
+ * классы разных пакетов и процессы параллельного прогона не перезаписывают профили друг друга.
+ * Профили прошлого прогона удаляются при его начале: без процессов — при создании профилировщика,
+ * в параллельном прогоне — первым процессом прогона ({@link dev.makurea.testanalyzer.report.ForkFiles}).
+ * Если поток теста не выполнялся на процессоре, к стеку добавляется кадр с его состоянием, например `[WAITING]`.
+ *
+ * Настройки:
+ *   testanalyzer.profiler.enabled     — включить профилировщик (false);
+ *   testanalyzer.profiler.thresholdMs — после какой длительности теста начинать снимать стеки (100);
+ *   testanalyzer.profiler.intervalMs  — интервал снятия стеков (10);
+ *   testanalyzer.profiler.maxDepth    — максимальная глубина стека (128).
+ */
+public class SamplingProfiler {
+
+  public static final String PROFILES_DIR = "profiles";
+  private static final String SUFFIX = ".collapsed";
+
+  private static final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+
+  private final File reportDir;
+  private final String forkId;
+  private final long thresholdNanos;
+  private final int maxDepth;
+  private final Map<Thread, ActiveTest> activeTests = new ConcurrentHashMap<>();
+  private final AtomicLong profileSequence = new AtomicLong();
+  private final ScheduledExecutorService sampler;
+
+  /**
+   * Создает профилировщик и запускает снятие стеков.
+   *
+   * @param reportDir Каталог отчёта.
+   * @param forkId    Идентификатор процесса параллельного прогона или null; без него профили прошлого
+   *                  прогона удаляются сразу.
+   */
+  public SamplingProfiler(File reportDir, String forkId) {
+    this.reportDir = reportDir;
+    this.forkId = forkId;
+    if (forkId == null) {
+      deleteProfiles(reportDir);
+    }
+    this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(TestAnalyzerConfig.getLong("profiler.thresholdMs", 100));
+    long intervalMs = Math.max(1, TestAnalyzerConfig.getLong("profiler.intervalMs", 10));
+    this.maxDepth = Math.max(1, TestAnalyzerConfig.getInt("profiler.maxDepth", 128));
+    this.sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "test-analyzer-profiler");
+      thread.setDaemon(true);
+      return thread;
+    });
+    sampler.scheduleAtFixedRate(this::sampleSafely, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Проверяет, включен ли профилировщик.
+   *
+   * @return true, если профилировщик включен настройкой `testanalyzer.profiler.enabled`.
+   */
+  public static boolean isEnabled() {
+    return TestAnalyzerConfig.getBoolean("profiler.enabled", false);
+  }
+
+  /**
+   * Отмечает начало тестового метода в текущем потоке.
+   *
+   * @param testName  Отображаемое имя теста.
+   * @param className Имя тестового класса.
+   */
+  public void testStarted(String testName, String className) {
+    activeTests.put(Thread.currentThread(), new ActiveTest(testName, className, System.nanoTime()));
+  }
+
+  /**
+   * Отмечает завершение тестового метода в текущем потоке. Если за время теста были сняты стеки,
+   * ставит в очередь запись профиля и возвращает путь к нему.
+   *
+   * @return Путь к файлу профиля относительно каталога отчёта или null, если тест был короче порога.
+   */
+  public String testFinished() {
+    ActiveTest test = activeTests.remove(Thread.currentThread());
+    if (test == null) {
+      return null;
+    }
+    Map<String, Integer> samples = test.drain();
+    if (samples.isEmpty()) {
+      return null;
+    }
+    String fileName = String.format("%s-%08x%s-%05d%s",
+        sanitize(simpleName(test.className) + "." + test.testName), Objects.hashCode(test.className),
+        forkId == null ? "" : "-" + forkId, profileSequence.incrementAndGet(), SUFFIX);
+    sampler.execute(() -> write(fileName, samples));
+    return PROFILES_DIR + "/" + fileName;
+  }
+
+  /**
+   * Удаляет файлы профилей из каталога `profiles` отчёта.
+   *
+   * @param reportDir Каталог отчёта.
+   * @return Количество удаленных файлов.
+   */
+  public static int deleteProfiles(File reportDir) {
+    File[] files = new File(reportDir, PROFILES_DIR).listFiles((dir, name) -> name.endsWith(SUFFIX));
+    int deleted = 0;
+    if (files == null) {
+      return deleted;
+    }
+    for (File file : files) {
+      try {
+        if (Files.deleteIfExists(file.toPath())) {
+          deleted++;
+        }
+      } catch (IOException e) {
+        System.err.println("[TestAnalyzer] Не удалось удалить профиль прошлого прогона: " + file + " (" + e + ")");
+      }
+    }
+    return deleted;
+  }
+
+  /**
+   * Дожидается записи профилей, поставленных в очередь до вызова. Профилировщик продолжает работать.
+   */
+  public void flush() {
+    try {
+      sampler.submit(() -> {}).get(30, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException | TimeoutException | RejectedExecutionException e) {
+      System.err.println("[TestAnalyzer] Не удалось дождаться записи профилей тестов: " + e);
+    }
+  }
+
+  /**
+   * Останавливает снятие стеков и дожидается записи всех профилей.
+   */
+  public void close() {
+    sampler.shutdown();
+    try {
+      if (!sampler.awaitTermination(30, TimeUnit.SECONDS)) {
+        System.err.println("[TestAnalyzer] Не все профили тестов записаны за 30 с");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void sampleSafely() {
+    try {
+      sample();
+    } catch (RuntimeException e) {
+      // Исключение остановило бы периодическую задачу; пропускаем только текущий снимок
+      System.err.println("[TestAnalyzer] Ошибка профилировщика: " + e);
+    }
+  }
+
+  private void sample() {
+    if (activeTests.isEmpty()) {
+      return;
+    }
+    long now = System.nanoTime();
+    List<ActiveTest> due = new ArrayList<>();
+    List<Long> threadIds = new ArrayList<>();
+    for (Map.Entry<Thread, ActiveTest> entry : activeTests.entrySet()) {
+      if (now - entry.getValue().startNanos >= thresholdNanos) {
+        due.add(entry.getValue());
+        threadIds.add(entry.getKey().getId());
+      }
+    }
+    if (due.isEmpty()) {
+      return;
+    }
+    long[] ids = new long[threadIds.size()];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = threadIds.get(i);
+    }
+    ThreadInfo[] infos = THREAD_BEAN.getThreadInfo(ids, maxDepth);
+    for (int i = 0; i < infos.length; i++) {
+      if (infos[i] != null && infos[i].getStackTrace().length > 0) {
+        due.get(i).add(collapse(infos[i]));
+      }
+    }
+  }
+
+  /**
+   * Сворачивает стек в строку от корня к вершине через `;`.
+   */
+  private static String collapse(ThreadInfo info) {
+    StackTraceElement[] frames = info.getStackTrace();
+    StringBuilder stack = new StringBuilder(frames.length * 48);
+    for (int i = frames.length - 1; i >= 0; i--) {
+      if (stack.length() > 0) {
+        stack.append(';');
+      }
+      stack.append(frames[i].getClassName()).append('.').append(frames[i].getMethodName());
+    }
+    if (info.getThreadState() != Thread.State.RUNNABLE) {
+      stack.append(";[").append(info.getThreadState()).append(']');
+    }
+    return stack.toString();
+  }
+
+  private void write(String fileName, Map<String, Integer> samples) {
+    File dir = new File(reportDir, PROFILES_DIR);
+    if (!dir.exists() && !dir.mkdirs()) {
+      System.err.println("[TestAnalyzer] Не удалось создать каталог профилей: " + dir.getAbsolutePath());
+      return;
+    }
+    List<Map.Entry<String, Integer>> entries = new ArrayList<>(samples.entrySet());
+    entries.sort((a, b) -> Integer.compare(b.getValue(), a.getValue()));
+    try (Writer writer = Files.newBufferedWriter(new File(dir, fileName).toPath(), StandardCharsets.UTF_8)) {
+      for (Map.Entry<String, Integer> entry : entries) {
+        writer.write(entry.getKey());
+        writer.write(' ');
+        writer.write(Integer.toString(entry.getValue()));
+        writer.write('\n');
+      }
+    } catch (IOException e) {
+      System.err.println("[TestAnalyzer] Ошибка при записи профиля " + fileName);
+      e.printStackTrace();
+    }
+  }
+
+  private static String simpleName(String className) {
+    return className == null ? "unknown" : className.substring(className.lastIndexOf('.') + 1);
+  }
+
+  private static String sanitize(String name) {
+    String sanitized = name.replaceAll("[^A-Za-z0-9._-]", "_");
+    return sanitized.length() > 100 ? sanitized.substring(0, 100) : sanitized;
+  }
+
+  /**
+   * Выполняющийся тест и снятые с него стеки. Стеки добавляет только поток профилировщика.
+   */
+  private static final class ActiveTest {
+    final String testName;
+    final String className;
+    final long startNanos;
+    private Map<String, Integer> samples;
+
+    ActiveTest(String testName, String className, long startNanos) {
+      this.testName = testName;
+      this.className = className;
+      this.startNanos = startNanos;
+    }
+
+    synchronized void add(String stack) {
+      if (samples == null) {
+        samples = new HashMap<>();
+      }
+      samples.merge(stack, 1, Integer::sum);
+    }
+
+    synchronized Map<String, Integer> drain() {
+      Map<String, Integer> drained = samples == null ? Map.of() : samples;
+      samples = null;
+      return drained;
+    }
+  }
+}
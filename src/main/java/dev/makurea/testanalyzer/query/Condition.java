@@ -0,0 +1,131 @@
+package dev.makurea.testanalyzer.query;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/*
+ * Класс `Condition` — условие отбора строк запроса `поле оператор значение`, например
+ * `durationMs>=1000`, `status=FAILED`, `tags=integration`, `className~.*IT$`, `memoryDelta>100MB`.
+ *
+ * Операторы: `=`, `!=`, `>`, `>=`, `<`, `<=` и `~` (поиск регулярного выражения). Для массивов (`tags`)
+ * `=` и `~` выполняются, если условию соответствует хотя бы один элемент, а `!=` — если ни один.
+ * Числа сравниваются как числа; к значению можно добавить суффикс размера `KB`, `MB` или `GB` (степени 1024).
+ */
+final class Condition {
+
+  private static final String[] OPERATORS = {">=", "<=", "!=", "=", ">", "<", "~"};
+
+  private final String field;
+  private final String operator;
+  private final String text;
+  private final double number;
+  private final boolean numeric;
+  private final Pattern pattern;
+
+  private Condition(String field, String operator, String text) {
+    this.field = field;
+    this.operator = operator;
+    this.text = text;
+    Double parsed = parseNumber(text);
+    this.numeric = parsed != null;
+    this.number = parsed != null ? parsed : 0;
+    this.pattern = "~".equals(operator) ? Pattern.compile(text) : null;
+  }
+
+  /**
+   * Разбирает условие.
+   *
+   * @param expression Условие вида `поле оператор значение`.
+   * @return Условие.
+   * @throws IllegalArgumentException если в условии нет оператора или имени поля.
+   */
+  static Condition parse(String expression) {
+    int position = -1;
+    String operator = null;
+    for (int i = 0; i < expression.length() && operator == null; i++) {
+      for (String candidate : OPERATORS) {
+        if (expression.startsWith(candidate, i)) {
+          position = i;
+          operator = candidate;
+          break;
+        }
+      }
+    }
+    if (operator == null || position == 0) {
+      throw new IllegalArgumentException("Условие должно иметь вид <поле><оператор><значение>: " + expression);
+    }
+    return new Condition(expression.substring(0, position).trim(), operator,
+        expression.substring(position + operator.length()).trim());
+  }
+
+  /**
+   * Проверяет строку.
+   *
+   * @param row Строка результата.
+   * @return true, если строка удовлетворяет условию.
+   */
+  boolean matches(ResultRow row) {
+    JsonNode value = row.value(field);
+    if (value.isArray()) {
+      boolean any = false;
+      for (JsonNode element : value) {
+        if (matchesValue(element, "!=".equals(operator) ? "=" : operator)) {
+          any = true;
+          break;
+        }
+      }
+      return "!=".equals(operator) != any;
+    }
+    if (value.isMissingNode() || value.isNull()) {
+      return "!=".equals(operator);
+    }
+    return matchesValue(value, operator);
+  }
+
+  private boolean matchesValue(JsonNode value, String op) {
+    if ("~".equals(op)) {
+      return pattern.matcher(value.asText()).find();
+    }
+    int comparison;
+    if (numeric && (value.isNumber() || parseNumber(value.asText()) != null)) {
+      comparison = Double.compare(value.isNumber() ? value.asDouble() : parseNumber(value.asText()), number);
+    } else {
+      comparison = value.asText().compareTo(text);
+    }
+    switch (op) {
+      case "=":
+        return comparison == 0;
+      case "!=":
+        return comparison != 0;
+      case ">":
+        return comparison > 0;
+      case ">=":
+        return comparison >= 0;
+      case "<":
+        return comparison < 0;
+      default:
+        return comparison <= 0;
+    }
+  }
+
+  private static Double parseNumber(String text) {
+    String value = text.trim().toUpperCase(Locale.ROOT);
+    double scale = 1;
+    if (value.endsWith("KB")) {
+      scale = 1024;
+    } else if (value.endsWith("MB")) {
+      scale = 1024 * 1024;
+    } else if (value.endsWith("GB")) {
+      scale = 1024.0 * 1024 * 1024;
+    }
+    if (scale > 1) {
+      value = value.substring(0, value.length() - 2).trim();
+    }
+    try {
+      return Double.parseDouble(value) * scale;
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,340 @@
+package dev.makurea.testanalyzer.query;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import dev.makurea.testanalyzer.report.BinaryResultFormat;
+import dev.makurea.testanalyzer.report.BinaryResultReader;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/*
+ * Класс `QueryExecutor` выполняет запрос {@link ResultQuery} над файлами результатов.
+ *
+ * Файлы делятся на единицы работы: JSON-массив или NDJSON — один файл, бинарный файл — диапазон строк
+ * (курсор переходит к началу диапазона через `moveTo`). Бинарный файл открывается один раз: все его
+ * диапазоны разделяют один {@link BinaryResultReader} со словарем, а у каждой единицы работы свой курсор.
+ * Единицы работы разбирают `threads` потоков,
+ * у каждого потока свое частичное состояние (счетчик, группы, ограниченная куча), которое объединяется
+ * после завершения всех потоков, поэтому разбор не требует синхронизации.
+ *
+ * JSON читается потоково ({@link MappingIterator}): в памяти одновременно находится одна строка на поток.
+ * Условия, группировка и ключ сортировки для бинарных строк читаются прямо из курсора ({@link ResultRow}),
+ * в JSON превращаются только строки, попадающие в вывод.
+ * Память запроса не зависит от размера входных данных, кроме сортировки без `--top`, при которой
+ * в памяти хранятся все отобранные строки.
+ */
+final class QueryExecutor {
+
+  private static final int MIN_BINARY_ROWS_PER_UNIT = 4096;
+  private static final String BINARY_EXTENSION = BinaryResultFormat.FILE_NAME.substring(BinaryResultFormat.FILE_NAME.lastIndexOf('.'));
+
+  private final ResultQuery query;
+  private final ObjectMapper mapper = new ObjectMapper();
+  private final ObjectReader reader = mapper.readerFor(JsonNode.class);
+
+  QueryExecutor(ResultQuery query) {
+    this.query = query;
+  }
+
+  /**
+   * Выполняет запрос.
+   *
+   * @param files  Файлы результатов.
+   * @param stream Приемник строк для запросов без сортировки, группировки и `--top` (или null);
+   *               вызывается из потоков разбора под общей блокировкой.
+   * @return Объединенное состояние всех потоков.
+   * @throws IOException если файл не удалось прочитать или разобрать либо разбор был прерван.
+   */
+  Partial execute(List<File> files, Consumer<JsonNode> stream) throws IOException {
+    List<BinaryResultReader> binaries = new ArrayList<>();
+    try {
+      return executeUnits(split(files, binaries), stream);
+    } finally {
+      for (BinaryResultReader binary : binaries) {
+        binary.close();
+      }
+    }
+  }
+
+  private Partial executeUnits(List<Unit> work, Consumer<JsonNode> stream) throws IOException {
+    Queue<Unit> units = new ConcurrentLinkedQueue<>(work);
+    AtomicLong limitCounter = new AtomicLong();
+    int threads = Math.max(1, Math.min(query.threads, units.size()));
+    ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "test-analyzer-query");
+      thread.setDaemon(true);
+      return thread;
+    });
+    List<Future<Partial>> futures = new ArrayList<>(threads);
+    for (int i = 0; i < threads; i++) {
+      futures.add(executor.submit(() -> {
+        Partial partial = new Partial(query);
+        Consumer<JsonNode> sink = stream == null ? null : row -> {
+          synchronized (stream) {
+            stream.accept(row);
+          }
+        };
+        Unit unit;
+        while ((unit = units.poll()) != null && !partial.isLimitReached(limitCounter)) {
+          try {
+            scan(unit, partial, sink, limitCounter);
+          } catch (IOException e) {
+            // Остальные потоки не берут новые единицы работы: запрос все равно завершится ошибкой
+            units.clear();
+            throw e;
+          }
+        }
+        return partial;
+      }));
+    }
+    executor.shutdown();
+    Partial merged = new Partial(query);
+    try {
+      for (Future<Partial> future : futures) {
+        merged.merge(future.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      executor.shutdownNow();
+      throw new IOException("Запрос прерван", e);
+    } catch (ExecutionException e) {
+      executor.shutdownNow();
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException("Ошибка при выполнении запроса: " + e.getCause(), e.getCause());
+    }
+    return merged;
+  }
+
+  /**
+   * Делит файлы на единицы работы. Открытые бинарные файлы добавляются в `binaries`, их закрывает вызывающий.
+   */
+  private List<Unit> split(List<File> files, List<BinaryResultReader> binaries) throws IOException {
+    List<Unit> units = new ArrayList<>();
+    for (File file : files) {
+      if (!isBinary(file)) {
+        units.add(new Unit(file, null, 0, 0));
+        continue;
+      }
+      BinaryResultReader binary;
+      try {
+        binary = BinaryResultReader.open(file.toPath());
+      } catch (IOException e) {
+        throw new IOException("Не удалось прочитать " + file + ": " + e.getMessage(), e);
+      }
+      binaries.add(binary);
+      int rows = binary.size();
+      int step = Math.max(MIN_BINARY_ROWS_PER_UNIT, rows / (query.threads * 4) + 1);
+      for (int from = 0; from < rows; from += step) {
+        units.add(new Unit(file, binary, from, Math.min(rows, from + step)));
+      }
+    }
+    return units;
+  }
+
+  static boolean isBinary(File file) {
+    return file.getName().endsWith(BINARY_EXTENSION);
+  }
+
+  private void scan(Unit unit, Partial partial, Consumer<JsonNode> sink, AtomicLong limitCounter) throws IOException {
+    try {
+      if (unit.binary != null) {
+        BinaryResultReader.Cursor cursor = unit.binary.cursor().moveTo(unit.from);
+        ResultRow row = ResultRow.of(cursor, mapper);
+        for (int index = unit.from; index < unit.to; index++) {
+          if (index > unit.from) {
+            cursor.next();
+          }
+          if (!accept(row, partial, sink, limitCounter)) {
+            return;
+          }
+        }
+      } else {
+        try (MappingIterator<JsonNode> iterator = reader.readValues(unit.file)) {
+          while (iterator.hasNextValue()) {
+            if (!accept(ResultRow.of(iterator.nextValue()), partial, sink, limitCounter)) {
+              return;
+            }
+          }
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      // Частичный результат выглядел бы как полный, поэтому ошибка чтения прерывает запрос
+      throw new IOException("Не удалось прочитать " + unit.file + ": " + e, e);
+    }
+  }
+
+  /**
+   * Учитывает строку. Возвращает false, когда набрано `--top` строк запроса без сортировки.
+   */
+  private boolean accept(ResultRow row, Partial partial, Consumer<JsonNode> sink, AtomicLong limitCounter) {
+    partial.scanned++;
+    for (Condition condition : query.conditions) {
+      if (!condition.matches(row)) {
+        return true;
+      }
+    }
+    if (partial.isLimitReached(limitCounter)) {
+      return false;
+    }
+    partial.matched++;
+    if (query.groupBy != null) {
+      partial.group(row);
+    } else if (query.top > 0 && query.sortField != null) {
+      partial.offerTop(row);
+    } else if (query.top > 0) {
+      partial.rows.add(row.toJson());
+      limitCounter.incrementAndGet();
+    } else if (query.sortField != null) {
+      partial.rows.add(row.toJson());
+    } else if (sink != null) {
+      sink.accept(row.toJson());
+    }
+    return true;
+  }
+
+  /**
+   * Единица работы: файл JSON или диапазон строк `[from, to)` открытого бинарного файла.
+   */
+  private static final class Unit {
+    final File file;
+    final BinaryResultReader binary;
+    final int from;
+    final int to;
+
+    Unit(File file, BinaryResultReader binary, int from, int to) {
+      this.file = file;
+      this.binary = binary;
+      this.from = from;
+      this.to = to;
+    }
+  }
+
+  /**
+   * Состояние запроса одного потока разбора или объединенное состояние всех потоков.
+   */
+  static final class Partial {
+    private final ResultQuery query;
+    private final Comparator<JsonNode> order;
+    private final Comparator<JsonNode> sortValues;
+    long scanned;
+    long matched;
+    final Map<String, Group> groups = new HashMap<>();
+    final List<JsonNode> rows = new ArrayList<>();
+    // Ограниченная куча: в вершине — худшая из `top` лучших строк, поэтому памяти нужно O(top)
+    private final PriorityQueue<JsonNode> heap;
+
+    Partial(ResultQuery query) {
+      this.query = query;
+      this.order = query.sortField != null ? RowFields.comparator(query.sortField, query.descending) : null;
+      this.sortValues = query.sortField != null ? RowFields.valueComparator(query.descending) : null;
+      this.heap = query.groupBy == null && query.top > 0 && order != null
+          ? new PriorityQueue<>(query.top + 1, order.reversed()) : null;
+    }
+
+    boolean isLimitReached(AtomicLong limitCounter) {
+      return query.groupBy == null && query.sortField == null && query.top > 0 && limitCounter.get() >= query.top;
+    }
+
+    void group(ResultRow row) {
+      JsonNode key = row.value(query.groupBy);
+      double value = row.value(query.metric).asDouble();
+      if (key.isArray()) {
+        if (key.isEmpty()) {
+          groups.computeIfAbsent(ResultQuery.NO_VALUE, k -> new Group()).add(value);
+        }
+        for (JsonNode element : key) {
+          groups.computeIfAbsent(element.asText(), k -> new Group()).add(value);
+        }
+      } else {
+        String name = key.isMissingNode() || key.isNull() ? ResultQuery.NO_VALUE : key.asText();
+        groups.computeIfAbsent(name, k -> new Group()).add(value);
+      }
+    }
+
+    /**
+     * Предлагает строку в кучу; строка материализуется, только если попадает в нее.
+     */
+    void offerTop(ResultRow row) {
+      if (heap.size() < query.top) {
+        heap.add(row.toJson());
+      } else if (sortValues.compare(row.value(query.sortField), RowFields.value(heap.peek(), query.sortField)) < 0) {
+        heap.poll();
+        heap.add(row.toJson());
+      }
+    }
+
+    void merge(Partial other) {
+      scanned += other.scanned;
+      matched += other.matched;
+      for (Map.Entry<String, Group> entry : other.groups.entrySet()) {
+        groups.merge(entry.getKey(), entry.getValue(), Group::merge);
+      }
+      rows.addAll(other.rows);
+      if (heap != null) {
+        for (JsonNode row : other.heap) {
+          offerTop(ResultRow.of(row));
+        }
+      }
+    }
+
+    /**
+     * Возвращает отобранные строки в порядке вывода.
+     *
+     * @return Строки, не больше `--top`, если он задан.
+     */
+    List<JsonNode> sortedRows() {
+      List<JsonNode> result = new ArrayList<>(heap != null ? heap : rows);
+      if (order != null) {
+        result.sort(order);
+      }
+      return query.top > 0 && result.size() > query.top ? result.subList(0, query.top) : result;
+    }
+  }
+
+  /**
+   * Агрегаты метрики одной группы.
+   */
+  static final class Group {
+    long count;
+    double sum;
+    double min = Double.POSITIVE_INFINITY;
+    double max = Double.NEGATIVE_INFINITY;
+
+    void add(double value) {
+      count++;
+      sum += value;
+      min = Math.min(min, value);
+      max = Math.max(max, value);
+    }
+
+    Group merge(Group other) {
+      count += other.count;
+      sum += other.sum;
+      min = Math.min(min, other.min);
+      max = Math.max(max, other.max);
+      return this;
+    }
+
+    double mean() {
+      return count > 0 ? sum / count : 0;
+    }
+  }
+}
@@ -0,0 +1,369 @@
+package dev.makurea.testanalyzer.query;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.makurea.testanalyzer.report.BinaryResultReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+ * Класс `ResultQuery` — консольный запрос к файлам результатов ({@link dev.makurea.testanalyzer.core.TestResult})
+ * для анализа больших прогонов без загрузки отчёта в браузер: отбор строк, группировка с агрегатами,
+ * сортировка и K лучших строк.
+ *
+ * Входные данные — файлы `test-analyzer-results*.json|ndjson|bin` или каталоги, в которых они ищутся
+ * рекурсивно. В каждом каталоге читается общий файл результатов, а если его нет — файлы процессов;
+ * если рядом с JSON есть бинарный файл того же прогона, читается бинарный — он разбирается быстрее.
+ * Бинарный файл старого формата без метрик (версии 1) не заменяет JSON, иначе условия на `metrics.*`
+ * молча не отбирали бы ни одной строки.
+ * Файлы фрагментов (`test-analyzer-shards`) и история не читаются: они дублируют общий файл.
+ *
+ * Файлы читаются потоково несколькими потоками ({@link QueryExecutor}); память не зависит от размера входных
+ * данных: `--top` с `--sort` хранит не больше K строк на поток, группировка — по одной записи на группу.
+ * Только `--sort` без `--top` хранит в памяти все отобранные строки.
+ *
+ * Использование:
+ *   java -cp <classpath> dev.makurea.testanalyzer.query.ResultQuery [options] <file|dir>...
+ *     --where <условие>     отбор строк, например `status=FAILED`, `durationMs>=500`, `tags=slow`,
+ *                           `className~Integration`, `memoryDelta>64MB` (можно повторять, условия объединяются по И);
+ *     --group-by <поле>     группировка с count, sum, mean, min, max метрики;
+ *     --metric <поле>       метрика группировки (durationMs);
+ *     --sort <поле>[:asc|:desc] сортировка строк или групп (по убыванию, если направление не задано);
+ *     --top <K>             вывести K первых строк или групп;
+ *     --fields <a,b,...>    выводимые поля строк (className,testName,phase,status,durationMs);
+ *     --json                вывод в NDJSON вместо таблицы с разделителями-табуляциями;
+ *     --threads <N>         число потоков разбора (число процессоров).
+ */
+public final class ResultQuery {
+
+  static final String NO_VALUE = "(none)";
+
+  private static final String USAGE = "Usage: ResultQuery [--where <field><op><value>]... [--group-by <field>]"
+      + " [--metric <field>] [--sort <field>[:asc|:desc]] [--top <K>] [--fields <a,b,...>] [--json]"
+      + " [--threads <N>] <file|dir>...";
+  private static final List<String> DEFAULT_FIELDS = List.of("className", "testName", "phase", "status", "durationMs");
+  private static final List<String> GROUP_COLUMNS = List.of("group", "count", "sum", "mean", "min", "max");
+  private static final Pattern RESULT_FILE = Pattern.compile("test-analyzer-results(-.+)?\\.(json|ndjson|bin)");
+  private static final String MERGED_STEM = "test-analyzer-results";
+
+  final List<Condition> conditions = new ArrayList<>();
+  final List<String> inputs = new ArrayList<>();
+  String groupBy;
+  String metric = "durationMs";
+  String sortField;
+  boolean descending = true;
+  int top;
+  List<String> fields = DEFAULT_FIELDS;
+  boolean json;
+  int threads = Runtime.getRuntime().availableProcessors();
+
+  private ResultQuery() {}
+
+  public static void main(String[] args) {
+    ResultQuery query;
+    try {
+      query = parse(args);
+    } catch (IllegalArgumentException e) {
+      System.err.println(e.getMessage());
+      System.err.println(USAGE);
+      System.exit(2);
+      return;
+    }
+    List<File> files = findFiles(query.inputs);
+    if (files.isEmpty()) {
+      System.err.println("[TestAnalyzer] Не найдены файлы результатов в " + query.inputs);
+      System.exit(1);
+    }
+    try {
+      query.run(files);
+    } catch (IOException | UncheckedIOException e) {
+      System.err.println("[TestAnalyzer] " + e.getMessage());
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Разбирает аргументы командной строки.
+   *
+   * @param args Аргументы.
+   * @return Запрос.
+   * @throws IllegalArgumentException если аргументы некорректны.
+   */
+  static ResultQuery parse(String[] args) {
+    ResultQuery query = new ResultQuery();
+    for (int i = 0; i < args.length; i++) {
+      String arg = args[i];
+      if (!arg.startsWith("--")) {
+        query.inputs.add(arg);
+        continue;
+      }
+      if ("--json".equals(arg)) {
+        query.json = true;
+        continue;
+      }
+      if (i + 1 >= args.length) {
+        throw new IllegalArgumentException("Не задано значение " + arg);
+      }
+      String value = args[++i];
+      switch (arg) {
+        case "--where":
+          query.conditions.add(Condition.parse(value));
+          break;
+        case "--group-by":
+          query.groupBy = value;
+          break;
+        case "--metric":
+          query.metric = value;
+          break;
+        case "--sort":
+          int colon = value.lastIndexOf(':');
+          String direction = colon >= 0 ? value.substring(colon + 1).toLowerCase(Locale.ROOT) : "desc";
+          if (!"asc".equals(direction) && !"desc".equals(direction)) {
+            throw new IllegalArgumentException("Направление сортировки должно быть asc или desc: " + value);
+          }
+          query.sortField = colon >= 0 ? value.substring(0, colon) : value;
+          query.descending = "desc".equals(direction);
+          break;
+        case "--top":
+          query.top = positive(arg, value);
+          break;
+        case "--threads":
+          query.threads = positive(arg, value);
+          break;
+        case "--fields":
+          query.fields = Arrays.asList(value.split("\\s*,\\s*"));
+          break;
+        default:
+          throw new IllegalArgumentException("Неизвестный параметр " + arg);
+      }
+    }
+    if (query.inputs.isEmpty()) {
+      throw new IllegalArgumentException("Не заданы файлы или каталоги результатов");
+    }
+    if (query.groupBy != null && query.sortField != null && !GROUP_COLUMNS.contains(query.sortField)) {
+      throw new IllegalArgumentException("Группы сортируются по одной из колонок " + GROUP_COLUMNS);
+    }
+    return query;
+  }
+
+  private static int positive(String name, String value) {
+    try {
+      int parsed = Integer.parseInt(value);
+      if (parsed > 0) {
+        return parsed;
+      }
+    } catch (NumberFormatException e) {
+      // Сообщение ниже
+    }
+    throw new IllegalArgumentException(name + " должен быть положительным целым числом: " + value);
+  }
+
+  /**
+   * Находит файлы результатов: файлы из аргументов читаются как есть, каталоги обходятся рекурсивно.
+   *
+   * @param inputs Файлы и каталоги.
+   * @return Файлы результатов без дубликатов одного прогона.
+   */
+  static List<File> findFiles(List<String> inputs) {
+    List<File> files = new ArrayList<>();
+    for (String input : inputs) {
+      File file = new File(input);
+      if (file.isDirectory()) {
+        collect(file, files);
+      } else if (file.isFile()) {
+        files.add(file);
+      } else {
+        System.err.println("[TestAnalyzer] Файл не найден: " + input);
+      }
+    }
+    return files;
+  }
+
+  private static void collect(File dir, List<File> files) {
+    File[] children = dir.listFiles();
+    if (children == null) {
+      return;
+    }
+    Arrays.sort(children);
+    // Один файл на прогон или процесс: бинарный, если есть, иначе самый свежий из JSON и NDJSON
+    Map<String, File> byStem = new TreeMap<>();
+    for (File child : children) {
+      if (child.isDirectory()) {
+        collect(child, files);
+        continue;
+      }
+      Matcher matcher = RESULT_FILE.matcher(child.getName());
+      if (!matcher.matches()) {
+        continue;
+      }
+      String stem = child.getName().substring(0, child.getName().lastIndexOf('.'));
+      byStem.merge(stem, child, (current, candidate) -> preferred(current, candidate) ? current : candidate);
+    }
+    // Общий файл уже содержит результаты всех процессов
+    File merged = byStem.get(MERGED_STEM);
+    if (merged != null) {
+      files.add(merged);
+    } else {
+      files.addAll(byStem.values());
+    }
+  }
+
+  private static boolean preferred(File current, File candidate) {
+    boolean currentBinary = QueryExecutor.isBinary(current);
+    boolean candidateBinary = QueryExecutor.isBinary(candidate);
+    if (currentBinary != candidateBinary) {
+      return currentBinary ? hasMetrics(current) : !hasMetrics(candidate);
+    }
+    return current.lastModified() >= candidate.lastModified();
+  }
+
+  private static boolean hasMetrics(File binary) {
+    try (BinaryResultReader reader = BinaryResultReader.open(binary.toPath())) {
+      return reader.hasMetrics();
+    } catch (IOException e) {
+      return false; // Поврежденный бинарный файл не заменяет JSON
+    }
+  }
+
+  private void run(List<File> files) throws IOException {
+    long start = System.nanoTime();
+    ObjectMapper mapper = new ObjectMapper();
+    PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16));
+    boolean streaming = groupBy == null && sortField == null && top == 0;
+    if (!json && groupBy == null) {
+      out.println(String.join("\t", fields));
+    }
+    QueryExecutor.Partial result = new QueryExecutor(this).execute(files,
+        streaming ? row -> printRow(out, mapper, row) : null);
+    if (groupBy != null) {
+      printGroups(out, mapper, result.groups);
+    } else if (!streaming) {
+      for (JsonNode row : result.sortedRows()) {
+        printRow(out, mapper, row);
+      }
+    }
+    out.flush();
+    System.err.printf(Locale.ROOT, "[TestAnalyzer] Файлов: %d, просмотрено строк: %d, отобрано: %d, %d мс%n",
+        files.size(), result.scanned, result.matched, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+  }
+
+  private void printRow(PrintWriter out, ObjectMapper mapper, JsonNode row) {
+    try {
+      if (json) {
+        if (fields == DEFAULT_FIELDS) {
+          out.println(mapper.writeValueAsString(row));
+        } else {
+          ObjectNode selected = mapper.createObjectNode();
+          for (String field : fields) {
+            selected.set(field, RowFields.value(row, field).isMissingNode() ? null : RowFields.value(row, field));
+          }
+          out.println(mapper.writeValueAsString(selected));
+        }
+        return;
+      }
+      StringBuilder line = new StringBuilder();
+      for (String field : fields) {
+        if (line.length() > 0) {
+          line.append('\t');
+        }
+        line.append(text(RowFields.value(row, field)));
+      }
+      out.println(line);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void printGroups(PrintWriter out, ObjectMapper mapper, Map<String, QueryExecutor.Group> groups)
+      throws IOException {
+    List<Map.Entry<String, QueryExecutor.Group>> entries = new ArrayList<>(groups.entrySet());
+    entries.sort(groupComparator(sortField != null ? sortField : "count", descending));
+    if (top > 0 && entries.size() > top) {
+      entries = entries.subList(0, top);
+    }
+    if (!json) {
+      out.println(groupBy + "\tcount\tsum(" + metric + ")\tmean\tmin\tmax");
+    }
+    for (Map.Entry<String, QueryExecutor.Group> entry : entries) {
+      QueryExecutor.Group group = entry.getValue();
+      if (json) {
+        ObjectNode node = mapper.createObjectNode();
+        node.put(groupBy, entry.getKey());
+        node.put("count", group.count);
+        node.put("sum", group.sum);
+        node.put("mean", group.mean());
+        node.put("min", group.min);
+        node.put("max", group.max);
+        out.println(mapper.writeValueAsString(node));
+      } else {
+        out.println(entry.getKey() + '\t' + group.count + '\t' + format(group.sum) + '\t' + format(group.mean())
+            + '\t' + format(group.min) + '\t' + format(group.max));
+      }
+    }
+  }
+
+  /**
+   * Сравнение групп по колонке в заданном направлении; равные значения упорядочиваются по имени группы.
+   */
+  private static Comparator<Map.Entry<String, QueryExecutor.Group>> groupComparator(String column, boolean descending) {
+    Comparator<Map.Entry<String, QueryExecutor.Group>> byKey = Map.Entry.comparingByKey();
+    Comparator<Map.Entry<String, QueryExecutor.Group>> byColumn;
+    switch (column) {
+      case "group":
+        return descending ? byKey.reversed() : byKey;
+      case "sum":
+        byColumn = Comparator.comparingDouble(e -> e.getValue().sum);
+        break;
+      case "mean":
+        byColumn = Comparator.comparingDouble(e -> e.getValue().mean());
+        break;
+      case "min":
+        byColumn = Comparator.comparingDouble(e -> e.getValue().min);
+        break;
+      case "max":
+        byColumn = Comparator.comparingDouble(e -> e.getValue().max);
+        break;
+      default:
+        byColumn = Comparator.comparingLong(e -> e.getValue().count);
+    }
+    return (descending ? byColumn.reversed() : byColumn).thenComparing(byKey);
+  }
+
+  private static String text(JsonNode value) {
+    if (value.isMissingNode() || value.isNull()) {
+      return "";
+    }
+    if (value.isArray()) {
+      StringBuilder joined = new StringBuilder();
+      for (JsonNode element : value) {
+        if (joined.length() > 0) {
+          joined.append(',');
+        }
+        joined.append(element.asText());
+      }
+      return joined.toString();
+    }
+    return value.isContainerNode() ? value.toString() : value.asText();
+  }
+
+  private static String format(double value) {
+    return value == Math.rint(value) && Math.abs(value) < 1e15
+        ? Long.toString((long) value) : String.format(Locale.ROOT, "%.3f", value);
+  }
+}
@@ -0,0 +1,60 @@
+package dev.makurea.testanalyzer.query;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.makurea.testanalyzer.report.BinaryResultReader;
+
+/*
+ * Интерфейс `ResultRow` — строка результата, над которой выполняется запрос {@link ResultQuery}:
+ * разобранный JSON или текущая строка курсора бинарного файла.
+ *
+ * Условия, группировка и сортировка читают только нужные поля через {@link #value(String)}, поэтому
+ * строки бинарного файла не материализуются: в JSON ({@link #toJson()}) превращаются лишь строки,
+ * которые попадают в вывод.
+ */
+interface ResultRow {
+
+  /**
+   * Возвращает значение поля строки (см. {@link RowFields}).
+   *
+   * @param field Имя поля или путь через точку.
+   * @return Значение или `MissingNode`, если поля нет.
+   */
+  JsonNode value(String field);
+
+  /**
+   * Возвращает строку целиком в виде JSON. Строку курсора нужно материализовать до перехода
+   * курсора к следующей строке.
+   *
+   * @return Результат в виде JSON.
+   */
+  JsonNode toJson();
+
+  static ResultRow of(JsonNode row) {
+    return new ResultRow() {
+      @Override
+      public JsonNode value(String field) {
+        return RowFields.value(row, field);
+      }
+
+      @Override
+      public JsonNode toJson() {
+        return row;
+      }
+    };
+  }
+
+  static ResultRow of(BinaryResultReader.Cursor cursor, ObjectMapper mapper) {
+    return new ResultRow() {
+      @Override
+      public JsonNode value(String field) {
+        return RowFields.value(cursor, field);
+      }
+
+      @Override
+      public JsonNode toJson() {
+        return mapper.valueToTree(cursor.toTestResult());
+      }
+    };
+  }
+}
@@ -0,0 +1,182 @@
+package dev.makurea.testanalyzer.query;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.BooleanNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.LongNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import dev.makurea.testanalyzer.report.BinaryResultReader;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/*
+ * Класс `RowFields` извлекает значения полей результата ({@link dev.makurea.testanalyzer.core.TestResult}
+ * в виде JSON) для запросов {@link ResultQuery}. Поле задается именем (`durationMs`), путем через точку
+ * для вложенных значений (`metrics.openFileDescriptors`) или именем вычисляемого поля:
+ *   memoryDelta — `memoryAfter - memoryBefore` в байтах.
+ *
+ * Для строк бинарного файла значения читаются прямо из курсора {@link BinaryResultReader.Cursor}:
+ * имена и значения полей совпадают с JSON-представлением `TestResult`, но объект результата не создается.
+ * Значение `metrics.<ключ>` читается из раздела метрик без построения всей карты.
+ */
+final class RowFields {
+
+  static final String MEMORY_DELTA = "memoryDelta";
+
+  private static final String METRICS = "metrics";
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  // Поля JSON-представления TestResult, которые хранятся в бинарном формате
+  private static final Map<String, Function<BinaryResultReader.Cursor, JsonNode>> CURSOR_FIELDS = new HashMap<>();
+
+  static {
+    CURSOR_FIELDS.put("testName", cursor -> text(cursor.testName()));
+    CURSOR_FIELDS.put("testId", cursor -> text(cursor.testId()));
+    CURSOR_FIELDS.put("className", cursor -> text(cursor.className()));
+    CURSOR_FIELDS.put("phase", cursor -> text(cursor.phase()));
+    CURSOR_FIELDS.put("durationMs", cursor -> LongNode.valueOf(TimeUnit.NANOSECONDS.toMillis(cursor.durationNanos())));
+    CURSOR_FIELDS.put("durationNanos", cursor -> LongNode.valueOf(cursor.durationNanos()));
+    CURSOR_FIELDS.put("status", cursor -> text(cursor.status()));
+    CURSOR_FIELDS.put("retryCount", cursor -> IntNode.valueOf(cursor.retryCount()));
+    CURSOR_FIELDS.put("tags", cursor -> tags(cursor.tags()));
+    CURSOR_FIELDS.put("negative", cursor -> BooleanNode.valueOf(cursor.negative()));
+    CURSOR_FIELDS.put("memoryBefore", cursor -> LongNode.valueOf(cursor.memoryBefore()));
+    CURSOR_FIELDS.put("memoryAfter", cursor -> LongNode.valueOf(cursor.memoryAfter()));
+    CURSOR_FIELDS.put("allocatedBytes", cursor -> LongNode.valueOf(cursor.allocatedBytes()));
+    CURSOR_FIELDS.put("gcCount", cursor -> LongNode.valueOf(cursor.gcCount()));
+    CURSOR_FIELDS.put("gcTimeMs", cursor -> LongNode.valueOf(cursor.gcTimeMs()));
+    CURSOR_FIELDS.put("cpuTimeNanos", cursor -> LongNode.valueOf(cursor.cpuTimeNanos()));
+    CURSOR_FIELDS.put("userTimeNanos", cursor -> LongNode.valueOf(cursor.userTimeNanos()));
+    CURSOR_FIELDS.put("blockedCount", cursor -> LongNode.valueOf(cursor.blockedCount()));
+    CURSOR_FIELDS.put("blockedTimeMs", cursor -> LongNode.valueOf(cursor.blockedTimeMs()));
+    CURSOR_FIELDS.put("waitedCount", cursor -> LongNode.valueOf(cursor.waitedCount()));
+    CURSOR_FIELDS.put("waitedTimeMs", cursor -> LongNode.valueOf(cursor.waitedTimeMs()));
+    CURSOR_FIELDS.put("liveThreadsBefore", cursor -> LongNode.valueOf(cursor.liveThreadsBefore()));
+    CURSOR_FIELDS.put("liveThreadsAfter", cursor -> LongNode.valueOf(cursor.liveThreadsAfter()));
+    // Поля с @JsonInclude(NON_NULL): в JSON их нет, если значение не задано
+    CURSOR_FIELDS.put("profileFile", cursor -> present(cursor.profileFile()));
+    CURSOR_FIELDS.put("startNanos", cursor -> LongNode.valueOf(cursor.startNanos()));
+    CURSOR_FIELDS.put("endNanos", cursor -> LongNode.valueOf(cursor.endNanos()));
+    CURSOR_FIELDS.put("threadName", cursor -> present(cursor.threadName()));
+    CURSOR_FIELDS.put(MEMORY_DELTA, cursor -> LongNode.valueOf(cursor.memoryAfter() - cursor.memoryBefore()));
+    // Поле с @JsonInclude(NON_EMPTY): в JSON его нет, если метрик нет
+    CURSOR_FIELDS.put(METRICS, cursor -> {
+      Map<String, Object> metrics = cursor.metrics();
+      return metrics.isEmpty() ? MissingNode.getInstance() : MAPPER.valueToTree(metrics);
+    });
+  }
+
+  private RowFields() {}
+
+  /**
+   * Возвращает значение поля строки.
+   *
+   * @param row   Результат в виде JSON.
+   * @param field Имя поля или путь через точку.
+   * @return Значение или `MissingNode`, если поля нет.
+   */
+  static JsonNode value(JsonNode row, String field) {
+    if (MEMORY_DELTA.equals(field)) {
+      JsonNode before = row.get("memoryBefore");
+      JsonNode after = row.get("memoryAfter");
+      return before != null && after != null ? LongNode.valueOf(after.asLong() - before.asLong()) : MissingNode.getInstance();
+    }
+    if (field.indexOf('.') < 0) {
+      JsonNode value = row.get(field);
+      return value != null ? value : MissingNode.getInstance();
+    }
+    JsonNode value = row;
+    for (String part : field.split("\\.")) {
+      value = value.path(part);
+    }
+    return value;
+  }
+
+  /**
+   * Возвращает значение поля текущей строки курсора.
+   *
+   * @param cursor Курсор бинарного файла, установленный на строку.
+   * @param field  Имя поля или путь через точку.
+   * @return Значение или `MissingNode`, если поля нет.
+   */
+  static JsonNode value(BinaryResultReader.Cursor cursor, String field) {
+    int dot = field.indexOf('.');
+    if (dot == METRICS.length() && field.startsWith(METRICS) && field.indexOf('.', dot + 1) < 0) {
+      Object metric = cursor.metric(field.substring(dot + 1));
+      return metric != null ? MAPPER.valueToTree(metric) : MissingNode.getInstance();
+    }
+    Function<BinaryResultReader.Cursor, JsonNode> accessor = CURSOR_FIELDS.get(dot < 0 ? field : field.substring(0, dot));
+    if (accessor == null) {
+      return MissingNode.getInstance();
+    }
+    JsonNode value = accessor.apply(cursor);
+    if (dot >= 0) {
+      for (String part : field.substring(dot + 1).split("\\.")) {
+        value = value.path(part);
+      }
+    }
+    return value;
+  }
+
+  /**
+   * Сравнение строк по полю: числа сравниваются как числа, остальные значения — как текст;
+   * строки без поля идут последними при любом направлении сортировки.
+   *
+   * @param field      Имя поля.
+   * @param descending Сортировать ли по убыванию.
+   * @return Сравнение строк.
+   */
+  static Comparator<JsonNode> comparator(String field, boolean descending) {
+    Comparator<JsonNode> values = valueComparator(descending);
+    return (left, right) -> values.compare(value(left, field), value(right, field));
+  }
+
+  /**
+   * Сравнение значений поля в том же порядке, что и {@link #comparator(String, boolean)}.
+   *
+   * @param descending Сортировать ли по убыванию.
+   * @return Сравнение значений.
+   */
+  static Comparator<JsonNode> valueComparator(boolean descending) {
+    Comparator<JsonNode> values = (left, right) -> {
+      if (left.isNumber() && right.isNumber()) {
+        return Double.compare(left.asDouble(), right.asDouble());
+      }
+      return left.asText().compareTo(right.asText());
+    };
+    Comparator<JsonNode> ordered = descending ? values.reversed() : values;
+    return (a, b) -> {
+      boolean missingA = a.isMissingNode() || a.isNull();
+      boolean missingB = b.isMissingNode() || b.isNull();
+      if (missingA || missingB) {
+        return Boolean.compare(missingA, missingB);
+      }
+      return ordered.compare(a, b);
+    };
+  }
+
+  private static JsonNode text(String value) {
+    return value != null ? TextNode.valueOf(value) : NullNode.getInstance();
+  }
+
+  private static JsonNode present(String value) {
+    return value != null ? TextNode.valueOf(value) : MissingNode.getInstance();
+  }
+
+  private static JsonNode tags(List<String> tags) {
+    ArrayNode array = JsonNodeFactory.instance.arrayNode(tags.size());
+    for (String tag : tags) {
+      array.add(tag);
+    }
+    return array;
+  }
+}
@@ -0,0 +1,58 @@
+package dev.makurea.testanalyzer.report;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Класс `AtomicFiles` записывает файлы отчёта атомарно: содержимое пишется во временный файл
+ * в том же каталоге, который затем переименовывается в целевой с `ATOMIC_MOVE`. Читатель (браузер,
+ * другая JVM или утилита слияния) видит либо прежний файл целиком, либо новый, но никогда не наполовину записанный.
+ *
+ * Имена временных файлов начинаются с точки и заканчиваются на `.tmp`, поэтому они не совпадают
+ * с шаблонами имен файлов отчёта. Если файловая система не поддерживает атомарное переименование,
+ * файл заменяется обычным переименованием.
+ */
+public final class AtomicFiles {
+
+  private static final long PID = ProcessHandle.current().pid();
+  private static final AtomicLong SEQUENCE = new AtomicLong();
+
+  private AtomicFiles() {}
+
+  /**
+   * Действие, записывающее содержимое во временный файл.
+   */
+  @FunctionalInterface
+  public interface Content {
+    void writeTo(File file) throws IOException;
+  }
+
+  /**
+   * Записывает файл атомарно.
+   *
+   * @param target  Целевой файл; его каталог должен существовать.
+   * @param content Действие, записывающее содержимое во временный файл.
+   * @throws IOException если не удалось записать или переименовать файл; временный файл при этом удаляется.
+   */
+  public static void write(File target, Content content) throws IOException {
+    Path targetPath = target.toPath().toAbsolutePath();
+    // Имя уникально для процесса и вызова; файл создает само действие, поэтому права доступа обычные
+    Path temp = targetPath.resolveSibling(
+        "." + target.getName() + "." + PID + "-" + SEQUENCE.incrementAndGet() + ".tmp");
+    try {
+      content.writeTo(temp.toFile());
+      try {
+        Files.move(temp, targetPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, targetPath, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+}
@@ -0,0 +1,121 @@
+package dev.makurea.testanalyzer.report;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Map;
+
+/*
+ * Утилита `BinaryResultConverter` преобразует бинарный файл результатов ({@link BinaryResultFormat})
+ * обратно в JSON или NDJSON. Строки читаются курсором {@link BinaryResultReader} и сразу пишутся
+ * через `JsonGenerator`, поэтому объем памяти не зависит от размера файла.
+ *
+ * Использование:
+ *   java -cp <classpath> dev.makurea.testanalyzer.report.BinaryResultConverter <input.bin> <output> [--ndjson] [--pretty]
+ */
+public class BinaryResultConverter {
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.err.println("Usage: BinaryResultConverter <input.bin> <output> [--ndjson] [--pretty]");
+      System.exit(2);
+    }
+    ReportFormat format = ReportFormat.JSON;
+    boolean pretty = false;
+    for (int i = 2; i < args.length; i++) {
+      if ("--ndjson".equals(args[i])) {
+        format = ReportFormat.NDJSON;
+      } else if ("--pretty".equals(args[i])) {
+        pretty = true;
+      }
+    }
+    int rows = convert(new File(args[0]), new File(args[1]), format, pretty);
+    System.out.println("[TestAnalyzer] Преобразовано результатов: " + rows + " -> " + args[1]);
+  }
+
+  /**
+   * Преобразует бинарный файл результатов в JSON или NDJSON.
+   *
+   * @param input  Бинарный файл.
+   * @param output Файл для записи.
+   * @param format Формат выходного файла.
+   * @param pretty Форматировать ли JSON с отступами (игнорируется для NDJSON).
+   * @return Количество преобразованных строк.
+   * @throws IOException если файл не удалось прочитать или записать.
+   */
+  public static int convert(File input, File output, ReportFormat format, boolean pretty) throws IOException {
+    try (BinaryResultReader reader = BinaryResultReader.open(Paths.get(input.getPath()));
+        JsonGenerator generator = new ObjectMapper().getFactory().createGenerator(output, JsonEncoding.UTF8)) {
+      if (format == ReportFormat.JSON) {
+        if (pretty) {
+          generator.useDefaultPrettyPrinter();
+        }
+        generator.writeStartArray();
+      } else {
+        generator.setRootValueSeparator(new SerializedString("\n"));
+      }
+      BinaryResultReader.Cursor cursor = reader.cursor();
+      while (cursor.next()) {
+        writeRow(generator, cursor);
+      }
+      if (format == ReportFormat.JSON) {
+        generator.writeEndArray();
+      } else if (reader.size() > 0) {
+        generator.writeRaw('\n');
+      }
+      return reader.size();
+    }
+  }
+
+  /**
+   * Записывает строку с теми же именами полей, что и при сериализации {@link dev.makurea.testanalyzer.core.TestResult}.
+   */
+  private static void writeRow(JsonGenerator generator, BinaryResultReader.Cursor cursor) throws IOException {
+    long durationNanos = cursor.durationNanos();
+    generator.writeStartObject();
+    generator.writeStringField("testName", cursor.testName());
+    generator.writeStringField("testId", cursor.testId());
+    generator.writeStringField("className", cursor.className());
+    generator.writeStringField("phase", cursor.phase());
+    generator.writeNumberField("durationMs", durationNanos / 1_000_000);
+    generator.writeNumberField("durationNanos", durationNanos);
+    generator.writeStringField("status", cursor.status());
+    generator.writeNumberField("retryCount", cursor.retryCount());
+    generator.writeArrayFieldStart("tags");
+    for (String tag : cursor.tags()) {
+      generator.writeString(tag);
+    }
+    generator.writeEndArray();
+    generator.writeNumberField("memoryBefore", cursor.memoryBefore());
+    generator.writeNumberField("memoryAfter", cursor.memoryAfter());
+    generator.writeNumberField("allocatedBytes", cursor.allocatedBytes());
+    generator.writeNumberField("gcCount", cursor.gcCount());
+    generator.writeNumberField("gcTimeMs", cursor.gcTimeMs());
+    generator.writeNumberField("cpuTimeNanos", cursor.cpuTimeNanos());
+    generator.writeNumberField("userTimeNanos", cursor.userTimeNanos());
+    generator.writeNumberField("blockedCount", cursor.blockedCount());
+    generator.writeNumberField("blockedTimeMs", cursor.blockedTimeMs());
+    generator.writeNumberField("waitedCount", cursor.waitedCount());
+    generator.writeNumberField("waitedTimeMs", cursor.waitedTimeMs());
+    generator.writeNumberField("liveThreadsBefore", cursor.liveThreadsBefore());
+    generator.writeNumberField("liveThreadsAfter", cursor.liveThreadsAfter());
+    if (cursor.profileFile() != null) {
+      generator.writeStringField("profileFile", cursor.profileFile());
+    }
+    generator.writeNumberField("startNanos", cursor.startNanos());
+    generator.writeNumberField("endNanos", cursor.endNanos());
+    if (cursor.threadName() != null) {
+      generator.writeStringField("threadName", cursor.threadName());
+    }
+    Map<String, Object> metrics = cursor.metrics();
+    if (!metrics.isEmpty()) {
+      generator.writeObjectField("metrics", metrics);
+    }
+    generator.writeBooleanField("negative", cursor.negative());
+    generator.writeEndObject();
+  }
+}
@@ -0,0 +1,100 @@
+package dev.makurea.testanalyzer.report;
+
+/*
+ * Описание бинарного колоночного формата результатов (`test-analyzer-results.bin`).
+ *
+ * Файл состоит из заголовка фиксированного размера, колонок фиксированной ширины и словаря:
+ *
+ *   [заголовок: HEADER_SIZE байт]
+ *     int   MAGIC
+ *     int   VERSION
+ *     int   количество строк
+ *     int   количество колонок
+ *     long  смещение словаря строк
+ *     long  смещение таблицы наборов тегов
+ *     long  смещение раздела метрик (с версии 2)
+ *   [колонка 0: rowCount * width байт] ... [колонка N-1]
+ *   [словарь строк: int count, затем count * (int length, UTF-8 байты)]
+ *   [наборы тегов: int count, затем count * (int n, n * int id строки)]
+ *   [метрики: int keyCount, keyCount * int id строки ключа,
+ *             (rowCount + 1) * int смещение первой записи строки от начала записей,
+ *             записи: int индекс ключа, byte тип, значение]
+ *
+ * Строковые значения (имя теста, идентификатор, класс, фаза, статус, путь к профилю, имя потока) и теги хранятся как индексы в словаре,
+ * поэтому повторяющиеся строки записываются один раз. Отсутствующая строка кодируется индексом -1.
+ * Колонки записываются в порядке {@link Column}; новые колонки добавляются только в конец перечисления,
+ * и читатель подставляет значения по умолчанию для колонок, которых нет в старых файлах.
+ *
+ * Раздел метрик хранит карту `metrics` результата: записи строки `row` занимают байты от смещения `row`
+ * до смещения `row + 1`. Значение записи зависит от типа ({@link #METRIC_LONG} и др.); значения, которые
+ * не являются числом, строкой или логическим значением, хранятся как JSON-текст в словаре строк.
+ *
+ * Версии: 1 — заголовок 32 байта, без метрик; 2 — раздел метрик. Любое изменение раскладки увеличивает
+ * {@link #VERSION}; читатель открывает файлы всех версий не новее своей.
+ */
+public final class BinaryResultFormat {
+
+  public static final int MAGIC = 0x54415242; // "TARB"
+  public static final int VERSION = 2;
+  public static final int HEADER_SIZE = 40;
+  // Размер заголовка файлов версии 1, в котором нет смещения раздела метрик
+  public static final int HEADER_SIZE_V1 = 32;
+
+  // Типы значений в разделе метрик
+  public static final byte METRIC_NULL = 0;
+  public static final byte METRIC_LONG = 1;
+  public static final byte METRIC_DOUBLE = 2;
+  public static final byte METRIC_BOOLEAN = 3;
+  public static final byte METRIC_STRING = 4;
+  public static final byte METRIC_JSON = 5;
+  public static final String FILE_NAME = "test-analyzer-results.bin";
+
+  private BinaryResultFormat() {}
+
+  /**
+   * Колонки файла в порядке их расположения.
+   */
+  public enum Column {
+    TEST_NAME(4),
+    TEST_ID(4),
+    CLASS_NAME(4),
+    PHASE(4),
+    STATUS(4),
+    RETRY_COUNT(4),
+    TAG_SET(4),
+    NEGATIVE(4),
+    DURATION_NANOS(8),
+    MEMORY_BEFORE(8),
+    MEMORY_AFTER(8),
+    ALLOCATED_BYTES(8),
+    GC_COUNT(8),
+    GC_TIME_MS(8),
+    CPU_TIME_NANOS(8),
+    USER_TIME_NANOS(8),
+    BLOCKED_COUNT(8),
+    BLOCKED_TIME_MS(8),
+    WAITED_COUNT(8),
+    WAITED_TIME_MS(8),
+    LIVE_THREADS_BEFORE(8),
+    LIVE_THREADS_AFTER(8),
+    PROFILE_FILE(4),
+    START_NANOS(8),
+    END_NANOS(8),
+    THREAD_NAME(4);
+
+    private final int width;
+
+    Column(int width) {
+      this.width = width;
+    }
+
+    /**
+     * Возвращает ширину значения колонки в байтах.
+     *
+     * @return 4 для int-колонок, 8 для long-колонок.
+     */
+    public int width() {
+      return width;
+    }
+  }
+}
@@ -0,0 +1,452 @@
+package dev.makurea.testanalyzer.report;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.makurea.testanalyzer.core.TestResult;
+import dev.makurea.testanalyzer.report.BinaryResultFormat.Column;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Класс `BinaryResultReader` читает файлы бинарного колоночного формата ({@link BinaryResultFormat})
+ * через `MappedByteBuffer`: каждая колонка отображается в память отдельно, а значения читаются
+ * по смещению строки без разбора всего файла.
+ *
+ * Обход выполняется курсором ({@link Cursor}) — одним переиспользуемым объектом-представлением,
+ * который перемещается по строкам и возвращает значения текущей строки. Объекты `TestResult`
+ * при этом не создаются; при необходимости строку можно материализовать методом {@link Cursor#toTestResult()}.
+ * Словарь строк и наборы тегов загружаются один раз при открытии файла и разделяются всеми строками.
+ * Метрики строки ({@link Cursor#metrics()}, {@link Cursor#metric(String)}) декодируются из раздела метрик
+ * только при обращении к ним; в файлах версии 1 раздела нет, и метрики строк пусты.
+ *
+ * После открытия читатель только читает колонки по абсолютному смещению, поэтому его можно разделять
+ * между потоками, если у каждого потока свой курсор.
+ */
+public class BinaryResultReader implements Closeable {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final FileChannel channel;
+  private final int rowCount;
+  private final ByteBuffer[] columns = new ByteBuffer[Column.values().length];
+  private final String[] dictionary;
+  private final List<List<String>> tagSets;
+  // Раздел метрик: ключи, смещения записей строк и сами записи; null для файлов версии 1
+  private final String[] metricKeys;
+  private final ByteBuffer metricOffsets;
+  private final ByteBuffer metricEntries;
+
+  private BinaryResultReader(FileChannel channel) throws IOException {
+    this.channel = channel;
+    if (channel.size() < BinaryResultFormat.HEADER_SIZE_V1) {
+      throw new IOException("Not a test-analyzer binary result file");
+    }
+    ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, BinaryResultFormat.HEADER_SIZE_V1);
+    if (header.getInt() != BinaryResultFormat.MAGIC) {
+      throw new IOException("Not a test-analyzer binary result file");
+    }
+    int version = header.getInt();
+    if (version > BinaryResultFormat.VERSION) {
+      throw new IOException("Unsupported binary result format version: " + version);
+    }
+    this.rowCount = header.getInt();
+    int columnCount = header.getInt();
+    long dictionaryOffset = header.getLong();
+    long tagSetsOffset = header.getLong();
+    long metricsOffset = -1;
+    long headerSize = BinaryResultFormat.HEADER_SIZE_V1;
+    if (version >= 2) {
+      metricsOffset = channel.map(FileChannel.MapMode.READ_ONLY, BinaryResultFormat.HEADER_SIZE_V1, 8).getLong();
+      headerSize = BinaryResultFormat.HEADER_SIZE;
+    }
+
+    long offset = headerSize;
+    for (int i = 0; i < columnCount; i++) {
+      int width = i < columns.length ? Column.values()[i].width() : 0;
+      long size = (long) width * rowCount;
+      if (i < columns.length) {
+        columns[i] = map(offset, size);
+      }
+      offset += size;
+    }
+
+    ByteBuffer dictionaryBuffer = map(dictionaryOffset, tagSetsOffset - dictionaryOffset);
+    this.dictionary = new String[dictionaryBuffer.getInt()];
+    for (int i = 0; i < dictionary.length; i++) {
+      byte[] bytes = new byte[dictionaryBuffer.getInt()];
+      dictionaryBuffer.get(bytes);
+      dictionary[i] = new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    long tagSetsEnd = metricsOffset >= 0 ? metricsOffset : channel.size();
+    ByteBuffer tagSetsBuffer = map(tagSetsOffset, tagSetsEnd - tagSetsOffset);
+    int tagSetCount = tagSetsBuffer.getInt();
+    this.tagSets = new ArrayList<>(tagSetCount);
+    for (int i = 0; i < tagSetCount; i++) {
+      String[] tags = new String[tagSetsBuffer.getInt()];
+      for (int j = 0; j < tags.length; j++) {
+        tags[j] = dictionary[tagSetsBuffer.getInt()];
+      }
+      tagSets.add(Collections.unmodifiableList(Arrays.asList(tags)));
+    }
+
+    if (metricsOffset < 0) {
+      this.metricKeys = null;
+      this.metricOffsets = null;
+      this.metricEntries = null;
+      return;
+    }
+    ByteBuffer metricsBuffer = map(metricsOffset, channel.size() - metricsOffset);
+    this.metricKeys = new String[metricsBuffer.getInt()];
+    for (int i = 0; i < metricKeys.length; i++) {
+      metricKeys[i] = dictionary[metricsBuffer.getInt()];
+    }
+    this.metricOffsets = metricsBuffer.slice(metricsBuffer.position(), (rowCount + 1) * 4);
+    this.metricEntries = metricsBuffer.slice(metricsBuffer.position() + (rowCount + 1) * 4,
+        metricsBuffer.limit() - metricsBuffer.position() - (rowCount + 1) * 4);
+  }
+
+  /**
+   * Открывает файл бинарного формата для чтения.
+   *
+   * @param path Путь к файлу.
+   * @return Открытый читатель; его необходимо закрыть.
+   * @throws IOException если файл не удалось открыть или он имеет неизвестный формат.
+   */
+  public static BinaryResultReader open(Path path) throws IOException {
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+    try {
+      return new BinaryResultReader(channel);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Возвращает количество строк (результатов фаз) в файле.
+   *
+   * @return Количество строк.
+   */
+  public int size() {
+    return rowCount;
+  }
+
+  /**
+   * Проверяет, есть ли в файле раздел метрик (файлы версии 1 записаны без него).
+   *
+   * @return true, если метрики строк хранятся в файле.
+   */
+  public boolean hasMetrics() {
+    return metricKeys != null;
+  }
+
+  /**
+   * Создает курсор, установленный перед первой строкой.
+   *
+   * @return Новый {@link Cursor}.
+   */
+  public Cursor cursor() {
+    return new Cursor();
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private MappedByteBuffer map(long offset, long size) throws IOException {
+    if (size > Integer.MAX_VALUE) {
+      throw new IOException("Binary result file section is too large to map: " + size + " bytes");
+    }
+    return channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+  }
+
+  /**
+   * Представление одной строки файла. Значения читаются из отображенных в память колонок
+   * при каждом обращении к геттеру.
+   */
+  public final class Cursor {
+    private int row = -1;
+
+    private Cursor() {}
+
+    /**
+     * Переходит к следующей строке.
+     *
+     * @return true, если строка существует.
+     */
+    public boolean next() {
+      if (row + 1 >= rowCount) {
+        row = rowCount;
+        return false;
+      }
+      row++;
+      return true;
+    }
+
+    /**
+     * Переходит к строке с указанным номером.
+     *
+     * @param row Номер строки от 0 до {@link #size()} - 1.
+     * @return Текущий курсор.
+     */
+    public Cursor moveTo(int row) {
+      if (row < 0 || row >= rowCount) {
+        throw new IndexOutOfBoundsException("Row " + row + " of " + rowCount);
+      }
+      this.row = row;
+      return this;
+    }
+
+    public int row() {
+      return row;
+    }
+
+    public String testName() {
+      return string(Column.TEST_NAME);
+    }
+
+    public String testId() {
+      return string(Column.TEST_ID);
+    }
+
+    public String className() {
+      return string(Column.CLASS_NAME);
+    }
+
+    public String phase() {
+      return string(Column.PHASE);
+    }
+
+    public String status() {
+      return string(Column.STATUS);
+    }
+
+    public String profileFile() {
+      return string(Column.PROFILE_FILE);
+    }
+
+    public String threadName() {
+      return string(Column.THREAD_NAME);
+    }
+
+    public int retryCount() {
+      return (int) number(Column.RETRY_COUNT, 0);
+    }
+
+    public List<String> tags() {
+      int tagSet = (int) number(Column.TAG_SET, -1);
+      return tagSet < 0 ? Collections.emptyList() : tagSets.get(tagSet);
+    }
+
+    public boolean negative() {
+      return number(Column.NEGATIVE, 0) != 0;
+    }
+
+    public long durationNanos() {
+      return number(Column.DURATION_NANOS, 0);
+    }
+
+    public long memoryBefore() {
+      return number(Column.MEMORY_BEFORE, 0);
+    }
+
+    public long memoryAfter() {
+      return number(Column.MEMORY_AFTER, 0);
+    }
+
+    public long allocatedBytes() {
+      return number(Column.ALLOCATED_BYTES, -1);
+    }
+
+    public long gcCount() {
+      return number(Column.GC_COUNT, 0);
+    }
+
+    public long gcTimeMs() {
+      return number(Column.GC_TIME_MS, 0);
+    }
+
+    public long cpuTimeNanos() {
+      return number(Column.CPU_TIME_NANOS, -1);
+    }
+
+    public long userTimeNanos() {
+      return number(Column.USER_TIME_NANOS, -1);
+    }
+
+    public long blockedCount() {
+      return number(Column.BLOCKED_COUNT, 0);
+    }
+
+    public long blockedTimeMs() {
+      return number(Column.BLOCKED_TIME_MS, -1);
+    }
+
+    public long waitedCount() {
+      return number(Column.WAITED_COUNT, 0);
+    }
+
+    public long waitedTimeMs() {
+      return number(Column.WAITED_TIME_MS, -1);
+    }
+
+    public long liveThreadsBefore() {
+      return number(Column.LIVE_THREADS_BEFORE, 0);
+    }
+
+    public long liveThreadsAfter() {
+      return number(Column.LIVE_THREADS_AFTER, 0);
+    }
+
+    public long startNanos() {
+      return number(Column.START_NANOS, -1);
+    }
+
+    public long endNanos() {
+      return number(Column.END_NANOS, -1);
+    }
+
+    /**
+     * Возвращает метрики текущей строки в порядке их записи.
+     *
+     * @return Новая изменяемая карта; пустая, если метрик нет.
+     * @throws UncheckedIOException если значение в формате JSON не удалось разобрать.
+     */
+    public Map<String, Object> metrics() {
+      Map<String, Object> metrics = new LinkedHashMap<>();
+      int end = metricsEnd();
+      for (int position = metricsStart(); position < end; position = nextMetric(position)) {
+        metrics.put(metricKeys[metricEntries.getInt(position)], metricValue(position));
+      }
+      return metrics;
+    }
+
+    /**
+     * Возвращает значение одной метрики текущей строки без построения карты метрик.
+     *
+     * @param key Ключ метрики.
+     * @return Значение или null, если метрики нет.
+     * @throws UncheckedIOException если значение в формате JSON не удалось разобрать.
+     */
+    public Object metric(String key) {
+      int end = metricsEnd();
+      for (int position = metricsStart(); position < end; position = nextMetric(position)) {
+        if (metricKeys[metricEntries.getInt(position)].equals(key)) {
+          return metricValue(position);
+        }
+      }
+      return null;
+    }
+
+    /**
+     * Создает полноценный объект {@link TestResult} из текущей строки.
+     *
+     * @return Новый {@link TestResult}.
+     */
+    public TestResult toTestResult() {
+      return TestResult.builder()
+          .testName(testName())
+          .testId(testId())
+          .className(className())
+          .phase(phase())
+          .status(status())
+          .retryCount(retryCount())
+          .tags(tags())
+          .isNegative(negative())
+          .durationNanos(durationNanos())
+          .memoryBefore(memoryBefore())
+          .memoryAfter(memoryAfter())
+          .allocatedBytes(allocatedBytes())
+          .gcCount(gcCount())
+          .gcTimeMs(gcTimeMs())
+          .cpuTimeNanos(cpuTimeNanos())
+          .userTimeNanos(userTimeNanos())
+          .blockedCount(blockedCount())
+          .blockedTimeMs(blockedTimeMs())
+          .waitedCount(waitedCount())
+          .waitedTimeMs(waitedTimeMs())
+          .liveThreadsBefore(liveThreadsBefore())
+          .liveThreadsAfter(liveThreadsAfter())
+          .profileFile(profileFile())
+          .interval(startNanos(), endNanos())
+          .threadName(threadName())
+          .metrics(metrics())
+          .build();
+    }
+
+    private int metricsStart() {
+      checkRow();
+      return metricOffsets == null ? 0 : metricOffsets.getInt(row * 4);
+    }
+
+    private int metricsEnd() {
+      checkRow();
+      return metricOffsets == null ? 0 : metricOffsets.getInt((row + 1) * 4);
+    }
+
+    private int nextMetric(int position) {
+      byte type = metricEntries.get(position + 4);
+      int size = type == BinaryResultFormat.METRIC_LONG || type == BinaryResultFormat.METRIC_DOUBLE ? 8
+          : type == BinaryResultFormat.METRIC_BOOLEAN ? 1
+          : type == BinaryResultFormat.METRIC_NULL ? 0 : 4;
+      return position + 5 + size;
+    }
+
+    private Object metricValue(int position) {
+      int value = position + 5;
+      switch (metricEntries.get(position + 4)) {
+        case BinaryResultFormat.METRIC_LONG:
+          return metricEntries.getLong(value);
+        case BinaryResultFormat.METRIC_DOUBLE:
+          return metricEntries.getDouble(value);
+        case BinaryResultFormat.METRIC_BOOLEAN:
+          return metricEntries.get(value) != 0;
+        case BinaryResultFormat.METRIC_STRING:
+          return dictionary[metricEntries.getInt(value)];
+        case BinaryResultFormat.METRIC_JSON:
+          try {
+            return MAPPER.readValue(dictionary[metricEntries.getInt(value)], Object.class);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        default:
+          return null;
+      }
+    }
+
+    private void checkRow() {
+      if (row < 0 || row >= rowCount) {
+        throw new IllegalStateException("Cursor is not positioned on a row");
+      }
+    }
+
+    private String string(Column column) {
+      int id = (int) number(column, -1);
+      return id < 0 ? null : dictionary[id];
+    }
+
+    private long number(Column column, long defaultValue) {
+      ByteBuffer buffer = columns[column.ordinal()];
+      if (buffer == null) {
+        return defaultValue; // Колонки нет в файле, записанном более старой версией
+      }
+      checkRow();
+      // Размер каждой колонки не превышает Integer.MAX_VALUE (проверяется при отображении), поэтому смещение влезает в int
+      return column.width() == 4 ? buffer.getInt(row * 4) : buffer.getLong(row * 8);
+    }
+  }
+}
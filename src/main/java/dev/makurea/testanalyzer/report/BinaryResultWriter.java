@@ -0,0 +1,312 @@
+package dev.makurea.testanalyzer.report;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.makurea.testanalyzer.core.TestResult;
+import dev.makurea.testanalyzer.report.BinaryResultFormat.Column;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Класс `BinaryResultWriter` записывает результаты тестов в бинарный колоночный формат
+ * ({@link BinaryResultFormat}). Строки и наборы тегов кодируются словарем,
+ * числовые показатели записываются примитивными колонками фиксированной ширины,
+ * а карта `metrics` — отдельным разделом записей с общим словарем ключей.
+ */
+public class BinaryResultWriter {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  /**
+   * Записывает результаты в файл. Существующий файл перезаписывается.
+   *
+   * @param file    Файл для записи.
+   * @param results Результаты фаз тестов.
+   * @throws IOException если не удалось записать файл.
+   */
+  public void write(File file, List<TestResult> results) throws IOException {
+    Map<String, Integer> dictionary = new HashMap<>();
+    List<String> strings = new ArrayList<>();
+    Map<List<String>, Integer> tagSetIds = new HashMap<>();
+    List<int[]> tagSets = new ArrayList<>();
+    int[] tagSetOfRow = new int[results.size()];
+    Map<String, Integer> metricKeyIds = new HashMap<>();
+    List<String> metricKeys = new ArrayList<>();
+    // JSON-текст значений метрик, которые не являются числом, строкой или логическим значением
+    Map<Object, String> jsonValues = new IdentityHashMap<>();
+
+    for (int row = 0; row < results.size(); row++) {
+      TestResult result = results.get(row);
+      intern(result.getTestName(), dictionary, strings);
+      intern(result.getTestId(), dictionary, strings);
+      intern(result.getClassName(), dictionary, strings);
+      intern(result.getPhase(), dictionary, strings);
+      intern(result.getStatus(), dictionary, strings);
+      intern(result.getProfileFile(), dictionary, strings);
+      intern(result.getThreadName(), dictionary, strings);
+      List<String> tags = result.getTags();
+      Integer tagSetId = tagSetIds.get(tags);
+      if (tagSetId == null) {
+        int[] ids = new int[tags.size()];
+        for (int i = 0; i < ids.length; i++) {
+          ids[i] = intern(tags.get(i), dictionary, strings);
+        }
+        tagSetId = tagSets.size();
+        tagSets.add(ids);
+        tagSetIds.put(tags, tagSetId);
+      }
+      tagSetOfRow[row] = tagSetId;
+      for (Map.Entry<String, Object> metric : result.getMetrics().entrySet()) {
+        if (metricKeyIds.putIfAbsent(metric.getKey(), metricKeys.size()) == null) {
+          metricKeys.add(metric.getKey());
+          intern(metric.getKey(), dictionary, strings);
+        }
+        Object value = metric.getValue();
+        if (metricType(value) == BinaryResultFormat.METRIC_STRING) {
+          intern(value.toString(), dictionary, strings);
+        } else if (metricType(value) == BinaryResultFormat.METRIC_JSON) {
+          String json = mapper.writeValueAsString(value);
+          jsonValues.put(value, json);
+          intern(json, dictionary, strings);
+        }
+      }
+    }
+
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+      channel.position(BinaryResultFormat.HEADER_SIZE);
+
+      for (Column column : Column.values()) {
+        for (int row = 0; row < results.size(); row++) {
+          ensureCapacity(channel, buffer, column.width());
+          long value = value(column, results.get(row), tagSetOfRow[row], dictionary);
+          if (column.width() == 4) {
+            buffer.putInt((int) value);
+          } else {
+            buffer.putLong(value);
+          }
+        }
+      }
+
+      flush(channel, buffer);
+      long dictionaryOffset = channel.position();
+      ensureCapacity(channel, buffer, 4);
+      buffer.putInt(strings.size());
+      for (String value : strings) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensureCapacity(channel, buffer, 4);
+        buffer.putInt(bytes.length);
+        for (int from = 0; from < bytes.length; from += BUFFER_SIZE) {
+          int length = Math.min(BUFFER_SIZE, bytes.length - from);
+          ensureCapacity(channel, buffer, length);
+          buffer.put(bytes, from, length);
+        }
+      }
+
+      flush(channel, buffer);
+      long tagSetsOffset = channel.position();
+      ensureCapacity(channel, buffer, 4);
+      buffer.putInt(tagSets.size());
+      for (int[] ids : tagSets) {
+        ensureCapacity(channel, buffer, 4);
+        buffer.putInt(ids.length);
+        for (int id : ids) {
+          ensureCapacity(channel, buffer, 4);
+          buffer.putInt(id);
+        }
+      }
+
+      flush(channel, buffer);
+      long metricsOffset = channel.position();
+      ensureCapacity(channel, buffer, 4);
+      buffer.putInt(metricKeys.size());
+      for (String key : metricKeys) {
+        ensureCapacity(channel, buffer, 4);
+        buffer.putInt(idOf(key, dictionary));
+      }
+      int entriesSize = 0;
+      for (int row = 0; row <= results.size(); row++) {
+        ensureCapacity(channel, buffer, 4);
+        buffer.putInt(entriesSize);
+        if (row < results.size()) {
+          for (Object value : results.get(row).getMetrics().values()) {
+            entriesSize += 5 + metricValueSize(metricType(value));
+          }
+        }
+      }
+      for (TestResult result : results) {
+        for (Map.Entry<String, Object> metric : result.getMetrics().entrySet()) {
+          Object value = metric.getValue();
+          byte type = metricType(value);
+          ensureCapacity(channel, buffer, 5 + metricValueSize(type));
+          buffer.putInt(metricKeyIds.get(metric.getKey())).put(type);
+          switch (type) {
+            case BinaryResultFormat.METRIC_LONG:
+              buffer.putLong(((Number) value).longValue());
+              break;
+            case BinaryResultFormat.METRIC_DOUBLE:
+              buffer.putDouble(((Number) value).doubleValue());
+              break;
+            case BinaryResultFormat.METRIC_BOOLEAN:
+              buffer.put((byte) ((Boolean) value ? 1 : 0));
+              break;
+            case BinaryResultFormat.METRIC_STRING:
+              buffer.putInt(idOf(value.toString(), dictionary));
+              break;
+            case BinaryResultFormat.METRIC_JSON:
+              buffer.putInt(idOf(jsonValues.get(value), dictionary));
+              break;
+            default:
+              break; // METRIC_NULL: значения нет
+          }
+        }
+      }
+      flush(channel, buffer);
+
+      buffer.putInt(BinaryResultFormat.MAGIC)
+          .putInt(BinaryResultFormat.VERSION)
+          .putInt(results.size())
+          .putInt(Column.values().length)
+          .putLong(dictionaryOffset)
+          .putLong(tagSetsOffset)
+          .putLong(metricsOffset);
+      buffer.flip();
+      channel.write(buffer, 0);
+    }
+  }
+
+  private static long value(Column column, TestResult result, int tagSet, Map<String, Integer> dictionary) {
+    switch (column) {
+      case TEST_NAME:
+        return idOf(result.getTestName(), dictionary);
+      case TEST_ID:
+        return idOf(result.getTestId(), dictionary);
+      case CLASS_NAME:
+        return idOf(result.getClassName(), dictionary);
+      case PHASE:
+        return idOf(result.getPhase(), dictionary);
+      case STATUS:
+        return idOf(result.getStatus(), dictionary);
+      case RETRY_COUNT:
+        return result.getRetryCount();
+      case TAG_SET:
+        return tagSet;
+      case NEGATIVE:
+        return result.isNegative() ? 1 : 0;
+      case DURATION_NANOS:
+        return result.getDurationNanos();
+      case MEMORY_BEFORE:
+        return result.getMemoryBefore();
+      case MEMORY_AFTER:
+        return result.getMemoryAfter();
+      case ALLOCATED_BYTES:
+        return result.getAllocatedBytes();
+      case GC_COUNT:
+        return result.getGcCount();
+      case GC_TIME_MS:
+        return result.getGcTimeMs();
+      case CPU_TIME_NANOS:
+        return result.getCpuTimeNanos();
+      case USER_TIME_NANOS:
+        return result.getUserTimeNanos();
+      case BLOCKED_COUNT:
+        return result.getBlockedCount();
+      case BLOCKED_TIME_MS:
+        return result.getBlockedTimeMs();
+      case WAITED_COUNT:
+        return result.getWaitedCount();
+      case WAITED_TIME_MS:
+        return result.getWaitedTimeMs();
+      case LIVE_THREADS_BEFORE:
+        return result.getLiveThreadsBefore();
+      case LIVE_THREADS_AFTER:
+        return result.getLiveThreadsAfter();
+      case PROFILE_FILE:
+        return idOf(result.getProfileFile(), dictionary);
+      case START_NANOS:
+        return result.getStartNanos();
+      case END_NANOS:
+        return result.getEndNanos();
+      case THREAD_NAME:
+        return idOf(result.getThreadName(), dictionary);
+      default:
+        throw new IllegalStateException("Unknown column " + column);
+    }
+  }
+
+  private static byte metricType(Object value) {
+    if (value == null) {
+      return BinaryResultFormat.METRIC_NULL;
+    }
+    if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+      return BinaryResultFormat.METRIC_LONG;
+    }
+    if (value instanceof Double || value instanceof Float) {
+      return BinaryResultFormat.METRIC_DOUBLE;
+    }
+    if (value instanceof Boolean) {
+      return BinaryResultFormat.METRIC_BOOLEAN;
+    }
+    if (value instanceof String) {
+      return BinaryResultFormat.METRIC_STRING;
+    }
+    return BinaryResultFormat.METRIC_JSON;
+  }
+
+  private static int metricValueSize(byte type) {
+    switch (type) {
+      case BinaryResultFormat.METRIC_LONG:
+      case BinaryResultFormat.METRIC_DOUBLE:
+        return 8;
+      case BinaryResultFormat.METRIC_BOOLEAN:
+        return 1;
+      case BinaryResultFormat.METRIC_STRING:
+      case BinaryResultFormat.METRIC_JSON:
+        return 4;
+      default:
+        return 0;
+    }
+  }
+
+  private static int intern(String value, Map<String, Integer> dictionary, List<String> strings) {
+    if (value == null) {
+      return -1;
+    }
+    Integer id = dictionary.get(value);
+    if (id == null) {
+      id = strings.size();
+      strings.add(value);
+      dictionary.put(value, id);
+    }
+    return id;
+  }
+
+  private static int idOf(String value, Map<String, Integer> dictionary) {
+    return value == null ? -1 : dictionary.get(value);
+  }
+
+  private static void ensureCapacity(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+    if (buffer.remaining() < bytes) {
+      flush(channel, buffer);
+    }
+  }
+
+  private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+}
@@ -0,0 +1,163 @@
+package dev.makurea.testanalyzer.report;
+
+import dev.makurea.testanalyzer.history.HistoryRecorder;
+import dev.makurea.testanalyzer.profiler.SamplingProfiler;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/*
+ * Класс `ForkFiles` отделяет файлы процессов (`testanalyzer.report.forkId`) текущего параллельного прогона
+ * от файлов прошлых прогонов. Идентификаторы `worker-N` растут от сборки к сборке в одном демоне Gradle,
+ * а `pid-N` новые при каждом запуске, поэтому без очистки файлы прошлых прогонов накапливались бы
+ * и попадали в объединенный отчёт повторно.
+ *
+ * Прогон — период, пока работает хотя бы один его процесс. Каждый процесс держит до своего завершения
+ * разделяемую блокировку файла `.test-analyzer-run.lock` в каталоге отчёта. Процесс, которому при запуске
+ * удается получить исключительную блокировку, — первый процесс нового прогона: он удаляет файлы процессов
+ * прошлого прогона и отмечает начало прогона временем изменения файла блокировки. Файлы процессов,
+ * измененные раньше этой отметки, к текущему прогону не относятся.
+ */
+public final class ForkFiles {
+
+  static final String LOCK_FILENAME = ".test-analyzer-run.lock";
+
+  private static final String FORK_SUFFIX = "-[A-Za-z0-9_-]+";
+  private static final Pattern RESULT_FILE = Pattern.compile("test-analyzer-results" + FORK_SUFFIX + "\\.(json|ndjson)");
+
+  // Блокировка прогона этого процесса; удерживается до завершения JVM
+  private static FileChannel runLock;
+
+  private ForkFiles() {}
+
+  /**
+   * Присоединяет процесс к текущему параллельному прогону. Первый процесс нового прогона удаляет
+   * файлы процессов прошлого прогона. Повторные вызовы в той же JVM ничего не делают.
+   *
+   * @param dir           Каталог отчёта.
+   * @param beforeCleanup Действие, которое первый процесс прогона выполняет до удаления файлов прошлого
+   *                      прогона (пока остальные процессы ждут); остальные процессы его не выполняют.
+   */
+  public static synchronized void joinRun(File dir, Runnable beforeCleanup) {
+    if (runLock != null) {
+      return;
+    }
+    try {
+      if (!dir.exists() && !dir.mkdirs()) {
+        throw new IOException("Cannot create directory " + dir.getAbsolutePath());
+      }
+      FileChannel channel = FileChannel.open(new File(dir, LOCK_FILENAME).toPath(),
+          StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+      FileLock exclusive = channel.tryLock(0, Long.MAX_VALUE, false);
+      if (exclusive != null) {
+        try {
+          beforeCleanup.run();
+        } catch (RuntimeException e) {
+          System.err.println("[TestAnalyzer] Ошибка при обработке файлов прошлого прогона: " + e);
+        }
+        int deleted = deleteForkFiles(dir);
+        // Время изменения файла блокировки — начало прогона
+        channel.truncate(0);
+        channel.write(ByteBuffer.wrap(Long.toString(System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8)));
+        channel.force(true);
+        exclusive.release();
+        if (deleted > 0) {
+          System.out.println("[TestAnalyzer] Удалены файлы процессов прошлого прогона: " + deleted);
+        }
+      }
+      // Ожидает, пока первый процесс прогона закончит очистку
+      channel.lock(0, Long.MAX_VALUE, true);
+      runLock = channel;
+    } catch (IOException | RuntimeException e) {
+      System.err.println("[TestAnalyzer] Не удалось определить начало параллельного прогона,"
+          + " файлы прошлых прогонов не удалены: " + e);
+    }
+  }
+
+  /**
+   * Проверяет, присоединился ли процесс к параллельному прогону. После этого файлы процессов в каталоге
+   * относятся к текущему прогону и пишутся другими процессами.
+   *
+   * @return true, если {@link #joinRun} уже выполнен.
+   */
+  public static synchronized boolean joinedRun() {
+    return runLock != null;
+  }
+
+  /**
+   * Находит файлы результатов процессов текущего прогона (`test-analyzer-results-<forkId>.json|ndjson`).
+   *
+   * @param dir Каталог отчёта.
+   * @return Файлы, упорядоченные по имени; пустой список, если файлов процессов нет.
+   */
+  public static List<File> currentResultFiles(File dir) {
+    File[] files = dir.listFiles((parent, name) -> RESULT_FILE.matcher(name).matches());
+    if (files == null) {
+      return new ArrayList<>();
+    }
+    File lock = new File(dir, LOCK_FILENAME);
+    // Отметка начала прогона округляется файловой системой, поэтому допускается погрешность в секунду
+    long runStart = lock.isFile() ? lock.lastModified() - 1000 : Long.MIN_VALUE;
+    List<File> current = new ArrayList<>();
+    for (File file : files) {
+      if (file.lastModified() >= runStart) {
+        current.add(file);
+      }
+    }
+    current.sort(null);
+    return current;
+  }
+
+  /**
+   * Удаляет все файлы процессов: данные, страницы, вспомогательные JSON-файлы, каталоги фрагментов
+   * и профили тестов.
+   *
+   * @return Количество удаленных файлов и каталогов.
+   */
+  private static int deleteForkFiles(File dir) throws IOException {
+    List<Pattern> patterns = new ArrayList<>();
+    for (String name : Arrays.asList(ReportFormat.JSON.getFileName(), ReportFormat.NDJSON.getFileName(),
+        BinaryResultFormat.FILE_NAME, ReportGenerator.COLLECTORS_FILENAME, ReportGenerator.SUMMARY_FILENAME,
+        ReportGenerator.SCHEDULE_FILENAME, ReportGenerator.LEAKS_FILENAME, ReportGenerator.HTML_FILENAME,
+        HistoryRecorder.REGRESSIONS_FILENAME, ShardedReportWriter.INDEX_FILENAME)) {
+      int dot = name.lastIndexOf('.');
+      patterns.add(Pattern.compile(Pattern.quote(name.substring(0, dot)) + FORK_SUFFIX + Pattern.quote(name.substring(dot))));
+    }
+    patterns.add(Pattern.compile(Pattern.quote(ShardedReportWriter.SHARD_DIR) + FORK_SUFFIX));
+
+    File[] files = dir.listFiles();
+    int deleted = SamplingProfiler.deleteProfiles(dir);
+    if (files == null) {
+      return deleted;
+    }
+    for (File file : files) {
+      for (Pattern pattern : patterns) {
+        if (pattern.matcher(file.getName()).matches()) {
+          delete(file);
+          deleted++;
+          break;
+        }
+      }
+    }
+    return deleted;
+  }
+
+  private static void delete(File file) throws IOException {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        delete(child);
+      }
+    }
+    Files.deleteIfExists(file.toPath());
+  }
+}
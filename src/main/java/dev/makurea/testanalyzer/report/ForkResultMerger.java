@@ -0,0 +1,194 @@
+package dev.makurea.testanalyzer.report;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.makurea.testanalyzer.core.TestResult;
+import dev.makurea.testanalyzer.history.HistoryRecorder;
+import dev.makurea.testanalyzer.history.Regression;
+import dev.makurea.testanalyzer.stats.StatsAggregator;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/*
+ * Утилита `ForkResultMerger` сливает файлы результатов параллельных JVM (`testanalyzer.report.forkId`)
+ * в один файл `test-analyzer-results.json` (или `.ndjson`) и строит по нему HTML-отчёт и сводку длительностей.
+ *
+ * Слияние k-путевое: из каждого файла процесса читается по одному результату ({@link MappingIterator}),
+ * очередь с приоритетом выбирает наименьший по классу, тесту и фазе, и он сразу пишется через `JsonGenerator`.
+ * В памяти находится по одному результату на файл, поэтому объем памяти не зависит от размера отчётов.
+ * Файлы пакетного режима уже упорядочены {@link ReportGenerator}, поэтому итоговый файл упорядочен целиком;
+ * файлы потокового режима сливаются в порядке завершения тестов.
+ *
+ * Процессы параллельного прогона историю длительностей не ведут, поэтому объединенный прогон записывается
+ * в историю здесь ({@link HistoryRecorder}) — один раз, — и по ней создается общий файл регрессий.
+ *
+ * Сливаются только файлы процессов текущего прогона ({@link ForkFiles}); файлы прошлых прогонов
+ * удаляет первый процесс следующего прогона.
+ *
+ * Использование:
+ *   java -cp <classpath> dev.makurea.testanalyzer.report.ForkResultMerger <reportDir> [--ndjson] [--pretty]
+ */
+public class ForkResultMerger {
+
+  /**
+   * Порядок результатов в файлах процессов и в итоговом файле: класс, тест, фаза.
+   */
+  static final Comparator<TestResult> RESULT_ORDER = Comparator
+      .comparing(TestResult::getClassName, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+      .thenComparing(TestResult::getTestId, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+      .thenComparing(TestResult::getPhase, Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+
+  private static final Comparator<JsonNode> NODE_ORDER = Comparator
+      .comparing((JsonNode node) -> text(node, "className"), Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+      .thenComparing(node -> text(node, "testId"), Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+      .thenComparing(node -> text(node, "phase"), Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1) {
+      System.err.println("Usage: ForkResultMerger <reportDir> [--ndjson] [--pretty]");
+      System.exit(2);
+    }
+    ReportFormat format = ReportFormat.JSON;
+    boolean pretty = false;
+    for (int i = 1; i < args.length; i++) {
+      if ("--ndjson".equals(args[i])) {
+        format = ReportFormat.NDJSON;
+      } else if ("--pretty".equals(args[i])) {
+        pretty = true;
+      }
+    }
+    File dir = new File(args[0]);
+    List<File> inputs = ForkFiles.currentResultFiles(dir);
+    if (inputs.isEmpty()) {
+      System.err.println("[TestAnalyzer] В каталоге " + dir + " нет файлов результатов процессов");
+      System.exit(1);
+    }
+    long rows = merge(inputs, dir, format, pretty);
+    System.out.println("[TestAnalyzer] Объединено результатов: " + rows + " из файлов: " + inputs.size()
+        + " -> " + new File(dir, format.getFileName()));
+  }
+
+  /**
+   * Сливает файлы процессов и записывает в каталог итоговый файл результатов, сводку длительностей,
+   * регрессии и HTML-отчёт, а объединенный прогон — в историю. Все файлы записываются атомарно.
+   *
+   * @param inputs Файлы процессов в формате JSON или NDJSON.
+   * @param dir    Каталог для итоговых файлов.
+   * @param format Формат итогового файла.
+   * @param pretty Форматировать ли JSON с отступами (игнорируется для NDJSON).
+   * @return Количество объединенных результатов.
+   * @throws IOException если файл не удалось прочитать или записать.
+   */
+  public static long merge(List<File> inputs, File dir, ReportFormat format, boolean pretty) throws IOException {
+    ObjectMapper mapper = new ObjectMapper();
+    StatsAggregator stats = new StatsAggregator();
+    HistoryRecorder history = HistoryRecorder.isEnabled() ? new HistoryRecorder(dir) : null;
+    long[] rows = new long[1];
+
+    AtomicFiles.write(new File(dir, format.getFileName()), file -> {
+      List<MappingIterator<JsonNode>> iterators = new ArrayList<>(inputs.size());
+      try (JsonGenerator generator = new JsonFactory(mapper).createGenerator(file, JsonEncoding.UTF8)) {
+        PriorityQueue<Head> queue = new PriorityQueue<>(Math.max(1, inputs.size()),
+            Comparator.comparing((Head head) -> head.node, NODE_ORDER));
+        for (File input : inputs) {
+          MappingIterator<JsonNode> iterator = mapper.readerFor(JsonNode.class).readValues(input);
+          iterators.add(iterator);
+          advance(queue, iterator);
+        }
+
+        if (format == ReportFormat.JSON) {
+          if (pretty) {
+            generator.useDefaultPrettyPrinter();
+          }
+          generator.writeStartArray();
+        } else {
+          generator.setRootValueSeparator(new SerializedString("\n"));
+        }
+        while (!queue.isEmpty()) {
+          Head head = queue.poll();
+          generator.writeTree(head.node);
+          TestResult result = toResult(head.node);
+          stats.record(result);
+          if (history != null) {
+            history.record(result);
+          }
+          rows[0]++;
+          advance(queue, head.iterator);
+        }
+        if (format == ReportFormat.JSON) {
+          generator.writeEndArray();
+        } else if (rows[0] > 0) {
+          generator.writeRaw('\n');
+        }
+      } finally {
+        for (MappingIterator<JsonNode> iterator : iterators) {
+          iterator.close();
+        }
+      }
+    });
+
+    ReportGenerator generator = new ReportGenerator(dir, null, format, pretty, ReportLayout.SINGLE, 0);
+    if (StatsAggregator.isEnabled()) {
+      generator.writeSummary(stats.summary());
+    }
+    List<Regression> regressions = history != null ? history.finish() : null;
+    if (regressions != null) {
+      generator.writeRegressions(regressions);
+    }
+    generator.writeSingleHtml();
+    return rows[0];
+  }
+
+  private static void advance(PriorityQueue<Head> queue, MappingIterator<JsonNode> iterator) throws IOException {
+    if (iterator.hasNextValue()) {
+      queue.add(new Head(iterator.nextValue(), iterator));
+    }
+  }
+
+  /**
+   * Восстанавливает поля результата, нужные для сводки длительностей и истории.
+   */
+  private static TestResult toResult(JsonNode node) {
+    List<String> tags = new ArrayList<>();
+    for (JsonNode tag : node.path("tags")) {
+      tags.add(tag.asText());
+    }
+    JsonNode nanos = node.get("durationNanos");
+    return TestResult.builder()
+        .testName(text(node, "testName"))
+        .testId(text(node, "testId"))
+        .className(text(node, "className"))
+        .phase(text(node, "phase"))
+        .durationNanos(nanos != null ? nanos.asLong() : node.path("durationMs").asLong() * 1_000_000)
+        .status(text(node, "status"))
+        .tags(tags)
+        .build();
+  }
+
+  private static String text(JsonNode node, String field) {
+    JsonNode value = node.get(field);
+    return value == null || value.isNull() ? null : value.asText();
+  }
+
+  /**
+   * Очередной непрочитанный результат файла процесса.
+   */
+  private static final class Head {
+    final JsonNode node;
+    final MappingIterator<JsonNode> iterator;
+
+    Head(JsonNode node, MappingIterator<JsonNode> iterator) {
+      this.node = node;
+      this.iterator = iterator;
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package dev.makurea.testanalyzer.report;
+
+/*
+ * Формат файла с данными отчёта.
+ * Задается настройкой `testanalyzer.report.format` (по умолчанию `json`).
+ */
+public enum ReportFormat {
+  /**
+   * Один JSON-массив со всеми результатами.
+   */
+  JSON("test-analyzer-results.json"),
+  /**
+   * Newline-delimited JSON: по одному компактному JSON-объекту на строку.
+   * Файл остается корректным в любой момент записи, поэтому его можно читать во время прогона.
+   */
+  NDJSON("test-analyzer-results.ndjson");
+
+  private final String fileName;
+
+  ReportFormat(String fileName) {
+    this.fileName = fileName;
+  }
+
+  /**
+   * Возвращает имя файла с данными отчёта для этого формата.
+   *
+   * @return Имя файла.
+   */
+  public String getFileName() {
+    return fileName;
+  }
+}
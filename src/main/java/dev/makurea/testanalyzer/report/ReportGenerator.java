@@ -1,60 +1,484 @@
 package dev.makurea.testanalyzer.report;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import dev.makurea.testanalyzer.core.TestAnalyzerConfig;
 import dev.makurea.testanalyzer.core.TestResult;
+import dev.makurea.testanalyzer.history.HistoryRecorder;
+import dev.makurea.testanalyzer.history.Regression;
+import dev.makurea.testanalyzer.leak.LeakReport;
+import dev.makurea.testanalyzer.metrics.CollectorCost;
+import dev.makurea.testanalyzer.schedule.ScheduleReport;
+import dev.makurea.testanalyzer.stats.StatsReport;
+import java.io.BufferedOutputStream;
 import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
 
+/*
+ * Класс `ReportGenerator` записывает файлы отчёта в каталог `build/test-analyzer-reports`:
+ * данные, HTML-страницу и вспомогательные JSON-файлы. Каждый файл записывается атомарно ({@link AtomicFiles}).
+ *
+ * Если задана настройка `testanalyzer.report.forkId`, к именам файлов отчёта добавляется идентификатор
+ * процесса (например, `test-analyzer-results-worker-3.json`), чтобы параллельные JVM (`maxParallelForks`)
+ * не перезаписывали файлы друг друга. Значение `auto` берет номер тестового процесса Gradle
+ * (`org.gradle.test.worker`), а вне Gradle — идентификатор процесса ОС. Результаты такого процесса
+ * упорядочиваются по классу, тесту и фазе, чтобы {@link ForkResultMerger} мог слить файлы потоково.
+ *
+ * Шаблоны страниц и общие для них разделы (`templates/partials`) читаются из ресурсов один раз на JVM,
+ * а имена файлов и разделы подставляются в них один раз на генератор. Страница загружает данные
+ * из соседних файлов, поэтому при повторных отчётах не перезаписывается.
+ * При `testanalyzer.report.selfContained=true` данные сжимаются gzip и встраиваются в саму страницу:
+ * такой отчёт — один файл, который открывается без дополнительных запросов (например, как артефакт CI).
+ */
 public class ReportGenerator {
 
-  private static final String OUTPUT_DIR = "build/test-analyzer-reports";
-  private static final String JSON_FILENAME = "test-analyzer-results.json";
-  private static final String HTML_FILENAME = "test-analyzer-report.html";
+  public static final String OUTPUT_DIR = "build/test-analyzer-reports";
+  public static final String COLLECTORS_FILENAME = "test-analyzer-collectors.json";
+  public static final String SUMMARY_FILENAME = "test-analyzer-summary.json";
+  public static final String SCHEDULE_FILENAME = "test-analyzer-schedule.json";
+  public static final String LEAKS_FILENAME = "test-analyzer-leaks.json";
+  static final String HTML_FILENAME = "test-analyzer-report.html";
   private static final String HTML_TEMPLATE_PATH = "/templates/ReportTemplate.html";
+  private static final String SHARDED_HTML_TEMPLATE_PATH = "/templates/ShardedReportTemplate.html";
+  private static final String SUMMARY_HTML_TEMPLATE_PATH = "/templates/SummaryReportTemplate.html";
+  // Разделы, общие для всех страниц отчёта: подставляются в шаблоны вместо `{{ИМЯ_SECTION}}`
+  private static final String SCHEDULE_PARTIAL_PATH = "/templates/partials/schedule.html";
+  private static final String LEAKS_PARTIAL_PATH = "/templates/partials/leaks.html";
+
+  private static final String FORK_ID_AUTO = "auto";
+
+  // Шаблоны страниц, прочитанные из ресурсов, по путям
+  private static final Map<String, String> TEMPLATES = new ConcurrentHashMap<>();
+  // Файлы, которые встраиваются в страницу при testanalyzer.report.selfContained; индекс шардов не встраивается
+  private static final Set<String> INLINED_PLACEHOLDERS = Set.of("JSON_FILENAME", "REGRESSIONS_FILENAME",
+      "COLLECTORS_FILENAME", "SUMMARY_FILENAME", "SCHEDULE_FILENAME", "LEAKS_FILENAME");
+  private static final String INLINE_SCRIPT_START = "<script>\n"
+      + "  // Данные отчёта встроены в страницу (testanalyzer.report.selfContained): gzip в base64 по именам файлов\n"
+      + "  (() => {\n"
+      + "    const inlined = {\n      ";
+  private static final String INLINE_SCRIPT_END = "\n    };\n"
+      + "    const originalFetch = window.fetch.bind(window);\n"
+      + "    window.fetch = (url, options) => {\n"
+      + "      const data = inlined[url];\n"
+      + "      if (data === undefined) {\n"
+      + "        return originalFetch(url, options);\n"
+      + "      }\n"
+      + "      const bytes = Uint8Array.from(atob(data), c => c.charCodeAt(0));\n"
+      + "      const stream = new Blob([bytes]).stream().pipeThrough(new DecompressionStream('gzip'));\n"
+      + "      return Promise.resolve(new Response(stream, {headers: {'Content-Type': 'application/json'}}));\n"
+      + "    };\n"
+      + "  })();\n"
+      + "</script>\n";
+
+  private final File outputDir;
+  private final String forkId;
+  private final ReportFormat format;
+  private final boolean pretty;
+  private final ReportLayout layout;
+  private final int shardSize;
+  private final boolean binary = TestAnalyzerConfig.getBoolean("report.binary", false);
+  private final boolean selfContained = TestAnalyzerConfig.getBoolean("report.selfContained", false);
+  // Шаблоны с подставленными именами файлов этого генератора
+  private final Map<String, String> renderedTemplates = new ConcurrentHashMap<>();
+  // Шаблон страницы без встроенных данных, записанной последней; null, если страница еще не записывалась
+  private volatile String lastHtmlTemplate;
+
+  public ReportGenerator() {
+    this(new File(OUTPUT_DIR), resolveForkId(TestAnalyzerConfig.getString("report.forkId", "")),
+        TestAnalyzerConfig.getEnum("report.format", ReportFormat.class, ReportFormat.JSON),
+        TestAnalyzerConfig.getBoolean("report.pretty", true),
+        TestAnalyzerConfig.getEnum("report.layout", ReportLayout.class, ReportLayout.SINGLE),
+        TestAnalyzerConfig.getInt("report.shardSize", 5000));
+  }
+
+  public ReportGenerator(ReportFormat format, boolean pretty) {
+    this(format, pretty, ReportLayout.SINGLE, 5000);
+  }
+
+  public ReportGenerator(ReportFormat format, boolean pretty, ReportLayout layout, int shardSize) {
+    this(new File(OUTPUT_DIR), null, format, pretty, layout, shardSize);
+  }
+
+  ReportGenerator(File outputDir, String forkId, ReportFormat format, boolean pretty, ReportLayout layout,
+      int shardSize) {
+    this.outputDir = outputDir;
+    this.forkId = forkId;
+    this.format = format;
+    this.pretty = pretty;
+    this.layout = layout;
+    this.shardSize = shardSize;
+  }
 
   public void generateReport(List<TestResult> results) {
     try {
-      File dir = new File(OUTPUT_DIR);
-      if (!dir.exists()) {
-        dir.mkdirs();
+      File dir = outputDir();
+
+      if (forkId != null) {
+        // Порядок, в котором ForkResultMerger сливает файлы процессов
+        List<TestResult> sorted = new ArrayList<>(results);
+        sorted.sort(ForkResultMerger.RESULT_ORDER);
+        results = sorted;
+      }
+      List<TestResult> data = results;
+      AtomicFiles.write(new File(dir, fileName(format.getFileName())), file -> writeResults(file, data));
+      if (binary) {
+        AtomicFiles.write(new File(dir, fileName(BinaryResultFormat.FILE_NAME)),
+            file -> new BinaryResultWriter().write(file, data));
       }
 
-      File jsonFile = new File(dir, JSON_FILENAME);
+      if (layout == ReportLayout.SHARDED) {
+        new ShardedReportWriter(shardSize, fileName(ShardedReportWriter.INDEX_FILENAME),
+            fileName(ShardedReportWriter.SHARD_DIR)).write(dir, results);
+        // Шарды загружаются страницей по мере прокрутки, поэтому не встраиваются
+        if (selfContained && lastHtmlTemplate == null) {
+          System.out.println("[TestAnalyzer] Встроенные данные недоступны в раскладке sharded, страница ссылается на файлы");
+        }
+        writeHtml(dir, SHARDED_HTML_TEMPLATE_PATH, false);
+      } else {
+        writeHtml(dir, HTML_TEMPLATE_PATH);
+      }
+
+    } catch (IOException e) {
+      System.err.println("[TestAnalyzer] Ошибка при создании отчёта");
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Открывает потоковую запись результатов в файл данных отчёта и сразу создает HTML-отчёт,
+   * ссылающийся на этот файл.
+   *
+   * @param queueCapacity Емкость очереди результатов, ожидающих записи.
+   * @return Запущенный {@link StreamingReportWriter}; его необходимо закрыть по окончании прогона.
+   * @throws IOException если не удалось создать файлы отчёта.
+   */
+  public StreamingReportWriter openStreamingWriter(int queueCapacity) throws IOException {
+    File dir = outputDir();
+    // Файл дописывается во время прогона, поэтому пишется напрямую, а не через временный файл
+    StreamingReportWriter writer = new StreamingReportWriter(new File(dir, fileName(format.getFileName())), format,
+        pretty, queueCapacity);
+    if (layout == ReportLayout.SHARDED) {
+      System.out.println("[TestAnalyzer] Раскладка sharded недоступна в потоковом режиме, используется single");
+    }
+    // Данные дописываются до конца прогона, поэтому страница ссылается на файл и не встраивает его
+    if (selfContained) {
+      System.out.println("[TestAnalyzer] Встроенные данные недоступны в потоковом режиме, страница ссылается на файлы");
+    }
+    writeHtml(dir, HTML_TEMPLATE_PATH, false);
+    return writer;
+  }
+
+  /**
+   * Записывает стоимость сборщиков метрик в `test-analyzer-collectors.json` рядом с отчётом.
+   *
+   * @param costs Стоимость сборщиков за прогон.
+   */
+  public void writeCollectorCosts(List<CollectorCost> costs) {
+    try {
+      AtomicFiles.write(new File(outputDir(), fileName(COLLECTORS_FILENAME)),
+          file -> new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file, costs));
+    } catch (IOException e) {
+      System.err.println("[TestAnalyzer] Ошибка при записи стоимости сборщиков метрик");
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Записывает сводки длительностей в `test-analyzer-summary.json` рядом с отчётом.
+   *
+   * @param summary Сводки длительностей прогона.
+   */
+  public void writeSummary(StatsReport summary) {
+    try {
       ObjectMapper mapper = new ObjectMapper();
-      mapper.writerWithDefaultPrettyPrinter().writeValue(jsonFile, results);
+      ObjectWriter writer = pretty ? mapper.writerWithDefaultPrettyPrinter() : mapper.writer();
+      AtomicFiles.write(new File(outputDir(), fileName(SUMMARY_FILENAME)), file -> writer.writeValue(file, summary));
+    } catch (IOException e) {
+      System.err.println("[TestAnalyzer] Ошибка при записи сводки длительностей");
+      e.printStackTrace();
+    }
+  }
 
-      File htmlFile = new File(dir, HTML_FILENAME);
-      String htmlContent = loadHtmlTemplate(JSON_FILENAME);
+  /**
+   * Записывает анализ параллельного выполнения в `test-analyzer-schedule.json` рядом с отчётом.
+   *
+   * @param schedule Анализ временной шкалы прогона.
+   */
+  public void writeSchedule(ScheduleReport schedule) {
+    try {
+      ObjectMapper mapper = new ObjectMapper();
+      ObjectWriter writer = pretty ? mapper.writerWithDefaultPrettyPrinter() : mapper.writer();
+      AtomicFiles.write(new File(outputDir(), fileName(SCHEDULE_FILENAME)), file -> writer.writeValue(file, schedule));
+    } catch (IOException e) {
+      System.err.println("[TestAnalyzer] Ошибка при записи анализа параллельного выполнения");
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Записывает изменения ресурсов по тестовым классам в `test-analyzer-leaks.json` рядом с отчётом.
+   *
+   * @param leaks Результат поиска утечек ресурсов.
+   */
+  public void writeLeaks(LeakReport leaks) {
+    try {
+      ObjectMapper mapper = new ObjectMapper();
+      ObjectWriter writer = pretty ? mapper.writerWithDefaultPrettyPrinter() : mapper.writer();
+      AtomicFiles.write(new File(outputDir(), fileName(LEAKS_FILENAME)), file -> writer.writeValue(file, leaks));
+    } catch (IOException e) {
+      System.err.println("[TestAnalyzer] Ошибка при записи изменений ресурсов по классам");
+      e.printStackTrace();
+    }
+  }
 
-      try (BufferedWriter writer = Files.newBufferedWriter(htmlFile.toPath(),
+  /**
+   * Записывает регрессии длительности в `test-analyzer-regressions.json` рядом с отчётом.
+   *
+   * @param regressions Регрессии, найденные {@link HistoryRecorder}.
+   */
+  public void writeRegressions(List<Regression> regressions) {
+    try {
+      ObjectMapper mapper = new ObjectMapper();
+      ObjectWriter writer = pretty ? mapper.writerWithDefaultPrettyPrinter() : mapper.writer();
+      AtomicFiles.write(new File(outputDir(), fileName(HistoryRecorder.REGRESSIONS_FILENAME)),
+          file -> writer.writeValue(file, regressions));
+    } catch (IOException e) {
+      System.err.println("[TestAnalyzer] Ошибка при записи регрессий длительности");
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Создает HTML-отчёт режима {@link ReportMode#SUMMARY}, который строится только по файлу сводок.
+   * Сам файл записывается {@link #writeSummary(StatsReport)}.
+   */
+  public void generateSummaryReport() {
+    try {
+      writeHtml(outputDir(), SUMMARY_HTML_TEMPLATE_PATH);
+    } catch (IOException e) {
+      System.err.println("[TestAnalyzer] Ошибка при создании отчёта");
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Создает HTML-отчёт раскладки {@link ReportLayout#SINGLE} по уже записанному файлу данных.
+   * Используется {@link ForkResultMerger} после слияния файлов процессов.
+   *
+   * @throws IOException если не удалось записать файл.
+   */
+  void writeSingleHtml() throws IOException {
+    writeHtml(outputDir(), HTML_TEMPLATE_PATH);
+  }
+
+  /**
+   * Возвращает идентификатор процесса параллельного прогона, добавляемый к именам файлов.
+   *
+   * @return Идентификатор или null, если файлы процессов не разделяются.
+   */
+  public String getForkId() {
+    return forkId;
+  }
+
+  /**
+   * Возвращает имя файла отчёта с учетом идентификатора процесса: `name-<forkId>.ext`.
+   *
+   * @param baseName Имя файла без идентификатора процесса.
+   * @return Имя файла этого процесса.
+   */
+  String fileName(String baseName) {
+    if (forkId == null) {
+      return baseName;
+    }
+    int dot = baseName.lastIndexOf('.');
+    return dot < 0 ? baseName + "-" + forkId : baseName.substring(0, dot) + "-" + forkId + baseName.substring(dot);
+  }
+
+  /**
+   * Определяет идентификатор процесса по значению настройки `testanalyzer.report.forkId`.
+   *
+   * @param configured Значение настройки.
+   * @return Идентификатор из букв, цифр, `-` и `_` или null, если файлы процессов не разделяются.
+   */
+  static String resolveForkId(String configured) {
+    String value = configured == null ? "" : configured.trim();
+    if (value.isEmpty()) {
+      return null;
+    }
+    if (FORK_ID_AUTO.equalsIgnoreCase(value)) {
+      String gradleWorker = System.getProperty("org.gradle.test.worker");
+      value = gradleWorker != null ? "worker-" + gradleWorker : "pid-" + ProcessHandle.current().pid();
+    }
+    return value.replaceAll("[^A-Za-z0-9_-]", "_");
+  }
+
+  private File outputDir() {
+    if (!outputDir.exists()) {
+      outputDir.mkdirs();
+    }
+    return outputDir;
+  }
+
+  private void writeResults(File dataFile, List<TestResult> results) throws IOException {
+    ObjectMapper mapper = new ObjectMapper();
+    if (format == ReportFormat.NDJSON) {
+      try (SequenceWriter sequence = mapper.writer().withRootValueSeparator("\n").writeValues(dataFile)) {
+        sequence.writeAll(results);
+      }
+    } else {
+      ObjectWriter writer = pretty ? mapper.writerWithDefaultPrettyPrinter() : mapper.writer();
+      writer.writeValue(dataFile, results);
+    }
+  }
+
+  private void writeHtml(File dir, String templatePath) throws IOException {
+    writeHtml(dir, templatePath, selfContained);
+  }
+
+  /**
+   * Записывает HTML-страницу отчёта. Шаблон с подставленными именами файлов строится один раз;
+   * страница без встроенных данных от них не зависит и повторно не записывается.
+   *
+   * @param inline Встроить ли данные отчёта в страницу.
+   */
+  private void writeHtml(File dir, String templatePath, boolean inline) throws IOException {
+    File htmlFile = new File(dir, fileName(HTML_FILENAME));
+    String htmlContent;
+    try {
+      htmlContent = renderedTemplates.computeIfAbsent(templatePath,
+          path -> renderTemplate(loadTemplate(path), placeholders()));
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    if (!inline && templatePath.equals(lastHtmlTemplate) && htmlFile.isFile()) {
+      return; // Страница уже записана и ссылается на те же файлы данных
+    }
+
+    AtomicFiles.write(htmlFile, file -> {
+      if (inline) {
+        writeSelfContainedHtml(file, dir, htmlContent);
+        return;
+      }
+      try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(),
           StandardCharsets.UTF_8,
           StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
         writer.write(htmlContent);
       }
+    });
+    lastHtmlTemplate = inline ? null : templatePath;
 
-      System.out.println("[TestAnalyzer] Отчёт создан: " + htmlFile.getAbsolutePath());
+    System.out.println("[TestAnalyzer] Отчёт создан: " + htmlFile.getAbsolutePath());
+  }
 
-    } catch (IOException e) {
-      System.err.println("[TestAnalyzer] Ошибка при создании отчёта");
-      e.printStackTrace();
+  /**
+   * Записывает страницу, в которую встроены все существующие файлы данных отчёта: каждый файл сжимается gzip,
+   * кодируется base64 и пишется в страницу потоково. Перед основным скриптом страницы подключается замена
+   * `fetch`, которая отдает встроенные данные по именам файлов, распаковывая их `DecompressionStream`.
+   */
+  private void writeSelfContainedHtml(File target, File dir, String htmlContent) throws IOException {
+    int head = htmlContent.indexOf("</head>");
+    if (head < 0) {
+      head = 0;
+    }
+    try (OutputStream out = new BufferedOutputStream(new FileOutputStream(target), 1 << 16)) {
+      out.write(htmlContent.substring(0, head).getBytes(StandardCharsets.UTF_8));
+      out.write(INLINE_SCRIPT_START.getBytes(StandardCharsets.UTF_8));
+      String separator = "";
+      for (Map.Entry<String, String> entry : placeholders().entrySet()) {
+        File data = new File(dir, entry.getValue());
+        if (!INLINED_PLACEHOLDERS.contains(entry.getKey()) || !data.isFile()) {
+          continue;
+        }
+        out.write((separator + "\"" + entry.getValue() + "\": \"").getBytes(StandardCharsets.UTF_8));
+        try (OutputStream gzip = new GZIPOutputStream(Base64.getEncoder().wrap(new FilterOutputStream(out) {
+          @Override
+          public void write(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+          }
+
+          @Override
+          public void close() throws IOException {
+            flush(); // Страница продолжается после данных файла
+          }
+        }), 1 << 16)) {
+          Files.copy(data.toPath(), gzip);
+        }
+        out.write('"');
+        separator = ",\n      ";
+      }
+      out.write(INLINE_SCRIPT_END.getBytes(StandardCharsets.UTF_8));
+      out.write(htmlContent.substring(head).getBytes(StandardCharsets.UTF_8));
     }
   }
 
-  private String loadHtmlTemplate(String jsonFileName) throws IOException {
-    try (InputStream is = getClass().getResourceAsStream(HTML_TEMPLATE_PATH);
-        Scanner scanner = new Scanner(is, StandardCharsets.UTF_8.name())) {
-      String template = scanner.useDelimiter("\\A").next();
-      return template.replace("{{JSON_FILENAME}}", jsonFileName);
-    } catch (NullPointerException e) {
-      throw new IOException("HTML template not found: " + HTML_TEMPLATE_PATH
-          + ". Make sure it's in the same package as ReportGenerator.java or adjust path.", e);
+  /**
+   * Имена файлов и общие разделы страниц, подставляемые в шаблоны вместо `{{ИМЯ}}`.
+   * Имена файлов подставляются и в сами разделы.
+   */
+  private Map<String, String> placeholders() {
+    Map<String, String> values = new LinkedHashMap<>();
+    values.put("JSON_FILENAME", fileName(format.getFileName()));
+    values.put("INDEX_FILENAME", fileName(ShardedReportWriter.INDEX_FILENAME));
+    values.put("REGRESSIONS_FILENAME", fileName(HistoryRecorder.REGRESSIONS_FILENAME));
+    values.put("COLLECTORS_FILENAME", fileName(COLLECTORS_FILENAME));
+    values.put("SUMMARY_FILENAME", fileName(SUMMARY_FILENAME));
+    values.put("SCHEDULE_FILENAME", fileName(SCHEDULE_FILENAME));
+    values.put("LEAKS_FILENAME", fileName(LEAKS_FILENAME));
+    values.put("SCHEDULE_SECTION", renderTemplate(loadTemplate(SCHEDULE_PARTIAL_PATH), values));
+    values.put("LEAKS_SECTION", renderTemplate(loadTemplate(LEAKS_PARTIAL_PATH), values));
+    return values;
+  }
+
+  /**
+   * Подставляет значения вместо `{{ИМЯ}}` за один проход по шаблону; неизвестные подстановки остаются как есть.
+   */
+  static String renderTemplate(String template, Map<String, String> values) {
+    StringBuilder out = new StringBuilder(template.length() + 256);
+    int from = 0;
+    for (int open = template.indexOf("{{"); open >= 0; open = template.indexOf("{{", from)) {
+      int close = template.indexOf("}}", open + 2);
+      if (close < 0) {
+        break;
+      }
+      String value = values.get(template.substring(open + 2, close));
+      out.append(template, from, open).append(value != null ? value : template.substring(open, close + 2));
+      from = close + 2;
     }
+    return out.append(template, from, template.length()).toString();
+  }
+
+  /**
+   * Возвращает шаблон страницы или раздела; каждый шаблон читается из ресурсов один раз на JVM.
+   */
+  private static String loadTemplate(String templatePath) {
+    return TEMPLATES.computeIfAbsent(templatePath, path -> {
+      try (InputStream is = ReportGenerator.class.getResourceAsStream(path)) {
+        if (is == null) {
+          throw new UncheckedIOException(new IOException("HTML template not found: " + path
+              + ". Make sure it's in the same package as ReportGenerator.java or adjust path."));
+        }
+        return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
   }
 }
@@ -0,0 +1,18 @@
+package dev.makurea.testanalyzer.report;
+
+/*
+ * Раскладка файлов отчёта.
+ * Задается настройкой `testanalyzer.report.layout` (по умолчанию `single`).
+ */
+public enum ReportLayout {
+  /**
+   * Один файл данных, который HTML-отчёт загружает и отображает целиком.
+   */
+  SINGLE,
+  /**
+   * Строки отчёта разбиваются на файлы-фрагменты фиксированного размера с небольшим индексным файлом.
+   * HTML-отчёт подгружает фрагменты по мере прокрутки, а графики строит по агрегатам из индекса.
+   * Предназначен для прогонов с сотнями тысяч результатов.
+   */
+  SHARDED
+}
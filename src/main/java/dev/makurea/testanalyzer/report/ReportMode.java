@@ -0,0 +1,22 @@
+package dev.makurea.testanalyzer.report;
+
+/*
+ * Режим записи данных отчёта.
+ * Задается настройкой `testanalyzer.report.mode` (по умолчанию `batch`).
+ */
+public enum ReportMode {
+  /**
+   * Результаты накапливаются в памяти и записываются в файл целиком при генерации отчёта.
+   */
+  BATCH,
+  /**
+   * Результаты дописываются в файл по мере завершения тестов фоновым потоком
+   * через ограниченную очередь; в памяти они не накапливаются.
+   */
+  STREAMING,
+  /**
+   * Результаты не сохраняются вовсе: в отчёт записываются только сводки длительностей
+   * по фазам, классам, тегам и тестам, которые рассчитываются по мере поступления результатов.
+   */
+  SUMMARY
+}
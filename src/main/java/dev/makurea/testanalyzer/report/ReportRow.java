@@ -0,0 +1,217 @@
+package dev.makurea.testanalyzer.report;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import dev.makurea.testanalyzer.core.TestPhase;
+import dev.makurea.testanalyzer.core.TestResult;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * Класс `ReportRow` — одна строка таблицы отчёта: все фазы одного теста, сведенные вместе.
+ * Это серверный аналог функции `groupAndCombineTestData` из HTML-шаблона; он используется там,
+ * где браузеру передаются уже подготовленные строки, а не сырые результаты фаз.
+ *
+ * Фазы всего тестового класса (см. {@link TestPhase#isClassPhase(String)}) в строки тестов не входят.
+ * Длительности хранятся в миллисекундах с дробной частью.
+ */
+public class ReportRow {
+  private final String testId;
+  private final String testName;
+  private final String className;
+  private double constructorDuration;
+  private double beforeEachDuration;
+  private double testMethodDuration;
+  private double afterEachDuration;
+  private String status = "UNKNOWN";
+  private int retryCount;
+  private final Set<String> tags = new LinkedHashSet<>();
+  private long memoryBefore;
+  private long memoryAfter;
+  private long allocatedBytes = -1;
+  private long gcCount;
+  private long gcTimeMs;
+  private Map<String, Object> metrics = Collections.emptyMap();
+  private double cpuTimeMs = -1;
+  private long blockedCount;
+  private long blockedTimeMs = -1;
+  private long waitedCount;
+  private long waitedTimeMs = -1;
+  private long liveThreadsBefore;
+  private long liveThreadsAfter;
+  private String profileFile;
+
+  private ReportRow(String testId, String testName, String className) {
+    this.testId = testId;
+    this.testName = testName;
+    this.className = className;
+  }
+
+  /**
+   * Сводит результаты фаз в строки отчёта. Результаты одного теста определяются
+   * по уникальному идентификатору, а для результатов без него — по имени теста.
+   * Порядок строк соответствует порядку первого появления теста.
+   *
+   * @param results Результаты фаз тестов.
+   * @return Список строк отчёта.
+   */
+  public static List<ReportRow> combine(Collection<TestResult> results) {
+    Map<String, ReportRow> rows = new LinkedHashMap<>();
+    for (TestResult result : results) {
+      if (TestPhase.isClassPhase(result.getPhase())) {
+        continue;
+      }
+      String key = result.getTestId() != null ? result.getTestId() : result.getTestName();
+      ReportRow row = rows.computeIfAbsent(key,
+          k -> new ReportRow(result.getTestId(), result.getTestName(), result.getClassName()));
+      row.add(result);
+    }
+    return new ArrayList<>(rows.values());
+  }
+
+  private void add(TestResult result) {
+    double durationMs = result.getDurationNanos() / 1e6;
+    if (TestPhase.CONSTRUCTOR.equals(result.getPhase())) {
+      constructorDuration += durationMs;
+    } else if (TestPhase.BEFORE_EACH.equals(result.getPhase())) {
+      beforeEachDuration += durationMs;
+    } else if (TestPhase.AFTER_EACH.equals(result.getPhase())) {
+      afterEachDuration += durationMs;
+    } else if (TestPhase.TEST_METHOD.equals(result.getPhase())) {
+      testMethodDuration += durationMs;
+      status = result.getStatus();
+      retryCount = result.getRetryCount();
+      memoryBefore = result.getMemoryBefore();
+      memoryAfter = result.getMemoryAfter();
+      allocatedBytes = result.getAllocatedBytes();
+      gcCount = result.getGcCount();
+      gcTimeMs = result.getGcTimeMs();
+      tags.addAll(result.getTags());
+      metrics = result.getMetrics();
+      cpuTimeMs = result.getCpuTimeNanos() >= 0 ? result.getCpuTimeNanos() / 1e6 : -1;
+      blockedCount = result.getBlockedCount();
+      blockedTimeMs = result.getBlockedTimeMs();
+      waitedCount = result.getWaitedCount();
+      waitedTimeMs = result.getWaitedTimeMs();
+      liveThreadsBefore = result.getLiveThreadsBefore();
+      liveThreadsAfter = result.getLiveThreadsAfter();
+      profileFile = result.getProfileFile();
+    }
+  }
+
+  public String getTestId() {
+    return testId;
+  }
+
+  public String getTestName() {
+    return testName;
+  }
+
+  public String getClassName() {
+    return className;
+  }
+
+  public double getConstructorDuration() {
+    return constructorDuration;
+  }
+
+  public double getBeforeEachDuration() {
+    return beforeEachDuration;
+  }
+
+  public double getTestMethodDuration() {
+    return testMethodDuration;
+  }
+
+  public double getAfterEachDuration() {
+    return afterEachDuration;
+  }
+
+  public double getTotalTestDuration() {
+    return constructorDuration + beforeEachDuration + testMethodDuration + afterEachDuration;
+  }
+
+  public String getStatus() {
+    return status;
+  }
+
+  public int getRetryCount() {
+    return retryCount;
+  }
+
+  public Set<String> getTags() {
+    return tags;
+  }
+
+  public long getMemoryBefore() {
+    return memoryBefore;
+  }
+
+  public long getMemoryAfter() {
+    return memoryAfter;
+  }
+
+  public long getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+  public long getGcCount() {
+    return gcCount;
+  }
+
+  public long getGcTimeMs() {
+    return gcTimeMs;
+  }
+
+  /**
+   * @return Процессорное время потока в фазе TestMethod в мс или -1, если оно не измерялось.
+   */
+  public double getCpuTimeMs() {
+    return cpuTimeMs;
+  }
+
+  public long getBlockedCount() {
+    return blockedCount;
+  }
+
+  public long getBlockedTimeMs() {
+    return blockedTimeMs;
+  }
+
+  public long getWaitedCount() {
+    return waitedCount;
+  }
+
+  public long getWaitedTimeMs() {
+    return waitedTimeMs;
+  }
+
+  public long getLiveThreadsBefore() {
+    return liveThreadsBefore;
+  }
+
+  public long getLiveThreadsAfter() {
+    return liveThreadsAfter;
+  }
+
+  /**
+   * @return Путь к профилю фазы TestMethod относительно каталога отчёта или null.
+   */
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public String getProfileFile() {
+    return profileFile;
+  }
+
+  /**
+   * @return Дополнительные метрики фазы TestMethod.
+   */
+  @JsonInclude(JsonInclude.Include.NON_EMPTY)
+  public Map<String, Object> getMetrics() {
+    return metrics;
+  }
+}
@@ -0,0 +1,313 @@
+package dev.makurea.testanalyzer.report;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import dev.makurea.testanalyzer.core.TestPhase;
+import dev.makurea.testanalyzer.core.TestResult;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Класс `ShardedReportWriter` записывает данные отчёта в раскладке {@link ReportLayout#SHARDED}.
+ *
+ * Результаты фаз сводятся в строки отчёта ({@link ReportRow}), сортируются по общей длительности
+ * (порядок по умолчанию в HTML-отчёте) и записываются компактными JSON-массивами по `shardSize` строк
+ * в новый каталог поколения `test-analyzer-shards/gen-<номер>`. Рядом создается индексный файл с перечнем фрагментов,
+ * общей сводкой и заранее вычисленными агрегатами (по классам, по тегам и гистограмма длительностей),
+ * по которым HTML-отчёт строит графики, не загружая сами строки. Фазы всего класса (BeforeAll, AfterAll,
+ * ClassConstructor) в строки не входят и учитываются только в итогах по классам.
+ *
+ * Индекс заменяется атомарно и только после записи всех фрагментов нового поколения, а фрагменты прошлых
+ * поколений удаляются после замены. Поэтому индекс (и открытая по нему страница) всегда ссылается
+ * на существующие фрагменты, даже если запись отчёта прервалась.
+ */
+public class ShardedReportWriter {
+
+  static final String INDEX_FILENAME = "test-analyzer-index.json";
+  static final String SHARD_DIR = "test-analyzer-shards";
+  private static final String GENERATION_PREFIX = "gen-";
+  // Верхние границы интервалов гистограммы длительности TestMethod, мс
+  private static final double[] HISTOGRAM_BOUNDS_MS = {1, 5, 10, 50, 100, 500, 1000, 5000, 30000};
+
+  private final int shardSize;
+  private final String indexFileName;
+  private final String shardDirName;
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  public ShardedReportWriter(int shardSize) {
+    this(shardSize, INDEX_FILENAME, SHARD_DIR);
+  }
+
+  /**
+   * @param shardSize     Количество строк в одном фрагменте.
+   * @param indexFileName Имя индексного файла.
+   * @param shardDirName  Имя каталога фрагментов.
+   */
+  public ShardedReportWriter(int shardSize, String indexFileName, String shardDirName) {
+    this.shardSize = Math.max(1, shardSize);
+    this.indexFileName = indexFileName;
+    this.shardDirName = shardDirName;
+  }
+
+  /**
+   * Записывает фрагменты и индексный файл в указанный каталог.
+   * Фрагменты предыдущего отчёта удаляются после замены индекса.
+   *
+   * @param dir     Каталог отчёта.
+   * @param results Результаты фаз тестов.
+   * @throws IOException если не удалось записать файлы.
+   */
+  public void write(File dir, List<TestResult> results) throws IOException {
+    List<ReportRow> rows = ReportRow.combine(results);
+    rows.sort(Comparator.comparingDouble(ReportRow::getTotalTestDuration).reversed());
+
+    File shardDir = new File(dir, shardDirName);
+    String generation = String.format("%s%06d", GENERATION_PREFIX, nextGeneration(shardDir));
+    File generationDir = new File(shardDir, generation);
+    if (!generationDir.mkdirs()) {
+      throw new IOException("Cannot create directory " + generationDir.getAbsolutePath());
+    }
+
+    ObjectWriter writer = mapper.writer();
+    List<String> shardFiles = new ArrayList<>();
+    for (int from = 0; from < rows.size(); from += shardSize) {
+      String name = String.format("%s/%s/rows-%05d.json", shardDirName, generation, shardFiles.size());
+      writer.writeValue(new File(dir, name), rows.subList(from, Math.min(rows.size(), from + shardSize)));
+      shardFiles.add(name);
+    }
+
+    Map<String, Object> index = new LinkedHashMap<>();
+    index.put("rowCount", rows.size());
+    index.put("shardSize", shardSize);
+    index.put("shards", shardFiles);
+    List<GroupTotal> classes = groupTotals(rows, true);
+    addClassPhases(classes, results);
+    index.put("summary", summary(rows, classes));
+    index.put("classes", classes);
+    index.put("tags", groupTotals(rows, false));
+    index.put("durationHistogram", histogram(rows));
+    // Индекс заменяется последним и атомарно: он ссылается только на уже записанные фрагменты
+    AtomicFiles.write(new File(dir, indexFileName), file -> writer.writeValue(file, index));
+    deleteOtherGenerations(shardDir, generation);
+  }
+
+  /**
+   * Номер следующего поколения фрагментов: на единицу больше наибольшего из существующих.
+   */
+  private static int nextGeneration(File shardDir) {
+    int latest = 0;
+    File[] children = shardDir.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        String name = child.getName();
+        if (child.isDirectory() && name.startsWith(GENERATION_PREFIX)) {
+          try {
+            latest = Math.max(latest, Integer.parseInt(name.substring(GENERATION_PREFIX.length())));
+          } catch (NumberFormatException e) {
+            // Посторонний каталог; удаляется вместе с прошлыми поколениями
+          }
+        }
+      }
+    }
+    return latest + 1;
+  }
+
+  /**
+   * Удаляет прошлые поколения и фрагменты старой раскладки без поколений. Неудаленные файлы
+   * на отчёт не влияют и удаляются при следующей записи.
+   */
+  private static void deleteOtherGenerations(File shardDir, String generation) {
+    File[] children = shardDir.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        if (!child.getName().equals(generation)) {
+          delete(child);
+        }
+      }
+    }
+  }
+
+  private static void delete(File file) {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        delete(child);
+      }
+    }
+    file.delete();
+  }
+
+  private static Map<String, Object> summary(List<ReportRow> rows, List<GroupTotal> classes) {
+    long failed = 0;
+    double totalMs = 0;
+    double classSetupMs = 0;
+    double classTeardownMs = 0;
+    for (GroupTotal group : classes) {
+      totalMs += group.getClassSetupMs() + group.getClassTeardownMs();
+      classSetupMs += group.getClassSetupMs();
+      classTeardownMs += group.getClassTeardownMs();
+    }
+    double testMethodMs = 0;
+    double cpuMs = 0;
+    for (ReportRow row : rows) {
+      totalMs += row.getTotalTestDuration();
+      if (row.getCpuTimeMs() >= 0) {
+        // Для доли процессорного времени учитываются только тесты, у которых оно измерено
+        testMethodMs += row.getTestMethodDuration();
+        cpuMs += row.getCpuTimeMs();
+      }
+      if ("FAILED".equals(row.getStatus())) {
+        failed++;
+      }
+    }
+    Map<String, Object> summary = new LinkedHashMap<>();
+    summary.put("tests", rows.size());
+    summary.put("failed", failed);
+    summary.put("totalMs", totalMs);
+    summary.put("testMethodMs", testMethodMs);
+    summary.put("cpuMs", cpuMs);
+    summary.put("classSetupMs", classSetupMs);
+    summary.put("classTeardownMs", classTeardownMs);
+    return summary;
+  }
+
+  /**
+   * Считает количество тестов, падений и суммарную длительность по классам или по тегам.
+   * Результат отсортирован по убыванию суммарной длительности.
+   */
+  private static List<GroupTotal> groupTotals(List<ReportRow> rows, boolean byClass) {
+    Map<String, GroupTotal> groups = new HashMap<>();
+    for (ReportRow row : rows) {
+      if (byClass) {
+        String className = row.getClassName() != null ? row.getClassName() : "N/A";
+        groups.computeIfAbsent(className, GroupTotal::new).add(row);
+      } else {
+        for (String tag : row.getTags()) {
+          groups.computeIfAbsent(tag, GroupTotal::new).add(row);
+        }
+      }
+    }
+    List<GroupTotal> totals = new ArrayList<>(groups.values());
+    totals.sort(Comparator.comparingDouble(GroupTotal::getTotalMs).reversed());
+    return totals;
+  }
+
+  /**
+   * Добавляет к итогам по классам длительности фаз классов и заново сортирует итоги.
+   * Подготовка класса — конструктор при жизненном цикле `PER_CLASS` и методы `@BeforeAll`,
+   * очистка — методы `@AfterAll`.
+   */
+  private static void addClassPhases(List<GroupTotal> classes, List<TestResult> results) {
+    Map<String, GroupTotal> byName = new HashMap<>();
+    for (GroupTotal group : classes) {
+      byName.put(group.getName(), group);
+    }
+    boolean added = false;
+    for (TestResult result : results) {
+      if (!TestPhase.isClassPhase(result.getPhase())) {
+        continue;
+      }
+      String className = result.getClassName() != null ? result.getClassName() : "N/A";
+      GroupTotal group = byName.computeIfAbsent(className, name -> {
+        GroupTotal created = new GroupTotal(name);
+        classes.add(created);
+        return created;
+      });
+      group.addClassPhase(result);
+      added = true;
+    }
+    if (added) {
+      classes.sort(Comparator.comparingDouble(GroupTotal::getTotalMs).reversed());
+    }
+  }
+
+  private static List<Map<String, Object>> histogram(List<ReportRow> rows) {
+    long[] counts = new long[HISTOGRAM_BOUNDS_MS.length + 1];
+    for (ReportRow row : rows) {
+      int bucket = 0;
+      while (bucket < HISTOGRAM_BOUNDS_MS.length && row.getTestMethodDuration() >= HISTOGRAM_BOUNDS_MS[bucket]) {
+        bucket++;
+      }
+      counts[bucket]++;
+    }
+    List<Map<String, Object>> buckets = new ArrayList<>();
+    for (int i = 0; i < counts.length; i++) {
+      Map<String, Object> bucket = new LinkedHashMap<>();
+      bucket.put("fromMs", i == 0 ? 0 : HISTOGRAM_BOUNDS_MS[i - 1]);
+      bucket.put("toMs", i < HISTOGRAM_BOUNDS_MS.length ? HISTOGRAM_BOUNDS_MS[i] : null);
+      bucket.put("count", counts[i]);
+      buckets.add(bucket);
+    }
+    return buckets;
+  }
+
+  /**
+   * Итоги по одной группе строк (классу или тегу).
+   */
+  public static class GroupTotal {
+    private final String name;
+    private long tests;
+    private long failed;
+    private double totalMs;
+    private double cpuMs;
+    private double classSetupMs;
+    private double classTeardownMs;
+
+    GroupTotal(String name) {
+      this.name = name;
+    }
+
+    void add(ReportRow row) {
+      tests++;
+      totalMs += row.getTotalTestDuration();
+      cpuMs += Math.max(0, row.getCpuTimeMs());
+      if ("FAILED".equals(row.getStatus())) {
+        failed++;
+      }
+    }
+
+    void addClassPhase(TestResult result) {
+      double durationMs = result.getDurationNanos() / 1e6;
+      totalMs += durationMs;
+      if (TestPhase.AFTER_ALL.equals(result.getPhase())) {
+        classTeardownMs += durationMs;
+      } else {
+        classSetupMs += durationMs;
+      }
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public long getTests() {
+      return tests;
+    }
+
+    public long getFailed() {
+      return failed;
+    }
+
+    public double getTotalMs() {
+      return totalMs;
+    }
+
+    public double getCpuMs() {
+      return cpuMs;
+    }
+
+    public double getClassSetupMs() {
+      return classSetupMs;
+    }
+
+    public double getClassTeardownMs() {
+      return classTeardownMs;
+    }
+  }
+}
@@ -0,0 +1,259 @@
+package dev.makurea.testanalyzer.report;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import dev.makurea.testanalyzer.core.TestResult;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+ * Класс `StreamingReportWriter` записывает результаты тестов в файл отчёта по мере их поступления.
+ *
+ * Тестовые потоки только кладут результат в ограниченную очередь, а сериализацией через
+ * Jackson `JsonGenerator` занимается один фоновый поток. Если запись отстает, очередь заполняется
+ * и тестовые потоки ненадолго блокируются — так объем памяти, занятой результатами,
+ * остается ограниченным емкостью очереди независимо от размера тестового набора.
+ *
+ * Закрытие ожидает результаты, которые уже ставятся в очередь (блокировка чтения-записи: добавление —
+ * чтение, закрытие — запись), поэтому ни один принятый результат не теряется; результаты, переданные
+ * после закрытия, отклоняются. О первом отклоненном результате выводится предупреждение, остальные
+ * только подсчитываются, а их число выводится при закрытии (в том числе повторном).
+ *
+ * Поддерживаются форматы {@link ReportFormat#JSON} (JSON-массив, по желанию с отступами)
+ * и {@link ReportFormat#NDJSON} (по одному компактному объекту на строку).
+ */
+public class StreamingReportWriter implements AutoCloseable {
+
+  // Сколько результатов фоновый поток забирает из очереди за один раз
+  private static final int DRAIN_BATCH_SIZE = 256;
+  // Маркер конца потока результатов; сравнивается по ссылке
+  private static final TestResult END_OF_STREAM = TestResult.builder().testName("").phase("").build();
+
+  private final File file;
+  private final ReportFormat format;
+  private final ObjectMapper mapper;
+  private final JsonGenerator generator;
+  private final BlockingQueue<TestResult> queue;
+  private final Thread writerThread;
+  // Добавления держат блокировку чтения, закрытие — записи: маркер конца ставится только после всех добавлений
+  private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+  private boolean closed;
+  private final AtomicLong rejected = new AtomicLong();
+  // Число отклоненных результатов, уже выведенное в консоль
+  private long reportedRejected;
+  private volatile IOException failure;
+
+  /**
+   * Открывает файл и запускает фоновый поток записи.
+   *
+   * @param file          Файл, в который будут записываться результаты. Существующий файл перезаписывается.
+   * @param format        Формат файла.
+   * @param pretty        Записывать ли JSON с отступами (игнорируется для {@link ReportFormat#NDJSON}).
+   * @param queueCapacity Емкость очереди результатов, ожидающих записи.
+   * @throws IOException если файл не удалось открыть.
+   */
+  public StreamingReportWriter(File file, ReportFormat format, boolean pretty, int queueCapacity) throws IOException {
+    this.file = file;
+    this.format = format;
+    this.mapper = new ObjectMapper().disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    this.generator = mapper.getFactory()
+        .createGenerator(new BufferedOutputStream(new FileOutputStream(file)), JsonEncoding.UTF8);
+    if (format == ReportFormat.JSON) {
+      if (pretty) {
+        generator.useDefaultPrettyPrinter();
+      }
+      generator.writeStartArray();
+    } else {
+      generator.setRootValueSeparator(new SerializedString("\n"));
+    }
+    this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+    this.writerThread = new Thread(this::drainLoop, "test-analyzer-report-writer");
+    this.writerThread.setDaemon(true);
+    this.writerThread.start();
+  }
+
+  /**
+   * Ставит результат в очередь на запись. Блокирует вызывающий поток, если очередь заполнена.
+   * Результаты, переданные после {@link #close()}, не записываются и подсчитываются ({@link #getRejectedCount()}).
+   *
+   * @param result Результат фазы теста.
+   */
+  public void append(TestResult result) {
+    if (result == null) {
+      return;
+    }
+    closeLock.readLock().lock();
+    try {
+      if (closed) {
+        reject(result, "запись уже завершена");
+        return;
+      }
+      queue.put(result);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      reject(result, "поток прерван");
+    } finally {
+      closeLock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Возвращает число результатов, которые не были записаны: переданных после закрытия или при прерывании потока.
+   *
+   * @return Число отклоненных результатов.
+   */
+  public long getRejectedCount() {
+    return rejected.get();
+  }
+
+  /**
+   * Возвращает файл, в который пишутся результаты.
+   *
+   * @return Файл данных отчёта.
+   */
+  public File getFile() {
+    return file;
+  }
+
+  /**
+   * Дожидается записи всех результатов из очереди, завершает JSON-документ и закрывает файл.
+   * Повторные вызовы только выводят число результатов, отклоненных с прошлого вызова.
+   *
+   * @throws IOException если при записи результатов произошла ошибка.
+   */
+  @Override
+  public void close() throws IOException {
+    // Ожидает добавления, которые уже начались; фоновый поток тем временем продолжает разбирать очередь
+    boolean alreadyClosed;
+    closeLock.writeLock().lock();
+    try {
+      alreadyClosed = closed;
+      closed = true;
+    } finally {
+      closeLock.writeLock().unlock();
+    }
+    if (alreadyClosed) {
+      reportRejected();
+      return;
+    }
+    boolean interrupted = false;
+    while (true) {
+      try {
+        queue.put(END_OF_STREAM);
+        writerThread.join();
+        break;
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    reportRejected();
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  /**
+   * Основной цикл фонового потока: забирает результаты пачками, сериализует их
+   * и сбрасывает буфер на диск, когда очередь опустела.
+   */
+  private void drainLoop() {
+    List<TestResult> batch = new ArrayList<>(DRAIN_BATCH_SIZE);
+    boolean finished = false;
+    while (!finished) {
+      try {
+        batch.add(queue.take());
+      } catch (InterruptedException e) {
+        // Поток записи завершается только по маркеру конца, чтобы не потерять результаты
+        continue;
+      }
+      queue.drainTo(batch, DRAIN_BATCH_SIZE - 1);
+      for (TestResult result : batch) {
+        if (result == END_OF_STREAM) {
+          finished = true;
+        } else {
+          write(result);
+        }
+      }
+      batch.clear();
+      if (queue.isEmpty()) {
+        flush();
+      }
+    }
+    finish();
+  }
+
+  private void write(TestResult result) {
+    if (failure != null) {
+      return; // После ошибки продолжаем разбирать очередь, чтобы не блокировать тестовые потоки
+    }
+    try {
+      mapper.writeValue(generator, result);
+    } catch (IOException e) {
+      fail(e);
+    }
+  }
+
+  private void flush() {
+    if (failure != null) {
+      return;
+    }
+    try {
+      generator.flush();
+    } catch (IOException e) {
+      fail(e);
+    }
+  }
+
+  private void finish() {
+    try {
+      if (failure == null) {
+        if (format == ReportFormat.JSON) {
+          generator.writeEndArray();
+        } else {
+          generator.writeRaw('\n');
+        }
+      }
+      generator.close();
+    } catch (IOException e) {
+      fail(e);
+    }
+  }
+
+  private void reject(TestResult result, String reason) {
+    if (rejected.getAndIncrement() == 0) {
+      System.err.println("[TestAnalyzer] Результат не записан в отчёт: " + reason + " (" + result.getTestName()
+          + "); следующие такие результаты только подсчитываются");
+    }
+  }
+
+  private synchronized void reportRejected() {
+    long count = rejected.get();
+    if (count > reportedRejected) {
+      reportedRejected = count;
+      System.err.println("[TestAnalyzer] Не записано в отчёт результатов: " + count + " (" + file.getAbsolutePath() + ")");
+    }
+  }
+
+  private void fail(IOException e) {
+    if (failure == null) {
+      failure = e;
+      System.err.println("[TestAnalyzer] Ошибка при записи отчёта: " + file.getAbsolutePath());
+      e.printStackTrace();
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package dev.makurea.testanalyzer.schedule;
+
+/*
+ * Класс `ClassSpan` — выполнение одного тестового класса: от начала его первой фазы до окончания последней,
+ * суммарная длительность фаз и количество потоков, в которых он выполнялся.
+ */
+public class ClassSpan {
+  private final String className;
+  private final long startNanos;
+  private final long endNanos;
+  private final long busyNanos;
+  private final long occupiedNanos;
+  private final int threads;
+  private final int tests;
+
+  ClassSpan(String className, long startNanos, long endNanos, long busyNanos, long occupiedNanos, int threads,
+      int tests) {
+    this.className = className;
+    this.startNanos = startNanos;
+    this.endNanos = endNanos;
+    this.busyNanos = busyNanos;
+    this.occupiedNanos = occupiedNanos;
+    this.threads = threads;
+    this.tests = tests;
+  }
+
+  public String getClassName() {
+    return className;
+  }
+
+  public double getStartMs() {
+    return startNanos / 1e6;
+  }
+
+  public double getEndMs() {
+    return endNanos / 1e6;
+  }
+
+  /**
+   * @return Время от начала первой до окончания последней фазы класса в мс.
+   */
+  public double getSpanMs() {
+    return spanNanos() / 1e6;
+  }
+
+  /**
+   * @return Сумма длительностей фаз класса в мс.
+   */
+  public double getBusyMs() {
+    return busyNanos / 1e6;
+  }
+
+  /**
+   * @return Суммарное время, в которое потоки были заняты классом, включая накладные расходы JUnit между фазами, в мс.
+   */
+  public double getOccupiedMs() {
+    return occupiedNanos / 1e6;
+  }
+
+  public int getThreads() {
+    return threads;
+  }
+
+  public int getTests() {
+    return tests;
+  }
+
+  long startNanos() {
+    return startNanos;
+  }
+
+  long endNanos() {
+    return endNanos;
+  }
+
+  long spanNanos() {
+    return endNanos - startNanos;
+  }
+
+  long busyNanos() {
+    return busyNanos;
+  }
+
+  long occupiedNanos() {
+    return occupiedNanos;
+  }
+}
@@ -0,0 +1,381 @@
+package dev.makurea.testanalyzer.schedule;
+
+import dev.makurea.testanalyzer.schedule.ScheduleRecorder.Segment;
+import dev.makurea.testanalyzer.schedule.ScheduleSuggestion.Kind;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+
+/*
+ * Класс `ScheduleAnalyzer` анализирует временную шкалу прогона, собранную {@link ScheduleRecorder}:
+ *   - загрузка потока — сумма длительностей его фаз, простой — остальное время прогона;
+ *   - самая длинная последовательная цепочка — цепочка классов, в которой каждый следующий начался
+ *     после окончания предыдущего, с наибольшим суммарным временем; если она занимает почти весь прогон,
+ *     классы фактически выполнялись друг за другом;
+ *   - оценка времени прогона — распределение классов по тем же потокам от длинных к коротким
+ *     (жадный алгоритм LPT, не больше чем в 4/3 раза хуже оптимального); класс, методы которого
+ *     выполнялись в нескольких потоках, делится между ними поровну. Оценки строятся по времени, в которое
+ *     потоки были заняты классом (включая накладные расходы JUnit между фазами), а не по сумме длительностей фаз.
+ * По этим данным формируются советы ({@link ScheduleSuggestion}); советы с выигрышем меньше 5% прогона не выводятся.
+ */
+final class ScheduleAnalyzer {
+
+  private static final double MIN_SAVING_SHARE = 0.05;
+  private static final int MAX_CLASS_SUGGESTIONS = 5;
+  private static final int MAX_GROUP_CLASSES = 50;
+  private static final int MAX_EXCLUSIVE_CANDIDATES = 50;
+
+  private final Map<String, List<Segment>> workers;
+  private final int maxSegments;
+  private final int processors;
+
+  ScheduleAnalyzer(Map<String, List<Segment>> workers, int maxSegments, int processors) {
+    this.workers = workers;
+    this.maxSegments = maxSegments;
+    this.processors = processors;
+  }
+
+  ScheduleReport analyze() {
+    Map<String, List<Segment>> timelines = new TreeMap<>();
+    long origin = Long.MAX_VALUE;
+    long end = Long.MIN_VALUE;
+    List<Segment> all = new ArrayList<>();
+    for (Map.Entry<String, List<Segment>> entry : workers.entrySet()) {
+      List<Segment> segments = coalesce(entry.getValue());
+      if (segments.isEmpty()) {
+        continue;
+      }
+      timelines.put(entry.getKey(), segments);
+      all.addAll(segments);
+      for (Segment segment : segments) {
+        origin = Math.min(origin, segment.startNanos);
+        end = Math.max(end, segment.endNanos);
+      }
+    }
+    if (all.isEmpty()) {
+      return new ScheduleReport(0, 0, processors, 0, 0, 0, List.of(), List.of(), List.of(), List.of());
+    }
+    long wall = end - origin;
+
+    // Короткие отрезки не попадают в диаграмму, чтобы ее размер не зависел от количества тестов
+    Set<Segment> shown = Collections.newSetFromMap(new IdentityHashMap<>());
+    if (all.size() > maxSegments) {
+      List<Segment> bySpan = new ArrayList<>(all);
+      bySpan.sort(Comparator.comparingLong((Segment segment) -> segment.endNanos - segment.startNanos).reversed());
+      shown.addAll(bySpan.subList(0, maxSegments));
+    } else {
+      shown.addAll(all);
+    }
+
+    long totalBusy = 0;
+    List<WorkerUsage> usages = new ArrayList<>(timelines.size());
+    Map<String, ClassAccumulator> classAccumulators = new LinkedHashMap<>();
+    for (Map.Entry<String, List<Segment>> entry : timelines.entrySet()) {
+      long busy = 0;
+      List<TimelineSegment> segments = new ArrayList<>();
+      for (Segment segment : entry.getValue()) {
+        busy += segment.busyNanos;
+        if (shown.contains(segment)) {
+          segments.add(new TimelineSegment(segment.className, segment.startNanos - origin, segment.endNanos - origin,
+              segment.busyNanos, segment.tests));
+        }
+        classAccumulators.computeIfAbsent(segment.className, ClassAccumulator::new).add(segment, entry.getKey());
+      }
+      List<Segment> own = entry.getValue();
+      usages.add(new WorkerUsage(entry.getKey(), busy, wall, own.get(0).startNanos - origin,
+          own.get(own.size() - 1).endNanos - origin, segments));
+      totalBusy += busy;
+    }
+
+    List<ClassSpan> classes = new ArrayList<>(classAccumulators.size());
+    for (ClassAccumulator accumulator : classAccumulators.values()) {
+      classes.add(accumulator.toSpan(origin));
+    }
+    classes.sort(Comparator.comparingLong(ClassSpan::busyNanos).reversed());
+
+    List<ClassSpan> chain = criticalChain(classes);
+    long chainNanos = 0;
+    for (ClassSpan span : chain) {
+      chainNanos += span.spanNanos();
+    }
+    long estimatedWall = longestProcessingTime(classes, usages.size(), null);
+
+    List<ScheduleSuggestion> suggestions = suggest(classes, all, usages.size(), wall, chain, chainNanos, origin);
+    return new ScheduleReport(wall, totalBusy, processors, estimatedWall, chainNanos, all.size() - shown.size(),
+        usages, classes, chain, suggestions);
+  }
+
+  /**
+   * Упорядочивает отрезки потока по началу и сливает идущие подряд отрезки одного класса.
+   */
+  private static List<Segment> coalesce(List<Segment> segments) {
+    List<Segment> sorted = new ArrayList<>(segments);
+    sorted.sort(Comparator.comparingLong((Segment segment) -> segment.startNanos));
+    List<Segment> result = new ArrayList<>(sorted.size());
+    for (Segment segment : sorted) {
+      Segment last = result.isEmpty() ? null : result.get(result.size() - 1);
+      if (last != null && last.className.equals(segment.className)) {
+        last.merge(segment);
+      } else {
+        result.add(segment);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Находит цепочку неперекрывающихся по времени классов с наибольшим суммарным временем выполнения.
+   * Классы обрабатываются по началу; лучшая цепочка, заканчивающаяся до начала класса, берется
+   * из классов, упорядоченных по окончанию, поэтому сложность — O(n log n).
+   */
+  private static List<ClassSpan> criticalChain(List<ClassSpan> classes) {
+    int n = classes.size();
+    Integer[] byStart = new Integer[n];
+    Integer[] byEnd = new Integer[n];
+    for (int i = 0; i < n; i++) {
+      byStart[i] = i;
+      byEnd[i] = i;
+    }
+    Arrays.sort(byStart, Comparator.comparingLong((Integer i) -> classes.get(i).startNanos())
+        .thenComparingLong(i -> classes.get(i).endNanos()));
+    Arrays.sort(byEnd, Comparator.comparingLong((Integer i) -> classes.get(i).endNanos()));
+
+    long[] best = new long[n];
+    int[] previous = new int[n];
+    boolean[] done = new boolean[n];
+    long bestBefore = 0;
+    int bestBeforeIndex = -1;
+    int finished = 0;
+    for (int current : byStart) {
+      ClassSpan span = classes.get(current);
+      while (finished < n && classes.get(byEnd[finished]).endNanos() <= span.startNanos()) {
+        int candidate = byEnd[finished++];
+        if (done[candidate] && best[candidate] > bestBefore) {
+          bestBefore = best[candidate];
+          bestBeforeIndex = candidate;
+        }
+      }
+      best[current] = bestBefore + span.spanNanos();
+      previous[current] = bestBeforeIndex;
+      done[current] = true;
+    }
+
+    int last = -1;
+    for (int i = 0; i < n; i++) {
+      if (last < 0 || best[i] > best[last]) {
+        last = i;
+      }
+    }
+    List<ClassSpan> chain = new ArrayList<>();
+    for (int i = last; i >= 0; i = previous[i]) {
+      chain.add(classes.get(i));
+    }
+    Collections.reverse(chain);
+    return chain;
+  }
+
+  /**
+   * Распределяет классы по потокам от самого длинного к самому короткому, каждый раз
+   * в наименее загруженный поток, и возвращает время самого загруженного потока.
+   * Класс, методы которого выполнялись в k потоках, делится на k равных частей.
+   *
+   * @param groups Если не null, сюда записываются имена классов каждого потока.
+   */
+  private static long longestProcessingTime(List<ClassSpan> classes, int bins, List<List<String>> groups) {
+    int count = Math.max(1, bins);
+    PriorityQueue<long[]> loads = new PriorityQueue<>(count, Comparator.comparingLong((long[] load) -> load[0]));
+    for (int i = 0; i < count; i++) {
+      loads.add(new long[] {0, i});
+      if (groups != null) {
+        groups.add(new ArrayList<>());
+      }
+    }
+    List<ClassSpan> parts = new ArrayList<>(classes.size());
+    List<Long> partNanos = new ArrayList<>(classes.size());
+    for (ClassSpan span : classes) {
+      int split = Math.max(1, Math.min(count, span.getThreads()));
+      for (int i = 0; i < split; i++) {
+        parts.add(span);
+        partNanos.add(span.occupiedNanos() / split);
+      }
+    }
+    Integer[] order = new Integer[parts.size()];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, Comparator.comparingLong((Integer i) -> partNanos.get(i)).reversed());
+    for (int i : order) {
+      long[] load = loads.poll();
+      load[0] += partNanos.get(i);
+      if (groups != null) {
+        List<String> group = groups.get((int) load[1]);
+        String name = parts.get(i).getClassName();
+        if (group.size() < MAX_GROUP_CLASSES && !group.contains(name)) {
+          group.add(name);
+        }
+      }
+      loads.add(load);
+    }
+    long makespan = 0;
+    for (long[] load : loads) {
+      makespan = Math.max(makespan, load[0]);
+    }
+    if (groups != null) {
+      groups.removeIf(List::isEmpty);
+    }
+    return makespan;
+  }
+
+  private List<ScheduleSuggestion> suggest(List<ClassSpan> classes, List<Segment> segments, int workerCount, long wall,
+      List<ClassSpan> chain, long chainNanos, long origin) {
+    List<ScheduleSuggestion> suggestions = new ArrayList<>();
+    long minSaving = (long) (wall * MIN_SAVING_SHARE);
+    long totalOccupied = 0;
+    for (ClassSpan span : classes) {
+      totalOccupied += span.occupiedNanos();
+    }
+    if (classes.size() < 2 && workerCount < 2) {
+      return suggestions;
+    }
+
+    if (workerCount == 1 && processors > 1 && classes.size() > 1) {
+      long estimate = longestProcessingTime(classes, processors, null);
+      add(suggestions, minSaving, new ScheduleSuggestion(Kind.ENABLE_PARALLEL, String.format(
+          "Тесты выполнялись в одном потоке. При параллельном выполнении классов на %d процессорах "
+              + "(junit.jupiter.execution.parallel.enabled=true, junit.jupiter.execution.parallel.mode.classes.default=concurrent) "
+              + "прогон оценочно займет %.0f мс вместо %.0f мс",
+          processors, estimate / 1e6, wall / 1e6), wall - estimate, List.of(), List.of()));
+    }
+    if (workerCount < 2) {
+      return suggestions;
+    }
+
+    // Цепочка почти во весь прогон: классы выполнялись друг за другом, и советы по отдельным классам не нужны
+    boolean serial = chain.size() > 1 && chainNanos >= wall * 0.8;
+    if (serial) {
+      long estimate = longestProcessingTime(classes, workerCount, null);
+      add(suggestions, minSaving, new ScheduleSuggestion(Kind.CONCURRENT_CLASSES, String.format(
+          "Классы выполнялись друг за другом: последовательная цепочка из %d классов занимает %.0f%% прогона при %d потоках. "
+              + "Проверьте junit.jupiter.execution.parallel.mode.classes.default=concurrent и аннотации "
+              + "@Execution(SAME_THREAD) на классах; при параллельном выполнении классов прогон оценочно займет %.0f мс",
+          chain.size(), 100.0 * chainNanos / wall, workerCount, estimate / 1e6), wall - estimate,
+          names(chain), List.of()));
+    }
+
+    // Длинные классы, выполнявшиеся в одном потоке дольше средней нагрузки потока
+    long share = totalOccupied / workerCount;
+    List<ScheduleSuggestion> longClasses = new ArrayList<>();
+    for (ClassSpan span : classes) {
+      if (span.getThreads() != 1 || span.getTests() < 2 || span.spanNanos() <= share) {
+        continue;
+      }
+      long ideal = Math.max(share, span.occupiedNanos() / Math.min(workerCount, span.getTests()));
+      add(longClasses, minSaving, new ScheduleSuggestion(Kind.CONCURRENT_METHODS, String.format(
+          "Класс %s выполнялся в одном потоке %.0f мс — дольше средней нагрузки потока (%.0f мс). "
+              + "@Execution(ExecutionMode.CONCURRENT) для его методов или разделение класса сократит прогон примерно на %.0f мс",
+          span.getClassName(), span.spanNanos() / 1e6, share / 1e6, (span.spanNanos() - ideal) / 1e6),
+          span.spanNanos() - ideal, List.of(span.getClassName()), List.of()));
+    }
+    addTop(suggestions, longClasses);
+
+    // Классы, во время которых другие классы не выполнялись
+    List<ScheduleSuggestion> exclusive = new ArrayList<>();
+    if (!serial && classes.size() > 1) {
+      List<ClassSpan> candidates = new ArrayList<>(classes);
+      candidates.sort(Comparator.comparingLong(ClassSpan::spanNanos).reversed());
+      for (ClassSpan span : candidates.subList(0, Math.min(MAX_EXCLUSIVE_CANDIDATES, candidates.size()))) {
+        if (span.spanNanos() >= minSaving && span.getThreads() < workerCount && !overlapsOthers(span, segments, origin)) {
+          long saving = Math.min(span.spanNanos() * (workerCount - 1) / workerCount,
+              (totalOccupied - span.occupiedNanos()) / workerCount);
+          add(exclusive, minSaving, new ScheduleSuggestion(Kind.EXCLUSIVE_CLASS, String.format(
+              "Класс %s выполнялся монопольно %.0f мс: остальные потоки в это время простаивали. "
+                  + "Если изоляция не нужна, уберите @Isolated или сузьте @ResourceLock",
+              span.getClassName(), span.spanNanos() / 1e6), saving, List.of(span.getClassName()), List.of()));
+        }
+      }
+    }
+    addTop(suggestions, exclusive);
+
+    if (!serial && classes.size() > workerCount) {
+      List<List<String>> groups = new ArrayList<>();
+      long estimate = longestProcessingTime(classes, workerCount, groups);
+      add(suggestions, minSaving, new ScheduleSuggestion(Kind.REGROUP_CLASSES, String.format(
+          "Запуск классов от самых длинных к коротким (например, через ClassOrderer) с таким распределением "
+              + "по %d потокам оценочно сокращает прогон с %.0f мс до %.0f мс",
+          workerCount, wall / 1e6, estimate / 1e6), wall - estimate, List.of(), groups));
+    }
+
+    suggestions.sort(Comparator.comparingLong(ScheduleSuggestion::savingNanos).reversed());
+    return suggestions;
+  }
+
+  private static boolean overlapsOthers(ClassSpan span, List<Segment> segments, long origin) {
+    long start = span.startNanos() + origin;
+    long end = span.endNanos() + origin;
+    for (Segment segment : segments) {
+      if (!segment.className.equals(span.getClassName()) && segment.startNanos < end && segment.endNanos > start) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static void add(List<ScheduleSuggestion> suggestions, long minSaving, ScheduleSuggestion suggestion) {
+    if (suggestion.savingNanos() > 0 && suggestion.savingNanos() >= minSaving) {
+      suggestions.add(suggestion);
+    }
+  }
+
+  private static void addTop(List<ScheduleSuggestion> target, List<ScheduleSuggestion> candidates) {
+    candidates.sort(Comparator.comparingLong(ScheduleSuggestion::savingNanos).reversed());
+    target.addAll(candidates.subList(0, Math.min(MAX_CLASS_SUGGESTIONS, candidates.size())));
+  }
+
+  private static List<String> names(List<ClassSpan> spans) {
+    List<String> names = new ArrayList<>(spans.size());
+    for (ClassSpan span : spans) {
+      names.add(span.getClassName());
+    }
+    return names;
+  }
+
+  /**
+   * Накопитель выполнения класса по отрезкам всех потоков.
+   */
+  private static final class ClassAccumulator {
+    private final String className;
+    private final Set<String> threads = new HashSet<>();
+    private long startNanos = Long.MAX_VALUE;
+    private long endNanos = Long.MIN_VALUE;
+    private long busyNanos;
+    private long occupiedNanos;
+    private int tests;
+
+    ClassAccumulator(String className) {
+      this.className = className;
+    }
+
+    void add(Segment segment, String thread) {
+      startNanos = Math.min(startNanos, segment.startNanos);
+      endNanos = Math.max(endNanos, segment.endNanos);
+      busyNanos += segment.busyNanos;
+      occupiedNanos += segment.endNanos - segment.startNanos;
+      tests += segment.tests;
+      threads.add(thread);
+    }
+
+    ClassSpan toSpan(long origin) {
+      return new ClassSpan(className, startNanos - origin, endNanos - origin, busyNanos, occupiedNanos, threads.size(),
+          tests);
+    }
+  }
+}
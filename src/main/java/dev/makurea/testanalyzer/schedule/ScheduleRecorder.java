@@ -0,0 +1,175 @@
+package dev.makurea.testanalyzer.schedule;
+
+import dev.makurea.testanalyzer.core.TestAnalyzerConfig;
+import dev.makurea.testanalyzer.core.TestPhase;
+import dev.makurea.testanalyzer.core.TestResult;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/*
+ * Класс `ScheduleRecorder` собирает по мере поступления результатов временную шкалу прогона:
+ * какие классы, когда и в каком потоке выполнялись. По ней {@link ScheduleAnalyzer} строит
+ * диаграмму Ганта по потокам, загрузку потоков, самую длинную последовательную цепочку классов
+ * и советы по распределению классов.
+ *
+ * Идущие подряд фазы одного класса в одном потоке сливаются в один отрезок, поэтому объем памяти
+ * зависит от количества переключений потоков между классами, а не от количества результатов.
+ * Как и {@link dev.makurea.testanalyzer.stats.StatsAggregator}, запись идет в таблицу текущего потока,
+ * а таблицы сливаются только при анализе.
+ *
+ * Настройки:
+ *   testanalyzer.schedule.enabled     — анализировать параллельное выполнение (true);
+ *   testanalyzer.schedule.maxSegments — сколько самых длинных отрезков попадает в диаграмму Ганта (20000).
+ */
+public class ScheduleRecorder {
+
+  private final int maxSegments = Math.max(1, TestAnalyzerConfig.getInt("schedule.maxSegments", 20000));
+  private final List<SegmentTable> tables = new CopyOnWriteArrayList<>();
+  private final ThreadLocal<SegmentTable> localTable = ThreadLocal.withInitial(this::registerTable);
+
+  /**
+   * Проверяет, включен ли анализ параллельного выполнения.
+   *
+   * @return true, если анализ включен настройкой `testanalyzer.schedule.enabled`.
+   */
+  public static boolean isEnabled() {
+    return TestAnalyzerConfig.getBoolean("schedule.enabled", true);
+  }
+
+  /**
+   * Учитывает результат фазы теста. Результаты без потока или отметок времени пропускаются.
+   * Метод может вызываться одновременно из любого количества потоков.
+   *
+   * @param result Результат фазы теста.
+   */
+  public void record(TestResult result) {
+    if (result != null && result.getThreadName() != null && result.getEndNanos() >= result.getStartNanos()) {
+      localTable.get().record(result);
+    }
+  }
+
+  /**
+   * Проверяет, были ли учтены результаты.
+   *
+   * @return true, если с момента создания или последнего сброса результатов не было.
+   */
+  public boolean isEmpty() {
+    for (SegmentTable table : tables) {
+      if (!table.isEmpty()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Сливает таблицы потоков и анализирует временную шкалу прогона.
+   *
+   * @return Отчёт {@link ScheduleReport}.
+   */
+  public ScheduleReport analyze() {
+    Map<String, List<Segment>> workers = new HashMap<>();
+    for (SegmentTable table : tables) {
+      table.addTo(workers);
+    }
+    return new ScheduleAnalyzer(workers, maxSegments, Runtime.getRuntime().availableProcessors()).analyze();
+  }
+
+  /**
+   * Сбрасывает накопленную временную шкалу, например после итогового отчёта сессии.
+   */
+  public void reset() {
+    for (SegmentTable table : tables) {
+      table.clear();
+    }
+  }
+
+  private SegmentTable registerTable() {
+    SegmentTable table = new SegmentTable();
+    tables.add(table);
+    return table;
+  }
+
+  /**
+   * Отрезки, записанные одним потоком, по именам выполнявших фазы потоков. Обычно это один и тот же поток,
+   * но фазы класса публикуются после `@AfterAll` и могли выполняться в другом потоке.
+   */
+  private static final class SegmentTable {
+    private final Map<String, List<Segment>> workers = new HashMap<>();
+
+    synchronized void record(TestResult result) {
+      List<Segment> segments = workers.computeIfAbsent(result.getThreadName(), key -> new ArrayList<>());
+      Segment last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+      String className = result.getClassName() != null ? result.getClassName() : "N/A";
+      boolean test = TestPhase.TEST_METHOD.equals(result.getPhase());
+      if (last != null && last.className.equals(className) && result.getStartNanos() >= last.startNanos) {
+        last.add(result.getEndNanos(), result.getDurationNanos(), test);
+      } else {
+        Segment segment = new Segment(className, result.getStartNanos());
+        segment.add(result.getEndNanos(), result.getDurationNanos(), test);
+        segments.add(segment);
+      }
+    }
+
+    synchronized boolean isEmpty() {
+      return workers.isEmpty();
+    }
+
+    synchronized void addTo(Map<String, List<Segment>> target) {
+      for (Map.Entry<String, List<Segment>> entry : workers.entrySet()) {
+        List<Segment> segments = target.computeIfAbsent(entry.getKey(), key -> new ArrayList<>());
+        for (Segment segment : entry.getValue()) {
+          segments.add(segment.copy());
+        }
+      }
+    }
+
+    synchronized void clear() {
+      workers.clear();
+    }
+  }
+
+  /**
+   * Непрерывный отрезок выполнения одного класса в одном потоке.
+   */
+  static final class Segment {
+    final String className;
+    final long startNanos;
+    long endNanos;
+    // Сумма длительностей фаз; меньше длины отрезка на накладные расходы JUnit между фазами
+    long busyNanos;
+    int phases;
+    int tests;
+
+    Segment(String className, long startNanos) {
+      this.className = className;
+      this.startNanos = startNanos;
+      this.endNanos = startNanos;
+    }
+
+    void add(long endNanos, long durationNanos, boolean test) {
+      this.endNanos = Math.max(this.endNanos, endNanos);
+      busyNanos += durationNanos;
+      phases++;
+      if (test) {
+        tests++;
+      }
+    }
+
+    void merge(Segment other) {
+      endNanos = Math.max(endNanos, other.endNanos);
+      busyNanos += other.busyNanos;
+      phases += other.phases;
+      tests += other.tests;
+    }
+
+    Segment copy() {
+      Segment copy = new Segment(className, startNanos);
+      copy.merge(this);
+      return copy;
+    }
+  }
+}
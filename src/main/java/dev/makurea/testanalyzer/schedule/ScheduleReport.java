@@ -0,0 +1,119 @@
+package dev.makurea.testanalyzer.schedule;
+
+import java.util.List;
+
+/*
+ * Класс `ScheduleReport` — содержимое файла `test-analyzer-schedule.json`: загрузка рабочих потоков
+ * с диаграммой Ганта, выполнение классов, самая длинная последовательная цепочка классов и советы
+ * по сокращению времени прогона ({@link ScheduleAnalyzer}).
+ */
+public class ScheduleReport {
+  private final long wallNanos;
+  private final long busyNanos;
+  private final int availableProcessors;
+  private final long estimatedWallNanos;
+  private final long criticalChainNanos;
+  private final int segmentsOmitted;
+  private final List<WorkerUsage> workers;
+  private final List<ClassSpan> classes;
+  private final List<ClassSpan> criticalChain;
+  private final List<ScheduleSuggestion> suggestions;
+
+  ScheduleReport(long wallNanos, long busyNanos, int availableProcessors, long estimatedWallNanos,
+      long criticalChainNanos, int segmentsOmitted, List<WorkerUsage> workers, List<ClassSpan> classes,
+      List<ClassSpan> criticalChain, List<ScheduleSuggestion> suggestions) {
+    this.wallNanos = wallNanos;
+    this.busyNanos = busyNanos;
+    this.availableProcessors = availableProcessors;
+    this.estimatedWallNanos = estimatedWallNanos;
+    this.criticalChainNanos = criticalChainNanos;
+    this.segmentsOmitted = segmentsOmitted;
+    this.workers = workers;
+    this.classes = classes;
+    this.criticalChain = criticalChain;
+    this.suggestions = suggestions;
+  }
+
+  /**
+   * @return Время от начала первой до окончания последней фазы прогона в мс.
+   */
+  public double getWallMs() {
+    return wallNanos / 1e6;
+  }
+
+  /**
+   * @return Сумма длительностей всех фаз в мс.
+   */
+  public double getBusyMs() {
+    return busyNanos / 1e6;
+  }
+
+  public int getWorkerCount() {
+    return workers.size();
+  }
+
+  public int getAvailableProcessors() {
+    return availableProcessors;
+  }
+
+  /**
+   * @return Средняя загрузка рабочих потоков (от 0 до 1).
+   */
+  public double getUtilization() {
+    return wallNanos == 0 || workers.isEmpty() ? 0 : Math.min(1, (double) busyNanos / wallNanos / workers.size());
+  }
+
+  /**
+   * @return Среднее количество одновременно выполнявшихся фаз.
+   */
+  public double getParallelism() {
+    return wallNanos == 0 ? 0 : (double) busyNanos / wallNanos;
+  }
+
+  /**
+   * @return Оценка времени прогона при распределении классов по тем же потокам от длинных к коротким, в мс
+   *     (см. {@link ScheduleAnalyzer}).
+   */
+  public double getEstimatedWallMs() {
+    return estimatedWallNanos / 1e6;
+  }
+
+  /**
+   * @return Суммарное время классов самой длинной последовательной цепочки в мс.
+   */
+  public double getCriticalChainMs() {
+    return criticalChainNanos / 1e6;
+  }
+
+  /**
+   * @return Количество коротких отрезков, не попавших в диаграмму Ганта (учтены в загрузке).
+   */
+  public int getSegmentsOmitted() {
+    return segmentsOmitted;
+  }
+
+  public List<WorkerUsage> getWorkers() {
+    return workers;
+  }
+
+  /**
+   * @return Классы по убыванию суммарной длительности фаз.
+   */
+  public List<ClassSpan> getClasses() {
+    return classes;
+  }
+
+  /**
+   * @return Классы самой длинной цепочки, в которой каждый следующий класс начался после окончания предыдущего.
+   */
+  public List<ClassSpan> getCriticalChain() {
+    return criticalChain;
+  }
+
+  /**
+   * @return Советы по убыванию оценки выигрыша.
+   */
+  public List<ScheduleSuggestion> getSuggestions() {
+    return suggestions;
+  }
+}
@@ -0,0 +1,76 @@
+package dev.makurea.testanalyzer.schedule;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+
+/*
+ * Класс `ScheduleSuggestion` — совет по сокращению общего времени прогона с оценкой выигрыша.
+ * Оценки получены по длительностям текущего прогона и не учитывают зависимости между классами.
+ */
+public class ScheduleSuggestion {
+
+  /**
+   * Вид совета.
+   */
+  public enum Kind {
+    /** Тесты выполнялись в одном потоке, хотя процессоров больше. */
+    ENABLE_PARALLEL,
+    /** Классы выполнялись последовательно, хотя потоков несколько. */
+    CONCURRENT_CLASSES,
+    /** Длинный класс выполнялся в одном потоке и ограничивает время прогона. */
+    CONCURRENT_METHODS,
+    /** Класс выполнялся монопольно: в это время другие классы не выполнялись. */
+    EXCLUSIVE_CLASS,
+    /** Другое распределение классов по потокам сокращает прогон. */
+    REGROUP_CLASSES
+  }
+
+  private final Kind kind;
+  private final String message;
+  private final long savingNanos;
+  private final List<String> classes;
+  private final List<List<String>> groups;
+
+  ScheduleSuggestion(Kind kind, String message, long savingNanos, List<String> classes, List<List<String>> groups) {
+    this.kind = kind;
+    this.message = message;
+    this.savingNanos = savingNanos;
+    this.classes = classes;
+    this.groups = groups;
+  }
+
+  public Kind getKind() {
+    return kind;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+
+  /**
+   * @return Оценка сокращения времени прогона в мс.
+   */
+  public double getEstimatedSavingMs() {
+    return savingNanos / 1e6;
+  }
+
+  /**
+   * @return Классы, к которым относится совет.
+   */
+  @JsonInclude(JsonInclude.Include.NON_EMPTY)
+  public List<String> getClasses() {
+    return classes;
+  }
+
+  /**
+   * @return Предлагаемые группы классов по потокам (для {@link Kind#REGROUP_CLASSES}).
+   */
+  @JsonInclude(JsonInclude.Include.NON_EMPTY)
+  public List<List<String>> getGroups() {
+    return groups;
+  }
+
+  long savingNanos() {
+    return savingNanos;
+  }
+}
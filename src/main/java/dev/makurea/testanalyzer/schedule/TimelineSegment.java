@@ -0,0 +1,47 @@
+package dev.makurea.testanalyzer.schedule;
+
+/*
+ * Класс `TimelineSegment` — отрезок диаграммы Ганта: непрерывное выполнение одного класса в одном потоке.
+ * Моменты отсчитываются от начала первой фазы прогона.
+ */
+public class TimelineSegment {
+  private final String className;
+  private final long startNanos;
+  private final long endNanos;
+  private final long busyNanos;
+  private final int tests;
+
+  TimelineSegment(String className, long startNanos, long endNanos, long busyNanos, int tests) {
+    this.className = className;
+    this.startNanos = startNanos;
+    this.endNanos = endNanos;
+    this.busyNanos = busyNanos;
+    this.tests = tests;
+  }
+
+  public String getClassName() {
+    return className;
+  }
+
+  public double getStartMs() {
+    return startNanos / 1e6;
+  }
+
+  public double getEndMs() {
+    return endNanos / 1e6;
+  }
+
+  /**
+   * @return Сумма длительностей фаз отрезка в мс.
+   */
+  public double getBusyMs() {
+    return busyNanos / 1e6;
+  }
+
+  /**
+   * @return Количество тестовых методов, выполненных в отрезке.
+   */
+  public int getTests() {
+    return tests;
+  }
+}
@@ -0,0 +1,66 @@
+package dev.makurea.testanalyzer.schedule;
+
+import java.util.List;
+
+/*
+ * Класс `WorkerUsage` — загрузка одного рабочего потока: время выполнения фаз, простой
+ * относительно всего прогона и отрезки диаграммы Ганта.
+ */
+public class WorkerUsage {
+  private final String thread;
+  private final long busyNanos;
+  private final long wallNanos;
+  private final long firstStartNanos;
+  private final long lastEndNanos;
+  private final List<TimelineSegment> segments;
+
+  WorkerUsage(String thread, long busyNanos, long wallNanos, long firstStartNanos, long lastEndNanos,
+      List<TimelineSegment> segments) {
+    this.thread = thread;
+    this.busyNanos = busyNanos;
+    this.wallNanos = wallNanos;
+    this.firstStartNanos = firstStartNanos;
+    this.lastEndNanos = lastEndNanos;
+    this.segments = segments;
+  }
+
+  public String getThread() {
+    return thread;
+  }
+
+  /**
+   * @return Сумма длительностей фаз, выполненных потоком, в мс.
+   */
+  public double getBusyMs() {
+    return busyNanos / 1e6;
+  }
+
+  /**
+   * @return Время прогона, в которое поток не выполнял фазы тестов, в мс.
+   */
+  public double getIdleMs() {
+    return Math.max(0, wallNanos - busyNanos) / 1e6;
+  }
+
+  /**
+   * @return Доля времени прогона, занятая фазами тестов (от 0 до 1).
+   */
+  public double getUtilization() {
+    return wallNanos == 0 ? 0 : Math.min(1, (double) busyNanos / wallNanos);
+  }
+
+  public double getFirstStartMs() {
+    return firstStartNanos / 1e6;
+  }
+
+  public double getLastEndMs() {
+    return lastEndNanos / 1e6;
+  }
+
+  /**
+   * @return Отрезки диаграммы Ганта в порядке начала (не больше `testanalyzer.schedule.maxSegments` на весь отчёт).
+   */
+  public List<TimelineSegment> getSegments() {
+    return segments;
+  }
+}
@@ -0,0 +1,102 @@
+package dev.makurea.testanalyzer.shard;
+
+import dev.makurea.testanalyzer.core.TestAnalyzerConfig;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.junit.platform.engine.FilterResult;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.support.descriptor.ClassSource;
+import org.junit.platform.launcher.PostDiscoveryFilter;
+
+/*
+ * Класс `ShardFilter` оставляет в прогоне только тестовые классы шарда K из N по плану {@link ShardPlanner}.
+ * Фильтр регистрируется в JUnit Platform автоматически (`META-INF/services`) и ничего не отбирает,
+ * пока не задано количество шардов.
+ *
+ * План строится один раз для каждого тестового движка по всем найденным им классам. Локальная история
+ * каждой машины после шардированного прогона содержит только ее классы, поэтому планы машин разошлись бы:
+ * длительности берутся только из общей истории `shard.history` (артефакт CI, одинаковый на всех машинах).
+ * Без нее классы распределяются по хешу имени — тоже одинаково на всех машинах, но без учета длительности.
+ *
+ * Настройки:
+ *   testanalyzer.shard.count — количество шардов (0 — без шардирования);
+ *   testanalyzer.shard.index — номер шарда этой машины, от 1 до `shard.count`;
+ *   testanalyzer.shard.history — каталог отчётов с результатами всех шардов или файл индекса
+ *                                {@link dev.makurea.testanalyzer.order.OrderIndex#FILENAME}.
+ */
+public class ShardFilter implements PostDiscoveryFilter {
+
+  private final int count = TestAnalyzerConfig.getInt("shard.count", 0);
+  private final int index = TestAnalyzerConfig.getInt("shard.index", 0);
+  private final String history = TestAnalyzerConfig.getString("shard.history", null);
+  private TestDescriptor planRoot;
+  private ShardPlan plan;
+
+  public ShardFilter() {
+    if (count > 0 && (index < 1 || index > count)) {
+      throw new IllegalArgumentException(
+          "testanalyzer.shard.index должен быть от 1 до " + count + ", задано: " + index);
+    }
+  }
+
+  @Override
+  public FilterResult apply(TestDescriptor descriptor) {
+    // JUnit удаляет только отклоненные листья, а опустевшие контейнеры отбрасывает сам,
+    // поэтому решение принимается для каждого узла по классу верхнего уровня, в котором он находится
+    String className = null;
+    TestDescriptor root = descriptor;
+    while (true) {
+      String source = root.getSource().filter(ClassSource.class::isInstance)
+          .map(classSource -> ((ClassSource) classSource).getClassName()).orElse(null);
+      if (source != null) {
+        className = ShardPlanner.topLevel(source);
+      }
+      if (!root.getParent().isPresent()) {
+        break;
+      }
+      root = root.getParent().get();
+    }
+    if (count <= 1 || className == null) {
+      return FilterResult.included(null);
+    }
+    int shard = planFor(root).shardOf(className);
+    return shard == index || shard == 0
+        ? FilterResult.included("shard " + index + "/" + count)
+        : FilterResult.excluded("assigned to shard " + shard + "/" + count);
+  }
+
+  private synchronized ShardPlan planFor(TestDescriptor root) {
+    if (root != planRoot) {
+      List<String> classes = new ArrayList<>();
+      root.accept(node -> node.getSource().filter(ClassSource.class::isInstance)
+          .ifPresent(source -> classes.add(((ClassSource) source).getClassName())));
+      ShardPlanner planner = new ShardPlanner(durations());
+      plan = planner.plan(classes, count);
+      planRoot = root;
+      ShardPlan.Shard own = plan.getShards().get(index - 1);
+      System.out.println("[TestAnalyzer] Шард " + index + "/" + count + " (" + root.getDisplayName() + "): классов "
+          + own.getClasses().size() + (planner.hasHistory()
+          ? ", прогноз " + ShardPlanner.formatDuration(own.getPredictedNanos())
+          + ", самый длинный шард " + ShardPlanner.formatDuration(plan.getMakespanNanos())
+          + (own.getEstimatedClasses() > 0 ? ", без истории: " + own.getEstimatedClasses() : "")
+          : ", распределение по хешу имени класса (testanalyzer.shard.history не задан или пуст)"));
+    }
+    return plan;
+  }
+
+  private Map<String, Long> durations() {
+    if (history == null || history.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    try {
+      return ShardPlanner.loadDurations(new File(history));
+    } catch (IOException e) {
+      // Машина без общей истории построила бы другой план, поэтому прогон не продолжается
+      throw new IllegalArgumentException("testanalyzer.shard.history недоступна: " + history + " (" + e + ")", e);
+    }
+  }
+}
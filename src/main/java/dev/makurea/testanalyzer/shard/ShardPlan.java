@@ -0,0 +1,108 @@
+package dev.makurea.testanalyzer.shard;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Класс `ShardPlan` — распределение тестовых классов по шардам, построенное {@link ShardPlanner}:
+ * какие классы выполняет каждый шард и сколько времени он займет по истории прошлых прогонов.
+ * Шарды нумеруются с 1, как номер машины CI.
+ */
+public class ShardPlan {
+
+  private final List<Shard> shards;
+  private final Map<String, Integer> assignment = new HashMap<>();
+
+  ShardPlan(int shardCount) {
+    shards = new ArrayList<>(shardCount);
+    for (int i = 1; i <= shardCount; i++) {
+      shards.add(new Shard(i));
+    }
+  }
+
+  void assign(Shard shard, String className, long predictedNanos, boolean estimated) {
+    shard.classes.add(className);
+    shard.predictedNanos += predictedNanos;
+    if (estimated) {
+      shard.estimatedClasses++;
+    }
+    assignment.put(className, shard.index);
+  }
+
+  /**
+   * Возвращает номер шарда, которому назначен класс.
+   *
+   * @param className Полное имя тестового класса верхнего уровня.
+   * @return Номер шарда с 1 или 0, если класс не участвовал в планировании.
+   */
+  public int shardOf(String className) {
+    return assignment.getOrDefault(className, 0);
+  }
+
+  /**
+   * Возвращает шарды плана.
+   *
+   * @return Шарды по возрастанию номера.
+   */
+  public List<Shard> getShards() {
+    return Collections.unmodifiableList(shards);
+  }
+
+  /**
+   * Возвращает прогноз самого длинного шарда — время, через которое завершится весь прогон.
+   *
+   * @return Длительность в наносекундах.
+   */
+  public long getMakespanNanos() {
+    long max = 0;
+    for (Shard shard : shards) {
+      max = Math.max(max, shard.predictedNanos);
+    }
+    return max;
+  }
+
+  /**
+   * Шард плана.
+   */
+  public static final class Shard {
+    private final int index;
+    private final List<String> classes = new ArrayList<>();
+    private long predictedNanos;
+    private int estimatedClasses;
+
+    Shard(int index) {
+      this.index = index;
+    }
+
+    /**
+     * @return Номер шарда с 1.
+     */
+    public int getIndex() {
+      return index;
+    }
+
+    /**
+     * @return Классы шарда в порядке назначения (от длинных к коротким).
+     */
+    public List<String> getClasses() {
+      return Collections.unmodifiableList(classes);
+    }
+
+    /**
+     * @return Прогноз длительности шарда в наносекундах.
+     */
+    public long getPredictedNanos() {
+      return predictedNanos;
+    }
+
+    /**
+     * @return Сколько классов шарда не было в истории и оценено средней длительностью.
+     */
+    public int getEstimatedClasses() {
+      return estimatedClasses;
+    }
+  }
+}
@@ -0,0 +1,189 @@
+package dev.makurea.testanalyzer.shard;
+
+import dev.makurea.testanalyzer.order.OrderIndex;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/*
+ * Класс `ShardPlanner` распределяет тестовые классы по N шардам (машинам CI) так, чтобы шарды
+ * завершались примерно одновременно. Длительность класса берется из индекса истории {@link OrderIndex}
+ * и включает все его фазы и вложенные (`@Nested`) классы.
+ *
+ * Алгоритм — LPT (Longest Processing Time): классы по убыванию длительности по очереди назначаются
+ * наименее загруженному шарду. Прогноз самого длинного шарда не хуже 4/3 оптимального.
+ * Классы без истории оцениваются средней длительностью известных классов.
+ *
+ * План детерминирован: при одинаковых истории и наборе классов все машины получают одинаковое
+ * распределение (равные длительности упорядочиваются по имени класса, равная загрузка — по номеру шарда).
+ * Поэтому история должна быть общей для всех машин ({@link #loadDurations(File)}). Если истории нет совсем,
+ * класс назначается шарду по хешу своего имени: такое распределение не зависит ни от истории,
+ * ни от набора остальных классов.
+ *
+ * Использование (печать плана по каталогу отчётов или файлу индекса):
+ *   java -cp <classpath> dev.makurea.testanalyzer.shard.ShardPlanner <reportDir|indexFile> <shardCount> [--classes]
+ */
+public class ShardPlanner {
+
+  private final Map<String, Long> durations;
+
+  /**
+   * @param classDurations Длительности классов в наносекундах по полным именам, включая вложенные классы.
+   */
+  public ShardPlanner(Map<String, Long> classDurations) {
+    // Длительность вложенного класса добавляется к классу верхнего уровня: шардом выбирается только он
+    this.durations = new TreeMap<>();
+    for (Map.Entry<String, Long> entry : classDurations.entrySet()) {
+      durations.merge(topLevel(entry.getKey()), entry.getValue(), Long::sum);
+    }
+  }
+
+  public static void main(String[] args) {
+    if (args.length < 2) {
+      System.err.println("Usage: ShardPlanner <reportDir|indexFile> <shardCount> [--classes]");
+      System.exit(2);
+    }
+    int shardCount = Integer.parseInt(args[1]);
+    boolean listClasses = args.length > 2 && "--classes".equals(args[2]);
+    ShardPlanner planner;
+    try {
+      planner = new ShardPlanner(loadDurations(new File(args[0])));
+    } catch (IOException e) {
+      System.err.println("[TestAnalyzer] Не удалось прочитать историю " + args[0] + ": " + e.getMessage());
+      System.exit(1);
+      return;
+    }
+    if (planner.durations.isEmpty()) {
+      System.err.println("[TestAnalyzer] В " + args[0] + " нет истории длительностей классов");
+      System.exit(1);
+    }
+    ShardPlan plan = planner.plan(planner.durations.keySet(), shardCount);
+    long total = 0;
+    for (ShardPlan.Shard shard : plan.getShards()) {
+      total += shard.getPredictedNanos();
+    }
+    System.out.printf(Locale.ROOT, "%-6s %8s %12s%n", "Shard", "Classes", "Predicted");
+    for (ShardPlan.Shard shard : plan.getShards()) {
+      System.out.printf(Locale.ROOT, "%-6d %8d %12s%n", shard.getIndex(), shard.getClasses().size(),
+          formatDuration(shard.getPredictedNanos()));
+      if (listClasses) {
+        for (String className : shard.getClasses()) {
+          System.out.printf(Locale.ROOT, "         %-60s %10s%n", className, formatDuration(planner.durations.get(className)));
+        }
+      }
+    }
+    double ideal = (double) total / shardCount;
+    System.out.printf(Locale.ROOT, "Total %s, longest shard %s, ideal %s, imbalance %.1f%%%n",
+        formatDuration(total), formatDuration(plan.getMakespanNanos()), formatDuration((long) ideal),
+        ideal > 0 ? (plan.getMakespanNanos() / ideal - 1) * 100 : 0.0);
+  }
+
+  /**
+   * Загружает длительности классов из общей истории: каталога отчётов (индекс пополняется его файлами
+   * результатов, в том числе файлами всех шардов) или готового файла индекса {@link OrderIndex#FILENAME}.
+   *
+   * @param source Каталог или файл индекса.
+   * @return Длительности классов в наносекундах.
+   * @throws IOException если источник не существует или файл индекса не удалось прочитать.
+   */
+  public static Map<String, Long> loadDurations(File source) throws IOException {
+    if (source.isDirectory()) {
+      return OrderIndex.load(source).classDurations();
+    }
+    if (!source.isFile()) {
+      throw new FileNotFoundException(source.getPath());
+    }
+    return OrderIndex.read(source).classDurations();
+  }
+
+  /**
+   * Проверяет, есть ли в истории хотя бы один класс.
+   *
+   * @return false, если план строится по хешу имен классов.
+   */
+  public boolean hasHistory() {
+    return !durations.isEmpty();
+  }
+
+  /**
+   * Распределяет классы по шардам.
+   *
+   * @param classNames Классы верхнего уровня, которые нужно выполнить (например, найденные JUnit).
+   * @param shardCount Количество шардов.
+   * @return План {@link ShardPlan}.
+   */
+  public ShardPlan plan(Collection<String> classNames, int shardCount) {
+    TreeSet<String> classes = new TreeSet<>();
+    long knownSum = 0;
+    int known = 0;
+    for (String className : classNames) {
+      if (classes.add(topLevel(className)) && durations.containsKey(topLevel(className))) {
+        knownSum += durations.get(topLevel(className));
+        known++;
+      }
+    }
+    long fallback = known > 0 ? Math.max(1, knownSum / known) : 1;
+
+    Comparator<String> longestFirst = Comparator
+        .comparingLong((String className) -> durations.getOrDefault(className, fallback)).reversed()
+        .thenComparing(Comparator.naturalOrder());
+    ArrayList<String> order = new ArrayList<>(classes);
+    order.sort(longestFirst);
+
+    ShardPlan plan = new ShardPlan(Math.max(1, shardCount));
+    if (durations.isEmpty()) {
+      for (String className : classes) {
+        plan.assign(plan.getShards().get(Math.floorMod(hash(className), plan.getShards().size())), className, 0, true);
+      }
+      return plan;
+    }
+    PriorityQueue<ShardPlan.Shard> queue = new PriorityQueue<>(
+        Comparator.comparingLong(ShardPlan.Shard::getPredictedNanos).thenComparingInt(ShardPlan.Shard::getIndex));
+    queue.addAll(plan.getShards());
+    for (String className : order) {
+      ShardPlan.Shard shard = queue.poll();
+      Long duration = durations.get(className);
+      plan.assign(shard, className, duration != null ? duration : fallback, duration == null);
+      queue.add(shard);
+    }
+    return plan;
+  }
+
+  /**
+   * Хеш имени класса, одинаковый во всех JVM (`String.hashCode` определен спецификацией),
+   * с перемешиванием битов, чтобы похожие имена не попадали в соседние шарды по порядку.
+   */
+  static int hash(String className) {
+    int hash = className.hashCode();
+    hash ^= hash >>> 16;
+    hash *= 0x85ebca6b;
+    hash ^= hash >>> 13;
+    hash *= 0xc2b2ae35;
+    hash ^= hash >>> 16;
+    return hash;
+  }
+
+  /**
+   * Имя класса верхнего уровня для вложенного класса (`Outer$Inner` -> `Outer`).
+   */
+  static String topLevel(String className) {
+    int nested = className.indexOf('$');
+    return nested >= 0 ? className.substring(0, nested) : className;
+  }
+
+  static String formatDuration(long nanos) {
+    long seconds = Math.round(nanos / 1e9);
+    if (seconds >= 60) {
+      return String.format(Locale.ROOT, "%dm %02ds", seconds / 60, seconds % 60);
+    }
+    return String.format(Locale.ROOT, "%.3fs", nanos / 1e9);
+  }
+}
@@ -0,0 +1,122 @@
+package dev.makurea.testanalyzer.stats;
+
+/*
+ * Класс `DurationHistogram` — логарифмически-линейная гистограмма длительностей в наносекундах
+ * в духе HdrHistogram.
+ *
+ * Значения меньше 64 нс хранятся точно. Каждый следующий интервал [2^k, 2^(k+1)) делится на 32 равных
+ * корзины, поэтому относительная погрешность перцентиля не превышает 1/32 (около 3%), а в качестве значения
+ * корзины возвращается ее середина. Диапазон — весь положительный `long`, объем памяти ограничен:
+ * счетчики интервала выделяются при первом попадании в него значения, так что для теста с несколькими
+ * замерами гистограмма занимает сотни байт, а полностью заполненная — около 15 КБ.
+ *
+ * Класс не потокобезопасен; синхронизацию обеспечивает владелец.
+ */
+final class DurationHistogram {
+
+  private static final int SUB_BUCKET_BITS = 5;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  // Значения меньше этого порога хранятся точно (интервал 0)
+  private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;
+  // Интервал 0 — точные значения, интервалы 1..57 — степени двойки от 2^6 до 2^62
+  private static final int INTERVALS = 64 - SUB_BUCKET_BITS - 1;
+
+  private final long[][] counts = new long[INTERVALS][];
+  private long totalCount;
+
+  /**
+   * Учитывает одно значение; отрицательные значения считаются нулем.
+   *
+   * @param nanos Длительность в наносекундах.
+   */
+  void record(long nanos) {
+    long value = Math.max(0, nanos);
+    int interval = interval(value);
+    long[] bucket = counts[interval];
+    if (bucket == null) {
+      bucket = new long[interval == 0 ? LINEAR_LIMIT : SUB_BUCKETS];
+      counts[interval] = bucket;
+    }
+    bucket[slot(value, interval)]++;
+    totalCount++;
+  }
+
+  /**
+   * Добавляет счетчики другой гистограммы к этой.
+   *
+   * @param other Гистограмма, которая добавляется к текущей.
+   */
+  void add(DurationHistogram other) {
+    for (int interval = 0; interval < INTERVALS; interval++) {
+      long[] source = other.counts[interval];
+      if (source == null) {
+        continue;
+      }
+      long[] target = counts[interval];
+      if (target == null) {
+        counts[interval] = source.clone();
+        continue;
+      }
+      for (int i = 0; i < source.length; i++) {
+        target[i] += source[i];
+      }
+    }
+    totalCount += other.totalCount;
+  }
+
+  /**
+   * Возвращает приближенное значение перцентиля.
+   *
+   * @param quantile Доля от 0 до 1, например 0.9 для p90.
+   * @return Середина корзины, в которую попадает перцентиль, или 0, если значений нет.
+   */
+  long valueAt(double quantile) {
+    if (totalCount == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(quantile * totalCount));
+    long seen = 0;
+    for (int interval = 0; interval < INTERVALS; interval++) {
+      long[] bucket = counts[interval];
+      if (bucket == null) {
+        continue;
+      }
+      for (int i = 0; i < bucket.length; i++) {
+        seen += bucket[i];
+        if (seen >= rank) {
+          return middle(interval, i);
+        }
+      }
+    }
+    return Long.MAX_VALUE;
+  }
+
+  /**
+   * Номер интервала значения: 0 для значений меньше 64, иначе старший бит значения минус 5.
+   */
+  static int interval(long value) {
+    if (value < LINEAR_LIMIT) {
+      return 0;
+    }
+    int highestBit = 63 - Long.numberOfLeadingZeros(value);
+    return highestBit - SUB_BUCKET_BITS;
+  }
+
+  /**
+   * Номер корзины значения внутри интервала.
+   */
+  static int slot(long value, int interval) {
+    return interval == 0 ? (int) value : (int) (value >>> interval) - SUB_BUCKETS;
+  }
+
+  /**
+   * Середина корзины; для интервала 0 — само значение.
+   */
+  static long middle(int interval, int slot) {
+    if (interval == 0) {
+      return slot;
+    }
+    long lower = (long) (SUB_BUCKETS + slot) << interval;
+    return lower + (1L << (interval - 1));
+  }
+}
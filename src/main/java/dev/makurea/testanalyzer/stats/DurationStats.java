@@ -0,0 +1,58 @@
+package dev.makurea.testanalyzer.stats;
+
+/*
+ * Класс `DurationStats` — потоковая статистика длительностей одной группы результатов
+ * (теста, класса, тега или фазы): количество, сумма, минимум, максимум и гистограмма для перцентилей.
+ * Объем памяти не зависит от количества замеров.
+ *
+ * Класс не потокобезопасен; синхронизацию обеспечивает {@link StatsAggregator}.
+ */
+final class DurationStats {
+  final String name;
+  final String className;
+  private long count;
+  private long sumNanos;
+  private long minNanos = Long.MAX_VALUE;
+  private long maxNanos = Long.MIN_VALUE;
+  private final DurationHistogram histogram = new DurationHistogram();
+
+  DurationStats(String name, String className) {
+    this.name = name;
+    this.className = className;
+  }
+
+  void record(long nanos) {
+    count++;
+    sumNanos += nanos;
+    minNanos = Math.min(minNanos, nanos);
+    maxNanos = Math.max(maxNanos, nanos);
+    histogram.record(nanos);
+  }
+
+  void add(DurationStats other) {
+    count += other.count;
+    sumNanos += other.sumNanos;
+    minNanos = Math.min(minNanos, other.minNanos);
+    maxNanos = Math.max(maxNanos, other.maxNanos);
+    histogram.add(other.histogram);
+  }
+
+  long sumNanos() {
+    return sumNanos;
+  }
+
+  /**
+   * Создает неизменяемую сводку для отчёта. Перцентили ограничены наблюдавшимися минимумом и максимумом,
+   * поэтому для группы из одного замера все они равны самому замеру.
+   *
+   * @return Сводка {@link DurationSummary}.
+   */
+  DurationSummary summary() {
+    return new DurationSummary(name, className, count, sumNanos, minNanos, maxNanos,
+        percentile(0.5), percentile(0.9), percentile(0.99));
+  }
+
+  private long percentile(double quantile) {
+    return Math.max(minNanos, Math.min(maxNanos, histogram.valueAt(quantile)));
+  }
+}
@@ -0,0 +1,80 @@
+package dev.makurea.testanalyzer.stats;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/*
+ * Класс `DurationSummary` — сводка длительностей одной группы результатов для отчёта.
+ * Длительности возвращаются в миллисекундах с дробной частью; перцентили приближенные
+ * (погрешность не больше 3%, см. {@link DurationHistogram}).
+ */
+public class DurationSummary {
+  private final String name;
+  private final String className;
+  private final long count;
+  private final long totalNanos;
+  private final long minNanos;
+  private final long maxNanos;
+  private final long p50Nanos;
+  private final long p90Nanos;
+  private final long p99Nanos;
+
+  DurationSummary(String name, String className, long count, long totalNanos, long minNanos, long maxNanos,
+      long p50Nanos, long p90Nanos, long p99Nanos) {
+    this.name = name;
+    this.className = className;
+    this.count = count;
+    this.totalNanos = totalNanos;
+    this.minNanos = minNanos;
+    this.maxNanos = maxNanos;
+    this.p50Nanos = p50Nanos;
+    this.p90Nanos = p90Nanos;
+    this.p99Nanos = p99Nanos;
+  }
+
+  /**
+   * @return Имя группы: имя теста, класса, тега или фазы.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * @return Имя тестового класса; заполняется только для сводок по тестам.
+   */
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public String getClassName() {
+    return className;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public double getTotalMs() {
+    return totalNanos / 1e6;
+  }
+
+  public double getMeanMs() {
+    return count == 0 ? 0 : totalNanos / 1e6 / count;
+  }
+
+  public double getMinMs() {
+    return minNanos / 1e6;
+  }
+
+  public double getMaxMs() {
+    return maxNanos / 1e6;
+  }
+
+  public double getP50Ms() {
+    return p50Nanos / 1e6;
+  }
+
+  public double getP90Ms() {
+    return p90Nanos / 1e6;
+  }
+
+  public double getP99Ms() {
+    return p99Nanos / 1e6;
+  }
+}
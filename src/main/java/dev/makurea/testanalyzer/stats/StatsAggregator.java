@@ -0,0 +1,178 @@
+package dev.makurea.testanalyzer.stats;
+
+import dev.makurea.testanalyzer.core.TestAnalyzerConfig;
+import dev.makurea.testanalyzer.core.TestPhase;
+import dev.makurea.testanalyzer.core.TestResult;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/*
+ * Класс `StatsAggregator` — инкрементальная агрегация длительностей по мере поступления результатов.
+ *
+ * Для каждой группы хранится {@link DurationStats} (количество, сумма, минимум, максимум, p50/p90/p99)
+ * фиксированного размера, поэтому память зависит от количества групп, а не от количества результатов:
+ *   - по фазам — все результаты по имени фазы;
+ *   - по тестам, классам и тегам — результаты фазы TestMethod.
+ *
+ * Как и {@link dev.makurea.testanalyzer.core.TestRunAggregator}, агрегатор пишет в таблицу текущего потока,
+ * блокировку которой практически всегда захватывает только ее владелец; таблицы потоков сливаются
+ * только при создании сводки.
+ *
+ * Настройки:
+ *   testanalyzer.stats.enabled  — вести статистику и записывать сводку в отчёт (true);
+ *   testanalyzer.stats.topTests — сколько тестов с наибольшей суммарной длительностью попадает в сводку (1000; 0 — все).
+ */
+public class StatsAggregator {
+
+  private final int topTests = Math.max(0, TestAnalyzerConfig.getInt("stats.topTests", 1000));
+  private final List<StatsTable> tables = new CopyOnWriteArrayList<>();
+  private final ThreadLocal<StatsTable> localTable = ThreadLocal.withInitial(this::registerTable);
+
+  /**
+   * Проверяет, включена ли статистика.
+   *
+   * @return true, если статистика включена настройкой `testanalyzer.stats.enabled`.
+   */
+  public static boolean isEnabled() {
+    return TestAnalyzerConfig.getBoolean("stats.enabled", true);
+  }
+
+  /**
+   * Учитывает результат фазы теста. Метод может вызываться одновременно из любого количества потоков.
+   *
+   * @param result Результат фазы теста.
+   */
+  public void record(TestResult result) {
+    if (result != null) {
+      localTable.get().record(result);
+    }
+  }
+
+  /**
+   * Проверяет, были ли учтены результаты.
+   *
+   * @return true, если с момента создания или последнего сброса результатов не было.
+   */
+  public boolean isEmpty() {
+    for (StatsTable table : tables) {
+      if (table.results() > 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Сливает таблицы потоков и создает сводку. Группы каждого измерения отсортированы
+   * по убыванию суммарной длительности.
+   *
+   * @return Сводка {@link StatsReport}.
+   */
+  public StatsReport summary() {
+    StatsTable merged = new StatsTable();
+    for (StatsTable table : tables) {
+      table.addTo(merged);
+    }
+    return new StatsReport(merged.results,
+        summaries(merged.phases, 0),
+        summaries(merged.classes, 0),
+        summaries(merged.tags, 0),
+        summaries(merged.tests, topTests),
+        merged.tests.size());
+  }
+
+  /**
+   * Сбрасывает накопленную статистику, например после итогового отчёта сессии.
+   */
+  public void reset() {
+    for (StatsTable table : tables) {
+      table.clear();
+    }
+  }
+
+  private StatsTable registerTable() {
+    StatsTable table = new StatsTable();
+    tables.add(table);
+    return table;
+  }
+
+  private static List<DurationSummary> summaries(Map<String, DurationStats> groups, int limit) {
+    List<DurationStats> sorted = new ArrayList<>(groups.values());
+    sorted.sort(Comparator.comparingLong(DurationStats::sumNanos).reversed());
+    if (limit > 0 && sorted.size() > limit) {
+      sorted = sorted.subList(0, limit);
+    }
+    List<DurationSummary> summaries = new ArrayList<>(sorted.size());
+    for (DurationStats stats : sorted) {
+      summaries.add(stats.summary());
+    }
+    return summaries;
+  }
+
+  /**
+   * Статистика, накопленная одним потоком.
+   */
+  private static final class StatsTable {
+    private final Map<String, DurationStats> phases = new HashMap<>();
+    private final Map<String, DurationStats> tests = new HashMap<>();
+    private final Map<String, DurationStats> classes = new HashMap<>();
+    private final Map<String, DurationStats> tags = new HashMap<>();
+    private long results;
+
+    synchronized void record(TestResult result) {
+      long nanos = result.getDurationNanos();
+      results++;
+      group(phases, String.valueOf(result.getPhase())).record(nanos);
+      if (!TestPhase.TEST_METHOD.equals(result.getPhase())) {
+        return;
+      }
+      String testKey = result.getTestId() != null ? result.getTestId() : result.getTestName();
+      tests.computeIfAbsent(String.valueOf(testKey), key -> new DurationStats(result.getTestName(), result.getClassName()))
+          .record(nanos);
+      group(classes, result.getClassName() != null ? result.getClassName() : "N/A").record(nanos);
+      for (String tag : result.getTags()) {
+        group(tags, tag).record(nanos);
+      }
+    }
+
+    synchronized long results() {
+      return results;
+    }
+
+    synchronized void addTo(StatsTable target) {
+      target.results += results;
+      addGroups(phases, target.phases);
+      addGroups(tests, target.tests);
+      addGroups(classes, target.classes);
+      addGroups(tags, target.tags);
+    }
+
+    synchronized void clear() {
+      phases.clear();
+      tests.clear();
+      classes.clear();
+      tags.clear();
+      results = 0;
+    }
+
+    private static DurationStats group(Map<String, DurationStats> groups, String name) {
+      DurationStats stats = groups.get(name);
+      if (stats == null) {
+        stats = new DurationStats(name, null);
+        groups.put(name, stats);
+      }
+      return stats;
+    }
+
+    private static void addGroups(Map<String, DurationStats> source, Map<String, DurationStats> target) {
+      for (Map.Entry<String, DurationStats> entry : source.entrySet()) {
+        DurationStats stats = entry.getValue();
+        target.computeIfAbsent(entry.getKey(), key -> new DurationStats(stats.name, stats.className)).add(stats);
+      }
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package dev.makurea.testanalyzer.stats;
+
+import java.util.List;
+
+/*
+ * Класс `StatsReport` — содержимое файла `test-analyzer-summary.json`: сводки длительностей по фазам,
+ * классам, тегам и тестам, рассчитанные {@link StatsAggregator} без хранения самих результатов.
+ */
+public class StatsReport {
+  private final long results;
+  private final List<DurationSummary> phases;
+  private final List<DurationSummary> classes;
+  private final List<DurationSummary> tags;
+  private final List<DurationSummary> tests;
+  private final long testCount;
+
+  StatsReport(long results, List<DurationSummary> phases, List<DurationSummary> classes, List<DurationSummary> tags,
+      List<DurationSummary> tests, long testCount) {
+    this.results = results;
+    this.phases = phases;
+    this.classes = classes;
+    this.tags = tags;
+    this.tests = tests;
+    this.testCount = testCount;
+  }
+
+  /**
+   * @return Количество учтенных результатов фаз.
+   */
+  public long getResults() {
+    return results;
+  }
+
+  public List<DurationSummary> getPhases() {
+    return phases;
+  }
+
+  /**
+   * @return Сводки фазы TestMethod по классам.
+   */
+  public List<DurationSummary> getClasses() {
+    return classes;
+  }
+
+  /**
+   * @return Сводки фазы TestMethod по тегам.
+   */
+  public List<DurationSummary> getTags() {
+    return tags;
+  }
+
+  /**
+   * @return Сводки фазы TestMethod по тестам с наибольшей суммарной длительностью
+   *     (не больше `testanalyzer.stats.topTests`).
+   */
+  public List<DurationSummary> getTests() {
+    return tests;
+  }
+
+  /**
+   * @return Общее количество различных тестов, включая не попавшие в {@link #getTests()}.
+   */
+  public long getTestCount() {
+    return testCount;
+  }
+}
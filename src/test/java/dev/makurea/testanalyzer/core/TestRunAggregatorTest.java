@@ -0,0 +1,79 @@
+package dev.makurea.testanalyzer.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/*
+ * Нагрузочная проверка `TestRunAggregator`: результаты, добавленные одновременно из 64+ потоков,
+ * не теряются и не дублируются.
+ */
+class TestRunAggregatorTest {
+
+  private static final int THREADS = 96;
+  private static final int PER_THREAD = 10_000;
+
+  @Test
+  void keepsEveryResultAddedConcurrently() throws Exception {
+    TestRunAggregator aggregator = new TestRunAggregator();
+    CountDownLatch ready = new CountDownLatch(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    List<Future<?>> futures = new ArrayList<>(THREADS);
+    try {
+      for (int t = 0; t < THREADS; t++) {
+        int thread = t;
+        futures.add(executor.submit(() -> {
+          ready.countDown();
+          start.await();
+          for (int i = 0; i < PER_THREAD; i++) {
+            aggregator.addResult(TestResult.builder()
+                .testName("test" + thread + "_" + i + "()")
+                .phase(TestPhase.TEST_METHOD)
+                .build());
+          }
+          return null;
+        }));
+      }
+      assertTrue(ready.await(30, TimeUnit.SECONDS), "Потоки не запустились");
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get(60, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    List<TestResult> results = aggregator.getAllResults();
+    assertEquals(THREADS * PER_THREAD, results.size());
+    Set<TestResult> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+    distinct.addAll(results);
+    assertEquals(THREADS * PER_THREAD, distinct.size());
+  }
+
+  @Test
+  void clearResultsDropsResultsOfAllThreads() throws Exception {
+    TestRunAggregator aggregator = new TestRunAggregator();
+    Thread worker = new Thread(() -> aggregator.addResult(
+        TestResult.builder().testName("other()").phase(TestPhase.TEST_METHOD).build()));
+    worker.start();
+    worker.join();
+    aggregator.addResult(TestResult.builder().testName("own()").phase(TestPhase.TEST_METHOD).build());
+    assertEquals(2, aggregator.getAllResults().size());
+
+    aggregator.clearResults();
+
+    assertEquals(0, aggregator.getAllResults().size());
+  }
+}
@@ -0,0 +1,107 @@
+package dev.makurea.testanalyzer.history;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/*
+ * Проверка `HistoryStore`: загрузка сегментов прогонов, сжатие с ограничением `maxRuns` и удалением
+ * давно не выполнявшихся тестов, восстановление после сжатия, прерванного до удаления сегментов прогонов.
+ */
+class HistoryStoreTest {
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void loadsSamplesFromRunSegments() throws IOException {
+    HistoryStore store = new HistoryStore(dir.toFile(), 10, 10);
+    store.appendRun(1, List.of(record("A", 1, 100)));
+    store.appendRun(2, List.of(record("A", 2, 200), record("B", 2, 50)));
+
+    Map<String, TestHistory> histories = store.load();
+
+    assertArrayEquals(new long[] {1, 2}, histories.get("A").getRuns());
+    assertArrayEquals(new long[] {100, 200}, histories.get("A").getDurationsNanos());
+    assertArrayEquals(new long[] {2}, histories.get("B").getRuns());
+  }
+
+  @Test
+  void compactsOnlyAfterThreshold() throws IOException {
+    HistoryStore store = new HistoryStore(dir.toFile(), 10, 2);
+    store.appendRun(1, List.of(record("A", 1, 100)));
+    store.appendRun(2, List.of(record("A", 2, 100)));
+
+    assertFalse(store.compactIfNeeded(store.load()));
+    assertEquals(List.of("run-0000000000001.ndjson", "run-0000000000002.ndjson"), files());
+
+    store.appendRun(3, List.of(record("A", 3, 100)));
+    assertTrue(store.compactIfNeeded(store.load()));
+    assertEquals(List.of("compacted-0000000000003.ndjson"), files());
+    assertArrayEquals(new long[] {1, 2, 3}, store.load().get("A").getRuns());
+  }
+
+  @Test
+  void keepsMaxRunsSamplesAndDropsTestsNotSeenRecently() throws IOException {
+    HistoryStore store = new HistoryStore(dir.toFile(), 3, 3);
+    store.appendRun(1, List.of(record("A", 1, 10), record("B", 1, 99)));
+    for (long run = 2; run <= 4; run++) {
+      store.appendRun(run, List.of(record("A", run, run * 10)));
+    }
+
+    assertTrue(store.compactIfNeeded(store.load()));
+    Map<String, TestHistory> histories = store.load();
+
+    // B последний раз выполнялся в прогоне 1, а последние 3 прогона — 2..4
+    assertFalse(histories.containsKey("B"));
+    assertArrayEquals(new long[] {2, 3, 4}, histories.get("A").getRuns());
+    assertArrayEquals(new long[] {20, 30, 40}, histories.get("A").getDurationsNanos());
+  }
+
+  @Test
+  void skipsRunSegmentsLeftByInterruptedCompaction() throws IOException {
+    HistoryStore store = new HistoryStore(dir.toFile(), 10, 2);
+    for (long run = 1; run <= 3; run++) {
+      store.appendRun(run, List.of(record("A", run, run * 10)));
+    }
+    List<byte[]> segments = new ArrayList<>();
+    for (String name : files()) {
+      segments.add(Files.readAllBytes(dir.resolve(name)));
+    }
+    assertTrue(store.compactIfNeeded(store.load()));
+    // Сжатие прервалось до удаления сегментов 2 и 3: они уже входят в compacted-3
+    Files.write(dir.resolve("run-0000000000002.ndjson"), segments.get(1));
+    Files.write(dir.resolve("run-0000000000003.ndjson"), segments.get(2));
+    store.appendRun(4, List.of(record("A", 4, 40)));
+
+    TestHistory history = store.load().get("A");
+
+    // Повторно прочитанные образцы сложились бы с образцами того же прогона
+    assertArrayEquals(new long[] {1, 2, 3, 4}, history.getRuns());
+    assertArrayEquals(new long[] {10, 20, 30, 40}, history.getDurationsNanos());
+  }
+
+  private List<String> files() {
+    String[] names = dir.toFile().list();
+    Arrays.sort(names);
+    return Arrays.asList(names);
+  }
+
+  private static TestHistory record(String key, long run, long durationNanos) {
+    TestHistory history = new TestHistory(key, key + "()", "Sample");
+    history.addSample(run, durationNanos, Integer.MAX_VALUE);
+    return history;
+  }
+}
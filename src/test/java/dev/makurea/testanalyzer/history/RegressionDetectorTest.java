@@ -0,0 +1,85 @@
+package dev.makurea.testanalyzer.history;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+/*
+ * Проверка `RegressionDetector`: рост медианы или 95-го перцентиля недавних прогонов относительно базовых
+ * с учетом порога, минимального прироста, числа базовых прогонов и тестов текущего прогона.
+ */
+class RegressionDetectorTest {
+
+  private final RegressionDetector detector = new RegressionDetector(0.2, 1_000, 3, 3);
+
+  @Test
+  void detectsMedianRegression() {
+    TestHistory history = history("A", 100_000, 100_000, 100_000, 100_000, 100_000, 150_000, 150_000, 150_000);
+
+    List<Regression> regressions = detector.detect(List.of(history), Set.of("A"));
+
+    assertEquals(1, regressions.size());
+    Regression regression = regressions.get(0);
+    assertEquals(0.1, regression.getBaselineMedianMs(), 1e-9);
+    assertEquals(0.15, regression.getRecentMedianMs(), 1e-9);
+    assertEquals(5, regression.getBaselineRuns());
+    assertEquals(3, regression.getRecentRuns());
+  }
+
+  @Test
+  void detectsP95RegressionWithUnchangedMedian() {
+    TestHistory history = history("A", 100_000, 100_000, 100_000, 100_000, 100_000, 100_000, 100_000, 500_000);
+
+    List<Regression> regressions = detector.detect(List.of(history), Set.of("A"));
+
+    assertEquals(1, regressions.size());
+    assertEquals(0.0, regressions.get(0).getMedianChangePercent(), 1e-9);
+    assertEquals(0.5, regressions.get(0).getRecentP95Ms(), 1e-9);
+  }
+
+  @Test
+  void ignoresGrowthBelowThreshold() {
+    TestHistory history = history("A", 100_000, 100_000, 100_000, 110_000, 110_000, 110_000);
+
+    assertTrue(detector.detect(List.of(history), Set.of("A")).isEmpty());
+  }
+
+  @Test
+  void ignoresGrowthBelowMinDelta() {
+    // Рост в 5 раз, но всего на 400 нс при минимальном приросте 1000 нс
+    TestHistory history = history("A", 100, 100, 100, 500, 500, 500);
+
+    assertTrue(detector.detect(List.of(history), Set.of("A")).isEmpty());
+  }
+
+  @Test
+  void requiresMinBaselineRuns() {
+    TestHistory history = history("A", 100_000, 100_000, 900_000, 900_000, 900_000);
+
+    assertTrue(detector.detect(List.of(history), Set.of("A")).isEmpty());
+  }
+
+  @Test
+  void checksOnlyTestsOfCurrentRunAndSortsByMedianGrowth() {
+    TestHistory slower = history("A", 100_000, 100_000, 100_000, 300_000, 300_000, 300_000);
+    TestHistory slow = history("B", 100_000, 100_000, 100_000, 150_000, 150_000, 150_000);
+    TestHistory absent = history("C", 100_000, 100_000, 100_000, 900_000, 900_000, 900_000);
+
+    List<Regression> regressions = detector.detect(List.of(slow, absent, slower), Set.of("A", "B"));
+
+    assertEquals(2, regressions.size());
+    assertEquals("A", regressions.get(0).getKey());
+    assertEquals("B", regressions.get(1).getKey());
+  }
+
+  private static TestHistory history(String key, long... durationsNanos) {
+    TestHistory history = new TestHistory(key, key + "()", "Sample");
+    for (int i = 0; i < durationsNanos.length; i++) {
+      history.addSample(i + 1, durationsNanos[i], 100);
+    }
+    return history;
+  }
+}
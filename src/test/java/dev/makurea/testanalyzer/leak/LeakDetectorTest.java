@@ -0,0 +1,119 @@
+package dev.makurea.testanalyzer.leak;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.Test;
+
+/*
+ * Проверка `LeakDetector`: подсчет классов, выполнявшихся одновременно с каждым классом, без учета
+ * внешних и вложенных классов одного семейства, и потоки, оставшиеся после класса.
+ */
+class LeakDetectorTest {
+
+  @Test
+  void sequentialClassesDoNotOverlap() throws InterruptedException {
+    LeakDetector detector = new LeakDetector();
+    LeakDetector.Window a = start(detector);
+    finish(detector, "A", a);
+    LeakDetector.Window b = start(detector);
+    finish(detector, "B", b);
+
+    Map<String, Integer> overlaps = overlaps(detector.analyze());
+
+    assertEquals(Map.of("A", 0, "B", 0), overlaps);
+  }
+
+  @Test
+  void countsClassesRunningAtTheSameTime() throws InterruptedException {
+    LeakDetector detector = new LeakDetector();
+    // A: |-----------|
+    // B:   |---|
+    // C:         |-----|
+    LeakDetector.Window a = start(detector);
+    LeakDetector.Window b = start(detector);
+    finish(detector, "B", b);
+    LeakDetector.Window c = start(detector);
+    finish(detector, "A", a);
+    finish(detector, "C", c);
+
+    Map<String, Integer> overlaps = overlaps(detector.analyze());
+
+    assertEquals(Map.of("A", 2, "B", 1, "C", 1), overlaps);
+  }
+
+  @Test
+  void ignoresEnclosingAndNestedClasses() throws InterruptedException {
+    LeakDetector detector = new LeakDetector();
+    // Outer:        |---------------|
+    // P:               |---------|
+    // Outer$Inner:        |---|
+    LeakDetector.Window outer = start(detector);
+    LeakDetector.Window parallel = start(detector);
+    LeakDetector.Window inner = start(detector);
+    finish(detector, "Outer$Inner", inner);
+    finish(detector, "P", parallel);
+    finish(detector, "Outer", outer);
+
+    Map<String, Integer> overlaps = overlaps(detector.analyze());
+
+    assertEquals(Map.of("Outer", 1, "Outer$Inner", 1, "P", 2), overlaps);
+  }
+
+  @Test
+  void reportsThreadsLeftByClass() throws InterruptedException {
+    LeakDetector detector = new LeakDetector();
+    CountDownLatch release = new CountDownLatch(1);
+    LeakDetector.Window window = start(detector);
+    Thread thread = new Thread(() -> {
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }, "leaky-worker");
+    thread.start();
+    finish(detector, "Leaky", window);
+    try {
+      ClassLeak leak = detector.analyze().getClasses().stream()
+          .filter(candidate -> candidate.getClassName().equals("Leaky"))
+          .findFirst().orElseThrow();
+      assertTrue(leak.isSuspect());
+      assertTrue(leak.getLeakedThreads().contains("leaky-worker"), leak.getLeakedThreads().toString());
+    } finally {
+      release.countDown();
+      thread.join();
+    }
+
+    detector.reset();
+    assertTrue(detector.isEmpty());
+    assertTrue(detector.analyze().getClasses().isEmpty());
+  }
+
+  private static LeakDetector.Window start(LeakDetector detector) throws InterruptedException {
+    LeakDetector.Window window = detector.classStarted();
+    tick();
+    return window;
+  }
+
+  private static void finish(LeakDetector detector, String className, LeakDetector.Window window) throws InterruptedException {
+    detector.classFinished(className, window);
+    tick();
+  }
+
+  // Границы классов должны различаться по времени замера
+  private static void tick() throws InterruptedException {
+    Thread.sleep(2);
+  }
+
+  private static Map<String, Integer> overlaps(LeakReport report) {
+    Map<String, Integer> overlaps = new HashMap<>();
+    for (ClassLeak leak : report.getClasses()) {
+      overlaps.put(leak.getClassName(), leak.getOverlappingClasses());
+    }
+    return overlaps;
+  }
+}
@@ -0,0 +1,72 @@
+package dev.makurea.testanalyzer.log;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+/*
+ * Проверка `AsyncConsoleLogSink`: каждая строка выводится ровно один раз, даже если она выдана
+ * одновременно с закрытием, а `flush()` во время закрытия не зависает.
+ */
+class AsyncConsoleLogSinkTest {
+
+  private static final int THREADS = 16;
+  private static final int PER_THREAD = 2_000;
+
+  @Test
+  void printsEveryLineIssuedConcurrentlyWithClose() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    PrintStream out = new PrintStream(bytes, false, StandardCharsets.UTF_8);
+    // Маленький буфер, чтобы вызовы блокировались во время закрытия
+    AsyncConsoleLogSink sink = new AsyncConsoleLogSink(out, 4);
+    CountDownLatch start = new CountDownLatch(1);
+    AtomicLong issued = new AtomicLong();
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    List<Future<?>> futures = new ArrayList<>();
+    try {
+      for (int t = 0; t < THREADS; t++) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          for (int i = 0; i < PER_THREAD; i++) {
+            sink.phaseFinished("test" + i + "()", "TestMethod", 1_000L);
+            if (i % 500 == 0) {
+              sink.flush();
+            }
+            issued.incrementAndGet();
+          }
+          return null;
+        }));
+      }
+      start.countDown();
+      while (issued.get() < THREADS * PER_THREAD / 2) {
+        Thread.onSpinWait();
+      }
+      sink.close();
+      assertTimeoutPreemptively(Duration.ofSeconds(60), () -> {
+        for (Future<?> future : futures) {
+          future.get();
+        }
+      });
+    } finally {
+      executor.shutdownNow();
+      executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+    out.flush();
+
+    String text = bytes.toString(StandardCharsets.UTF_8);
+    assertEquals(THREADS * PER_THREAD, text.lines().count());
+  }
+}
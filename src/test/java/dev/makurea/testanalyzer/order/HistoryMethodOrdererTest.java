@@ -0,0 +1,50 @@
+package dev.makurea.testanalyzer.order;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectMethod;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+
+/*
+ * Проверка `HistoryMethodOrderer.signature`: ключ поиска в индексе совпадает с сигнатурой из уникального
+ * идентификатора, который JUnit строит для метода с параметрами-массивами и примитивами, в том числе
+ * после снятия экранирования `%5B`.
+ */
+class HistoryMethodOrdererTest {
+
+  static Stream<Arguments> arrays() {
+    return Stream.of(Arguments.of(new String[] {"a"}, new int[][] {{1}}, 1L));
+  }
+
+  @ParameterizedTest
+  @MethodSource("arrays")
+  void signatureMatchesJUnitUniqueId(String[] names, int[][] counts, long total) throws Exception {
+    Method method = getClass().getDeclaredMethod("signatureMatchesJUnitUniqueId", String[].class, int[][].class, long.class);
+    TestPlan plan = LauncherFactory.create().discover(LauncherDiscoveryRequestBuilder.request()
+        .selectors(selectMethod(getClass(), method))
+        .build());
+    List<String> ids = plan.getRoots().stream()
+        .flatMap(root -> plan.getDescendants(root).stream())
+        .map(TestIdentifier::getUniqueId)
+        .filter(id -> id.contains("signatureMatchesJUnitUniqueId"))
+        .collect(Collectors.toList());
+    assertEquals(1, ids.size(), ids::toString);
+
+    String signature = HistoryMethodOrderer.signature(method);
+    assertEquals("signatureMatchesJUnitUniqueId([Ljava.lang.String;, [[I, long)", signature);
+    assertEquals(OrderIndex.methodSignature(ids.get(0)), signature);
+    // JUnit экранирует `[` в строковой форме идентификатора, поэтому ключ сравнивается после разбора
+    assertTrue(ids.get(0).contains("%5BLjava.lang.String;"), ids.get(0));
+  }
+}
@@ -0,0 +1,106 @@
+package dev.makurea.testanalyzer.query;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/*
+ * Проверка `Condition`: разбор оператора (`>=` раньше `=` и `>`), сравнение чисел с суффиксами KB/MB/GB,
+ * строк, массивов, регулярных выражений и отсутствующих полей.
+ */
+class ConditionTest {
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  @Test
+  void prefersTwoCharacterOperators() {
+    Condition atLeast = Condition.parse("durationMs>=1000");
+    assertTrue(atLeast.matches(row("durationMs", 1000)));
+    assertTrue(atLeast.matches(row("durationMs", 1001)));
+    assertFalse(atLeast.matches(row("durationMs", 999)));
+
+    Condition atMost = Condition.parse("durationMs <= 10");
+    assertTrue(atMost.matches(row("durationMs", 10)));
+    assertFalse(atMost.matches(row("durationMs", 11)));
+
+    Condition notEqual = Condition.parse("status!=PASSED");
+    assertTrue(notEqual.matches(row("status", "FAILED")));
+    assertFalse(notEqual.matches(row("status", "PASSED")));
+  }
+
+  @Test
+  void splitsAtFirstOperatorSoValueMayContainOperators() {
+    Condition condition = Condition.parse("displayName=a>=b");
+    assertTrue(condition.matches(row("displayName", "a>=b")));
+    assertFalse(condition.matches(row("displayName", "a")));
+  }
+
+  @Test
+  void rejectsExpressionWithoutOperatorOrField() {
+    assertThrows(IllegalArgumentException.class, () -> Condition.parse("durationMs"));
+    assertThrows(IllegalArgumentException.class, () -> Condition.parse(">=5"));
+  }
+
+  @Test
+  void appliesSizeSuffixes() {
+    Condition megabyte = Condition.parse("memoryDelta>1MB");
+    assertTrue(megabyte.matches(memoryRow(1024 * 1024 + 1)));
+    assertFalse(megabyte.matches(memoryRow(1024 * 1024)));
+
+    Condition kilobytes = Condition.parse("memoryDelta>=1.5kb");
+    assertTrue(kilobytes.matches(memoryRow(1536)));
+    assertFalse(kilobytes.matches(memoryRow(1535)));
+
+    assertTrue(Condition.parse("memoryDelta=2GB").matches(memoryRow(2L * 1024 * 1024 * 1024)));
+    // Текстовое значение с суффиксом тоже сравнивается как число
+    assertTrue(Condition.parse("metrics.heap=2KB").matches(ResultRow.of(
+        mapper.valueToTree(Map.of("metrics", Map.of("heap", "2048"))))));
+  }
+
+  @Test
+  void comparesNumbersNumericallyAndTextLexicographically() {
+    assertTrue(Condition.parse("durationMs>9").matches(row("durationMs", 10)));
+    assertTrue(Condition.parse("className<b").matches(row("className", "a.Test")));
+    assertFalse(Condition.parse("className<b").matches(row("className", "c.Test")));
+  }
+
+  @Test
+  void matchesArraysByAnyElement() {
+    ObjectNode tagged = mapper.createObjectNode();
+    tagged.putArray("tags").add("fast").add("integration");
+    ResultRow row = ResultRow.of(tagged);
+
+    assertTrue(Condition.parse("tags=integration").matches(row));
+    assertFalse(Condition.parse("tags=slow").matches(row));
+    assertFalse(Condition.parse("tags!=integration").matches(row));
+    assertTrue(Condition.parse("tags!=slow").matches(row));
+    assertTrue(Condition.parse("tags~^int").matches(row));
+  }
+
+  @Test
+  void treatsMissingFieldsAsNotEqual() {
+    ResultRow row = row("status", "PASSED");
+    assertFalse(Condition.parse("metrics.pool=primary").matches(row));
+    assertTrue(Condition.parse("metrics.pool!=primary").matches(row));
+    assertFalse(Condition.parse("metrics.pool~.*").matches(row));
+  }
+
+  @Test
+  void regexFindsSubstring() {
+    assertTrue(Condition.parse("className~IT$").matches(row("className", "com.example.ServiceIT")));
+    assertFalse(Condition.parse("className~IT$").matches(row("className", "com.example.ITService")));
+  }
+
+  private ResultRow memoryRow(long delta) {
+    return ResultRow.of(mapper.valueToTree(Map.of("memoryBefore", 1_000L, "memoryAfter", 1_000L + delta)));
+  }
+
+  private ResultRow row(String field, Object value) {
+    return ResultRow.of(mapper.valueToTree(Map.of(field, value)));
+  }
+}
@@ -0,0 +1,150 @@
+package dev.makurea.testanalyzer.query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.makurea.testanalyzer.core.TestResult;
+import dev.makurea.testanalyzer.report.BinaryResultWriter;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/*
+ * Проверка `QueryExecutor`: запросы к JSON и к бинарному файлу тех же результатов отбирают одинаковые строки,
+ * в том числе по полям `metrics.*`, строки бинарного файла выводятся вместе с метриками, а `--top`
+ * с сортировкой, собранный из куч нескольких потоков, совпадает с точным результатом.
+ */
+class QueryExecutorTest {
+
+  private static final int ROWS = 5_000;
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  @TempDir
+  File dir;
+
+  @Test
+  void metricConditionsMatchInJsonAndBinary() throws Exception {
+    List<TestResult> results = results();
+    File json = new File(dir, "results.json");
+    File bin = new File(dir, "results.bin");
+    mapper.writeValue(json, results);
+    new BinaryResultWriter().write(bin, results);
+
+    String[] args = {"--where", "metrics.openFileDescriptors>=90", "--sort", "durationMs", "--top", "25",
+        "--threads", "4", dir.getPath()};
+    List<JsonNode> fromJson = rows(args, json);
+    List<JsonNode> fromBinary = rows(args, bin);
+
+    assertEquals(25, fromJson.size());
+    assertEquals(fromJson, fromBinary);
+    for (JsonNode row : fromBinary) {
+      assertTrue(row.path("metrics").path("openFileDescriptors").asLong() >= 90, row.toString());
+    }
+  }
+
+  @Test
+  void groupsByMetricInBinary() throws Exception {
+    File bin = new File(dir, "results.bin");
+    new BinaryResultWriter().write(bin, results());
+
+    ResultQuery query = ResultQuery.parse(new String[] {"--group-by", "metrics.pool", "--threads", "4", dir.getPath()});
+    QueryExecutor.Partial result = new QueryExecutor(query).execute(List.of(bin), null);
+
+    assertEquals(ROWS / 2, result.groups.get("primary").count);
+    assertEquals(ROWS / 2, result.groups.get("replica").count);
+  }
+
+  @Test
+  void prefersBinaryWithMetricsOverJson() throws Exception {
+    List<TestResult> results = results();
+    mapper.writeValue(new File(dir, "test-analyzer-results.json"), results);
+    new BinaryResultWriter().write(new File(dir, "test-analyzer-results.bin"), results);
+
+    assertEquals(List.of(new File(dir, "test-analyzer-results.bin")), ResultQuery.findFiles(List.of(dir.getPath())));
+  }
+
+  @Test
+  void mergesTopRowsAcrossThreads() throws Exception {
+    List<TestResult> results = results();
+    // Четыре файла JSON и бинарный файл из нескольких диапазонов — по единице работы на поток
+    List<File> jsonFiles = new ArrayList<>();
+    for (int part = 0; part < 4; part++) {
+      File json = new File(dir, "results-" + part + ".json");
+      mapper.writeValue(json, results.subList(part * ROWS / 4, (part + 1) * ROWS / 4));
+      jsonFiles.add(json);
+    }
+    List<TestResult> many = new ArrayList<>();
+    for (int copy = 0; copy < 4; copy++) {
+      many.addAll(results);
+    }
+    File bin = new File(dir, "results.bin");
+    new BinaryResultWriter().write(bin, many);
+
+    for (String direction : new String[] {"desc", "asc"}) {
+      String[] args = {"--sort", "durationMs:" + direction, "--top", "20", "--threads", "4", dir.getPath()};
+      Comparator<TestResult> order = Comparator.comparingLong(TestResult::getDurationMs);
+      List<String> expected = results.stream()
+          .sorted("desc".equals(direction) ? order.reversed() : order)
+          .limit(20)
+          .map(TestResult::getTestName)
+          .collect(Collectors.toList());
+
+      assertEquals(expected, testNames(rows(args, jsonFiles)), direction);
+      assertEquals(expected, testNames(rows(new String[] {"--sort", "durationMs:" + direction, "--top", "20",
+          "--threads", "1", dir.getPath()}, jsonFiles)), direction);
+
+      // В бинарном файле каждая длительность встречается 4 раза
+      List<Long> durations = new ArrayList<>();
+      for (JsonNode row : rows(args, List.of(bin))) {
+        durations.add(row.path("durationMs").asLong());
+      }
+      List<Long> expectedDurations = many.stream()
+          .map(TestResult::getDurationMs)
+          .sorted("desc".equals(direction) ? Comparator.reverseOrder() : Comparator.naturalOrder())
+          .limit(20)
+          .collect(Collectors.toList());
+      assertEquals(expectedDurations, durations, direction);
+    }
+  }
+
+  private static List<String> testNames(List<JsonNode> rows) {
+    return rows.stream().map(row -> row.path("testName").asText()).collect(Collectors.toList());
+  }
+
+  private List<JsonNode> rows(String[] args, File file) throws Exception {
+    return rows(args, List.of(file));
+  }
+
+  private List<JsonNode> rows(String[] args, List<File> files) throws Exception {
+    ResultQuery query = ResultQuery.parse(args);
+    List<JsonNode> rows = new ArrayList<>();
+    for (JsonNode row : new QueryExecutor(query).execute(files, null).sortedRows()) {
+      // Через текст, чтобы int и long с одинаковым значением считались равными
+      rows.add(mapper.readTree(mapper.writeValueAsString(row)));
+    }
+    return rows;
+  }
+
+  private static List<TestResult> results() {
+    List<TestResult> results = new ArrayList<>();
+    for (int i = 0; i < ROWS; i++) {
+      results.add(TestResult.builder()
+          .testName("test" + i + "()")
+          .className("com.example.Test" + (i % 7))
+          .phase("TestMethod")
+          .status("PASSED")
+          .durationNanos((i * 7919L % ROWS) * 1_000_000L)
+          .metric("openFileDescriptors", i % 100)
+          .metric("pool", i % 2 == 0 ? "primary" : "replica")
+          .build());
+    }
+    return results;
+  }
+}
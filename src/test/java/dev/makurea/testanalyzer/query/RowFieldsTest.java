@@ -0,0 +1,82 @@
+package dev.makurea.testanalyzer.query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.makurea.testanalyzer.core.TestResult;
+import dev.makurea.testanalyzer.report.BinaryResultReader;
+import dev.makurea.testanalyzer.report.BinaryResultWriter;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/*
+ * Проверка `RowFields`: значения полей, прочитанные из курсора бинарного файла, совпадают
+ * со значениями JSON-представления того же результата, поэтому запросы к JSON и бинарному файлу
+ * отбирают одни и те же строки.
+ */
+class RowFieldsTest {
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  @TempDir
+  File dir;
+
+  @Test
+  void cursorFieldsMatchJsonFields() throws Exception {
+    List<TestResult> results = List.of(
+        TestResult.builder()
+            .testName("full()").testId("[engine:junit-jupiter]/[method:full()]").className("com.example.FullTest")
+            .phase("TestMethod").status("FAILED").retryCount(2).tags(List.of("slow", "db")).isNegative(true)
+            .durationNanos(1_234_567_890L).memoryBefore(1_000).memoryAfter(64 * 1024 * 1024)
+            .allocatedBytes(4096).gcCount(3).gcTimeMs(12).cpuTimeNanos(900_000).userTimeNanos(800_000)
+            .blockedCount(5).blockedTimeMs(7).waitedCount(8).waitedTimeMs(9)
+            .liveThreadsBefore(10).liveThreadsAfter(11).profileFile("profile.collapsed")
+            .interval(100, 200).threadName("worker-1")
+            .metric("openFileDescriptors", 42).metric("hitRatio", 0.75).metric("pool", "primary")
+            .metric("warm", true).metric("db", Map.of("reads", 3)).metric("db.queries", 5)
+            .build(),
+        TestResult.builder().testName("empty()").phase("BeforeEach").build());
+    File file = new File(dir, "results.bin");
+    new BinaryResultWriter().write(file, results);
+
+    try (BinaryResultReader binary = BinaryResultReader.open(file.toPath())) {
+      BinaryResultReader.Cursor cursor = binary.cursor();
+      for (TestResult result : results) {
+        cursor.next();
+        JsonNode json = mapper.valueToTree(result);
+        List<String> fields = new ArrayList<>();
+        for (Iterator<String> names = json.fieldNames(); names.hasNext(); ) {
+          fields.add(names.next());
+        }
+        fields.add(RowFields.MEMORY_DELTA);
+        fields.add("profileFile");
+        fields.add("threadName");
+        fields.add("metrics.openFileDescriptors");
+        fields.add("metrics.hitRatio");
+        fields.add("metrics.pool");
+        fields.add("metrics.warm");
+        fields.add("metrics.db");
+        fields.add("metrics.db.reads");
+        fields.add("metrics.db.queries");
+        fields.add("metrics.absent");
+        fields.add("unknown");
+        assertEquals(!result.getMetrics().isEmpty(), !RowFields.value(cursor, "metrics.openFileDescriptors").isMissingNode());
+        for (String field : fields) {
+          assertEquals(normalize(RowFields.value(json, field)), normalize(RowFields.value(cursor, field)),
+              result.getTestName() + " " + field);
+        }
+      }
+    }
+  }
+
+  // Отсутствующее поле и null условия и сортировка обрабатывают одинаково
+  private static String normalize(JsonNode value) {
+    return value.isMissingNode() || value.isNull() ? "<none>" : value.toString();
+  }
+}
@@ -0,0 +1,111 @@
+package dev.makurea.testanalyzer.report;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.makurea.testanalyzer.core.TestResult;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/*
+ * Проверка бинарного формата: результаты, записанные `BinaryResultWriter`, читаются `BinaryResultReader`
+ * и преобразуются `BinaryResultConverter` в тот же JSON, что и при сериализации `TestResult`,
+ * включая карту `metrics` со значениями всех типов.
+ */
+class BinaryResultWriterTest {
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  @TempDir
+  File dir;
+
+  @Test
+  void roundTripKeepsEveryField() throws Exception {
+    List<TestResult> results = results();
+    File file = new File(dir, "results.bin");
+    new BinaryResultWriter().write(file, results);
+
+    try (BinaryResultReader reader = BinaryResultReader.open(file.toPath())) {
+      assertEquals(results.size(), reader.size());
+      BinaryResultReader.Cursor cursor = reader.cursor();
+      for (TestResult result : results) {
+        assertTrue(cursor.next());
+        assertEquals(json(result), json(cursor.toTestResult()));
+      }
+    }
+  }
+
+  @Test
+  void converterWritesTheSameJsonAsTestResult() throws Exception {
+    List<TestResult> results = results();
+    File bin = new File(dir, "results.bin");
+    File json = new File(dir, "results.json");
+    new BinaryResultWriter().write(bin, results);
+
+    assertEquals(results.size(), BinaryResultConverter.convert(bin, json, ReportFormat.JSON, false));
+    assertEquals(mapper.readTree(mapper.writeValueAsString(results)), mapper.readTree(json));
+  }
+
+  @Test
+  void metricLookupReadsSingleValues() throws Exception {
+    File file = new File(dir, "results.bin");
+    new BinaryResultWriter().write(file, results());
+
+    try (BinaryResultReader reader = BinaryResultReader.open(file.toPath())) {
+      BinaryResultReader.Cursor cursor = reader.cursor().moveTo(0);
+      assertEquals(42L, cursor.metric("openFileDescriptors"));
+      assertEquals("primary", cursor.metric("db.pool"));
+      assertNull(cursor.metric("absent"));
+      assertTrue(reader.cursor().moveTo(1).metrics().isEmpty());
+    }
+  }
+
+  @Test
+  void writesEmptyFile() throws Exception {
+    File file = new File(dir, "results.bin");
+    new BinaryResultWriter().write(file, List.of());
+
+    try (BinaryResultReader reader = BinaryResultReader.open(file.toPath())) {
+      assertEquals(0, reader.size());
+    }
+  }
+
+  private JsonNode json(TestResult result) throws Exception {
+    // Через текст, чтобы int и long с одинаковым значением считались равными
+    return mapper.readTree(mapper.writeValueAsString(result));
+  }
+
+  private static List<TestResult> results() {
+    Map<String, Object> nested = new LinkedHashMap<>();
+    nested.put("reads", 3);
+    nested.put("tables", List.of("users", "orders"));
+    List<TestResult> results = new ArrayList<>();
+    results.add(TestResult.builder()
+        .testName("full()").testId("[engine:junit-jupiter]/[method:full()]").className("com.example.FullTest")
+        .phase("TestMethod").status("FAILED").retryCount(1).tags(List.of("slow", "db")).isNegative(true)
+        .durationNanos(1_234_567_890L).memoryBefore(1_000).memoryAfter(2_000).allocatedBytes(4096)
+        .gcCount(3).gcTimeMs(12).cpuTimeNanos(900_000).userTimeNanos(800_000)
+        .blockedCount(5).blockedTimeMs(7).waitedCount(8).waitedTimeMs(9)
+        .liveThreadsBefore(10).liveThreadsAfter(11).profileFile("profiles/full.collapsed")
+        .interval(100, 200).threadName("worker-1")
+        .metric("openFileDescriptors", 42L)
+        .metric("hitRatio", 0.75)
+        .metric("db.pool", "primary")
+        .metric("warm", true)
+        .metric("missing", null)
+        .metric("db", nested)
+        .build());
+    results.add(TestResult.builder().testName("empty()").phase("BeforeEach").build());
+    results.add(TestResult.builder().testName("other()").phase("TestMethod").tags(List.of("db"))
+        .metric("openFileDescriptors", 7).metric("warm", false).build());
+    return results;
+  }
+}
@@ -0,0 +1,76 @@
+package dev.makurea.testanalyzer.report;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.makurea.testanalyzer.core.TestResult;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/*
+ * Проверка `ReportGenerator.renderTemplate` и страниц отчёта: подстановки выполняются за один проход,
+ * неизвестные остаются как есть, а общие разделы (`templates/partials`) попадают во все страницы
+ * с именами файлов процесса.
+ */
+class ReportGeneratorTest {
+
+  private static final Pattern PLACEHOLDER = Pattern.compile("\\{\\{[A-Z_]+\\}\\}");
+
+  @TempDir
+  File dir;
+
+  @Test
+  void substitutesKnownPlaceholders() {
+    Map<String, String> values = Map.of("A", "1", "B", "two");
+
+    assertEquals("x1y two1", ReportGenerator.renderTemplate("x{{A}}y {{B}}{{A}}", values));
+    assertEquals("", ReportGenerator.renderTemplate("", values));
+    assertEquals("no placeholders", ReportGenerator.renderTemplate("no placeholders", values));
+  }
+
+  @Test
+  void keepsUnknownAndUnclosedPlaceholders() {
+    Map<String, String> values = Map.of("A", "1");
+
+    assertEquals("{{C}} 1", ReportGenerator.renderTemplate("{{C}} {{A}}", values));
+    assertEquals("1 {{A", ReportGenerator.renderTemplate("{{A}} {{A", values));
+    assertEquals("{ 1 }", ReportGenerator.renderTemplate("{ {{A}} }", values));
+  }
+
+  @Test
+  void doesNotRenderSubstitutedValuesAgain() {
+    Map<String, String> values = Map.of("A", "{{B}}", "B", "2");
+
+    assertEquals("{{B}} 2", ReportGenerator.renderTemplate("{{A}} {{B}}", values));
+  }
+
+  @Test
+  void everyPageIncludesSharedSectionsWithForkFileNames() throws IOException {
+    List<TestResult> results = List.of(TestResult.builder()
+        .testName("test()").className("com.example.Test").phase("TestMethod").status("PASSED").durationMs(5).build());
+
+    new ReportGenerator(new File(dir, "single"), "w7", ReportFormat.JSON, false, ReportLayout.SINGLE, 100)
+        .generateReport(results);
+    new ReportGenerator(new File(dir, "sharded"), "w7", ReportFormat.JSON, false, ReportLayout.SHARDED, 100)
+        .generateReport(results);
+    new ReportGenerator(new File(dir, "summary"), "w7", ReportFormat.JSON, false, ReportLayout.SINGLE, 100)
+        .generateSummaryReport();
+
+    for (String page : new String[] {"single", "sharded", "summary"}) {
+      String html = Files.readString(new File(dir, page + "/test-analyzer-report-w7.html").toPath());
+      assertTrue(html.contains("Раздел «Параллельное выполнение»"), page);
+      assertTrue(html.contains("Раздел «Утечки ресурсов»"), page);
+      // Имена файлов подставлены и внутри разделов
+      assertTrue(html.contains("fetch(\"test-analyzer-schedule-w7.json\")"), page);
+      assertTrue(html.contains("fetch(\"test-analyzer-leaks-w7.json\")"), page);
+      assertFalse(PLACEHOLDER.matcher(html).find(), page);
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package dev.makurea.testanalyzer.report;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.makurea.testanalyzer.core.TestResult;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/*
+ * Проверка `ShardedReportWriter`: каждый отчёт пишет фрагменты в новое поколение, индекс ссылается
+ * только на существующие фрагменты, а прошлые поколения и фрагменты старой раскладки удаляются.
+ */
+class ShardedReportWriterTest {
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  @TempDir
+  File dir;
+
+  @Test
+  void writesEachReportToNewGenerationAndDeletesOldOnes() throws IOException {
+    // Фрагмент раскладки без поколений
+    File legacy = new File(dir, "test-analyzer-shards/rows-00000.json");
+    assertTrue(legacy.getParentFile().mkdirs());
+    assertTrue(legacy.createNewFile());
+    ShardedReportWriter writer = new ShardedReportWriter(10);
+
+    writer.write(dir, results(25));
+    List<String> first = shards();
+    assertEquals(3, first.size());
+    assertTrue(first.get(0).startsWith("test-analyzer-shards/gen-000001/"), first.get(0));
+    assertFalse(legacy.exists());
+
+    writer.write(dir, results(15));
+    List<String> second = shards();
+    assertEquals(2, second.size());
+    assertTrue(second.get(0).startsWith("test-analyzer-shards/gen-000002/"), second.get(0));
+    for (String shard : second) {
+      assertTrue(new File(dir, shard).isFile(), shard);
+    }
+    assertFalse(new File(dir, "test-analyzer-shards/gen-000001").exists());
+    assertEquals(List.of("gen-000002"), List.of(new File(dir, "test-analyzer-shards").list()));
+
+    long rows = 0;
+    for (String shard : second) {
+      rows += mapper.readTree(new File(dir, shard)).size();
+    }
+    assertEquals(15, rows);
+  }
+
+  private List<String> shards() throws IOException {
+    JsonNode index = mapper.readTree(new File(dir, ShardedReportWriter.INDEX_FILENAME));
+    List<String> shards = new ArrayList<>();
+    index.path("shards").forEach(shard -> shards.add(shard.asText()));
+    return shards;
+  }
+
+  private static List<TestResult> results(int count) {
+    List<TestResult> results = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      results.add(TestResult.builder()
+          .testId("[class:Sample]/[method:test" + i + "()]")
+          .testName("test" + i + "()")
+          .className("com.example.Sample")
+          .phase("TestMethod")
+          .status("PASSED")
+          .durationMs(i)
+          .build());
+    }
+    return results;
+  }
+}
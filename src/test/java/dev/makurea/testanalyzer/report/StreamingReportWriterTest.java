@@ -0,0 +1,117 @@
+package dev.makurea.testanalyzer.report;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.makurea.testanalyzer.core.TestPhase;
+import dev.makurea.testanalyzer.core.TestResult;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/*
+ * Проверка `StreamingReportWriter`: результаты, добавленные до закрытия, в том числе одновременно
+ * с ним, попадают в файл, а добавленные после закрытия отклоняются и подсчитываются.
+ */
+class StreamingReportWriterTest {
+
+  private static final int THREADS = 16;
+  private static final int PER_THREAD = 2_000;
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void writesEveryResultAppendedConcurrentlyWithClose() throws Exception {
+    File file = dir.resolve("results.ndjson").toFile();
+    // Маленькая очередь, чтобы добавления блокировались во время закрытия
+    StreamingReportWriter writer = new StreamingReportWriter(file, ReportFormat.NDJSON, false, 4);
+    CountDownLatch start = new CountDownLatch(1);
+    AtomicLong appended = new AtomicLong();
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    List<Future<?>> futures = new ArrayList<>();
+    long appendedBeforeClose;
+    try {
+      for (int t = 0; t < THREADS; t++) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          for (int i = 0; i < PER_THREAD; i++) {
+            writer.append(result("test" + i + "()"));
+            appended.incrementAndGet();
+          }
+          return null;
+        }));
+      }
+      start.countDown();
+      while (appended.get() < THREADS * PER_THREAD / 2) {
+        Thread.onSpinWait();
+      }
+      appendedBeforeClose = appended.get();
+      writer.close();
+      for (Future<?> future : futures) {
+        future.get(60, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // Добавления, завершившиеся до закрытия, записаны; добавления во время закрытия не зависли
+    long lines = countLines(file);
+    assertTrue(lines >= appendedBeforeClose, lines + " < " + appendedBeforeClose);
+    assertTrue(lines <= THREADS * PER_THREAD);
+
+    writer.append(result("late()"));
+    assertEquals(lines, countLines(file));
+    // Каждый результат либо записан, либо подсчитан как отклоненный
+    writer.close();
+    assertEquals(THREADS * PER_THREAD + 1, lines + writer.getRejectedCount());
+  }
+
+  @Test
+  void writesAllResultsAppendedBeforeClose() throws Exception {
+    File file = dir.resolve("results.json").toFile();
+    StreamingReportWriter writer = new StreamingReportWriter(file, ReportFormat.JSON, false, 8);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < THREADS; t++) {
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < PER_THREAD; i++) {
+            writer.append(result("test" + i + "()"));
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(60, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    writer.close();
+
+    String json = Files.readString(file.toPath());
+    assertEquals(THREADS * PER_THREAD, json.split("\"testName\"", -1).length - 1);
+  }
+
+  private static long countLines(File file) throws IOException {
+    try (Stream<String> lines = Files.lines(file.toPath())) {
+      return lines.filter(line -> !line.isEmpty()).count();
+    }
+  }
+
+  private static TestResult result(String name) {
+    return TestResult.builder().testName(name).phase(TestPhase.TEST_METHOD).durationNanos(1).build();
+  }
+}
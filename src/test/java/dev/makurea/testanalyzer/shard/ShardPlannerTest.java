@@ -0,0 +1,118 @@
+package dev.makurea.testanalyzer.shard;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/*
+ * Проверка `ShardPlanner`: распределение LPT, детерминированный порядок при равных длительностях и загрузке,
+ * оценка классов без истории и распределение по хешу имени, когда истории нет.
+ */
+class ShardPlannerTest {
+
+  @Test
+  void assignsLongestClassesToLeastLoadedShard() {
+    ShardPlanner planner = new ShardPlanner(Map.of("A", 10L, "B", 9L, "C", 8L, "D", 7L, "E", 1L));
+
+    ShardPlan plan = planner.plan(List.of("E", "D", "C", "B", "A"), 2);
+
+    // A -> 1 (10), B -> 2 (9), C -> 2 (17), D -> 1 (17), E -> 1 при равной загрузке 17/17
+    assertEquals(List.of("A", "D", "E"), plan.getShards().get(0).getClasses());
+    assertEquals(List.of("B", "C"), plan.getShards().get(1).getClasses());
+    assertEquals(18, plan.getShards().get(0).getPredictedNanos());
+    assertEquals(17, plan.getShards().get(1).getPredictedNanos());
+    assertEquals(18, plan.getMakespanNanos());
+  }
+
+  @Test
+  void breaksTiesByClassNameAndShardIndex() {
+    ShardPlanner planner = new ShardPlanner(Map.of("W", 5L, "X", 5L, "Y", 5L, "Z", 5L));
+
+    ShardPlan plan = planner.plan(List.of("Z", "Y", "X", "W"), 2);
+
+    assertEquals(List.of("W", "Y"), plan.getShards().get(0).getClasses());
+    assertEquals(List.of("X", "Z"), plan.getShards().get(1).getClasses());
+  }
+
+  @Test
+  void countsNestedClassesInTheirTopLevelClass() {
+    ShardPlanner planner = new ShardPlanner(Map.of("Outer", 4L, "Outer$Inner", 6L, "Other", 9L));
+
+    ShardPlan plan = planner.plan(List.of("Outer", "Outer$Inner", "Other"), 2);
+
+    assertEquals(List.of("Outer"), plan.getShards().get(0).getClasses());
+    assertEquals(10, plan.getShards().get(0).getPredictedNanos());
+    assertEquals(1, plan.shardOf("Outer"));
+    assertEquals(0, plan.shardOf("Missing"));
+  }
+
+  @Test
+  void estimatesUnknownClassesWithMeanDuration() {
+    ShardPlanner planner = new ShardPlanner(Map.of("A", 10L, "B", 20L));
+
+    ShardPlan plan = planner.plan(List.of("A", "B", "C"), 2);
+
+    // C оценен средним 15: B -> 1 (20), C -> 2 (15), A -> 2 (25)
+    assertEquals(List.of("B"), plan.getShards().get(0).getClasses());
+    assertEquals(List.of("C", "A"), plan.getShards().get(1).getClasses());
+    assertEquals(1, plan.getShards().get(1).getEstimatedClasses());
+    assertEquals(25, plan.getShards().get(1).getPredictedNanos());
+  }
+
+  @Test
+  void splitsByClassNameHashWithoutHistory() {
+    ShardPlanner planner = new ShardPlanner(Map.of());
+    assertFalse(planner.hasHistory());
+    List<String> classes = new ArrayList<>();
+    for (int i = 0; i < 1_000; i++) {
+      classes.add("com.example.module" + (i % 10) + ".Feature" + i + "Test");
+    }
+
+    ShardPlan plan = planner.plan(classes, 4);
+    List<String> shuffled = new ArrayList<>(classes);
+    Collections.shuffle(shuffled, new Random(1));
+    ShardPlan reordered = planner.plan(shuffled, 4);
+    // Набор остальных классов не влияет на шард класса
+    ShardPlan subset = planner.plan(classes.subList(0, 100), 4);
+
+    int total = 0;
+    for (ShardPlan.Shard shard : plan.getShards()) {
+      total += shard.getClasses().size();
+      assertTrue(shard.getClasses().size() > 200 && shard.getClasses().size() < 300,
+          "shard " + shard.getIndex() + ": " + shard.getClasses().size());
+    }
+    assertEquals(classes.size(), total);
+    for (String className : classes) {
+      assertEquals(plan.shardOf(className), reordered.shardOf(className));
+    }
+    for (String className : classes.subList(0, 100)) {
+      assertEquals(plan.shardOf(className), subset.shardOf(className));
+    }
+  }
+
+  @Test
+  void usesHashSplitAlsoForSingleClassWithoutHistory() {
+    ShardPlan plan = new ShardPlanner(Map.of()).plan(List.of("com.example.OnlyTest"), 3);
+
+    int shard = plan.shardOf("com.example.OnlyTest");
+    assertTrue(shard >= 1 && shard <= 3);
+    assertEquals(Math.floorMod(ShardPlanner.hash("com.example.OnlyTest"), 3) + 1, shard);
+  }
+
+  @Test
+  void failsWhenSharedHistoryIsMissing(@TempDir File dir) throws IOException {
+    assertThrows(IOException.class, () -> ShardPlanner.loadDurations(new File(dir, "missing")));
+    assertTrue(ShardPlanner.loadDurations(dir).isEmpty());
+  }
+}
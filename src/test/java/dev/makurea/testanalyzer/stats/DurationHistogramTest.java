@@ -0,0 +1,138 @@
+package dev.makurea.testanalyzer.stats;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/*
+ * Проверка `DurationHistogram`: границы интервалов и корзин (63/64/127/128 нс, Long.MAX_VALUE),
+ * точность перцентилей в пределах 1/32 из описания класса и объединение гистограмм.
+ */
+class DurationHistogramTest {
+
+  private static final double MAX_RELATIVE_ERROR = 1.0 / 32;
+  private static final double[] QUANTILES = {0.0, 0.01, 0.25, 0.5, 0.9, 0.95, 0.99, 0.999, 1.0};
+
+  @Test
+  void mapsValuesToIntervalsAndSlots() {
+    assertEquals(0, DurationHistogram.interval(0));
+    assertEquals(0, DurationHistogram.interval(63));
+    assertEquals(1, DurationHistogram.interval(64));
+    assertEquals(1, DurationHistogram.interval(127));
+    assertEquals(2, DurationHistogram.interval(128));
+    assertEquals(57, DurationHistogram.interval(Long.MAX_VALUE));
+
+    assertEquals(63, DurationHistogram.slot(63, 0));
+    assertEquals(0, DurationHistogram.slot(64, 1));
+    assertEquals(0, DurationHistogram.slot(65, 1));
+    assertEquals(31, DurationHistogram.slot(127, 1));
+    assertEquals(0, DurationHistogram.slot(128, 2));
+    assertEquals(31, DurationHistogram.slot(Long.MAX_VALUE, 57));
+  }
+
+  @Test
+  void middleLiesInsideBucket() {
+    assertEquals(63, DurationHistogram.middle(0, 63));
+    assertEquals(65, DurationHistogram.middle(1, 0));   // [64, 66)
+    assertEquals(127, DurationHistogram.middle(1, 31)); // [126, 128)
+    assertEquals(130, DurationHistogram.middle(2, 0));  // [128, 132)
+    // Последняя корзина [63 * 2^57, 2^63) — середина не переполняет long
+    assertEquals(0x7F00_0000_0000_0000L, DurationHistogram.middle(57, 31));
+  }
+
+  @Test
+  void valueAtAcrossBoundaries() {
+    long[] values = {0, 1, 63, 64, 65, 127, 128, 129, 1_000_000, Long.MAX_VALUE - 1, Long.MAX_VALUE};
+    for (long value : values) {
+      DurationHistogram histogram = new DurationHistogram();
+      histogram.record(value);
+      long estimate = histogram.valueAt(0.5);
+      if (value < 64) {
+        assertEquals(value, estimate);
+      } else {
+        assertWithinBound(value, estimate);
+        assertEquals(DurationHistogram.interval(value), DurationHistogram.interval(estimate), "value " + value);
+      }
+    }
+  }
+
+  @Test
+  void negativeValuesCountAsZeroAndEmptyHistogramReturnsZero() {
+    DurationHistogram histogram = new DurationHistogram();
+    assertEquals(0, histogram.valueAt(0.5));
+    histogram.record(-5);
+    assertEquals(0, histogram.valueAt(1.0));
+  }
+
+  @Test
+  void exactBelowLinearLimit() {
+    DurationHistogram histogram = new DurationHistogram();
+    for (long value = 0; value < 64; value++) {
+      histogram.record(value);
+    }
+    assertEquals(0, histogram.valueAt(0.0));
+    assertEquals(31, histogram.valueAt(0.5));
+    assertEquals(63, histogram.valueAt(1.0));
+  }
+
+  @Test
+  void percentilesStayWithinDocumentedError() {
+    Random random = new Random(42);
+    long[] values = new long[20_000];
+    DurationHistogram histogram = new DurationHistogram();
+    for (int i = 0; i < values.length; i++) {
+      // Равномерно по порядкам величины: от наносекунд до часов
+      values[i] = (long) Math.pow(10, random.nextDouble() * 13);
+      histogram.record(values[i]);
+    }
+    Arrays.sort(values);
+    for (double quantile : QUANTILES) {
+      assertWithinBound(nearestRank(values, quantile), histogram.valueAt(quantile));
+    }
+  }
+
+  @Test
+  void addMergesCounts() {
+    Random random = new Random(7);
+    DurationHistogram left = new DurationHistogram();
+    DurationHistogram right = new DurationHistogram();
+    DurationHistogram all = new DurationHistogram();
+    for (int i = 0; i < 5_000; i++) {
+      long value = random.nextInt(1_000_000);
+      (i % 3 == 0 ? left : right).record(value);
+      all.record(value);
+    }
+    // Интервалы, которых нет в одной из гистограмм
+    left.record(5);
+    all.record(5);
+    right.record(Long.MAX_VALUE);
+    all.record(Long.MAX_VALUE);
+
+    DurationHistogram merged = new DurationHistogram();
+    merged.add(left);
+    merged.add(right);
+    for (double quantile : QUANTILES) {
+      assertEquals(all.valueAt(quantile), merged.valueAt(quantile), "quantile " + quantile);
+    }
+
+    // Счетчики скопированы: запись в объединенную гистограмму не меняет исходную
+    long before = left.valueAt(0.5);
+    for (int i = 0; i < 10_000; i++) {
+      merged.record(5);
+    }
+    assertEquals(before, left.valueAt(0.5));
+  }
+
+  private static long nearestRank(long[] sorted, double quantile) {
+    int rank = (int) Math.max(1, Math.ceil(quantile * sorted.length));
+    return sorted[rank - 1];
+  }
+
+  private static void assertWithinBound(long expected, long estimate) {
+    double error = Math.abs((double) estimate - expected) / Math.max(1, expected);
+    assertTrue(error <= MAX_RELATIVE_ERROR, "value " + expected + ", estimate " + estimate + ", error " + error);
+  }
+}